@@ -23,39 +23,57 @@
  */
 package amuse.data;
 
-import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
-import java.util.StringTokenizer;
+import java.util.Arrays;
+import java.util.Map;
 
+import amuse.data.io.BinaryFeatureFile;
 import amuse.interfaces.nodes.NodeException;
 
 /**
- * Loads feature from an arff file
+ * Loads feature from an arff file. The data section is parsed directly from the bytes of the
+ * file into primitive arrays; only values which can not be converted exactly by the fast path
+ * of the parser (e.g. more than 18 significant digits, NaN) are converted via Double.parseDouble().
+ * Binary feature files (see BinaryFeatureFile) are detected by their header and loaded directly
  * 
  * @author Igor Vatolkin
  * @version $Id$
  */
 public class ArffFeatureLoader {
 	
+	/** Powers of ten which are exactly representable as double values */
+	private static final double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+	
+	/** Mantissas up to this value are exactly representable as double values */
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+	
 	public static Feature loadFeature(String featureFile, int id) throws NodeException {
-		ArrayList<Double[]> values;
-		ArrayList<Double> windows;
+		if(BinaryFeatureFile.isBinaryFile(new File(featureFile))) {
+			return loadBinaryFeature(featureFile, id);
+		}
+		double[] values;
+		double[] windows;
+		int numberOfWindows = 0;
 		int numberOfValues = 0;
 		int sourceFrameSize = -1;
 		int sourceStepSize = -1;
 		int sampleRate = -1;
 		String featureName = new String();
 		
-		FileReader featureInput = null;
+		ByteLineReader featureReader = null;
 		try {
-			featureInput = new FileReader(featureFile);
+			featureReader = new ByteLineReader(new FileInputStream(featureFile));
 		} catch(FileNotFoundException e) {
 			throw new NodeException("Could not open the feature file: " + e.getMessage());
 		}
-		BufferedReader featureReader = new BufferedReader(featureInput);
 		
 		boolean nameFound = false;
 		
@@ -64,19 +82,22 @@ public class ArffFeatureLoader {
 		int dimensionNumber = 0;
 		try {
 			String line = featureReader.readLine();
-			while(!line.toLowerCase().startsWith(new String("@data"))) {
-				if(line.toLowerCase().replaceAll("\\s+","").startsWith(new String("%columns="))) {
-					numberOfValues = new Integer(line.replaceAll("\\s+","").substring(9));
-				} else if (line.toLowerCase().replaceAll("\\s+","").startsWith(new String("%window_size="))) {
-					sourceFrameSize = new Integer(line.replaceAll("\\s+","").substring(13)); 
-				} else if(line.toLowerCase().replaceAll("\\s+","").startsWith(new String("%step_size="))) {
-					sourceStepSize = new Integer(line.replaceAll("\\s+","").substring(11));
-				} else if (line.toLowerCase().replaceAll("\\s+","").startsWith(new String("%sample_rate="))) {
-					sampleRate = new Integer(line.replaceAll("\\s+","").substring(13));
-				} else if(line.toLowerCase().startsWith(new String("@attribute"))) {
-					String lineTrimmed = line.replace("'", "");
+			while(line != null && !line.toLowerCase().startsWith("@data")) {
+				String lowerCaseLine = line.toLowerCase();
+				String compactLine = removeWhitespace(line);
+				String compactLowerCaseLine = compactLine.toLowerCase();
+				if(compactLowerCaseLine.startsWith("%columns=")) {
+					numberOfValues = Integer.parseInt(compactLine.substring(9));
+				} else if (compactLowerCaseLine.startsWith("%window_size=")) {
+					sourceFrameSize = Integer.parseInt(compactLine.substring(13)); 
+				} else if(compactLowerCaseLine.startsWith("%step_size=")) {
+					sourceStepSize = Integer.parseInt(compactLine.substring(11));
+				} else if (compactLowerCaseLine.startsWith("%sample_rate=")) {
+					sampleRate = Integer.parseInt(compactLine.substring(13));
+				} else if(lowerCaseLine.startsWith("@attribute")) {
+					String lineTrimmed = lowerCaseLine.replace("'", "");
 					lineTrimmed = lineTrimmed.replace("\"", "");
-					if(lineTrimmed.toLowerCase().startsWith(new String("@attribute windownumber"))) {
+					if(lineTrimmed.startsWith("@attribute windownumber")) {
 						windowNumberAttributeExisting = true;
 					}
 					if(!nameFound) {
@@ -94,52 +115,82 @@ public class ArffFeatureLoader {
 				
 				line = featureReader.readLine();
 			}
-			
-			// Initialize the array lists
-			values = new ArrayList<Double[]>(numberOfValues);
-			windows = new ArrayList<Double>(numberOfValues);
+			if(line == null) {
+				throw new NodeException("Could not find the data section in the feature file: " + featureFile);
+			}
 			
 			// Window number (the last attribute) does not count as feature dimension!
 			if(windowNumberAttributeExisting) {
 				dimensionNumber--;
 			}
 			
-			line = featureReader.readLine();
-			while(line != null) {
-				if(!line.equals("") && !line.startsWith("%")) {
+			// Initialize the arrays
+			windows = new double[Math.max(numberOfValues, 16)];
+			values = new double[windows.length * dimensionNumber];
+			
+			byte[] buffer;
+			int lineStart;
+			int lineEnd = featureReader.findLineEnd();
+			while(lineEnd != -1) {
+				buffer = featureReader.getBuffer();
+				lineStart = featureReader.getPosition();
+				if(lineStart != lineEnd && buffer[lineStart] != '%') {
+					if(numberOfWindows == windows.length) {
+						windows = Arrays.copyOf(windows, windows.length * 2);
+						values = Arrays.copyOf(values, windows.length * dimensionNumber);
+					}
 					
-					// Proceed the attributes
-					StringTokenizer t = new StringTokenizer(line,",");
-					Double[] valuesOfCurrentWindow = new Double[dimensionNumber];
-					for(int i=0;i<dimensionNumber;i++) {
-						String val = t.nextToken();
-						if(val.toUpperCase().equals("NAN")) {
-							val = "NaN";
+					// Proceed the attributes; empty tokens between two commas are skipped
+					int tokenStart = lineStart;
+					int valueIndex = numberOfWindows * dimensionNumber;
+					int attributesToRead = dimensionNumber + (windowNumberAttributeExisting ? 1 : 0);
+					for(int i=0;i<attributesToRead;i++) {
+						while(tokenStart < lineEnd && buffer[tokenStart] == ',') {
+							tokenStart++;
 						}
-						valuesOfCurrentWindow[i] = new Double(val);
+						if(tokenStart == lineEnd) {
+							throw new NodeException("Missing values in line " + featureReader.getLineNumber() + 
+									" of the feature file: " + featureFile);
+						}
+						int tokenEnd = tokenStart + 1;
+						while(tokenEnd < lineEnd && buffer[tokenEnd] != ',') {
+							tokenEnd++;
+						}
+						if(i < dimensionNumber) {
+							values[valueIndex + i] = parseValue(buffer, tokenStart, tokenEnd, true);
+						} else {
+							
+							// Add time window of this feature (last attribute)
+							windows[numberOfWindows] = parseValue(buffer, tokenStart, tokenEnd, false);
+						}
+						tokenStart = tokenEnd;
 					}
-					
-					// Add time window of this feature (last attribute)
-					if(windowNumberAttributeExisting) {
-						windows.add(new Double(t.nextToken()));
-					} else {
-						windows.add(-1d);
+					if(!windowNumberAttributeExisting) {
+						windows[numberOfWindows] = -1d;
 					}
-					values.add(valuesOfCurrentWindow);
+					numberOfWindows++;
 				}
-				line = featureReader.readLine();
+				featureReader.skipLine(lineEnd);
+				lineEnd = featureReader.findLineEnd();
 			}
-			
-			featureReader.close();
-			
 		} catch(IOException e) {
 			throw new NodeException("Could not read from the feature file: " + e.getMessage());
+		} catch(NumberFormatException e) {
+			throw new NodeException("Could not parse the feature file " + featureFile + " in line " + 
+					featureReader.getLineNumber() + ": " + e.getMessage());
+		} finally {
+			try {
+				featureReader.close();
+			} catch(IOException e) {
+				// Nothing to do, the file has been read
+			}
 		}
 		
 		// Create the Feature object and set the frame size
 		ArrayList<Integer> ids = new ArrayList<Integer>(1);
 		ids.add(id);
-		Feature loadedFeature = new Feature(ids, featureName, values, windows);
+		Feature loadedFeature = new Feature(ids, featureName, dimensionNumber, 
+				Arrays.copyOf(values, numberOfWindows * dimensionNumber), Arrays.copyOf(windows, numberOfWindows));
 		loadedFeature.setSourceFrameSize(sourceFrameSize);
 		if(sourceStepSize == -1) {
 			sourceStepSize = sourceFrameSize;
@@ -148,5 +199,291 @@ public class ArffFeatureLoader {
 		loadedFeature.setSampleRate(sampleRate);
 		return loadedFeature;
 	}
+	
+	/**
+	 * Loads feature from a binary feature file
+	 * @param featureFile Path to the binary feature file
+	 * @param id Feature id
+	 * @return Loaded feature
+	 * @throws NodeException
+	 */
+	private static Feature loadBinaryFeature(String featureFile, int id) throws NodeException {
+		BinaryFeatureFile binaryFile;
+		int sourceFrameSize = -1;
+		int sourceStepSize = -1;
+		int sampleRate = -1;
+		try {
+			binaryFile = new BinaryFeatureFile(new File(featureFile));
+			for(Map.Entry<String, String> entry : binaryFile.getMetadata().entrySet()) {
+				String key = removeWhitespace(entry.getKey()).toLowerCase();
+				String value = removeWhitespace(entry.getValue());
+				if(key.equals("window_size")) {
+					sourceFrameSize = Integer.parseInt(value);
+				} else if(key.equals("step_size")) {
+					sourceStepSize = Integer.parseInt(value);
+				} else if(key.equals("sample_rate")) {
+					sampleRate = Integer.parseInt(value);
+				}
+			}
+		} catch(IOException e) {
+			throw new NodeException("Could not read from the feature file: " + e.getMessage());
+		} catch(NumberFormatException e) {
+			throw new NodeException("Could not parse the metadata of the feature file " + featureFile + ": " + e.getMessage());
+		}
+		if(binaryFile.getAttributeCount() == 0) {
+			throw new NodeException("No attributes are declared in the feature file: " + featureFile);
+		}
+		
+		// Window number (the last attribute) does not count as feature dimension!
+		int dimensionNumber = binaryFile.getAttributeCount();
+		boolean windowNumberAttributeExisting = binaryFile.getAttributeName(dimensionNumber - 1).equalsIgnoreCase("windownumber");
+		if(windowNumberAttributeExisting) {
+			dimensionNumber--;
+		}
+		int numberOfWindows = binaryFile.getValueCount();
+		double[] values = new double[numberOfWindows * dimensionNumber];
+		for(int d=0;d<dimensionNumber;d++) {
+			double[] column = binaryFile.getColumn(d);
+			for(int w=0;w<numberOfWindows;w++) {
+				values[w * dimensionNumber + d] = column[w];
+			}
+		}
+		double[] windows;
+		if(windowNumberAttributeExisting) {
+			windows = binaryFile.getColumn(dimensionNumber);
+		} else {
+			windows = new double[numberOfWindows];
+			Arrays.fill(windows, -1d);
+		}
+		
+		ArrayList<Integer> ids = new ArrayList<Integer>(1);
+		ids.add(id);
+		Feature loadedFeature = new Feature(ids, binaryFile.getAttributeName(0), dimensionNumber, values, windows);
+		loadedFeature.setSourceFrameSize(sourceFrameSize);
+		if(sourceStepSize == -1) {
+			sourceStepSize = sourceFrameSize;
+		}
+		loadedFeature.setSourceStepSize(sourceStepSize);
+		loadedFeature.setSampleRate(sampleRate);
+		return loadedFeature;
+	}
+	
+	/**
+	 * Parses a decimal number from the given bytes. Numbers with up to 18 significant digits and a 
+	 * decimal exponent which allows exact calculation are converted directly, all other tokens are 
+	 * converted by Double.parseDouble(), so that the result is always equal to Double.parseDouble()
+	 * @param buffer Bytes to parse
+	 * @param start Start of the token (inclusive)
+	 * @param end End of the token (exclusive)
+	 * @param acceptAnyCaseNaN If true, "nan" is accepted in any case
+	 * @return Parsed value
+	 */
+	private static double parseValue(byte[] buffer, int start, int end, boolean acceptAnyCaseNaN) {
+		int position = start;
+		int tokenEnd = end;
+		
+		// Leading and trailing whitespaces are ignored as by Double.parseDouble()
+		while(position < tokenEnd && buffer[position] <= ' ') {
+			position++;
+		}
+		while(tokenEnd > position && buffer[tokenEnd - 1] <= ' ') {
+			tokenEnd--;
+		}
+		
+		boolean negative = false;
+		if(position < tokenEnd && (buffer[position] == '-' || buffer[position] == '+')) {
+			negative = buffer[position] == '-';
+			position++;
+		}
+		long mantissa = 0;
+		int significantDigits = 0;
+		int digits = 0;
+		int exponent = 0;
+		while(position < tokenEnd && buffer[position] >= '0' && buffer[position] <= '9') {
+			if(mantissa != 0 || buffer[position] != '0') {
+				mantissa = mantissa * 10 + (buffer[position] - '0');
+				significantDigits++;
+			}
+			digits++;
+			position++;
+		}
+		if(position < tokenEnd && buffer[position] == '.') {
+			position++;
+			while(position < tokenEnd && buffer[position] >= '0' && buffer[position] <= '9') {
+				if(mantissa != 0 || buffer[position] != '0') {
+					mantissa = mantissa * 10 + (buffer[position] - '0');
+					significantDigits++;
+				}
+				digits++;
+				exponent--;
+				position++;
+			}
+		}
+		if(digits > 0 && position < tokenEnd && (buffer[position] == 'e' || buffer[position] == 'E')) {
+			position++;
+			boolean negativeExponent = false;
+			if(position < tokenEnd && (buffer[position] == '-' || buffer[position] == '+')) {
+				negativeExponent = buffer[position] == '-';
+				position++;
+			}
+			int exponentDigits = 0;
+			int explicitExponent = 0;
+			while(position < tokenEnd && buffer[position] >= '0' && buffer[position] <= '9' && exponentDigits < 6) {
+				explicitExponent = explicitExponent * 10 + (buffer[position] - '0');
+				exponentDigits++;
+				position++;
+			}
+			if(exponentDigits == 0) {
+				digits = 0;
+			}
+			exponent += negativeExponent ? -explicitExponent : explicitExponent;
+		}
+		
+		if(digits > 0 && position == tokenEnd && significantDigits <= 18) {
+			if(mantissa == 0) {
+				return negative ? -0d : 0d;
+			}
+			if(mantissa <= MAX_EXACT_MANTISSA && exponent >= -22 && exponent <= 22) {
+				double value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+				return negative ? -value : value;
+			}
+		}
+		
+		// Fallback for all other representations
+		String token = new String(buffer, start, end - start, Charset.defaultCharset());
+		if(acceptAnyCaseNaN && token.toUpperCase().equals("NAN")) {
+			return Double.NaN;
+		}
+		return Double.parseDouble(token);
+	}
+	
+	/**
+	 * Removes all whitespace characters as matched by the regular expression \s
+	 * @param line Line to process
+	 * @return Line without whitespaces
+	 */
+	private static String removeWhitespace(String line) {
+		StringBuilder compactLine = new StringBuilder(line.length());
+		for(int i=0;i<line.length();i++) {
+			char c = line.charAt(i);
+			if(c != ' ' && c != '\t' && c != '\n' && c != '\u000B' && c != '\f' && c != '\r') {
+				compactLine.append(c);
+			}
+		}
+		return compactLine.toString();
+	}
+	
+	/**
+	 * Reads lines from a byte stream into a buffer, which can be parsed without creation of String objects.
+	 * Lines are terminated by '\n', '\r' or "\r\n"
+	 */
+	private static final class ByteLineReader {
+		
+		private final InputStream input;
+		private byte[] buffer = new byte[1024 * 64];
+		private int position = 0;
+		private int limit = 0;
+		private boolean endOfStream = false;
+		private int lineNumber = 1;
+		
+		ByteLineReader(InputStream input) {
+			this.input = input;
+		}
+		
+		byte[] getBuffer() {
+			return buffer;
+		}
+		
+		int getPosition() {
+			return position;
+		}
+		
+		int getLineNumber() {
+			return lineNumber;
+		}
+		
+		/**
+		 * Makes sure that the complete next line is available in the buffer, starting at getPosition()
+		 * @return Index of the end of this line (exclusive) or -1 if the end of stream is achieved
+		 * @throws IOException
+		 */
+		int findLineEnd() throws IOException {
+			int searchStart = position;
+			while(true) {
+				for(int i=searchStart;i<limit;i++) {
+					if(buffer[i] == '\n' || buffer[i] == '\r') {
+						return i;
+					}
+				}
+				if(endOfStream) {
+					return position < limit ? limit : -1;
+				}
+				searchStart = limit - position;
+				fill();
+			}
+		}
+		
+		/**
+		 * Moves behind the line terminator of the current line
+		 * @param lineEnd End of the current line as returned by findLineEnd()
+		 * @throws IOException
+		 */
+		void skipLine(int lineEnd) throws IOException {
+			position = lineEnd;
+			lineNumber++;
+			if(position >= limit) {
+				return;
+			}
+			byte terminator = buffer[position++];
+			if(terminator == '\r') {
+				if(position == limit && !endOfStream) {
+					fill();
+				}
+				if(position < limit && buffer[position] == '\n') {
+					position++;
+				}
+			}
+		}
+		
+		/**
+		 * @return The next line or null if the end of stream is achieved
+		 * @throws IOException
+		 */
+		String readLine() throws IOException {
+			int lineEnd = findLineEnd();
+			if(lineEnd == -1) {
+				return null;
+			}
+			String line = new String(buffer, position, lineEnd - position, Charset.defaultCharset());
+			skipLine(lineEnd);
+			return line;
+		}
+		
+		/**
+		 * Moves the unread bytes to the beginning of the buffer, enlarges it if required 
+		 * and reads further bytes from the stream
+		 * @throws IOException
+		 */
+		private void fill() throws IOException {
+			if(position > 0) {
+				System.arraycopy(buffer, position, buffer, 0, limit - position);
+				limit -= position;
+				position = 0;
+			}
+			if(limit == buffer.length) {
+				buffer = Arrays.copyOf(buffer, buffer.length * 2);
+			}
+			int read = input.read(buffer, limit, buffer.length - limit);
+			if(read == -1) {
+				endOfStream = true;
+			} else {
+				limit += read;
+			}
+		}
+		
+		void close() throws IOException {
+			input.close();
+		}
+	}
 
 }
@@ -27,6 +27,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import amuse.data.io.ArffDataSet;
 import amuse.data.io.DataSet;
@@ -85,10 +86,22 @@ public class Feature implements Serializable {
 	 *  First step = original name of the feature */
 	private ArrayList<String> history;
 	
+	/** Feature values as boxed arrays, one array for each time window; null as long as the primitive storage is used */
 	private ArrayList<Double[]> values;
 	
+	/** Time windows of the boxed storage; null as long as the primitive storage is used */
 	private ArrayList<Double> windows;
 	
+	/** Primitive storage of the feature values: the values of each time window are saved one after another,
+	 * so that the value of dimension d in window w is found at w * dimension + d */
+	private double[] valueData;
+	
+	/** Primitive storage of the time windows */
+	private double[] windowData;
+	
+	/** Number of time windows in the primitive storage */
+	private int windowCount;
+	
 	/** Description of this feature */
 	private String description;
 	
@@ -106,17 +119,68 @@ public class Feature implements Serializable {
 		this.featureType = FeatureType.WindowedNumeric;
 	}
 	
-	public Feature(ArrayList<Integer> ids, String description, int dimension) {
+	/**
+	 * Creates a feature with primitive storage of the given values
+	 * @param ids Feature ids
+	 * @param description Feature description
+	 * @param dimension Feature dimension
+	 * @param values Feature values, saved window by window (length must be equal to dimension * windows.length)
+	 * @param windows Time windows
+	 */
+	public Feature(ArrayList<Integer> ids, String description, int dimension, double[] values, double[] windows) {
+		if(values.length != dimension * windows.length) {
+			throw new IllegalArgumentException("Number of values (" + values.length + ") does not correspond to " + 
+					windows.length + " windows with dimension " + dimension);
+		}
 		this.ids = ids;
 		this.description = description;
 		this.dimension = dimension;
 		this.history = new ArrayList<String>();
 		this.history.add(new String(description));
-		this.values = new ArrayList<Double[]>();
-		this.windows = new ArrayList<Double>();
+		this.valueData = values;
+		this.windowData = windows;
+		this.windowCount = windows.length;
 		this.featureType = FeatureType.WindowedNumeric;
 	}
 	
+	/**
+	 * Creates a deep copy of the given feature; the values of the copy are saved in the primitive storage
+	 * @param source Feature to copy
+	 */
+	public Feature(Feature source) {
+		this.ids = source.ids == null ? null : new ArrayList<Integer>(source.ids);
+		this.extractorId = source.extractorId;
+		this.configurationId = source.configurationId;
+		this.customScript = source.customScript;
+		this.dimension = source.dimension;
+		this.sourceFrameSize = source.sourceFrameSize;
+		this.sourceStepSize = source.sourceStepSize;
+		this.sampleRate = source.sampleRate;
+		this.featureType = source.featureType;
+		this.history = source.history == null ? null : new ArrayList<String>(source.history);
+		this.description = source.description;
+		this.isSelectedForExtraction = source.isSelectedForExtraction;
+		if(source.valueData != null) {
+			this.valueData = Arrays.copyOf(source.valueData, source.windowCount * source.dimension);
+			this.windowData = Arrays.copyOf(source.windowData, source.windowCount);
+			this.windowCount = source.windowCount;
+		} else if(source.values != null) {
+			this.windowCount = source.values.size();
+			this.valueData = new double[this.windowCount * this.dimension];
+			this.windowData = new double[this.windowCount];
+			for(int i=0;i<this.windowCount;i++) {
+				for(int j=0;j<this.dimension;j++) {
+					this.valueData[i * this.dimension + j] = source.values.get(i)[j];
+				}
+				this.windowData[i] = source.windows.get(i);
+			}
+		}
+	}
+
+	public Feature(ArrayList<Integer> ids, String description, int dimension) {
+		this(ids, description, dimension, new double[0], new double[0]);
+	}
+	
 	public Feature(int id, String description, int dimension, int extractorID, String featureType) {
 		this.ids = new ArrayList<Integer>(1);
 		ids.add(id);
@@ -176,7 +240,15 @@ public class Feature implements Serializable {
 	public int getExtractorId() {
 		return this.extractorId;
 	}
+	
+	/**
+	 * Returns the feature values as list of boxed arrays. Since the list may be modified by the caller,
+	 * a feature with primitive storage is converted to the boxed storage. Methods which only read or
+	 * append values should use getValue(), getWindow() and addWindow() instead
+	 * @return Feature values, one array for each time window
+	 */
 	public ArrayList<Double[]> getValues() {
+		convertToBoxedStorage();
 		return values;
 	}
 	
@@ -185,6 +257,7 @@ public class Feature implements Serializable {
 	 * @param window The given time window
 	 */
 	public Double[] getValuesFromWindow(double window) {
+		convertToBoxedStorage();
 		for(int i=0;i<windows.size();i++) {
 			if(windows.get(i) == window) {
 				return values.get(i);
@@ -193,10 +266,188 @@ public class Feature implements Serializable {
 		return null;
 	}
 
+	/**
+	 * Returns the time windows as list. Since the list may be modified by the caller,
+	 * a feature with primitive storage is converted to the boxed storage
+	 * @return Time windows
+	 */
 	public ArrayList<Double> getWindows() {
+		convertToBoxedStorage();
 		return windows;
 	}
 	
+	/**
+	 * @return Number of time windows
+	 */
+	public int getWindowCount() {
+		if(valueData != null) {
+			return windowCount;
+		}
+		return windows.size();
+	}
+	
+	/**
+	 * @param windowIndex Index of time window
+	 * @return Time window at the given index
+	 */
+	public double getWindow(int windowIndex) {
+		if(valueData != null) {
+			checkWindowIndex(windowIndex);
+			return windowData[windowIndex];
+		}
+		return windows.get(windowIndex);
+	}
+	
+	/**
+	 * Sets the time window at the given index
+	 * @param windowIndex Index of time window
+	 * @param window New time window
+	 */
+	public void setWindow(int windowIndex, double window) {
+		if(valueData != null) {
+			checkWindowIndex(windowIndex);
+			windowData[windowIndex] = window;
+		} else {
+			windows.set(windowIndex, window);
+		}
+	}
+	
+	/**
+	 * Returns the index of the given time window
+	 * @param window The given time window
+	 * @return Index of the first occurrence of this time window or -1 if it is not found
+	 */
+	public int getWindowIndex(double window) {
+		int numberOfWindows = getWindowCount();
+		for(int i=0;i<numberOfWindows;i++) {
+			if(getWindow(i) == window) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * @param windowIndex Index of time window
+	 * @param dimensionIndex Index of feature dimension
+	 * @return Feature value of the given dimension in the given time window
+	 */
+	public double getValue(int windowIndex, int dimensionIndex) {
+		if(valueData != null) {
+			checkWindowIndex(windowIndex);
+			checkDimensionIndex(dimensionIndex);
+			return valueData[windowIndex * dimension + dimensionIndex];
+		}
+		return values.get(windowIndex)[dimensionIndex];
+	}
+	
+	/**
+	 * Sets the feature value of the given dimension in the given time window
+	 * @param windowIndex Index of time window
+	 * @param dimensionIndex Index of feature dimension
+	 * @param value New feature value
+	 */
+	public void setValue(int windowIndex, int dimensionIndex, double value) {
+		if(valueData != null) {
+			checkWindowIndex(windowIndex);
+			checkDimensionIndex(dimensionIndex);
+			valueData[windowIndex * dimension + dimensionIndex] = value;
+		} else {
+			values.get(windowIndex)[dimensionIndex] = value;
+		}
+	}
+	
+	/**
+	 * Appends a time window with its feature values
+	 * @param window Time window
+	 * @param windowValues Feature values of this time window; the array is copied
+	 */
+	public void addWindow(double window, double[] windowValues) {
+		if(valueData != null) {
+			if(windowValues.length != dimension) {
+				throw new IllegalArgumentException("Number of values (" + windowValues.length + ") does not correspond to dimension " + dimension);
+			}
+			if(windowCount == windowData.length) {
+				int newCapacity = Math.max(16, windowData.length * 2);
+				windowData = Arrays.copyOf(windowData, newCapacity);
+				valueData = Arrays.copyOf(valueData, newCapacity * dimension);
+			}
+			windowData[windowCount] = window;
+			System.arraycopy(windowValues, 0, valueData, windowCount * dimension, dimension);
+			windowCount++;
+		} else {
+			Double[] boxedValues = new Double[windowValues.length];
+			for(int i=0;i<windowValues.length;i++) {
+				boxedValues[i] = windowValues[i];
+			}
+			windows.add(window);
+			values.add(boxedValues);
+		}
+	}
+	
+	/**
+	 * Appends a time window of another feature with the same dimension
+	 * @param source Feature to copy the time window and the values from
+	 * @param windowIndex Index of the time window in the source feature
+	 */
+	public void addWindow(Feature source, int windowIndex) {
+		if(valueData != null && source.valueData != null) {
+			source.checkWindowIndex(windowIndex);
+			addWindow(source.windowData[windowIndex], Arrays.copyOfRange(source.valueData, 
+					windowIndex * source.dimension, (windowIndex + 1) * source.dimension));
+		} else if(valueData == null && source.valueData == null) {
+			windows.add(source.windows.get(windowIndex));
+			values.add(source.values.get(windowIndex));
+		} else {
+			double[] windowValues = new double[source.dimension];
+			for(int i=0;i<windowValues.length;i++) {
+				windowValues[i] = source.getValue(windowIndex, i);
+			}
+			addWindow(source.getWindow(windowIndex), windowValues);
+		}
+	}
+	
+	/**
+	 * @return True if the values are saved in the primitive storage
+	 */
+	public boolean hasPrimitiveStorage() {
+		return valueData != null;
+	}
+	
+	private void checkWindowIndex(int windowIndex) {
+		if(windowIndex < 0 || windowIndex >= windowCount) {
+			throw new IndexOutOfBoundsException("Window index: " + windowIndex + ", number of windows: " + windowCount);
+		}
+	}
+	
+	private void checkDimensionIndex(int dimensionIndex) {
+		if(dimensionIndex < 0 || dimensionIndex >= dimension) {
+			throw new IndexOutOfBoundsException("Dimension index: " + dimensionIndex + ", dimension: " + dimension);
+		}
+	}
+	
+	/**
+	 * Moves the values from the primitive storage to the boxed lists required by getValues() and getWindows()
+	 */
+	private void convertToBoxedStorage() {
+		if(valueData == null) {
+			return;
+		}
+		values = new ArrayList<Double[]>(windowCount);
+		windows = new ArrayList<Double>(windowCount);
+		for(int i=0;i<windowCount;i++) {
+			Double[] boxedValues = new Double[dimension];
+			for(int j=0;j<dimension;j++) {
+				boxedValues[j] = valueData[i * dimension + j];
+			}
+			values.add(boxedValues);
+			windows.add(windowData[i]);
+		}
+		valueData = null;
+		windowData = null;
+		windowCount = 0;
+	}
+	
 	public ArrayList<String> getHistory() {
 		return history;
 	}
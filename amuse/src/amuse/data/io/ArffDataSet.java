@@ -29,8 +29,16 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.LineNumberReader;
 import java.io.StreamTokenizer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -69,6 +77,19 @@ public class ArffDataSet extends DataSetAbstract {
 	private int startLine = -1;
 	private int endLine = -1;
 	private double[][] bufferedLines;
+	/** If true, buffer refills seek directly to the byte offset of the requested line */
+	private boolean indexed = true;
+	/** Byte offsets of all data lines, built by validateDataSection() in indexed mode */
+	private long[] dataLineOffsets;
+	/**
+	 * Read-only mapping of the whole file. It is created in indexed mode at the first
+	 * non-sequential buffer refill if the file fits into one mapping; sequential reads
+	 * use a channel which is closed after each refill, so that the file is not locked
+	 */
+	private MappedByteBuffer mappedFile;
+	private static final long maxMappedFileSize = Integer.MAX_VALUE;
+	/** Content of a binary feature file, if this DataSet was loaded from one */
+	private BinaryFeatureFile binaryFile;
 	/**
 	 * This String stores the @Relation-Tag as used in ARFF files.
 	 */
@@ -126,13 +147,42 @@ public class ArffDataSet extends DataSetAbstract {
 	 *             existing.
 	 */
 	public ArffDataSet(File file, int linesToCache) throws IOException {
+		this(file, linesToCache, true);
+	}
+
+	/**
+	 * This constructor loads a DataSet from a given arff file. IOExceptions are
+	 * thrown due to IO operations. In indexed mode the byte offsets of all data
+	 * lines are stored while the data section is validated, so that the buffer
+	 * is refilled by seeking to the requested line instead of reading all lines
+	 * before it. Files which fit into a single mapping are memory mapped as soon
+	 * as they are accessed in non-sequential order.
+	 * Binary feature files (see BinaryFeatureFile) are detected by their
+	 * header and loaded without parsing.
+	 * 
+	 * @param file
+	 *            The arff file to load from.
+	 * @param linesToCache
+	 *            The count of lines to hold in memory.
+	 * @param indexed
+	 *            True if the data lines should be indexed for random access.
+	 * @throws java.io.IOException
+	 *             Thrown whenever given file is not a valid arff or not
+	 *             existing.
+	 */
+	public ArffDataSet(File file, int linesToCache, boolean indexed) throws IOException {
 		// Check preconditions:
 		bufferedLineCount = linesToCache;
+		this.indexed = indexed;
 		if (!file.isFile()) {
 			throw new FileNotFoundException(file.getCanonicalPath());
 		}
 		// set file Variable:
 		this.file = file;
+		if (BinaryFeatureFile.isBinaryFile(file)) {
+			loadBinaryFile();
+			return;
+		}
 		// Setup states for reading of header:
 		String tmpName = null;
 		// Initialise LineNumberReader:
@@ -299,6 +349,9 @@ public class ArffDataSet extends DataSetAbstract {
 		// throw new IndexOutOfBoundsException("The index: \"" + index +
 		// "\" is out of bounds of this DataSet.");
 		// }
+		if (binaryFile != null) {
+			return binaryFile.getValue(index, this.getAttributeNames().indexOf(attribute.getName()));
+		}
 		assertInBuffer(index);
 		return bufferedLines[calculateBufferIndex(index)][this
 				.getAttributeNames().indexOf(attribute.getName())];
@@ -328,14 +381,55 @@ public class ArffDataSet extends DataSetAbstract {
 		throw new NotImplementedException();
 	}
 
+	private void loadBinaryFile() throws IOException {
+		binaryFile = new BinaryFeatureFile(file);
+		this.name = binaryFile.getRelationName();
+		for (Map.Entry<String, String> entry : binaryFile.getMetadata().entrySet()) {
+			if (entry.getKey().startsWith("@")) {
+				this.addAmuseAttribute("%" + entry.getKey(), entry.getValue());
+			}
+		}
+		for (int i = 0; i < binaryFile.getAttributeCount(); i++) {
+			String attributeName = binaryFile.getAttributeName(i);
+			if (binaryFile.getAttributeType(i) == BinaryFeatureFile.NOMINAL) {
+				attributes.add(new NominalAttribute(attributeName, binaryFile.getAttributeValues(i), this));
+			} else if (binaryFile.getAttributeType(i) == BinaryFeatureFile.STRING) {
+				StringAttribute attribute = new StringAttribute(attributeName, this);
+				for (String value : binaryFile.getAttributeValues(i)) {
+					attribute.addStringValue(value);
+				}
+				attributes.add(attribute);
+			} else {
+				attributes.add(new NumericAttribute(attributeName, this));
+			}
+		}
+		if (attributes.size() == 0) {
+			throw new IOException("no attributes declared: " + file.getPath());
+		}
+		this.valueCount = binaryFile.getValueCount();
+	}
+
 	private void assertInBuffer(int index) {
 		if (startLine <= index && index < endLine) {
 			return;
 		} else {
 			try {
 				// Move Buffer:
+				boolean isSequential = startLine == -1 || index == endLine;
 				startLine = index;
-				initTokenizer(startLine + dataTagLine);
+				if (dataLineOffsets != null && startLine < dataLineOffsets.length) {
+					if (!isSequential && mappedFile == null && file.length() <= maxMappedFileSize) {
+						FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+						try {
+							mappedFile = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+						} finally {
+							channel.close();
+						}
+					}
+					initTokenizerAt(dataLineOffsets[startLine]);
+				} else {
+					initTokenizer(startLine + dataTagLine);
+				}
 				int bufferIndex = 0;
 				getFirstToken();
 				while (bufferIndex < bufferedLines.length
@@ -393,14 +487,77 @@ public class ArffDataSet extends DataSetAbstract {
 
 	private void validateDataSection() throws IOException, DataSetException {
 		initTokenizer(dataTagLine);
+		int[] dataLines = new int[1024];
 		getFirstToken();
 		while (tokenizer.ttype != StreamTokenizer.TT_EOF) {
+			if (indexed) {
+				if (valueCount == dataLines.length) {
+					int[] grownDataLines = new int[dataLines.length * 2];
+					System.arraycopy(dataLines, 0, grownDataLines, 0, valueCount);
+					dataLines = grownDataLines;
+				}
+				// The tokenizer counts lines starting with 1 at the data tag line
+				dataLines[valueCount] = dataTagLine + tokenizer.lineno() - 1;
+			}
 			parseDataLine(true);
 			getFirstToken();
 		}
+		if (indexed) {
+			dataLineOffsets = calculateLineOffsets(dataLines, valueCount);
+		}
 		// System.out.println(Arrays.toString(emptyLines.toArray()));
 	}
 
+	/**
+	 * Scans the raw bytes of the file and calculates the offsets of the given
+	 * lines. Only line terminators are evaluated, which are single byte
+	 * characters in all ASCII compatible encodings.
+	 * 
+	 * @param lineNumbers
+	 *            ascending numbers of the lines to locate, starting with 0
+	 * @param lineCount
+	 *            the number of valid entries in lineNumbers
+	 * @return the byte offsets of the first character of each line
+	 * @throws IOException
+	 */
+	private long[] calculateLineOffsets(int[] lineNumbers, int lineCount) throws IOException {
+		long[] offsets = new long[lineCount];
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(1024 * 64);
+			long position = 0;
+			int currentLine = 0;
+			int currentIndex = 0;
+			boolean afterCarriageReturn = false;
+			while (currentIndex < lineCount && channel.read(buffer) != -1) {
+				buffer.flip();
+				while (buffer.hasRemaining() && currentIndex < lineCount) {
+					byte b = buffer.get();
+					if (b == '\n' && afterCarriageReturn) {
+						afterCarriageReturn = false;
+					} else if (b == '\n' || b == '\r') {
+						currentLine++;
+						afterCarriageReturn = b == '\r';
+					} else {
+						afterCarriageReturn = false;
+						if (currentLine == lineNumbers[currentIndex]) {
+							offsets[currentIndex] = position;
+							currentIndex++;
+						}
+					}
+					position++;
+				}
+				buffer.clear();
+			}
+			if (currentIndex < lineCount) {
+				throw new IOException("Could not index data line " + lineNumbers[currentIndex] + " of " + file);
+			}
+		} finally {
+			channel.close();
+		}
+		return offsets;
+	}
+
 	private void validateHeader() throws IOException {
 		if (this.name == null) {
 			throw new IOException("Missing Relation Name!");
@@ -424,6 +581,31 @@ public class ArffDataSet extends DataSetAbstract {
 	 */
 	private void initTokenizer(int marker) throws IOException {
 		initReader(marker);
+		createTokenizer();
+	}
+
+	/**
+	 * Initializes the StreamTokenizer for reading the ARFF file starting at the
+	 * given byte offset. The memory mapped file is used if it is available.
+	 * 
+	 * @throws IOException
+	 */
+	private void initTokenizerAt(long offset) throws IOException {
+		InputStream input;
+		if (mappedFile != null) {
+			ByteBuffer view = mappedFile.duplicate();
+			view.position((int) offset);
+			input = new ByteBufferInputStream(view);
+		} else {
+			FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+			channel.position(offset);
+			input = Channels.newInputStream(channel);
+		}
+		reader = new LineNumberReader(new InputStreamReader(input, Charset.defaultCharset()));
+		createTokenizer();
+	}
+
+	private void createTokenizer() {
 		tokenizer = new StreamTokenizer(reader);
 		tokenizer.resetSyntax();
 		tokenizer.whitespaceChars(0, ' ');
@@ -654,4 +836,43 @@ public class ArffDataSet extends DataSetAbstract {
 		tokenizer.nextToken();
 		return dataLine;
 	}
+
+	/**
+	 * Reads the bytes of a (memory mapped) ByteBuffer starting at its current
+	 * position.
+	 */
+	private static class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			return buffer.get() & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (len == 0) {
+				return 0;
+			}
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			int count = Math.min(len, buffer.remaining());
+			buffer.get(b, off, count);
+			return count;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+	}
 }
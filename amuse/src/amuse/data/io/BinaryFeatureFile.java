@@ -0,0 +1,497 @@
+/**
+ * This file is part of AMUSE framework (Advanced MUsic Explorer).
+ *
+ * Copyright 2006-2010 by code authors
+ *
+ * Created at TU Dortmund, Chair of Algorithm Engineering
+ * (Contact: <http://ls11-www.cs.tu-dortmund.de>)
+ *
+ * AMUSE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AMUSE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with AMUSE. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Creation date: 18.10.2026
+ */
+package amuse.data.io;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary columnar alternative to ARFF for feature and processed feature files.
+ *
+ * All numbers are stored little-endian. The file starts with the magic bytes "AMUSEBIN",
+ * the format version and the flags (bit 0: values are stored as float32). Then the relation
+ * name, the metadata (key/value pairs which correspond to the "%key=value" comments of ARFF
+ * files, e.g. window_size, step_size and sample_rate), the attribute declarations and the
+ * number of values follow. Strings are stored as length and UTF-8 bytes. The header is padded
+ * to a multiple of eight bytes, after it the values of each attribute are stored one column
+ * after another. Nominal and string attributes store the index of the value in the declared
+ * value list. Missing values are stored as NaN.
+ *
+ * Files are loaded into memory or, on request, memory mapped, so that only the accessed columns
+ * are read from disk. Since files are mapped and read as one buffer, they may not be larger than
+ * Integer.MAX_VALUE bytes; save() refuses to write larger files.
+ *
+ * @author agent
+ * @version $Id$
+ */
+public class BinaryFeatureFile {
+
+	/** Attribute types */
+	public static final int NUMERIC = 0;
+	public static final int NOMINAL = 1;
+	public static final int STRING = 2;
+
+	private static final byte[] MAGIC = {'A', 'M', 'U', 'S', 'E', 'B', 'I', 'N'};
+	private static final int VERSION = 1;
+	private static final int SINGLE_PRECISION_FLAG = 1;
+	private static final int WRITE_BUFFER_SIZE = 1024 * 64;
+
+	private String relationName;
+	private final Map<String, String> metadata = new LinkedHashMap<String, String>();
+	private final List<String> attributeNames = new ArrayList<String>();
+	private final List<Integer> attributeTypes = new ArrayList<Integer>();
+	private final List<List<String>> attributeValues = new ArrayList<List<String>>();
+	private int valueCount = -1;
+
+	/** Columns of a file which is created in memory */
+	private final List<double[]> columns = new ArrayList<double[]>();
+
+	/** Data section of a loaded file */
+	private ByteBuffer data;
+	private boolean singlePrecision = false;
+
+	/**
+	 * Creates an empty binary feature file which can be filled and saved
+	 * @param relationName Name of the relation
+	 */
+	public BinaryFeatureFile(String relationName) {
+		this.relationName = relationName;
+	}
+
+	/**
+	 * Loads a binary feature file into memory. The file is closed afterwards
+	 * @param file File to load
+	 * @throws IOException If the file does not exist or is not a valid binary feature file
+	 */
+	public BinaryFeatureFile(File file) throws IOException {
+		this(file, false);
+	}
+
+	/**
+	 * Loads a binary feature file
+	 * @param file File to load
+	 * @param mapped If true, the file is memory mapped instead of being read into memory. The mapping
+	 * is released only after this object is garbage collected; until then, the file can not be deleted
+	 * or replaced on some operating systems (e.g. Windows)
+	 * @throws IOException If the file does not exist or is not a valid binary feature file
+	 */
+	public BinaryFeatureFile(File file, boolean mapped) throws IOException {
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			if(channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("File is too large to be loaded: " + file.getPath());
+			}
+			ByteBuffer buffer;
+			if(mapped) {
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			} else {
+				buffer = ByteBuffer.allocate((int)channel.size());
+				while(buffer.hasRemaining()) {
+					if(channel.read(buffer) == -1) {
+						throw new IOException("Could not read binary feature file: " + file.getPath());
+					}
+				}
+				buffer.flip();
+			}
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			try {
+				byte[] magic = new byte[MAGIC.length];
+				buffer.get(magic);
+				if(!Arrays.equals(magic, MAGIC)) {
+					throw new IOException("Not a binary feature file: " + file.getPath());
+				}
+				int version = buffer.getInt();
+				if(version != VERSION) {
+					throw new IOException("Unsupported version " + version + " of binary feature file: " + file.getPath());
+				}
+				singlePrecision = (buffer.getInt() & SINGLE_PRECISION_FLAG) != 0;
+				relationName = readString(buffer);
+				int metadataCount = buffer.getInt();
+				for(int i=0;i<metadataCount;i++) {
+					String key = readString(buffer);
+					metadata.put(key, readString(buffer));
+				}
+				int attributeCount = buffer.getInt();
+				for(int i=0;i<attributeCount;i++) {
+					attributeNames.add(readString(buffer));
+					attributeTypes.add(buffer.getInt());
+					int declaredValueCount = buffer.getInt();
+					List<String> values = new ArrayList<String>(declaredValueCount);
+					for(int j=0;j<declaredValueCount;j++) {
+						values.add(readString(buffer));
+					}
+					attributeValues.add(values);
+				}
+				valueCount = buffer.getInt();
+				buffer.position(paddedLength(buffer.position()));
+				long dataLength = (long)valueCount * attributeCount * (singlePrecision ? 4 : 8);
+				if(buffer.remaining() < dataLength) {
+					throw new IOException("Binary feature file is truncated: " + file.getPath());
+				}
+				data = buffer.slice();
+				data.order(ByteOrder.LITTLE_ENDIAN);
+			} catch(RuntimeException e) {
+				throw new IOException("Could not parse binary feature file " + file.getPath() + ": " + e.getMessage());
+			}
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Checks if the given file starts with the magic bytes of binary feature files
+	 * @param file File to check
+	 * @return True if the file is a binary feature file
+	 */
+	public static boolean isBinaryFile(File file) {
+		if(!file.isFile() || file.length() < MAGIC.length) {
+			return false;
+		}
+		byte[] magic = new byte[MAGIC.length];
+		try {
+			DataInputStream input = new DataInputStream(new FileInputStream(file));
+			try {
+				input.readFully(magic);
+			} finally {
+				input.close();
+			}
+		} catch(IOException e) {
+			return false;
+		}
+		return Arrays.equals(magic, MAGIC);
+	}
+
+	/**
+	 * Opens the given file as ARFF stream: the content of binary feature files is converted
+	 * to ARFF in memory, other files are returned as they are. Can be used for readers which
+	 * support only ARFF
+	 * @param file File to open
+	 * @return ARFF input stream
+	 * @throws IOException
+	 */
+	public static InputStream openAsArffStream(File file) throws IOException {
+		if(!isBinaryFile(file)) {
+			return new FileInputStream(file);
+		}
+		ByteArrayOutputStream arff = new ByteArrayOutputStream();
+		Writer writer = new BufferedWriter(new OutputStreamWriter(arff, StandardCharsets.UTF_8));
+		new BinaryFeatureFile(file).writeArff(writer);
+		writer.close();
+		return new ByteArrayInputStream(arff.toByteArray());
+	}
+
+	public String getRelationName() {
+		return relationName;
+	}
+
+	/**
+	 * Adds a metadata entry, which corresponds to a "%key=value" comment in ARFF
+	 * @param key Key (without "%")
+	 * @param value Value
+	 */
+	public void addMetadata(String key, String value) {
+		metadata.put(key, value);
+	}
+
+	/**
+	 * @param key Key (without "%")
+	 * @return Value for the given key or null if it is not stored
+	 */
+	public String getMetadata(String key) {
+		return metadata.get(key);
+	}
+
+	/**
+	 * @return Metadata in the order of insertion
+	 */
+	public Map<String, String> getMetadata() {
+		return metadata;
+	}
+
+	/**
+	 * Adds a numeric attribute to a file created in memory
+	 * @param name Attribute name
+	 * @param values Values of this attribute
+	 */
+	public void addNumericAttribute(String name, double[] values) {
+		addAttribute(name, NUMERIC, new ArrayList<String>(), values);
+	}
+
+	/**
+	 * Adds an attribute to a file created in memory
+	 * @param name Attribute name
+	 * @param type NUMERIC, NOMINAL or STRING
+	 * @param declaredValues Nominal or string values; the values of nominal and string
+	 * attributes are the indices in this list
+	 * @param values Values of this attribute
+	 */
+	public void addAttribute(String name, int type, List<String> declaredValues, double[] values) {
+		if(data != null) {
+			throw new IllegalStateException("Attributes can not be added to a loaded file");
+		}
+		if(valueCount != -1 && values.length != valueCount) {
+			throw new IllegalArgumentException("Attribute '" + name + "' has " + values.length +
+					" values, expected: " + valueCount);
+		}
+		valueCount = values.length;
+		attributeNames.add(name);
+		attributeTypes.add(type);
+		attributeValues.add(new ArrayList<String>(declaredValues));
+		columns.add(values);
+	}
+
+	public int getAttributeCount() {
+		return attributeNames.size();
+	}
+
+	public String getAttributeName(int attribute) {
+		return attributeNames.get(attribute);
+	}
+
+	public int getAttributeType(int attribute) {
+		return attributeTypes.get(attribute);
+	}
+
+	/**
+	 * @param attribute Attribute index
+	 * @return Declared values of a nominal or string attribute
+	 */
+	public List<String> getAttributeValues(int attribute) {
+		return attributeValues.get(attribute);
+	}
+
+	/**
+	 * @return Number of values (rows) of each attribute
+	 */
+	public int getValueCount() {
+		return valueCount == -1 ? 0 : valueCount;
+	}
+
+	public boolean isSinglePrecision() {
+		return singlePrecision;
+	}
+
+	/**
+	 * @param row Row index
+	 * @param attribute Attribute index
+	 * @return Value of the given attribute in the given row
+	 */
+	public double getValue(int row, int attribute) {
+		if(data == null) {
+			return columns.get(attribute)[row];
+		}
+		if(row < 0 || row >= valueCount) {
+			throw new IndexOutOfBoundsException("Row " + row + " is out of bounds: " + valueCount);
+		}
+		int index = attribute * valueCount + row;
+		if(singlePrecision) {
+			return data.getFloat(index * 4);
+		}
+		return data.getDouble(index * 8);
+	}
+
+	/**
+	 * @param attribute Attribute index
+	 * @return All values of the given attribute
+	 */
+	public double[] getColumn(int attribute) {
+		if(data == null) {
+			return columns.get(attribute).clone();
+		}
+		double[] column = new double[valueCount];
+		ByteBuffer columnData = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		if(singlePrecision) {
+			columnData.position(attribute * valueCount * 4);
+			for(int i=0;i<valueCount;i++) {
+				column[i] = columnData.getFloat();
+			}
+		} else {
+			columnData.position(attribute * valueCount * 8);
+			columnData.asDoubleBuffer().get(column);
+		}
+		return column;
+	}
+
+	/**
+	 * Saves this file
+	 * @param file File to write
+	 * @param singlePrecision If true, the values are stored as float32
+	 * @throws IOException
+	 */
+	public void save(File file, boolean singlePrecision) throws IOException {
+		ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+		headerBytes.write(MAGIC);
+		writeInt(headerBytes, VERSION);
+		writeInt(headerBytes, singlePrecision ? SINGLE_PRECISION_FLAG : 0);
+		writeString(headerBytes, relationName);
+		writeInt(headerBytes, metadata.size());
+		for(Map.Entry<String, String> entry : metadata.entrySet()) {
+			writeString(headerBytes, entry.getKey());
+			writeString(headerBytes, entry.getValue());
+		}
+		writeInt(headerBytes, attributeNames.size());
+		for(int i=0;i<attributeNames.size();i++) {
+			writeString(headerBytes, attributeNames.get(i));
+			writeInt(headerBytes, attributeTypes.get(i));
+			writeInt(headerBytes, attributeValues.get(i).size());
+			for(String value : attributeValues.get(i)) {
+				writeString(headerBytes, value);
+			}
+		}
+		writeInt(headerBytes, getValueCount());
+		while(headerBytes.size() < paddedLength(headerBytes.size())) {
+			headerBytes.write(0);
+		}
+		long fileLength = headerBytes.size() + (long)getValueCount() * attributeNames.size() * (singlePrecision ? 4 : 8);
+		if(fileLength > Integer.MAX_VALUE) {
+			throw new IOException("The binary feature file would have " + fileLength + " bytes, but at most " + 
+					Integer.MAX_VALUE + " bytes can be loaded; use ARFF format for " + file.getPath());
+		}
+
+		FileOutputStream output = new FileOutputStream(file);
+		FileChannel channel = output.getChannel();
+		try {
+			ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			writeFully(channel, ByteBuffer.wrap(headerBytes.toByteArray()));
+			for(int i=0;i<attributeNames.size();i++) {
+				for(int j=0;j<getValueCount();j++) {
+					if(buffer.remaining() < 8) {
+						buffer.flip();
+						writeFully(channel, buffer);
+						buffer.clear();
+					}
+					if(singlePrecision) {
+						buffer.putFloat((float)getValue(j, i));
+					} else {
+						buffer.putDouble(getValue(j, i));
+					}
+				}
+			}
+			buffer.flip();
+			writeFully(channel, buffer);
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * Writes the content of this file as ARFF. Metadata is written as "%key=value" comments
+	 * @param writer Writer for the ARFF content
+	 * @throws IOException
+	 */
+	public void writeArff(Writer writer) throws IOException {
+		String sep = System.getProperty("line.separator");
+		for(Map.Entry<String, String> entry : metadata.entrySet()) {
+			writer.write("%" + entry.getKey() + "=" + entry.getValue() + sep);
+		}
+		writer.write("@RELATION '" + relationName + "'" + sep + sep);
+		for(int i=0;i<attributeNames.size();i++) {
+			writer.write("@ATTRIBUTE '" + attributeNames.get(i) + "' ");
+			if(attributeTypes.get(i) == NOMINAL) {
+				writer.write("{");
+				List<String> values = attributeValues.get(i);
+				for(int j=0;j<values.size();j++) {
+					writer.write((j > 0 ? ",'" : "'") + values.get(j) + "'");
+				}
+				writer.write("}" + sep);
+			} else if(attributeTypes.get(i) == STRING) {
+				writer.write("STRING" + sep);
+			} else {
+				writer.write("NUMERIC" + sep);
+			}
+		}
+		writer.write(sep + "@DATA" + sep);
+		StringBuilder line = new StringBuilder();
+		for(int j=0;j<getValueCount();j++) {
+			line.setLength(0);
+			for(int i=0;i<attributeNames.size();i++) {
+				if(i > 0) {
+					line.append(',');
+				}
+				double value = getValue(j, i);
+				if(attributeTypes.get(i) == NUMERIC) {
+					line.append(value);
+				} else if(Double.isNaN(value)) {
+					line.append('?');
+				} else if(attributeTypes.get(i) == NOMINAL) {
+					line.append('\'').append(attributeValues.get(i).get((int)value)).append('\'');
+				} else {
+					String stringValue = attributeValues.get(i).get((int)value);
+					line.append('\'').append(stringValue.replace("\\", "\\\\").replace("'", "\\'")).append('\'');
+				}
+			}
+			line.append(sep);
+			writer.write(line.toString());
+		}
+	}
+
+	private static int paddedLength(int length) {
+		return (length + 7) & ~7;
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void writeInt(ByteArrayOutputStream output, int value) {
+		output.write(value);
+		output.write(value >>> 8);
+		output.write(value >>> 16);
+		output.write(value >>> 24);
+	}
+
+	private static void writeString(ByteArrayOutputStream output, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeInt(output, bytes.length);
+		output.write(bytes);
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while(buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+}
@@ -27,6 +27,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -55,6 +56,12 @@ public class DataSet extends DataSetAbstract implements Serializable {
 
     /** For Serializable interface */
 	private static final long serialVersionUID = -653217284495680248L;
+	
+	/** Kinds of the columns of the RapidMiner example table */
+	private static final int COLUMN_VALUE = 0;
+	private static final int COLUMN_NOMINAL = 1;
+	private static final int COLUMN_SINGLE_CATEGORY = 2;
+	private static final int COLUMN_MULTIPLE_CATEGORIES = 3;
 
 	public DataSet(String name) {
 		this.name = name;
@@ -198,6 +205,7 @@ public class DataSet extends DataSetAbstract implements Serializable {
 		com.rapidminer.example.Attribute labelAttribute = null;
 		
 		List<String> names = this.getAttributeNames();
+		boolean hasNumberOfCategories = names.contains("NumberOfCategories");
 		
 		// Create attribute list
 		List<com.rapidminer.example.Attribute> attributes = new LinkedList<com.rapidminer.example.Attribute>();
@@ -220,7 +228,7 @@ public class DataSet extends DataSetAbstract implements Serializable {
 		    
 		    // If there is no attribute called NumberOfCategories the category is saved in the attribute Category
 		    // The DataSet was previously converted into a RapidMinerExampleSet and the numberOfCategories is saved in the category name
-		    else if(getAttribute(a).getName().equals("Category") && !getAttributeNames().contains("NumberOfCategories")) {
+		    else if(getAttribute(a).getName().equals("Category") && !hasNumberOfCategories) {
 		    	labelAttribute = AttributeFactory.createAttribute("Category", Ontology.NOMINAL);
 		    	attributes.add(labelAttribute);
 		    	mapping = attributes.get(attributes.size() - 1).getMapping();
@@ -235,63 +243,132 @@ public class DataSet extends DataSetAbstract implements Serializable {
 	
 		// Create table
 		GrowingExampleTable table = ExampleSets.createTableFrom(attributes);
+		int valueCount = getValueCount();
+		if(valueCount == 0) {
+			return table.createExampleSet(labelAttribute, null, idAttribute);
+		}
+		
+		// Assign the DataSet attributes and the label mappings to the RapidMiner attributes once,
+		// so that the table can be filled directly from the primitive values
+		int columnCount = attributes.size();
+		int[] kindOfColumn = new int[columnCount];
+		Attribute[] sourceOfColumn = new Attribute[columnCount];
+		NominalMapping[] mappingOfColumn = new NominalMapping[columnCount];
+		Attribute[][] categoriesOfColumn = new Attribute[columnCount][];
+		String[][] labelsOfColumn = new String[columnCount][];
+		//offSet between the RapidMiner attributes and the DataSet attributes (NumberOfAttributes + Category in the DataSet correspond to just  Category in the RapidMiner set)
+		int offSet = 0;
+		for (int a = 0; a < columnCount; a++) {
+			if (attributes.get(a).getName().equals("Id")) {
+				kindOfColumn[a] = COLUMN_VALUE;
+				sourceOfColumn[a] = getAttribute(a+offSet);
+			} else if (attributes.get(a).getName().equals("Category")) {
+				mappingOfColumn[a] = mapping;
+				
+				// if there is no attribute called NumbersOfCategories the DataSet was already previously converted
+				// and the category attribute is already in the correct form
+				if(!hasNumberOfCategories) {
+					kindOfColumn[a] = COLUMN_NOMINAL;
+					sourceOfColumn[a] = getAttribute(a);
+				}
+				
+				//If there is only one category. The label attribute gets the values "Category" and "NOT_Category"
+				//the number of categories is saved before the name
+				else if(numberOfCategories == 1) {
+					kindOfColumn[a] = COLUMN_SINGLE_CATEGORY;
+					categoriesOfColumn[a] = new Attribute[] {getAttribute(a+1)};
+					labelsOfColumn[a] = new String[] {numberOfCategories + "-" + getAttribute(a+1).getName(),
+							numberOfCategories + "-NOT_" + getAttribute(a+1).getName()};
+					//if there are are still attributes after the categories they have to be put at an offset in the array
+					//because the attribute "NumberOfCategories" and the relationships of the different categories correspond to only one index in the array
+					//that being the index of the label attribute
+					offSet += numberOfCategories;
+				}
+				//Otherwise the label attribute gets the name of the category of the current classification window as its name.
+				//the number of categories and the number of the current category is saved before the name
+				else {
+					kindOfColumn[a] = COLUMN_MULTIPLE_CATEGORIES;
+					categoriesOfColumn[a] = new Attribute[numberOfCategories];
+					labelsOfColumn[a] = new String[numberOfCategories];
+					for(int i = 0; i < numberOfCategories; i++) {
+						categoriesOfColumn[a][i] = getAttribute(a+1+i);
+						labelsOfColumn[a][i] = numberOfCategories + "-" +  i + "-" + getAttribute(a+1+i).getName();
+					}
+					offSet += numberOfCategories;
+				}
+			} else if (getAttribute(a+offSet) instanceof StringAttribute) {
+				kindOfColumn[a] = COLUMN_NOMINAL;
+				sourceOfColumn[a] = getAttribute(a+offSet);
+				mappingOfColumn[a] = attributes.get(a).getMapping();
+			} else {
+				kindOfColumn[a] = COLUMN_VALUE;
+				sourceOfColumn[a] = getAttribute(a+offSet);
+			}
+		}
+		
+		// Indices of the category labels in the label mapping. The labels are mapped on their
+		// first occurrence, so that the indices are the same as if every value is mapped
+		int[][] labelIndicesOfColumn = new int[columnCount][];
+		for (int a = 0; a < columnCount; a++) {
+			if(labelsOfColumn[a] != null) {
+				labelIndicesOfColumn[a] = new int[labelsOfColumn[a].length];
+				Arrays.fill(labelIndicesOfColumn[a], -1);
+			}
+		}
 	
 		// Fill table with all time windows
-		for (int d = 0; d < getValueCount(); d++) {
-		    double[] data = new double[attributes.size()];
-		    //offSet between the RapidMiner attributes and the DataSet attributes (NumberOfAttributes + Category in the DataSet correspond to just  Category in the RapidMiner set)
-		    int offSet = 0;
-		    for (int a = 0; a < attributes.size(); a++) {
-		    	// System.out.println(attributes.get(a).getName());
-		    	if (attributes.get(a).getName().equals("Id")) {
-		    		data[a] = new Double(getAttribute(a+offSet).getValueAt(d).toString());
-		    	} else if (attributes.get(a).getName().equals("Category")) {
-		    		
-		    		// if there is no attribute called NumbersOfCategories the DataSet was already previously converted
-		    		// and the category attribute is already in the correct form
-		    		if(!getAttributeNames().contains("NumberOfCategories")) {
-		    			data[a] = mapping.mapString(getAttribute(a).getValueAt(d).toString());
-		    		}
-		    		
-		    		//If there is only one category. The label attribute gets the values "Category" and "NOT_Category"
-		    		//the number of categories is saved before the name
-		    		else if(numberOfCategories == 1) {
-		    			data[a] = mapping.mapString(numberOfCategories + "-" + ((double)getAttribute(a+1).getValueAt(d) >= 0.5 ? "" : "NOT_") + getAttribute(a+1).getName());
-		    			//if there are are still attributes after the categories they have to be put at an offset in the array
-			    		//because the attribute "NumberOfCategories" and the relationships of the different categories correspond to only one index in the array
-			    		//that being the index of the label attribute
-					    offSet += numberOfCategories;
-		    		}
-		    		//Otherwise the label attribute gets the name of the category of the current classification window as its name.
-		    		//the number of categories and the number of the current category is saved before the name
-		    		else {
-		    			for(int i = 0; i < numberOfCategories; i++) {
-		    				//add the name of the current category
-		    				if((double)getAttribute(a+1+i).getValueAt(d) == 1) {
-		    					data[a] = mapping.mapString(numberOfCategories + "-" +  i + "-" + getAttribute(a+1+i).getName());
-		    				}
-		    			}
-		    			//if there are are still attributes after the categories they have to be put at an offset in the array
-			    		//because the attribute "NumberOfCategories" and the relationships of the different categories correspond to only one index in the array
-			    		//that being the index of the label attribute
-					    offSet += numberOfCategories;
-		    		}
-		    		
-				} else if (getAttribute(a+offSet) instanceof StringAttribute) {
-		    		data[a] = attributes.get(a).getMapping().mapString(
-				    getAttribute(a+offSet).getValueAt(d).toString());
-		    	} else {
-		    		data[a] = new Double(getAttribute(a+offSet).getValueAt(d).toString());
-		    	}
-		    }
+		for (int d = 0; d < valueCount; d++) {
+			double[] data = new double[columnCount];
+			for (int a = 0; a < columnCount; a++) {
+				switch(kindOfColumn[a]) {
+				case COLUMN_VALUE:
+					data[a] = toDouble(sourceOfColumn[a].getValueAt(d));
+					break;
+				case COLUMN_NOMINAL:
+					data[a] = mappingOfColumn[a].mapString(sourceOfColumn[a].getValueAt(d).toString());
+					break;
+				case COLUMN_SINGLE_CATEGORY:
+					data[a] = mapLabel(mappingOfColumn[a], labelsOfColumn[a], labelIndicesOfColumn[a],
+							(double)categoriesOfColumn[a][0].getValueAt(d) >= 0.5 ? 0 : 1);
+					break;
+				case COLUMN_MULTIPLE_CATEGORIES:
+					for(int i = 0; i < categoriesOfColumn[a].length; i++) {
+						//add the name of the current category
+						if((double)categoriesOfColumn[a][i].getValueAt(d) == 1) {
+							data[a] = mapLabel(mappingOfColumn[a], labelsOfColumn[a], labelIndicesOfColumn[a], i);
+						}
+					}
+					break;
+				}
+			}
 	
-		    // Add data row
-		    table.addDataRow(new DoubleArrayDataRow(data));
+			// Add data row
+			table.addDataRow(new DoubleArrayDataRow(data));
 		}
 	
 		// Create example set
 		return table.createExampleSet(labelAttribute, null, idAttribute);
     }
+    
+    /**
+     * Returns the index of the given label in the label mapping, mapping the label on its first use
+     */
+    private static int mapLabel(NominalMapping mapping, String[] labels, int[] labelIndices, int label) {
+    	if(labelIndices[label] == -1) {
+    		labelIndices[label] = mapping.mapString(labels[label]);
+    	}
+    	return labelIndices[label];
+    }
+    
+    /**
+     * Converts an attribute value to double without the detour over its string representation, if possible
+     */
+    private static double toDouble(Object value) {
+    	if(value instanceof Double) {
+    		return (Double)value;
+    	}
+    	return Double.parseDouble(value.toString());
+    }
 
     public final void saveToArffFile(File file) throws IOException {
 		ArffDataSet arffDataSet = new ArffDataSet(this.name);
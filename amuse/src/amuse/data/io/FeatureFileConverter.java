@@ -0,0 +1,228 @@
+/**
+ * This file is part of AMUSE framework (Advanced MUsic Explorer).
+ *
+ * Copyright 2006-2010 by code authors
+ *
+ * Created at TU Dortmund, Chair of Algorithm Engineering
+ * (Contact: <http://ls11-www.cs.tu-dortmund.de>)
+ *
+ * AMUSE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AMUSE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with AMUSE. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Creation date: 18.10.2026
+ */
+package amuse.data.io;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.apache.log4j.Level;
+
+import amuse.data.io.attributes.Attribute;
+import amuse.data.io.attributes.NominalAttribute;
+import amuse.data.io.attributes.StringAttribute;
+import amuse.preferences.AmusePreferences;
+import amuse.preferences.KeysIntValue;
+import amuse.util.AmuseLogger;
+
+/**
+ * Converts feature files between ARFF and the binary feature file format (see BinaryFeatureFile).
+ * The file names are not changed, since the format is recognized by the file header. Can be started
+ * from command line to convert complete feature databases:
+ *
+ * FeatureFileConverter %1 %2, where
+ * %1 - Folder with feature files (e.g. feature database or processed feature database)
+ * %2 - Target format: "arff", "binary" or "binary32"
+ *
+ * @author agent
+ * @version $Id$
+ */
+public class FeatureFileConverter {
+
+	/** Values of KeysIntValue.FEATURE_FILE_FORMAT */
+	public static final int FORMAT_ARFF = 0;
+	public static final int FORMAT_BINARY = 1;
+	public static final int FORMAT_BINARY_SINGLE_PRECISION = 2;
+
+	/**
+	 * Converts all feature files in the given folder and its subfolders
+	 * @param args Folder and target format
+	 */
+	public static void main(String[] args) {
+		if(args.length < 2) {
+			System.out.println("The usage is 'FeatureFileConverter %1 %2', where: \n" +
+					"%1 - Folder with feature files\n" +
+					"%2 - Target format: arff, binary or binary32\n");
+			System.exit(1);
+		}
+		int format;
+		if(args[1].equalsIgnoreCase("arff")) {
+			format = FORMAT_ARFF;
+		} else if(args[1].equalsIgnoreCase("binary")) {
+			format = FORMAT_BINARY;
+		} else if(args[1].equalsIgnoreCase("binary32")) {
+			format = FORMAT_BINARY_SINGLE_PRECISION;
+		} else {
+			System.out.println("Unknown target format: " + args[1]);
+			System.exit(1);
+			return;
+		}
+		int convertedFiles = convertFolder(new File(args[0]), format);
+		AmuseLogger.write(FeatureFileConverter.class.getName(), Level.INFO, convertedFiles + " feature files converted");
+	}
+
+	/**
+	 * Converts all files with "arff" extension in the given folder and its subfolders.
+	 * Files which can not be converted are left unchanged
+	 * @param folder Folder to convert
+	 * @param format Target format
+	 * @return Number of converted files
+	 */
+	public static int convertFolder(File folder, int format) {
+		int convertedFiles = 0;
+		File[] files = folder.listFiles();
+		if(files == null) {
+			return 0;
+		}
+		for(int i=0;i<files.length;i++) {
+			if(files[i].isDirectory()) {
+				convertedFiles += convertFolder(files[i], format);
+			} else if(files[i].getName().toLowerCase().endsWith(".arff")) {
+				try {
+					if(convert(files[i], format)) {
+						convertedFiles++;
+					}
+				} catch(IOException e) {
+					AmuseLogger.write(FeatureFileConverter.class.getName(), Level.WARN,
+							"Could not convert the feature file " + files[i].getPath() + ": " + e.getMessage());
+				}
+			}
+		}
+		return convertedFiles;
+	}
+
+	/**
+	 * Converts the given file to the format chosen in AMUSE preferences
+	 * @param file Feature file
+	 * @return True if the file was converted
+	 * @throws IOException
+	 */
+	public static boolean convertToConfiguredFormat(File file) throws IOException {
+		return convert(file, AmusePreferences.getInt(KeysIntValue.FEATURE_FILE_FORMAT));
+	}
+
+	/**
+	 * Converts the given file to the given format, replacing the original file
+	 * @param file Feature file
+	 * @param format Target format
+	 * @return True if the file was converted, false if it is already stored in the target format
+	 * @throws IOException
+	 */
+	public static boolean convert(File file, int format) throws IOException {
+		boolean isBinary = BinaryFeatureFile.isBinaryFile(file);
+		File tempFile = new File(file.getPath() + ".tmp");
+		if(format == FORMAT_ARFF) {
+			if(!isBinary) {
+				return false;
+			}
+			BufferedWriter writer = new BufferedWriter(new FileWriter(tempFile));
+			try {
+				new BinaryFeatureFile(file).writeArff(writer);
+			} finally {
+				writer.close();
+			}
+		} else {
+			boolean singlePrecision = format == FORMAT_BINARY_SINGLE_PRECISION;
+			if(isBinary && new BinaryFeatureFile(file).isSinglePrecision() == singlePrecision) {
+				return false;
+			}
+			BinaryFeatureFile binaryFile = isBinary ? new BinaryFeatureFile(file) : loadArff(file);
+			binaryFile.save(tempFile, singlePrecision);
+		}
+		if(!file.delete() || !tempFile.renameTo(file)) {
+			throw new IOException("Could not replace the file " + file.getPath());
+		}
+		return true;
+	}
+
+	/**
+	 * Loads an ARFF file into a binary feature file. The "%key=value" comments of the
+	 * header are stored as metadata
+	 * @param file ARFF file
+	 * @return Binary feature file which can be saved
+	 * @throws IOException
+	 */
+	public static BinaryFeatureFile loadArff(File file) throws IOException {
+		ArffDataSet dataSet = new ArffDataSet(file);
+		BinaryFeatureFile binaryFile = new BinaryFeatureFile(dataSet.getName());
+		BufferedReader reader = new BufferedReader(new FileReader(file));
+		try {
+			String line = reader.readLine();
+			while(line != null && !line.trim().toUpperCase().startsWith(ArffDataSet.dataStr)) {
+				if(line.startsWith("%") && line.indexOf('=') != -1) {
+					binaryFile.addMetadata(line.substring(1, line.indexOf('=')), line.substring(line.indexOf('=') + 1));
+				}
+				line = reader.readLine();
+			}
+		} finally {
+			reader.close();
+		}
+		// Read the values line by line, since the data set buffers the lines of the file
+		int valueCount = dataSet.getValueCount();
+		int attributeCount = dataSet.getAttributeCount();
+		double[][] columns = new double[attributeCount][valueCount];
+		for(int j=0;j<valueCount;j++) {
+			for(int i=0;i<attributeCount;i++) {
+				columns[i][j] = dataSet.getValueFor(j, dataSet.getAttribute(i));
+			}
+		}
+		for(int i=0;i<attributeCount;i++) {
+			Attribute attribute = dataSet.getAttribute(i);
+			if(attribute instanceof StringAttribute) {
+
+				// String values are indexed in the order of their occurrence
+				List<String> stringValues = new ArrayList<String>();
+				HashMap<String, Integer> stringIndices = new HashMap<String, Integer>();
+				for(int j=0;j<valueCount;j++) {
+					if(Double.isNaN(columns[i][j])) {
+						continue;
+					}
+					String value = ((StringAttribute)attribute).getValueAt(j);
+					Integer index = stringIndices.get(value);
+					if(index == null) {
+						index = stringValues.size();
+						stringValues.add(value);
+						stringIndices.put(value, index);
+					}
+					columns[i][j] = index;
+				}
+				binaryFile.addAttribute(attribute.getName(), BinaryFeatureFile.STRING, stringValues, columns[i]);
+			} else if(attribute instanceof NominalAttribute) {
+				binaryFile.addAttribute(attribute.getName(), BinaryFeatureFile.NOMINAL,
+						Arrays.asList(((NominalAttribute)attribute).getNominalValues()), columns[i]);
+			} else {
+				binaryFile.addNumericAttribute(attribute.getName(), columns[i]);
+			}
+		}
+		return binaryFile;
+	}
+
+}
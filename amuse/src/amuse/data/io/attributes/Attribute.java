@@ -24,6 +24,7 @@
 package amuse.data.io.attributes;
 
 import java.io.Serializable;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -50,7 +51,7 @@ public abstract class Attribute implements AttributeInterface, Serializable {
     /**
      * The list that stores any kind of values.
      */
-    protected final List valueList = new ArrayList<Object>();
+    protected final List valueList;
     /**
      * The Attribute String as used in ARFF.
      */
@@ -64,6 +65,7 @@ public abstract class Attribute implements AttributeInterface, Serializable {
     Attribute(String name, ArffDataSet dataSet) {
         this.name = name;
         this.arffDataSet = dataSet;
+        this.valueList = new ArrayList<Object>();
     }
 
     /**
@@ -73,12 +75,24 @@ public abstract class Attribute implements AttributeInterface, Serializable {
      */
     protected Attribute(String name, List list) {
         this.name = name;
-        this.valueList.addAll(list);
+        this.valueList = new ArrayList<Object>(list);
+    }
+
+    /**
+     * Creates a new Attribute which shows the values of the source Attribute at the given indices.
+     * The values are not copied, so the new Attribute can not be changed.
+     * @param source Attribute with the values.
+     * @param indices Indices of the shown values in the source Attribute.
+     */
+    protected Attribute(Attribute source, int[] indices) {
+        this.name = source.name;
+        this.valueList = new IndexedValueList(source, indices);
     }
 
     @SuppressWarnings("unused")
 	private Attribute() {
         this.name = null;
+        this.valueList = null;
     }
 
     @Override
@@ -132,5 +146,27 @@ public abstract class Attribute implements AttributeInterface, Serializable {
             valueList.add(value);
         }
     }
-}
 
+    /**
+     * Read-only list of the values of an Attribute at the given indices.
+     */
+    private static final class IndexedValueList extends AbstractList<Object> implements Serializable {
+        private final Attribute source;
+        private final int[] indices;
+
+        private IndexedValueList(Attribute source, int[] indices) {
+            this.source = source;
+            this.indices = indices;
+        }
+
+        @Override
+        public Object get(int index) {
+            return source.getValueAt(indices[index]);
+        }
+
+        @Override
+        public int size() {
+            return indices.length;
+        }
+    }
+}
@@ -123,6 +123,21 @@ public class NominalAttribute extends Attribute {
 		this(a.name, a.getValues());
 	}
 
+	/**
+	 * Creates a read-only NominalAttribute which shows the values of the
+	 * source Attribute at the given indices without copying them. The
+	 * nominal values are taken from the source Attribute.
+	 * 
+	 * @param source
+	 *            Attribute with the values.
+	 * @param indices
+	 *            Indices of the shown values in the source Attribute.
+	 */
+	public NominalAttribute(NominalAttribute source, int[] indices) {
+		super(source, indices);
+		nominalValues.addAll(source.nominalValues);
+	}
+
 	public static NominalAttribute createFromBooleans(String name,
 			List<Boolean> values) {
 		ArrayList<String> allowedValues = new ArrayList<String>();
@@ -79,6 +79,19 @@ public class NumericAttribute extends Attribute {
 		this(a.name, a.getValues());
 	}
 
+	/**
+	 * Creates a read-only NumericAttribute which shows the values of the
+	 * source Attribute at the given indices without copying them.
+	 * 
+	 * @param source
+	 *            Attribute with the values.
+	 * @param indices
+	 *            Indices of the shown values in the source Attribute.
+	 */
+	public NumericAttribute(NumericAttribute source, int[] indices) {
+		super(source, indices);
+	}
+
     public NumericAttribute(String name, Double[] aDouble) {
 	this(name, Arrays.asList(aDouble));
     }
@@ -96,6 +96,19 @@ public class StringAttribute extends Attribute {
 		this(a.name, a.getValues());
 	}
 
+	/**
+	 * Creates a read-only StringAttribute which shows the values of the
+	 * source Attribute at the given indices without copying them.
+	 * 
+	 * @param source
+	 *            Attribute with the values.
+	 * @param indices
+	 *            Indices of the shown values in the source Attribute.
+	 */
+	public StringAttribute(StringAttribute source, int[] indices) {
+		super(source, indices);
+	}
+
     public StringAttribute(String name, String[] string) {
 	this(name, Arrays.asList(string));
     }
@@ -27,6 +27,17 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.log4j.Level;
 
@@ -35,6 +46,7 @@ import amuse.interfaces.nodes.NodeEventListener;
 import amuse.interfaces.nodes.NodeEventSource;
 import amuse.interfaces.nodes.NodeScheduler;
 import amuse.preferences.AmusePreferences;
+import amuse.preferences.KeysIntValue;
 import amuse.preferences.KeysStringValue;
 import amuse.scheduler.taskstarters.ClassificationStarter;
 import amuse.scheduler.taskstarters.ClassificationTrainingStarter;
@@ -43,6 +55,7 @@ import amuse.scheduler.taskstarters.FeatureExtractionStarter;
 import amuse.scheduler.taskstarters.FeatureProcessingStarter;
 import amuse.scheduler.taskstarters.OptimizationStarter;
 import amuse.util.AmuseLogger;
+import amuse.util.ExternalProcessBuilder;
 import amuse.util.FileOperations;
 
 /**
@@ -73,6 +86,18 @@ public abstract class AmuseTaskStarter implements AmuseTaskStarterInterface, Nod
     /** If true, node scheduler will be started directly as thread; if false, it will be started
      * via command line script (e.g. processing the task to grid) */
     protected boolean startNodeDirectly = true;
+    
+    /** Executes the node schedulers which are started locally */
+    private ExecutorService nodeSchedulerExecutor = null;
+    
+    /** Cancels the node schedulers which exceed the task timeout */
+    private ScheduledExecutorService timeoutExecutor = null;
+    
+    /** Limits the number of submitted node schedulers to the maximum number of task threads */
+    private Semaphore freeTaskSlots = null;
+    
+    /** Node scheduler jobs which have been submitted and not yet waited for */
+    private final List<NodeSchedulerTask> submittedTasks = new ArrayList<NodeSchedulerTask>();
 
     /**
      * Constructor
@@ -148,12 +173,183 @@ public abstract class AmuseTaskStarter implements AmuseTaskStarterInterface, Nod
     public void processEvent(NodeEvent event) {
         AmuseLogger.write(this.getClass().getName(), Level.INFO, "Job "
                 + ((NodeScheduler) event.getEventSource()).getTaskId() + " ready");
-        this.nodeSchedulers.remove(event.getEventSource());
+        synchronized(this.nodeSchedulers) {
+        	this.nodeSchedulers.remove(event.getEventSource());
+        }
 
         // DEBUG Show the current number of threads
         //System.out.println("Current Number of Threads: " + this.processorNodeSchedulers.size());
     }
 
+    /**
+     * Starts the given node scheduler locally. If the maximum number of task threads is
+     * running, blocks until one of the running node schedulers has finished
+     * @param nodeScheduler Node scheduler with set thread parameters
+     * @throws SchedulerException If the task starter was interrupted while waiting; the node schedulers
+     * started before are cancelled in this case
+     */
+    protected void startNodeScheduler(NodeScheduler nodeScheduler) throws SchedulerException {
+    	if(this.nodeSchedulerExecutor == null) {
+    		int maxNumberOfTaskThreads = AmusePreferences.getInt(KeysIntValue.MAX_NUMBER_OF_TASK_THREADS);
+    		this.nodeSchedulerExecutor = Executors.newFixedThreadPool(maxNumberOfTaskThreads);
+    		this.freeTaskSlots = new Semaphore(maxNumberOfTaskThreads);
+    		if(AmusePreferences.getInt(KeysIntValue.TASK_TIMEOUT_IN_MINUTES) > 0) {
+    			this.timeoutExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+    				public Thread newThread(Runnable runnable) {
+    					Thread thread = new Thread(runnable, "Amuse task timeout");
+    					thread.setDaemon(true);
+    					return thread;
+    				}
+    			});
+    		}
+    	}
+    	boolean submitted = false;
+    	try {
+    		this.freeTaskSlots.acquire();
+	    	synchronized(this.nodeSchedulers) {
+	    		this.nodeSchedulers.add(nodeScheduler);
+	    	}
+	    	NodeSchedulerTask task = new NodeSchedulerTask(nodeScheduler);
+	    	this.submittedTasks.add(task);
+	    	this.nodeSchedulerExecutor.execute(task);
+	    	submitted = true;
+    	} catch(InterruptedException e) {
+    		throw new SchedulerException(this.getClass().getName() + " was interrupted: " + e.getMessage());
+    	} finally {
+    		
+    		// The jobs submitted before are not waited for in this case
+    		if(!submitted) {
+    			cancelNodeSchedulers();
+    		}
+    	}
+    }
+    
+    /**
+     * Waits until all node schedulers started with startNodeScheduler() are finished. Node schedulers
+     * which exceed the task timeout are cancelled and reported as failed
+     * @throws SchedulerException If the task starter was interrupted while waiting; all running node
+     * schedulers are cancelled in this case
+     */
+    protected void waitForNodeSchedulers() throws SchedulerException {
+    	try {
+	    	for(NodeSchedulerTask task : this.submittedTasks) {
+	    		try {
+	    			task.get();
+	    		} catch(CancellationException e) {
+	    			
+	    			// The interrupted node scheduler may still be running until it reaches an interruption point
+	    			task.awaitEnd();
+	    			AmuseLogger.write(this.getClass().getName(), Level.ERROR, "Job " + task.nodeScheduler.getTaskId() + 
+	    					" was cancelled after the timeout of " + AmusePreferences.getInt(KeysIntValue.TASK_TIMEOUT_IN_MINUTES) + " minutes");
+	    			task.nodeScheduler.getErrorDescriptionBuilder().append(" (job " + task.nodeScheduler.getTaskId() + " timed out)");
+	    		} catch(ExecutionException e) {
+	    			AmuseLogger.write(this.getClass().getName(), Level.ERROR, "Job " + task.nodeScheduler.getTaskId() + 
+	    					" failed: " + e.getCause());
+	    			task.nodeScheduler.getErrorDescriptionBuilder().append(" (job " + task.nodeScheduler.getTaskId() + " failed)");
+	    		}
+	    	}
+    	} catch(InterruptedException e) {
+    		throw new SchedulerException(this.getClass().getName() + " was interrupted: " + e.getMessage());
+    	} finally {
+    		cancelNodeSchedulers();
+    	}
+    }
+    
+    /**
+     * Cancels the submitted node schedulers which are still running, destroys their external
+     * processes and shuts the executors down
+     */
+    private void cancelNodeSchedulers() {
+    	for(NodeSchedulerTask task : this.submittedTasks) {
+    		task.kill();
+    	}
+    	this.submittedTasks.clear();
+    	if(this.nodeSchedulerExecutor != null) {
+    		this.nodeSchedulerExecutor.shutdownNow();
+    		this.nodeSchedulerExecutor = null;
+    	}
+    	if(this.timeoutExecutor != null) {
+    		this.timeoutExecutor.shutdownNow();
+    		this.timeoutExecutor = null;
+    	}
+    }
+    
+    /**
+     * Runs a node scheduler. If it is cancelled, the external processes started by it are destroyed.
+     * The task slot is released only after the node scheduler has returned, so that a cancelled
+     * node scheduler which is still running is counted until it ends
+     */
+    private class NodeSchedulerTask extends FutureTask<Object> {
+    	
+    	private final NodeScheduler nodeScheduler;
+    	private final Semaphore taskSlots;
+    	private final CountDownLatch end = new CountDownLatch(1);
+    	private ScheduledFuture<?> timeout = null;
+    	private List<Process> processes = null;
+    	
+    	NodeSchedulerTask(NodeScheduler nodeScheduler) {
+    		super(nodeScheduler, null);
+    		this.nodeScheduler = nodeScheduler;
+    		this.taskSlots = freeTaskSlots;
+    	}
+    	
+    	@Override
+    	public void run() {
+    		try {
+    			synchronized(this) {
+    				if(isDone()) {
+    					return;
+    				}
+    				this.processes = ExternalProcessBuilder.trackProcesses();
+    				if(timeoutExecutor != null) {
+    					this.timeout = timeoutExecutor.schedule(new Runnable() {
+    						public void run() {
+    							kill();
+    						}
+    					}, AmusePreferences.getInt(KeysIntValue.TASK_TIMEOUT_IN_MINUTES), TimeUnit.MINUTES);
+    				}
+    			}
+    			super.run();
+    		} finally {
+    			ExternalProcessBuilder.stopTrackingProcesses();
+    			if(isCancelled()) {
+    				kill();
+    			}
+    			synchronized(nodeSchedulers) {
+    				nodeSchedulers.remove(this.nodeScheduler);
+    			}
+    			this.taskSlots.release();
+    			this.end.countDown();
+    		}
+    	}
+    	
+    	/**
+    	 * Interrupts the node scheduler and destroys the external processes started by it
+    	 */
+    	synchronized void kill() {
+    		cancel(true);
+    		if(isCancelled() && this.processes != null) {
+    			ExternalProcessBuilder.destroyProcesses(this.processes);
+    		}
+    	}
+    	
+    	/**
+    	 * Waits until the node scheduler has returned
+    	 */
+    	void awaitEnd() throws InterruptedException {
+    		this.end.await();
+    	}
+    	
+    	@Override
+    	protected void done() {
+    		synchronized(this) {
+	    		if(this.timeout != null) {
+	    			this.timeout.cancel(false);
+	    		}
+    		}
+    	}
+    }
+
     /**
      * Removes input folder of the corresponding node (which contains intermediate results)
      * @throws Exception
@@ -47,6 +47,7 @@ import amuse.data.ModelType.RelationshipType;
 import amuse.data.annotation.ClassifiedClassificationWindow;
 import amuse.data.annotation.ClassificationWindowsDescription;
 import amuse.data.io.ArffDataSet;
+import amuse.data.io.BinaryFeatureFile;
 import amuse.data.io.DataInputInterface;
 import amuse.data.io.DataSet;
 import amuse.data.io.DataSetAbstract;
@@ -460,7 +461,7 @@ public class ClassifierNodeScheduler extends NodeScheduler {
 					
 					ArffLoader classifierInputLoader = new ArffLoader();
 					Instance inputInstance;
-					classifierInputLoader.setFile(new File(currentInputFile));
+					classifierInputLoader.setSource(BinaryFeatureFile.openAsArffStream(new File(currentInputFile)));
 					inputInstance = classifierInputLoader.getNextInstance(classifierInputLoader.getStructure());
 						
 					// Save the attributes omitting UNIT, START and END attributes (they describe the classification window for modeled features)
@@ -516,7 +517,7 @@ public class ClassifierNodeScheduler extends NodeScheduler {
 						// Load processed features of the current file and save them to classifier input file
 						ArffLoader processedFeaturesLoader = new ArffLoader();
 						Instance processedFeaturesInstance;
-						processedFeaturesLoader.setFile(new File(currentInputFile));
+						processedFeaturesLoader.setSource(BinaryFeatureFile.openAsArffStream(new File(currentInputFile)));
 						processedFeaturesInstance = processedFeaturesLoader.getNextInstance(processedFeaturesLoader.getStructure());
 						
 						// check if the processing is consistent
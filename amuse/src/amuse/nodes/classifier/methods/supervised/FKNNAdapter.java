@@ -24,8 +24,15 @@ package amuse.nodes.classifier.methods.supervised;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.log4j.Level;
 
@@ -40,6 +47,8 @@ import amuse.interfaces.nodes.methods.AmuseTask;
 import amuse.nodes.classifier.ClassificationConfiguration;
 import amuse.nodes.classifier.ClassifierNodeScheduler;
 import amuse.nodes.classifier.interfaces.ClassifierInterface;
+import amuse.preferences.AmusePreferences;
+import amuse.preferences.KeysIntValue;
 import amuse.util.AmuseLogger;
 
 /**
@@ -49,6 +58,18 @@ import amuse.util.AmuseLogger;
  */
 public class FKNNAdapter extends AmuseTask implements ClassifierInterface {
 
+	/** Number of windows to classify which are processed together by one thread */
+	private static final int WINDOWS_PER_BLOCK = 64;
+	
+	/** The training windows are indexed by a k-d tree only for few dimensions.. */
+	private static final int MAXIMUM_DIMENSIONS_FOR_TREE = 10;
+	
+	/** ..and enough training windows */
+	private static final int MINIMUM_WINDOWS_FOR_TREE = 256;
+	
+	/** Maximum number of training windows in a leaf of the k-d tree */
+	private static final int WINDOWS_PER_LEAF = 16;
+
 	private int neighborNumber;
 	private int m;
 
@@ -80,7 +101,7 @@ public class FKNNAdapter extends AmuseTask implements ClassifierInterface {
 	 * @see amuse.nodes.classifier.interfaces.ClassifierInterface#classify(java.lang.String)
 	 */
 	public void classify(String pathToModelFile) throws NodeException {
-		DataSet dataSetToClassify = ((DataSetInput)((ClassificationConfiguration)this.correspondingScheduler.
+		final DataSet dataSetToClassify = ((DataSetInput)((ClassificationConfiguration)this.correspondingScheduler.
 				getConfiguration()).getInputToClassify()).getDataSet();
 		
 		boolean fuzzy = ((ClassificationConfiguration)this.correspondingScheduler.getConfiguration()).getRelationshipType() == RelationshipType.CONTINUOUS;
@@ -98,119 +119,70 @@ public class FKNNAdapter extends AmuseTask implements ClassifierInterface {
 				dataSetToClassify.addAttribute(new NumericAttribute("Predicted_" + trainingDataSet.getAttribute(i).getName(), new ArrayList<Double>()));
 			}
 			
-			//iterate through every classification window that has to be classified
-			for(int classificationWindowToClassify = 0; classificationWindowToClassify < dataSetToClassify.getAttribute(0).getValueCount(); classificationWindowToClassify++) {
-				
-				//SortedSet of the k nearestNeighbors
-				SortedSet<Example> nearestNeighbors = new TreeSet<Example>();
-				
-				//iterate through all training tracks/clasification windows
-				for(int trainingWindow = 0; trainingWindow < trainingDataSet.getValueCount(); trainingWindow++) {
-					double distance = 0;
-					double classifyValue = 0;
-					double trainValue = 0;
-					boolean nanClassify = false;
-					boolean nanTrain = false;
-					//calculate the distance between test window and training window
-					for(int n = 0; n < trainingDataSet.getAttributeCount() - numberOfCategories - 2; n++) {
-						classifyValue = (Double)dataSetToClassify.getAttribute(n).getValueAt(classificationWindowToClassify);
-						trainValue = (Double)trainingDataSet.getAttribute(n).getValueAt(trainingWindow);
-						if(Double.isNaN(classifyValue)){
-							try {
-								AmuseLogger.write(FKNNAdapter.class.getClass().getName(), Level.WARN,"Not a Number in track " + dataSetToClassify.getAttribute("Id").getValueAt(classificationWindowToClassify));
-							} catch(DataSetException e) {
-								AmuseLogger.write(FKNNAdapter.class.getClass().getName(), Level.WARN,"Not a Number in an input track");
+			// Pack the training windows and the windows to classify into row-major matrices
+			final TrainingWindows trainingWindows = new TrainingWindows(trainingDataSet, 
+					trainingDataSet.getAttributeCount() - numberOfCategories - 2, positionOfFirstCategory, numberOfCategories);
+			final int numberOfDimensions = trainingWindows.numberOfDimensions;
+			final int numberOfWindows = dataSetToClassify.getAttribute(0).getValueCount();
+			final double[] windowsToClassify = new double[numberOfWindows * numberOfDimensions];
+			for(int n = 0; n < numberOfDimensions; n++) {
+				for(int classificationWindowToClassify = 0; classificationWindowToClassify < numberOfWindows; classificationWindowToClassify++) {
+					windowsToClassify[classificationWindowToClassify * numberOfDimensions + n] = 
+							(Double)dataSetToClassify.getAttribute(n).getValueAt(classificationWindowToClassify);
+				}
+			}
+			
+			// Classify the windows in parallel blocks; the results are added to the data set in the original order
+			final double[][] relationshipsOfWindows = new double[numberOfWindows][];
+			final NodeException[] errorsOfWindows = new NodeException[numberOfWindows];
+			// The number of threads is limited by the preferences, since the classifier may run in parallel validation runs
+			final int numberOfBlocks = (numberOfWindows + WINDOWS_PER_BLOCK - 1) / WINDOWS_PER_BLOCK;
+			int numberOfThreads = Math.min(numberOfBlocks, AmusePreferences.getInt(KeysIntValue.NUMBER_OF_CLASSIFICATION_THREADS));
+			if(numberOfThreads > 1) {
+				ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+				try {
+					// Each thread takes the next block until all blocks are classified, so that the search buffers are allocated once per thread
+					final AtomicInteger nextBlock = new AtomicInteger();
+					List<Future<?>> futures = new ArrayList<Future<?>>(numberOfThreads);
+					for(int thread = 0; thread < numberOfThreads; thread++) {
+						futures.add(executor.submit(new Runnable() {
+							public void run() {
+								SearchBuffers buffers = trainingWindows.createSearchBuffers(neighborNumber);
+								for(int block = nextBlock.getAndIncrement(); block < numberOfBlocks; block = nextBlock.getAndIncrement()) {
+									int firstWindow = block * WINDOWS_PER_BLOCK;
+									int lastWindow = Math.min(firstWindow + WINDOWS_PER_BLOCK, numberOfWindows);
+									classifyWindows(trainingWindows, windowsToClassify, firstWindow, lastWindow, buffers, relationshipsOfWindows, errorsOfWindows);
+								}
 							}
-							nanClassify = true;
-							break;
-						}
-						if(Double.isNaN(trainValue)){
-							nanTrain = true;
-							break;
-						}
-						
-						distance += Math.pow(classifyValue - trainValue, 2);
+						}));
 					}
-					if(nanClassify) {//if there is a NaN in the window, we want to classify, we cannot properly classify it
-						break;
-					}
-					if(nanTrain) {//if there is a NaN in the training window, we ignore that window
-						continue;
-					}
-					
-					distance = Math.sqrt(distance);
-					
-					//what category has the training window?
-					double[] currentRelationships = new double[numberOfCategories];
-					
-					for(int category = 0; category < numberOfCategories; category++) {
-						currentRelationships[category] = (double)trainingDataSet.getAttribute(positionOfFirstCategory + category).getValueAt(trainingWindow);
-					}
-					
-					Example currentExample = new Example(distance, currentRelationships);
-					
-					//add the Example to the k nearest neighbors. Remove the Example with the largest distance, if we have to many neighbors.
-					nearestNeighbors.add(currentExample);
-					if(nearestNeighbors.size() > neighborNumber) {
-						nearestNeighbors.remove(nearestNeighbors.last());
+					for(Future<?> future : futures) {
+						future.get();
 					}
+				} finally {
+					executor.shutdownNow();
 				}
+			} else {
+				classifyWindows(trainingWindows, windowsToClassify, 0, numberOfWindows, trainingWindows.createSearchBuffers(neighborNumber), 
+						relationshipsOfWindows, errorsOfWindows);
+			}
+			
+			for(int classificationWindowToClassify = 0; classificationWindowToClassify < numberOfWindows; classificationWindowToClassify++) {
 				
-				if(nearestNeighbors.size() == 0) {//If no neighbors were found (probably because of NaN in the classification window that has to be classified), the window cannot be properly classified
-					throw new NodeException("Classification window cannot be classified, because no neighbours were found.");
-				}
-				
-				//make sure that the distances are not 0
-				boolean allZero = nearestNeighbors.last().distance == 0;
-				
-				//if all distances are 0, they are weighed equally
-				if(allZero) {
-					AmuseLogger.write(FKNNAdapter.class.getClass().getName(), Level.WARN,"Distances are zero!");
-					for(Example example : nearestNeighbors) {
-						example.distance = 1;
-					}
-				} else { //otherwise all distances that are 0 are set to a value that is not 0, but is still the smallest distance
-					double minimumDistance = 0; //the smallest distance that is not 0
-					for(Example example : nearestNeighbors) {
-						if(example.distance != 0) {
-							minimumDistance = example.distance;
-							break;
-						}
-					}
-					for(Example example : nearestNeighbors) {
-						if(example.distance == 0) {
-							example.distance = minimumDistance/2;
-						}
-						else {
-							break;
+				// The first window which could not be classified stops the classification
+				if(errorsOfWindows[classificationWindowToClassify] != null) {
+					if(hasNaN(windowsToClassify, classificationWindowToClassify * numberOfDimensions, numberOfDimensions) && 
+							trainingWindows.reachesNaN(windowsToClassify, classificationWindowToClassify * numberOfDimensions)) {
+						try {
+							AmuseLogger.write(FKNNAdapter.class.getClass().getName(), Level.WARN,"Not a Number in track " + dataSetToClassify.getAttribute("Id").getValueAt(classificationWindowToClassify));
+						} catch(DataSetException e) {
+							AmuseLogger.write(FKNNAdapter.class.getClass().getName(), Level.WARN,"Not a Number in an input track");
 						}
 					}
+					throw errorsOfWindows[classificationWindowToClassify];
 				}
+				double[] relationships = relationshipsOfWindows[classificationWindowToClassify];
 				
-				double[] relationships = new double[numberOfCategories];
-				
-				for(int category = 0; category < numberOfCategories; category++) {
-				
-					double relationship;
-					double enumerator = 0;
-					double denominator = 0;
-					double weight;
-				
-					for(Example example : nearestNeighbors) {
-						weight = 1.0/(Math.pow(example.distance, 2/(m - 1)));
-						enumerator += example.relationships[category] * weight;
-						denominator += weight;
-					}
-					relationship = enumerator/denominator;
-					
-					//make sure that no errors happened with too small distances (or something similar)
-					if(Double.isNaN(relationship)) {
-						throw new NodeException("Relationship is NaN");
-					}
-					
-					//add the correctValues of Relationship and PredictedCategory to the DataSet
-					relationships[category] = relationship;	
-				}
 				if(multiclass) {
 					double maxRelationship = 0.0;
 					int positionOfMaxRelationship = 0;
@@ -238,6 +210,447 @@ public class FKNNAdapter extends AmuseTask implements ClassifierInterface {
 		}
 	}
 	
+	/**
+	 * Calculates the relationships for the given windows. If a window can not be classified, the exception
+	 * is saved instead of the relationships
+	 */
+	private void classifyWindows(TrainingWindows trainingWindows, double[] windowsToClassify, int firstWindow, int lastWindow,
+			SearchBuffers buffers, double[][] relationshipsOfWindows, NodeException[] errorsOfWindows) {
+		for(int classificationWindowToClassify = firstWindow; classificationWindowToClassify < lastWindow; classificationWindowToClassify++) {
+			try {
+				relationshipsOfWindows[classificationWindowToClassify] = classifyWindow(trainingWindows, windowsToClassify, 
+						classificationWindowToClassify * trainingWindows.numberOfDimensions, buffers);
+			} catch(NodeException e) {
+				errorsOfWindows[classificationWindowToClassify] = e;
+			}
+		}
+	}
+	
+	/**
+	 * Calculates the relationships of one window to the categories
+	 * @param trainingWindows Training windows
+	 * @param windowsToClassify Row-major matrix with the windows to classify
+	 * @param offset Offset of the window to classify in the matrix
+	 * @param buffers Search buffers of the current thread or null if the training windows are not indexed
+	 * @return Relationships to the categories
+	 * @throws NodeException if the window can not be classified
+	 */
+	private double[] classifyWindow(TrainingWindows trainingWindows, double[] windowsToClassify, int offset, SearchBuffers buffers) throws NodeException {
+		int numberOfCategories = trainingWindows.numberOfCategories;
+		
+		//SortedSet of the k nearestNeighbors
+		SortedSet<Example> nearestNeighbors = new TreeSet<Example>();
+		
+		//if there is a NaN in the window, we want to classify, we cannot properly classify it
+		if(!hasNaN(windowsToClassify, offset, trainingWindows.numberOfDimensions)) {
+			
+			//only the training windows which may belong to the k nearest neighbors are considered, in the original order.
+			//If a distance may be infinite or NaN, Example.compareTo is not consistent and the neighbors depend on the
+			//sequence of all insertions, so that all training windows are added as before
+			double maximumAbsoluteValue = trainingWindows.maximumAbsoluteValue;
+			for(int n = 0; n < trainingWindows.numberOfDimensions; n++) {
+				maximumAbsoluteValue = Math.max(maximumAbsoluteValue, Math.abs(windowsToClassify[offset + n]));
+			}
+			boolean finiteDistances = 4 * maximumAbsoluteValue * maximumAbsoluteValue * trainingWindows.numberOfDimensions < Double.MAX_VALUE;
+			int[] candidates = finiteDistances ? trainingWindows.getCandidates(windowsToClassify, offset, buffers) : null;
+			for(int candidate = 0; candidate < trainingWindows.numberOfWindows; candidate++) {
+				int trainingWindow = candidates == null ? candidate : candidates[candidate];
+				if(trainingWindow < 0) {
+					break;
+				}
+				double distance = trainingWindows.distance(windowsToClassify, offset, trainingWindow);
+				
+				//add the Example to the k nearest neighbors. Remove the Example with the largest distance, if we have to many neighbors.
+				//Examples which would be removed immediately are not created
+				if(finiteDistances && nearestNeighbors.size() == neighborNumber && distance >= nearestNeighbors.last().distance) {
+					continue;
+				}
+				Example currentExample = new Example(distance, trainingWindows.relationships[trainingWindow]);
+				nearestNeighbors.add(currentExample);
+				if(nearestNeighbors.size() > neighborNumber) {
+					nearestNeighbors.remove(nearestNeighbors.last());
+				}
+			}
+		}
+		
+		if(nearestNeighbors.size() == 0) {//If no neighbors were found (probably because of NaN in the classification window that has to be classified), the window cannot be properly classified
+			throw new NodeException("Classification window cannot be classified, because no neighbours were found.");
+		}
+		
+		//make sure that the distances are not 0
+		boolean allZero = nearestNeighbors.last().distance == 0;
+		
+		//if all distances are 0, they are weighed equally
+		if(allZero) {
+			AmuseLogger.write(FKNNAdapter.class.getClass().getName(), Level.WARN,"Distances are zero!");
+			for(Example example : nearestNeighbors) {
+				example.distance = 1;
+			}
+		} else { //otherwise all distances that are 0 are set to a value that is not 0, but is still the smallest distance
+			double minimumDistance = 0; //the smallest distance that is not 0
+			for(Example example : nearestNeighbors) {
+				if(example.distance != 0) {
+					minimumDistance = example.distance;
+					break;
+				}
+			}
+			for(Example example : nearestNeighbors) {
+				if(example.distance == 0) {
+					example.distance = minimumDistance/2;
+				}
+				else {
+					break;
+				}
+			}
+		}
+		
+		double[] relationships = new double[numberOfCategories];
+		
+		for(int category = 0; category < numberOfCategories; category++) {
+		
+			double relationship;
+			double enumerator = 0;
+			double denominator = 0;
+			double weight;
+		
+			for(Example example : nearestNeighbors) {
+				weight = 1.0/(Math.pow(example.distance, 2/(m - 1)));
+				enumerator += example.relationships[category] * weight;
+				denominator += weight;
+			}
+			relationship = enumerator/denominator;
+			
+			//make sure that no errors happened with too small distances (or something similar)
+			if(Double.isNaN(relationship)) {
+				throw new NodeException("Relationship is NaN");
+			}
+			
+			relationships[category] = relationship;	
+		}
+		return relationships;
+	}
+	
+	/**
+	 * Returns true if the window contains a NaN value
+	 */
+	private static boolean hasNaN(double[] windows, int offset, int numberOfDimensions) {
+		for(int n = 0; n < numberOfDimensions; n++) {
+			if(Double.isNaN(windows[offset + n])) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Training windows packed into a row-major matrix. Windows with NaN values are not stored, since they
+	 * are never used as neighbors. For few dimensions the windows are additionally indexed by a k-d tree
+	 */
+	private static class TrainingWindows {
+		
+		private final int numberOfDimensions;
+		private final int numberOfCategories;
+		private final int numberOfWindows;
+		
+		/** Feature values of the stored windows (row-major) */
+		private final double[] values;
+		
+		/** Relationships to the categories of the stored windows */
+		private final double[][] relationships;
+		
+		/** Position of the first NaN value for each training window (numberOfDimensions if there is no NaN) */
+		private final int[] positionsOfFirstNaN;
+		
+		/** Maximum absolute feature value of the stored windows */
+		private final double maximumAbsoluteValue;
+		
+		/** Root of the k-d tree or null if the windows are not indexed */
+		private final TreeNode root;
+		
+		/** Stored windows in the order of the k-d tree leafs */
+		private int[] windowsInTree;
+		
+		private TrainingWindows(DataSet trainingDataSet, int numberOfDimensions, int positionOfFirstCategory, int numberOfCategories) {
+			this.numberOfDimensions = numberOfDimensions;
+			this.numberOfCategories = numberOfCategories;
+			int numberOfTrainingWindows = trainingDataSet.getValueCount();
+			double[] allValues = new double[numberOfTrainingWindows * numberOfDimensions];
+			for(int n = 0; n < numberOfDimensions; n++) {
+				for(int trainingWindow = 0; trainingWindow < numberOfTrainingWindows; trainingWindow++) {
+					allValues[trainingWindow * numberOfDimensions + n] = (Double)trainingDataSet.getAttribute(n).getValueAt(trainingWindow);
+				}
+			}
+			
+			// Remove the windows with NaN values
+			positionsOfFirstNaN = new int[numberOfTrainingWindows];
+			int storedWindows = 0;
+			double maximumValue = 0;
+			for(int trainingWindow = 0; trainingWindow < numberOfTrainingWindows; trainingWindow++) {
+				positionsOfFirstNaN[trainingWindow] = numberOfDimensions;
+				for(int n = 0; n < numberOfDimensions; n++) {
+					double value = allValues[trainingWindow * numberOfDimensions + n];
+					if(Double.isNaN(value)) {
+						positionsOfFirstNaN[trainingWindow] = n;
+						break;
+					}
+					maximumValue = Math.max(maximumValue, Math.abs(value));
+				}
+				if(positionsOfFirstNaN[trainingWindow] == numberOfDimensions) {
+					storedWindows++;
+				}
+			}
+			numberOfWindows = storedWindows;
+			maximumAbsoluteValue = maximumValue;
+			values = new double[numberOfWindows * numberOfDimensions];
+			relationships = new double[numberOfWindows][numberOfCategories];
+			int currentWindow = 0;
+			for(int trainingWindow = 0; trainingWindow < numberOfTrainingWindows; trainingWindow++) {
+				if(positionsOfFirstNaN[trainingWindow] == numberOfDimensions) {
+					System.arraycopy(allValues, trainingWindow * numberOfDimensions, values, currentWindow * numberOfDimensions, numberOfDimensions);
+					for(int category = 0; category < numberOfCategories; category++) {
+						relationships[currentWindow][category] = (double)trainingDataSet.getAttribute(positionOfFirstCategory + category).getValueAt(trainingWindow);
+					}
+					currentWindow++;
+				}
+			}
+			
+			// The k-d tree is used only for few dimensions and finite values
+			if(!Double.isInfinite(maximumAbsoluteValue) && numberOfDimensions > 0 && numberOfDimensions <= MAXIMUM_DIMENSIONS_FOR_TREE && numberOfWindows >= MINIMUM_WINDOWS_FOR_TREE) {
+				windowsInTree = new int[numberOfWindows];
+				for(int i = 0; i < numberOfWindows; i++) {
+					windowsInTree[i] = i;
+				}
+				root = buildTree(0, numberOfWindows);
+			} else {
+				root = null;
+			}
+		}
+		
+		/**
+		 * Returns true if the original algorithm reaches the first NaN value of the given window, i.e. if
+		 * a training window has no NaN value before this position
+		 */
+		private boolean reachesNaN(double[] windows, int offset) {
+			int positionOfNaN = 0;
+			while(!Double.isNaN(windows[offset + positionOfNaN])) {
+				positionOfNaN++;
+			}
+			for(int trainingWindow = 0; trainingWindow < positionsOfFirstNaN.length; trainingWindow++) {
+				if(positionsOfFirstNaN[trainingWindow] >= positionOfNaN) {
+					return true;
+				}
+			}
+			return false;
+		}
+		
+		/**
+		 * Euclidean distance between the given window and a stored training window
+		 */
+		private double distance(double[] windows, int offset, int trainingWindow) {
+			double distance = 0;
+			int trainingOffset = trainingWindow * numberOfDimensions;
+			for(int n = 0; n < numberOfDimensions; n++) {
+				double difference = windows[offset + n] - values[trainingOffset + n];
+				distance += difference * difference;
+			}
+			return Math.sqrt(distance);
+		}
+		
+		/**
+		 * Creates the buffers for the search of candidates by one thread
+		 * @param k Number of neighbors
+		 * @return Search buffers or null if the windows are not indexed
+		 */
+		private SearchBuffers createSearchBuffers(int k) {
+			return root == null ? null : new SearchBuffers(numberOfWindows, k);
+		}
+		
+		/**
+		 * Returns the training windows which are not farther away than the k-th smallest (distinct) distance to the
+		 * given window in ascending order, terminated by -1. Since all windows with these distances are returned,
+		 * the neighbors found by the original algorithm are not changed. All distances to the window must be finite.
+		 * The returned array is the candidate buffer and is valid until the next search with the same buffers.
+		 * Returns null if all windows must be checked
+		 */
+		private int[] getCandidates(double[] windows, int offset, SearchBuffers buffers) {
+			if(root == null) {
+				return null;
+			}
+			buffers.numberOfSmallestDistances = 0;
+			int[] candidates = buffers.candidates;
+			double[] distancesOfCandidates = buffers.distancesOfCandidates;
+			int numberOfCandidates = searchTree(root, windows, offset, buffers, 0);
+			
+			// Remove the candidates which were found before the bound was decreased
+			double bound = buffers.isFull() ? buffers.largestDistance() : Double.POSITIVE_INFINITY;
+			int remainingCandidates = 0;
+			for(int i = 0; i < numberOfCandidates; i++) {
+				if(distancesOfCandidates[i] <= bound) {
+					candidates[remainingCandidates++] = candidates[i];
+				}
+			}
+			Arrays.sort(candidates, 0, remainingCandidates);
+			candidates[remainingCandidates] = -1;
+			return candidates;
+		}
+		
+		private int searchTree(TreeNode node, double[] windows, int offset, SearchBuffers buffers, int numberOfCandidates) {
+			
+			// The lower bound is calculated in the same order as the distances, so that it is never larger
+			// than the distance of a window in this node
+			double lowerBound = 0;
+			for(int n = 0; n < numberOfDimensions; n++) {
+				double value = windows[offset + n];
+				double nearestValue = Math.max(node.minimum[n], Math.min(node.maximum[n], value));
+				double difference = value - nearestValue;
+				lowerBound += difference * difference;
+			}
+			if(buffers.isFull() && Math.sqrt(lowerBound) > buffers.largestDistance()) {
+				return numberOfCandidates;
+			}
+			
+			if(node.left == null) {
+				for(int i = node.from; i < node.to; i++) {
+					double distance = distance(windows, offset, windowsInTree[i]);
+					if(buffers.isFull() && distance > buffers.largestDistance()) {
+						continue;
+					}
+					buffers.candidates[numberOfCandidates] = windowsInTree[i];
+					buffers.distancesOfCandidates[numberOfCandidates] = distance;
+					numberOfCandidates++;
+					buffers.addDistance(distance);
+				}
+				return numberOfCandidates;
+			}
+			
+			// Search the nearer child first
+			if(windows[offset + node.splitDimension] <= node.splitValue) {
+				numberOfCandidates = searchTree(node.left, windows, offset, buffers, numberOfCandidates);
+				return searchTree(node.right, windows, offset, buffers, numberOfCandidates);
+			}
+			numberOfCandidates = searchTree(node.right, windows, offset, buffers, numberOfCandidates);
+			return searchTree(node.left, windows, offset, buffers, numberOfCandidates);
+		}
+		
+		/**
+		 * Builds the k-d tree for the windows windowsInTree[from..to-1], splitting at the median of the dimension with the largest spread
+		 */
+		private TreeNode buildTree(int from, int to) {
+			TreeNode node = new TreeNode(from, to, numberOfDimensions);
+			for(int i = from; i < to; i++) {
+				for(int n = 0; n < numberOfDimensions; n++) {
+					double value = values[windowsInTree[i] * numberOfDimensions + n];
+					node.minimum[n] = Math.min(node.minimum[n], value);
+					node.maximum[n] = Math.max(node.maximum[n], value);
+				}
+			}
+			if(to - from <= WINDOWS_PER_LEAF) {
+				return node;
+			}
+			int splitDimension = 0;
+			for(int n = 1; n < numberOfDimensions; n++) {
+				if(node.maximum[n] - node.minimum[n] > node.maximum[splitDimension] - node.minimum[splitDimension]) {
+					splitDimension = n;
+				}
+			}
+			if(node.maximum[splitDimension] == node.minimum[splitDimension]) {
+				return node;
+			}
+			
+			// Sort the windows by the split dimension and split at the median
+			final int dimension = splitDimension;
+			Integer[] windowsOfNode = new Integer[to - from];
+			for(int i = from; i < to; i++) {
+				windowsOfNode[i - from] = windowsInTree[i];
+			}
+			Arrays.sort(windowsOfNode, new Comparator<Integer>() {
+				public int compare(Integer w1, Integer w2) {
+					return Double.compare(values[w1 * numberOfDimensions + dimension], values[w2 * numberOfDimensions + dimension]);
+				}
+			});
+			for(int i = from; i < to; i++) {
+				windowsInTree[i] = windowsOfNode[i - from];
+			}
+			int middle = (from + to) / 2;
+			node.splitDimension = splitDimension;
+			node.splitValue = values[windowsInTree[middle - 1] * numberOfDimensions + splitDimension];
+			node.left = buildTree(from, middle);
+			node.right = buildTree(middle, to);
+			return node;
+		}
+	}
+	
+	/**
+	 * Buffers for the search of candidates in the k-d tree which are reused by one thread for all its windows
+	 */
+	private static class SearchBuffers {
+		
+		/** Found candidates (terminated by -1 after the search) and their distances */
+		private final int[] candidates;
+		private final double[] distancesOfCandidates;
+		
+		/** The k smallest distinct distances found so far in ascending order */
+		private final double[] smallestDistances;
+		private int numberOfSmallestDistances;
+		
+		private SearchBuffers(int numberOfWindows, int k) {
+			this.candidates = new int[numberOfWindows + 1];
+			this.distancesOfCandidates = new double[numberOfWindows];
+			this.smallestDistances = new double[k];
+		}
+		
+		private boolean isFull() {
+			return numberOfSmallestDistances == smallestDistances.length;
+		}
+		
+		private double largestDistance() {
+			return smallestDistances[numberOfSmallestDistances - 1];
+		}
+		
+		/**
+		 * Adds a distance which is not larger than the largest distance if k distances are known.
+		 * Equal distances are stored once and the largest distance is removed if there are more than k distances
+		 */
+		private void addDistance(double distance) {
+			int position = numberOfSmallestDistances;
+			while(position > 0 && smallestDistances[position - 1] > distance) {
+				position--;
+			}
+			if(position > 0 && smallestDistances[position - 1] == distance) {
+				return;
+			}
+			int last = Math.min(numberOfSmallestDistances, smallestDistances.length - 1);
+			System.arraycopy(smallestDistances, position, smallestDistances, position + 1, last - position);
+			smallestDistances[position] = distance;
+			if(numberOfSmallestDistances < smallestDistances.length) {
+				numberOfSmallestDistances++;
+			}
+		}
+	}
+	
+	/**
+	 * Node of the k-d tree with the bounding box of its windows
+	 */
+	private static class TreeNode {
+		private final int from;
+		private final int to;
+		private final double[] minimum;
+		private final double[] maximum;
+		private int splitDimension;
+		private double splitValue;
+		private TreeNode left;
+		private TreeNode right;
+		
+		private TreeNode(int from, int to, int numberOfDimensions) {
+			this.from = from;
+			this.to = to;
+			this.minimum = new double[numberOfDimensions];
+			this.maximum = new double[numberOfDimensions];
+			Arrays.fill(minimum, Double.POSITIVE_INFINITY);
+			Arrays.fill(maximum, Double.NEGATIVE_INFINITY);
+		}
+	}
+	
 	private class Example implements Comparable<Example>{
 		
 		private double distance;
@@ -23,7 +23,6 @@
  */
 package amuse.nodes.classifier.methods.supervised;
 
-import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -32,9 +31,9 @@ import com.rapidminer.ProcessLocation;
 import com.rapidminer.RepositoryProcessLocation;
 import com.rapidminer.example.ExampleSet;
 import com.rapidminer.operator.IOContainer;
+import com.rapidminer.operator.Model;
 import com.rapidminer.operator.ModelApplier;
 import com.rapidminer.operator.Operator;
-import com.rapidminer.operator.io.RepositorySource;
 import com.rapidminer.operator.ports.InputPort;
 import com.rapidminer.operator.ports.OutputPort;
 import com.rapidminer.repository.Repository;
@@ -56,8 +55,8 @@ import amuse.interfaces.nodes.methods.AmuseTask;
 import amuse.nodes.classifier.ClassificationConfiguration;
 import amuse.nodes.classifier.ClassifierNodeScheduler;
 import amuse.nodes.classifier.interfaces.ClassifierInterface;
-import amuse.util.FileOperations;
 import amuse.util.LibraryInitializer;
+import amuse.util.RapidMinerModelStore;
 
 /**
  * Loads the binary classificatio model created by RapidMiner.
@@ -105,37 +104,33 @@ public class RapidMinerModelLoader extends AmuseTask implements ClassifierInterf
 			ExampleSet exampleSet = dataSetToClassify.convertToRapidMinerExampleSet();
 			int numberOfAttributes = new DataSet(exampleSet).getAttributeCount();//Number of attributes before classification
 			
-			// (2) Copy Model to repository
-			FileOperations.copy(new File(pathToModelFile), new File(LibraryInitializer.REPOSITORY_PATH + File.separator + "model.ioo"));	
+			// (2) Load the model; a model trained in this JVM is taken from memory
+			Model model = RapidMinerModelStore.load(pathToModelFile);
 			
-			// (3) create retrieve operator
-			RepositorySource retrieveModel = OperatorService.createOperator(RepositorySource.class);
-			retrieveModel.setParameter(RepositorySource.PARAMETER_REPOSITORY_ENTRY, "//" + LibraryInitializer.RAPIDMINER_REPO_NAME + "/model");
-			process.getRootOperator().getSubprocess(0).addOperator(retrieveModel);
-			
-			// (4) Apply the model
+			// (3) Apply the model
 			Operator modelApplier = OperatorService.createOperator(ModelApplier.class);
 			process.getRootOperator().getSubprocess(0).addOperator(modelApplier);
 
-			// (5) Connect the ports
+			// (4) Connect the ports; the model is passed to the process as second input (the port is
+			// created by RapidMiner after the first input port has been connected)
 			InputPort modelApplierModelInputPort = modelApplier.getInputPorts().getPortByName("model");
 			InputPort modelApplierUnlabelledDataInputPort = modelApplier.getInputPorts().getPortByName("unlabelled data");
-			OutputPort modelLoaderOutputPort = retrieveModel.getOutputPorts().getPortByName("output");
 			OutputPort processOutputPort = process.getRootOperator().getSubprocess(0).getInnerSources().getPortByIndex(0);
 
 			InputPort processInputPort = process.getRootOperator().getSubprocess(0).getInnerSinks().getPortByIndex(0);
 			OutputPort modelApplierLabelledDataOutputPort = modelApplier.getOutputPorts().getPortByName("labelled data");
 			
-			modelLoaderOutputPort.connectTo(modelApplierModelInputPort);
 			processOutputPort.connectTo(modelApplierUnlabelledDataInputPort);
+			OutputPort processModelOutputPort = process.getRootOperator().getSubprocess(0).getInnerSources().getPortByIndex(1);
+			processModelOutputPort.connectTo(modelApplierModelInputPort);
 			modelApplierLabelledDataOutputPort.connectTo(processInputPort);
 			
-		 	// (6) Run the process
-			IOContainer result = process.run(new IOContainer(exampleSet));
+		 	// (5) Run the process
+			IOContainer result = process.run(new IOContainer(exampleSet, model));
 			
 			exampleSet = result.get(ExampleSet.class);
 			
-			// (7) Convert the results to AMUSE EditableDataSet
+			// (6) Convert the results to AMUSE EditableDataSet
 			exampleSet.getAttributes().getPredictedLabel().setName("PredictedCategory");
 			
 			DataSet exampleDataSet = new DataSet(exampleSet);
@@ -35,10 +35,15 @@ import java.io.ObjectInputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.log4j.Level;
 
@@ -46,6 +51,7 @@ import amuse.data.Feature;
 import amuse.data.io.ArffDataSet;
 import amuse.data.io.DataSet;
 import amuse.data.io.DataSetAbstract;
+import amuse.data.io.FeatureFileConverter;
 import amuse.data.io.attributes.Attribute;
 import amuse.interfaces.nodes.NodeEvent;
 import amuse.interfaces.nodes.NodeException;
@@ -55,6 +61,7 @@ import amuse.interfaces.nodes.methods.AmuseTask;
 import amuse.interfaces.scheduler.SchedulerException;
 import amuse.nodes.extractor.interfaces.ExtractorInterface;
 import amuse.preferences.AmusePreferences;
+import amuse.preferences.KeysIntValue;
 import amuse.preferences.KeysStringValue;
 import amuse.scheduler.pluginmanagement.PluginLoader;
 import amuse.util.AmuseLogger;
@@ -78,6 +85,11 @@ public class ExtractorNodeScheduler extends NodeScheduler {
 	/** Input music file */
 	private String inputFileName = null;
 	
+	/** Path to the music file which is currently processed */
+	private String currentMusicFile = null;
+	
+	/** Error descriptions for each music file of the task (see getFileErrorDescriptionBuilders()) */
+	private List<StringBuilder> fileErrorDescriptionBuilders = null;
 	
 	/** If the music file is split into several parts.. */
 	private int numberOfParts = 0;
@@ -160,42 +172,94 @@ public class ExtractorNodeScheduler extends NodeScheduler {
 		}
 		
 		
-		// Set the music file name without music database directory path 
-		String relativeName = new String();
-		String musicDatabasePath = AmusePreferences.get(KeysStringValue.MUSIC_DATABASE);
-		// Make sure music database path ends with file separator to catch tracks that have the data base path as suffix but are not in the database
-		musicDatabasePath += musicDatabasePath.endsWith(File.separator) ? "" : File.separator;
-		if(((ExtractionConfiguration)extractorConfiguration).getMusicFileList().getFileAt(0).startsWith(musicDatabasePath)) {
-			relativeName = ((ExtractionConfiguration)extractorConfiguration).getMusicFileList().getFileAt(0).substring(new File(AmusePreferences.get(KeysStringValue.MUSIC_DATABASE)).getPath().length());
-		} else {
-			relativeName = ((ExtractionConfiguration)extractorConfiguration).getMusicFileList().getFileAt(0);
-		}
-		if(relativeName.charAt(0) == File.separatorChar) {
-			relativeName = relativeName.substring(1);
-		}
-		if(relativeName.endsWith(".mp3")) {
-			// Cut extension
-			relativeName = relativeName.substring(0,relativeName.length()-4);
-			relativeName = new String(relativeName + ".wav");
+		// --------------------------------------
+		// (II) Configure the extractor adapters 
+		// --------------------------------------
+		// The adapters are configured once and used for all music files of this task
+		List<String> musicFiles = ((ExtractionConfiguration)this.taskConfiguration).getMusicFileList().getFiles();
+		List<StringBuilder> fileErrorDescriptions = this.getFileErrorDescriptionBuilders();
+		try {
+			this.configureFeatureExtractors();
+		} catch(NodeException e) {
+			AmuseLogger.write(this.getClass().getName(), Level.ERROR,
+				"Could not configure feature extractor(s): " + e.getMessage());
+			for(int i=0;i<musicFiles.size();i++) {
+				fileErrorDescriptions.get(i).append(getRelativeName(musicFiles.get(i)));
+			}
+			this.fireEvent(new NodeEvent(NodeEvent.EXTRACTION_FAILED, this));
+			return;
 		}
 		
-		this.inputFileName = relativeName;
+		// -------------------------------------------------------------
+		// (III) Check if at least one extractor has been properly loaded
+		// -------------------------------------------------------------		
+	    if(this.extractors.size() == 0) {
+    		AmuseLogger.write(this.getClass().getName(), Level.FATAL, 
+    				"No extractor has been properly loaded, exiting the extractor node...");
+			for(int i=0;i<musicFiles.size();i++) {
+				fileErrorDescriptions.get(i).append(getRelativeName(musicFiles.get(i)));
+			}
+			this.fireEvent(new NodeEvent(NodeEvent.EXTRACTION_FAILED, this));
+			return;
+	    }
+		
+		// -------------------------------------------------------------------------
+		// (IV) Extract the features from all music files; a failure of one file does
+		// not stop the extraction of the remaining files
+		// -------------------------------------------------------------------------
+		boolean allFilesExtracted = true;
+		for(int i=0;i<musicFiles.size();i++) {
+			this.currentMusicFile = musicFiles.get(i);
+			this.inputFileName = getRelativeName(this.currentMusicFile);
+			this.errorDescriptionBuilder = fileErrorDescriptions.get(i);
+			if(!this.extractFeaturesFromFile()) {
+				this.errorDescriptionBuilder.append(this.inputFileName);
+				allFilesExtracted = false;
+			}
+			
+			// Remove the decoded parts of this file; the results of the last file are kept if this 
+			// node was not started directly (the input folder is removed by the caller)
+			if(this.directStart || i < musicFiles.size() - 1) {
+				try {
+					this.cleanInputFolder();
+				} catch(NodeException e) {
+					AmuseLogger.write(this.getClass().getName(), Level.ERROR,
+						"Could not remove properly the intermediate results '" + 
+						this.nodeHome + File.separator + "input" + File.separator + "task_" + this.jobId + "; please delete it manually! (Exception: "+ e.getMessage() + ")");
+				}
+			}
+		}
 		
+		// -------------------------------------------------------
+		// (V) If started directly, fire event for Amuse scheduler
+		// -------------------------------------------------------
+		if(this.directStart) {
+			if(allFilesExtracted) {
+				this.fireEvent(new NodeEvent(NodeEvent.EXTRACTION_COMPLETED, this));
+			} else {
+				this.fireEvent(new NodeEvent(NodeEvent.EXTRACTION_FAILED, this));
+			}
+		}
+	}
+	
+	/**
+	 * Decodes the current music file and extracts its features with all configured extractors
+	 * @return True if the music file was decoded, false otherwise
+	 */
+	private boolean extractFeaturesFromFile() {
 		AmuseLogger.write(this.getClass().getName(), Level.INFO, "Extractor node scheduler for " + 
 				this.inputFileName + " configured; starting decoding..");
 	
-		// --------------------------------
-		// (II) Convert mp3 file to wave(s)
-		// --------------------------------
+		// -------------------------------
+		// (1) Convert mp3 file to wave(s)
+		// -------------------------------
 		try {
 			AudioFileConversion.processFile(new File(this.nodeHome + File.separator + "input" + File.separator + "task_" + this.jobId), 
-					new File(((ExtractionConfiguration)this.taskConfiguration).getMusicFileList().getFileAt(0)));
+					new File(this.currentMusicFile));
 		} catch(NodeException e) {
 			AmuseLogger.write(this.getClass().getName(), Level.ERROR,
 				"Audio decoding error: " + e.getMessage());
-			errorDescriptionBuilder.append(this.inputFileName);
-			this.fireEvent(new NodeEvent(NodeEvent.EXTRACTION_FAILED, this));
-			return;
+			return false;
 		}
 
 		AmuseLogger.write(this.getClass().getName(), Level.INFO, "..decoding completed!");
@@ -204,11 +268,11 @@ public class ExtractorNodeScheduler extends NodeScheduler {
 		File file = new File(this.nodeHome + File.separator + "input" + File.separator + "task_" + this.jobId);
 		if(!file.exists()) {
 			System.out.println("No music files found: " + file.getAbsolutePath());
-			errorDescriptionBuilder.append(this.inputFileName);
-			this.fireEvent(new NodeEvent(NodeEvent.EXTRACTION_FAILED, this));
-			return;
+			return false;
 		}
 		
+		this.numberOfParts = 0;
+		this.currentPartForThisExtractor.clear();
 		File[] files = file.listFiles();
 		for(int i=0;i<files.length;i++) {
 			if(files[i].isDirectory()) {
@@ -216,50 +280,66 @@ public class ExtractorNodeScheduler extends NodeScheduler {
 			}
 		}
 		
-		// --------------------------------------
-		// (III) Configure the extractor adapters 
-		// --------------------------------------
-		try {
-			this.configureFeatureExtractors();
-		} catch(NodeException e) {
-			AmuseLogger.write(this.getClass().getName(), Level.ERROR,
-				"Could not configure feature extractor(s): " + e.getMessage());
-			errorDescriptionBuilder.append(this.inputFileName);
-			this.fireEvent(new NodeEvent(NodeEvent.EXTRACTION_FAILED, this));
-			return;
-		}
-		
-		// -------------------------------------------------------------
-		// (IV) Check if at least one extractor has been properly loaded
-		// -------------------------------------------------------------		
-	    if(this.extractors.size() == 0) {
-    		AmuseLogger.write(this.getClass().getName(), Level.FATAL, 
-    				"No extractor has been properly loaded, exiting the extractor node...");
-			errorDescriptionBuilder.append(this.inputFileName);
-			this.fireEvent(new NodeEvent(NodeEvent.EXTRACTION_FAILED, this));
-			return;
-	    }
-		
 		// --------------------------------
-		// (V) Start the extractor adapters
-		// --------------------------------		
+		// (2) Start the extractor adapters
+		// --------------------------------
 		this.startFeatureExtractors();
 		
 		AmuseLogger.write(this.getClass().getName(), Level.INFO, "All extractors finished their work");
-		
-		// ----------------------------------------------------------------------------------
-		// (VI) If started directly, remove generated data and fire event for Amuse scheduler
-		// ----------------------------------------------------------------------------------
-		if(this.directStart) {
-			try {
-				this.cleanInputFolder();
-			} catch(NodeException e) {
-				AmuseLogger.write(this.getClass().getName(), Level.ERROR,
-					"Could not remove properly the intermediate results '" + 
-					this.nodeHome + File.separator + "input" + File.separator + "task_" + this.jobId + "; please delete it manually! (Exception: "+ e.getMessage() + ")");
+		return true;
+	}
+	
+	/**
+	 * Returns the music file name without music database directory path; mp3 files
+	 * get the extension of the decoded wave file
+	 * @param musicFile Path to the music file
+	 * @return Relative name of the music file
+	 */
+	private static String getRelativeName(String musicFile) {
+		String relativeName = new String();
+		String musicDatabasePath = AmusePreferences.get(KeysStringValue.MUSIC_DATABASE);
+		// Make sure music database path ends with file separator to catch tracks that have the data base path as suffix but are not in the database
+		musicDatabasePath += musicDatabasePath.endsWith(File.separator) ? "" : File.separator;
+		if(musicFile.startsWith(musicDatabasePath)) {
+			relativeName = musicFile.substring(new File(AmusePreferences.get(KeysStringValue.MUSIC_DATABASE)).getPath().length());
+		} else {
+			relativeName = musicFile;
+		}
+		if(relativeName.charAt(0) == File.separatorChar) {
+			relativeName = relativeName.substring(1);
+		}
+		if(relativeName.endsWith(".mp3")) {
+			// Cut extension
+			relativeName = relativeName.substring(0,relativeName.length()-4);
+			relativeName = new String(relativeName + ".wav");
+		}
+		return relativeName;
+	}
+	
+	/**
+	 * Returns the music file which is currently processed by this node scheduler
+	 * @return Path to the music file
+	 */
+	public String getCurrentMusicFile() {
+		return currentMusicFile;
+	}
+	
+	/**
+	 * Returns a StringBuilder for each music file of the task configuration, in which the
+	 * file name is written if the extraction of this file fails. The first StringBuilder
+	 * is the one returned by getErrorDescriptionBuilder()
+	 * @return StringBuilders in the order of the music files
+	 */
+	public List<StringBuilder> getFileErrorDescriptionBuilders() {
+		if(fileErrorDescriptionBuilders == null) {
+			int numberOfFiles = ((ExtractionConfiguration)this.taskConfiguration).getMusicFileList().getFiles().size();
+			fileErrorDescriptionBuilders = new ArrayList<StringBuilder>(numberOfFiles);
+			fileErrorDescriptionBuilders.add(this.errorDescriptionBuilder);
+			for(int i=1;i<numberOfFiles;i++) {
+				fileErrorDescriptionBuilders.add(new StringBuilder(""));
 			}
-			this.fireEvent(new NodeEvent(NodeEvent.EXTRACTION_COMPLETED, this));
 		}
+		return fileErrorDescriptionBuilders;
 	}
 	
 	/*
@@ -434,7 +514,9 @@ public class ExtractorNodeScheduler extends NodeScheduler {
 	}
 	
 	/**
-	 * Starts the extractor adapters
+	 * Starts the extractor adapters. If NUMBER_OF_PARALLEL_EXTRACTORS is larger than one, the
+	 * extractors of different tools process the music file in parallel; the extractors of the same
+	 * tool (e.g. with custom scripts) write into the same folder and run one after another
 	 */
 	public void startFeatureExtractors() {
 		
@@ -445,35 +527,89 @@ public class ExtractorNodeScheduler extends NodeScheduler {
 			inputFileName = inputFileName.substring(inputFileName.lastIndexOf(File.separator)+1);
 		}
 	    
-	    // Start the extractor adapters
+		// Group the extractors by their folders for intermediate results
+		final LinkedHashMap<String,List<Integer>> extractorIDsOfFolders = new LinkedHashMap<String,List<Integer>>();
 		Set<?> usedExtractorIDs = this.extractors.keySet();
 		Iterator<?> it = usedExtractorIDs.iterator();
 		while(it.hasNext()) {
 			int i = (Integer)it.next();
 			this.currentPartForThisExtractor.put(new Integer(((AmuseTask)this.extractors.
 					get(i)).getProperties().getProperty("id")), 1);
-		    
-			// Start the feature extractors for all parts
-			for(int currentPart = 1; currentPart <= this.numberOfParts; currentPart++) {
-                String sep = File.separator;
-				String musicInput = new String(this.nodeHome + sep + "input" + sep + "task_" + this.jobId + sep + currentPart + sep + inputFileName);
-				String featureOutput = new String(this.nodeHome + sep + "input" + sep + "task_" + this.jobId + sep + currentPart + sep +
-						inputFileName.substring(0,inputFileName.lastIndexOf(".")) + "_" +  
-						((AmuseTask)this.extractors.get(i)).getProperties().getProperty("extractorName") + 
-						"_features.arff"); 
+			String extractorFolderName = ((AmuseTask)this.extractors.get(i)).getProperties().getProperty("extractorFolderName");
+			if(!extractorIDsOfFolders.containsKey(extractorFolderName)) {
+				extractorIDsOfFolders.put(extractorFolderName, new ArrayList<Integer>());
+			}
+			extractorIDsOfFolders.get(extractorFolderName).add(i);
+		}
+		
+		int numberOfThreads = Math.min(AmusePreferences.getInt(KeysIntValue.NUMBER_OF_PARALLEL_EXTRACTORS), extractorIDsOfFolders.size());
+		if(numberOfThreads <= 1) {
+			for(int i : this.extractors.keySet()) {
+				extractFeaturesWithExtractor(i, inputFileName);
+				consolidateResults(this.extractors.get(i));
+			}
+			return;
+		}
+		
+		// Start the extractors of different folders in parallel; the results are consolidated
+		// one after another, since the folder for consolidated features is shared
+		final String fileName = inputFileName;
+		final Object consolidationLock = new Object();
+		ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+		try {
+			List<Future<?>> futures = new ArrayList<Future<?>>(extractorIDsOfFolders.size());
+			for(final List<Integer> extractorIDs : extractorIDsOfFolders.values()) {
+				futures.add(executor.submit(new Runnable() {
+					public void run() {
+						for(int i : extractorIDs) {
+							extractFeaturesWithExtractor(i, fileName);
+							synchronized(consolidationLock) {
+								consolidateResults(extractors.get(i));
+							}
+						}
+					}
+				}));
+			}
+			for(Future<?> future : futures) {
 				try {
-					this.extractors.get(i).setFilenames(musicInput, featureOutput,currentPart);
-					this.extractors.get(i).extractFeatures();
-				} catch (NodeException e) {
+					future.get();
+				} catch(ExecutionException e) {
 					AmuseLogger.write(this.getClass().getName(), Level.ERROR, 
-							"Error occured during feature extraction with extractor '" + 
-							((AmuseTask)this.extractors.get(i)).getProperties().getProperty("extractorName") + 
-							"': " + e.getMessage());
+							"Error occured during parallel feature extraction: " + e.getCause());
 				}
 			}
-			
-			// Consolidate the part results and copy them to feature database
-			consolidateResults(this.extractors.get(i));
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			AmuseLogger.write(this.getClass().getName(), Level.ERROR, "Feature extraction interrupted");
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Extracts the features of all parts of the current music file with one extractor
+	 * @param i ID of the extractor in the map of extractors
+	 * @param inputFileName Music file name without path
+	 */
+	private void extractFeaturesWithExtractor(int i, String inputFileName) {
+		
+		// Start the feature extractors for all parts
+		for(int currentPart = 1; currentPart <= this.numberOfParts; currentPart++) {
+            String sep = File.separator;
+			String musicInput = new String(this.nodeHome + sep + "input" + sep + "task_" + this.jobId + sep + currentPart + sep + inputFileName);
+			String featureOutput = new String(this.nodeHome + sep + "input" + sep + "task_" + this.jobId + sep + currentPart + sep +
+					inputFileName.substring(0,inputFileName.lastIndexOf(".")) + "_" +  
+					((AmuseTask)this.extractors.get(i)).getProperties().getProperty("extractorName") + 
+					"_features.arff"); 
+			try {
+				this.extractors.get(i).setFilenames(musicInput, featureOutput,currentPart);
+				this.extractors.get(i).extractFeatures();
+			} catch (NodeException e) {
+				AmuseLogger.write(this.getClass().getName(), Level.ERROR, 
+						"Error occured during feature extraction with extractor '" + 
+						((AmuseTask)this.extractors.get(i)).getProperties().getProperty("extractorName") + 
+						"': " + e.getMessage());
+			}
 		}
 	}
 	
@@ -690,15 +826,23 @@ public class ExtractorNodeScheduler extends NodeScheduler {
 			}
 		}
 	
+		File extractedFeaturesFolder;
+		if(numberOfParts > 1) {
+			extractedFeaturesFolder = new File(this.nodeHome + File.separator + "input" + File.separator + "task_" + this.jobId + File.separator + "features" + File.separator);
+		} else {
+			extractedFeaturesFolder = new File(this.nodeHome + File.separator + "input" + File.separator + "task_" + this.jobId + File.separator + "1" + File.separator +  
+					((AmuseTask)adapter).getProperties().getProperty("extractorFolderName"));
+		}
+		
+		// Convert the extracted features if they should not be stored as ARFF
+		int fileFormat = AmusePreferences.getInt(KeysIntValue.FEATURE_FILE_FORMAT);
+		if(fileFormat != FeatureFileConverter.FORMAT_ARFF) {
+			FeatureFileConverter.convertFolder(extractedFeaturesFolder, fileFormat);
+		}
+	
 		// Move the extracted features
 		try {
-			if(numberOfParts > 1) {
-				FileOperations.move(new File(this.nodeHome + File.separator + "input" + File.separator + "task_" + this.jobId + File.separator + "features" + File.separator), new File(path2Create.toString()) );
-			} else {
-				FileOperations.move(new File(this.nodeHome + File.separator + "input" + File.separator + "task_" + this.jobId + File.separator + "1" + File.separator +  
-						((AmuseTask)adapter).getProperties().getProperty("extractorFolderName")), 
-						new File(path2Create.toString()));
-			}
+			FileOperations.move(extractedFeaturesFolder, new File(path2Create.toString()));
 		} catch(IOException e) {
 			AmuseLogger.write(this.getClass().getName(), Level.ERROR,
 					"Could not move the features extracted by '" + 
@@ -60,6 +60,7 @@ import amuse.interfaces.nodes.methods.AmuseTask;
 import amuse.nodes.classifier.ClassificationConfiguration;
 import amuse.nodes.classifier.ClassifierNodeScheduler;
 import amuse.nodes.extractor.ExtractionConfiguration;
+import amuse.nodes.extractor.ExtractorNodeScheduler;
 import amuse.nodes.extractor.interfaces.ExtractorInterface;
 import amuse.preferences.AmusePreferences;
 import amuse.preferences.KeysStringValue;
@@ -194,7 +195,7 @@ public class HighLevelFeatureExtractor extends AmuseTask implements ExtractorInt
 			throw new NodeException("Cannot create DocumentBuilder which satisfies the configuration: " + e.getMessage());
 		}
 
-		String relativePath = ((ExtractionConfiguration)this.correspondingScheduler.getConfiguration()).getMusicFileList().getFileAt(0);
+		String relativePath = ((ExtractorNodeScheduler)this.correspondingScheduler).getCurrentMusicFile();
 		if(relativePath.startsWith(AmusePreferences.get(KeysStringValue.MUSIC_DATABASE))) {
 			relativePath = relativePath.substring(new File(AmusePreferences.get(KeysStringValue.MUSIC_DATABASE)).getPath().length());
 		}
@@ -23,17 +23,18 @@
  */
 package amuse.nodes.extractor.methods;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -62,10 +63,12 @@ import amuse.interfaces.nodes.methods.AmuseTask;
 import amuse.nodes.extractor.ExtractionConfiguration;
 import amuse.nodes.extractor.interfaces.ExtractorInterface;
 import amuse.preferences.AmusePreferences;
+import amuse.preferences.KeysIntValue;
 import amuse.preferences.KeysStringValue;
 import amuse.util.AmuseLogger;
 import amuse.util.ExternalProcessBuilder;
-import java.util.List;
+import amuse.util.WorkerMessage;
+import amuse.util.WorkerProcess;
 
 /**
  * Adapter to jAudio feature extractor. For further details of jAudio see <a href="http://jaudio.sourceforge.net/">http://jaudio.sourceforge.net/</a>
@@ -84,6 +87,12 @@ public class JAudioAdapter extends AmuseTask implements ExtractorInterface {
 	/** If the input music file was splitted, here is the number of current part */
 	private Integer currentPart;
 	
+	/** Content of the jAudio feature values ARFF returned by the worker; if null, the output feature file is read */
+	private byte[] extractedFeatureValues;
+
+	/** Name of the pool of jAudio workers, see WorkerProcess */
+	private static final String WORKER_NAME = "jAudio";
+	
 	/*
 	 * (non-Javadoc)
 	 * @see amuse.nodes.extractor.interfaces.ExtractorInterface#setFilenames(java.lang.String, java.lang.String, java.lang.Integer)
@@ -287,65 +296,57 @@ public class JAudioAdapter extends AmuseTask implements ExtractorInterface {
 	public void extractFeatures() throws NodeException {
 		AmuseLogger.write(this.getClass().getName(), Level.DEBUG, "Starting feature extraction...");
 		
-		// Start jAudio
+		// Execute the batch script with a pooled jAudio worker instead of starting a JVM for each file
+		String inputBatchPath = properties.getProperty("inputExtractorBatch");
+		// if it is a relative path the input batch is in the extractor folder
+		if(!inputBatchPath.startsWith(File.separator)) {
+			inputBatchPath = properties.getProperty("extractorFolder") + File.separator + inputBatchPath;
+		}
 		try {
-		String amuse = AmusePreferences.get(KeysStringValue.AMUSE_PATH);
-		    List<String> libs = new ArrayList<String>();
-		    libs.add(amuse + File.separator + "tools" + File.separator + "jAudio" + File.separator + "jhall.jar");
-		    libs.add(amuse + File.separator + "tools" + File.separator + "jAudio" + File.separator + "mp3plugin.jar");
-		    libs.add(amuse + File.separator + "tools" + File.separator + "jAudio" + File.separator + "tritonus_remaining-0.3.6.jar");
-		    libs.add(amuse + File.separator + "tools" + File.separator + "jAudio" + File.separator + "tritonus_share-0.3.6.jar");
-		    libs.add(amuse + File.separator + "tools" + File.separator + "jAudio" + File.separator + "jAudio.jar");
-		    libs.add(amuse + File.separator + "tools" + File.separator + "jAudio" + File.separator + "xerces.jar");
-		    List<String> javaParameters = new ArrayList<String>();
-		    javaParameters.add("-Xmx1024m");
-		    List<String> commands = new ArrayList<String>();
-		    commands.add("jAudioFE");
-		    commands.add("-b");
-		    String inputBatchPath = properties.getProperty("inputExtractorBatch");
-		    // if it is a relative path the input batch is in the extractor folder
-		    if(!inputBatchPath.startsWith(File.separator)) {
-		    	inputBatchPath = properties.getProperty("extractorFolder") + File.separator + inputBatchPath;
-		    }
-		    commands.add(inputBatchPath);
-		    ExternalProcessBuilder jAudio = ExternalProcessBuilder.buildJavaProcess(javaParameters, libs, commands);
-		    jAudio.setWorkingDirectory(new File(amuse + File.separator +"tools"+ File.separator + "jAudio"));
-		    Process pc = jAudio.start();
-		    
-		    // Ausgabe für JAudio 
-		    InputStream inputStream = pc.getInputStream();
-		    InputStreamReader inputStreamReader = new InputStreamReader(inputStream);
-		    BufferedReader inputReader = new BufferedReader(inputStreamReader);
-
-		    InputStream errorStream = pc.getErrorStream();
-		    InputStreamReader errorStreamReader = new InputStreamReader(errorStream);
-		    BufferedReader errorReader = new BufferedReader(errorStreamReader);
-		    String line = "";
-		    while(pc.isAlive()){
-		    	System.out.println("Output von JAudios InputStream");
-		    	while ((line = inputReader.readLine()) != null){
-		    		System.out.println(line);
-		    	}
-
-		    	System.out.println("Output von JAudios ErrorStream");
-		    	while ((line = errorReader.readLine()) != null){
-		    		System.out.println(line);
-		    	}
-		    }
-		    
-		    
-            pc.waitFor();
-		    convertOutput();
-		} catch (InterruptedException e) {
-                        throw new NodeException("Extraction with jAudio interrupted! " + e.getMessage());
-                }
-                catch (NodeException e) {
-			throw new NodeException("Extraction with jAudio failed: " + e.getMessage());		
+			// A worker which hangs is restarted after the timeout
+			WorkerMessage featureValues = WorkerProcess.call(WORKER_NAME, getWorkerCommand(), 
+					new File(getJAudioFolder()), new WorkerMessage("extract", inputBatchPath), 
+					AmusePreferences.getInt(KeysIntValue.JAUDIO_TIMEOUT_IN_MINUTES) * 60L * 1000L);
+			this.extractedFeatureValues = featureValues.getString(0).getBytes();
+			convertOutput();
 		} catch (IOException e) {
 			throw new NodeException("Extraction with jAudio failed: " + e.getMessage());
+		} catch (NodeException e) {
+			throw new NodeException("Extraction with jAudio failed: " + e.getMessage());
+		} finally {
+			this.extractedFeatureValues = null;
 		}
 	}
 	
+	private static String getJAudioFolder() {
+		return AmusePreferences.get(KeysStringValue.AMUSE_PATH) + File.separator + "tools" + File.separator + "jAudio";
+	}
+	
+	/**
+	 * @return Command which starts a JAudioWorker with the jAudio libraries
+	 */
+	private static List<String> getWorkerCommand() throws IOException {
+		String jAudioFolder = getJAudioFolder();
+		List<String> libs = new ArrayList<String>();
+		libs.add(jAudioFolder + File.separator + "jhall.jar");
+		libs.add(jAudioFolder + File.separator + "mp3plugin.jar");
+		libs.add(jAudioFolder + File.separator + "tritonus_remaining-0.3.6.jar");
+		libs.add(jAudioFolder + File.separator + "tritonus_share-0.3.6.jar");
+		libs.add(jAudioFolder + File.separator + "jAudio.jar");
+		libs.add(jAudioFolder + File.separator + "xerces.jar");
+		try {
+			// The worker class is loaded from the AMUSE classes
+			libs.add(new File(JAudioWorker.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getAbsolutePath());
+		} catch(URISyntaxException e) {
+			throw new IOException("Cannot locate the AMUSE classes: " + e.getMessage());
+		}
+		List<String> javaParameters = new ArrayList<String>();
+		javaParameters.add("-Xmx1024m");
+		List<String> commands = new ArrayList<String>();
+		commands.add(JAudioWorker.class.getName());
+		return ExternalProcessBuilder.buildJavaProcess(javaParameters, libs, commands).command();
+	}
+	
 	/*
 	 * (non-Javadoc)
 	 * @see amuse.nodes.extractor.interfaces.ExtractorInterface#convertOutput()
@@ -417,7 +418,7 @@ public class JAudioAdapter extends AmuseTask implements ExtractorInterface {
 				
 				// Load jAudio output feature file
 				ArffLoader featureLoader = new ArffLoader();
-				FileInputStream outputFeatureFileStream = new FileInputStream(new File(this.outputFeatureFile));
+				InputStream outputFeatureFileStream = openExtractedFeatures();
 				featureLoader.setSource(outputFeatureFileStream);
 				
 				Object o = i.next();
@@ -436,7 +437,7 @@ public class JAudioAdapter extends AmuseTask implements ExtractorInterface {
 				}
 				featureLoader = new ArffLoader();
 				outputFeatureFileStream.close();
-				outputFeatureFileStream = new FileInputStream(new File(this.outputFeatureFile));
+				outputFeatureFileStream = openExtractedFeatures();
 				featureLoader.setSource(outputFeatureFileStream);
 				
 				
@@ -557,6 +558,16 @@ public class JAudioAdapter extends AmuseTask implements ExtractorInterface {
 
 	}
 
+	/**
+	 * @return Stream of the jAudio feature values, from memory if they were returned by the worker
+	 */
+	private InputStream openExtractedFeatures() throws IOException {
+		if(this.extractedFeatureValues != null) {
+			return new ByteArrayInputStream(this.extractedFeatureValues);
+		}
+		return new FileInputStream(new File(this.outputFeatureFile));
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see amuse.interfaces.AmuseTaskInterface#initialize()
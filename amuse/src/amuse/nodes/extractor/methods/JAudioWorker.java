@@ -0,0 +1,136 @@
+/**
+ * This file is part of AMUSE framework (Advanced MUsic Explorer).
+ *
+ * Copyright 2006-2010 by code authors
+ *
+ * Created at TU Dortmund, Chair of Algorithm Engineering
+ * (Contact: <http://ls11-www.cs.tu-dortmund.de>)
+ *
+ * AMUSE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AMUSE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with AMUSE. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Creation date: 18.10.2026
+ */
+package amuse.nodes.extractor.methods;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import amuse.util.WorkerMessage;
+import jAudioFeatureExtractor.DataModel;
+import jAudioFeatureExtractor.ACE.DataTypes.Batch;
+import jAudioFeatureExtractor.ACE.XMLParsers.XMLDocumentParser;
+
+/**
+ * Long-lived jAudio process which executes jAudio batch scripts on request, so that
+ * the JVM is started only once for many music files. It is started as {@link amuse.util.WorkerProcess}
+ * by {@link JAudioAdapter} in the jAudio tool folder and depends only on the jAudio libraries
+ * and {@link WorkerMessage}.<br/>
+ *
+ * Tasks (see WorkerProcess for the protocol):
+ * <ul>
+ * <li>ping: answered with ok</li>
+ * <li>extract, followed by the paths to one or more batch scripts: answered with ok and the
+ * content of the extracted feature values ARFF for each batch script, or with error and a message
+ * if a batch script could not be processed</li>
+ * </ul>
+ * The messages of jAudio are redirected to the standard error stream.
+ *
+ * @author agent
+ * @version $Id$
+ */
+public class JAudioWorker {
+
+	public static void main(String[] args) throws IOException {
+		DataOutputStream responses = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+		DataInputStream requests = new DataInputStream(new BufferedInputStream(System.in));
+
+		// jAudio writes its progress to System.out, which is reserved for the responses
+		System.setOut(System.err);
+
+		while(true) {
+			WorkerMessage task;
+			try {
+				task = WorkerMessage.read(requests);
+			} catch(EOFException e) {
+				return;
+			}
+			WorkerMessage answer;
+			try {
+				answer = execute(task);
+			} catch(Exception e) {
+				e.printStackTrace();
+				answer = new WorkerMessage("error", e.getClass().getSimpleName() + ": " + e.getMessage());
+			}
+			answer.write(responses);
+			responses.flush();
+		}
+	}
+
+	private static WorkerMessage execute(WorkerMessage task) throws Exception {
+		if(task.size() == 0 || !task.isString(0)) {
+			throw new Exception("Invalid task");
+		}
+		WorkerMessage answer = new WorkerMessage("ok");
+		if(task.getString(0).equals("ping")) {
+			return answer;
+		}
+		if(!task.getString(0).equals("extract")) {
+			throw new Exception("Unknown task " + task.getString(0));
+		}
+		for(int i = 1; i < task.size(); i++) {
+			answer.add(extract(task.getString(i)));
+		}
+		return answer;
+	}
+
+	/**
+	 * Executes a jAudio batch script as the jAudio command line does, but keeps the
+	 * feature values in memory instead of writing them to the destination files
+	 * @param batchScript Path to jAudio batch script with one batch
+	 * @return Content of the feature values ARFF
+	 */
+	private static String extract(String batchScript) throws Exception {
+		Object[] batches = (Object[])XMLDocumentParser.parseXMLDocument(batchScript, "batchFile");
+		if(batches.length != 1) {
+			throw new Exception("Batch script " + batchScript + " must contain exactly one batch");
+		}
+		Batch batch = (Batch)batches[0];
+
+		// The definitions of the features are not used by AMUSE
+		DataModel dataModel = new DataModel("features.xml", null);
+		dataModel.featureKey = new OutputStream() {
+			@Override
+			public void write(int b) {
+			}
+			@Override
+			public void write(byte[] b, int off, int len) {
+			}
+		};
+		ByteArrayOutputStream featureValues = new ByteArrayOutputStream(1 << 20);
+		dataModel.featureValue = featureValues;
+		batch.setDataModel(dataModel);
+		batch.execute();
+
+		// jAudio writes the ARFF with the default encoding
+		return featureValues.toString();
+	}
+}
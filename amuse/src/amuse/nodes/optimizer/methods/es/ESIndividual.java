@@ -169,7 +169,11 @@ public class ESIndividual {
 	 * @return Fitness value of this individual increasing the overall evaluation number of the corresponding ES
 	 */
 	public ValidationMeasureDouble[] getFitness() throws NodeException {
-		correspondingES.currentEvaluation++;
+		
+		// Individuals may be evaluated in parallel
+		synchronized(correspondingES) {
+			correspondingES.currentEvaluation++;
+		}
 		
 		/*ValidationMeasureDouble[] test = new ValidationMeasureDouble[2];
 		 TODO for sms-emoa test
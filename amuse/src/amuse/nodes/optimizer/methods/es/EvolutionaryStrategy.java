@@ -33,6 +33,11 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.log4j.Level;
 import org.w3c.dom.Node;
@@ -55,6 +60,7 @@ import amuse.nodes.optimizer.methods.es.operators.selection.interfaces.Selection
 import amuse.nodes.optimizer.methods.es.representation.interfaces.RepresentationInterface;
 import amuse.nodes.validator.interfaces.ValidationMeasureDouble;
 import amuse.preferences.AmusePreferences;
+import amuse.preferences.KeysIntValue;
 import amuse.preferences.KeysStringValue;
 import amuse.util.AmuseLogger;
 import amuse.util.FileOperations;
@@ -126,6 +132,10 @@ public class EvolutionaryStrategy extends AmuseTask implements OptimizerInterfac
 	ESLogger esLogger;
 	private EvaluationInterface fitnessEvaluator;
 	
+	/** Random number generator of all variation operators; it is used only by the thread which runs the ES, so that
+	 * a run with a given random seed creates the same individuals for any number of parallel evaluations */
+	private Random random;
+	
 	/*
 	 * (non-Javadoc)
 	 * @see amuse.nodes.optimizer.interfaces.OptimizerInterface#optimize()
@@ -194,12 +204,7 @@ public class EvolutionaryStrategy extends AmuseTask implements OptimizerInterfac
 			
 		// Calculate the population fitness values for the first time
 		// TODO getContinueOldExperimentFrom is currently not supported
-		for(int i=0;i<popSize;i++) {
-			populationFitnessValues[i] = population[i].getFitness();
-			if(isIndependentTestSetUsed) {
-				populationFitnessValuesOnTestSet[i] = population[i].getFitnessOnIndependentTestSet();
-			}
-		}
+		evaluate(population, populationFitnessValues, populationFitnessValuesOnTestSet);
 		
 		// Output the log header
 		if(((OptimizationConfiguration)this.getCorrespondingScheduler().getConfiguration()).getContinueOldExperimentFrom().
@@ -237,7 +242,7 @@ public class EvolutionaryStrategy extends AmuseTask implements OptimizerInterfac
 				
 				// Run the breedings
 				for(int i=0;i<breedingNumber;i++) {
-					Collections.shuffle(candidateIndices);
+					Collections.shuffle(candidateIndices, random);
 					ESIndividual[] parentPopulation = new ESIndividual[ci.getParentNumber()];
 					
 					// Select the required parent number randomly
@@ -288,7 +293,7 @@ public class EvolutionaryStrategy extends AmuseTask implements OptimizerInterfac
 			// -------------------
 			// Select the candidates for mutation randomly (otherwise they have been generated by crossover)
 			if(crossoverMap.isEmpty()) {
-				Collections.shuffle(candidateIndices);
+				Collections.shuffle(candidateIndices, random);
 				for(int i=0;i<offspringPopSize;i++) {
 					offspringPopulation[i] = population[candidateIndices.get(i)].clone();
 				}
@@ -306,14 +311,11 @@ public class EvolutionaryStrategy extends AmuseTask implements OptimizerInterfac
 						m.mutate(offspringPopulation[i].getRepresentationList().get(j));
 					}
 				}
-				
-				// Fitness after mutation(s) of the current offspring
-				offspringPopulationFitnessValues[i] = offspringPopulation[i].getFitness();
-				if(isIndependentTestSetUsed) {
-					offspringPopulationFitnessValuesOnTestSet[i] = offspringPopulation[i].getFitnessOnIndependentTestSet();
-				}
 			}
 			
+			// Fitness after mutation(s) of the offsprings
+			evaluate(offspringPopulation, offspringPopulationFitnessValues, offspringPopulationFitnessValuesOnTestSet);
+			
 			// Log after the mutation
 			outputLog();
 			
@@ -385,6 +387,60 @@ public class EvolutionaryStrategy extends AmuseTask implements OptimizerInterfac
 		AmuseLogger.write(this.getClass().getName(), Level.INFO, "ES optimization finished");
 	}
 
+	/**
+	 * Calculates the fitness values of the given individuals. If NUMBER_OF_PARALLEL_EVALUATIONS is larger than one,
+	 * the individuals are evaluated in parallel
+	 * @param individuals Individuals to evaluate
+	 * @param fitnessValues Array for the fitness values of the individuals
+	 * @param fitnessValuesOnTestSet Array for the fitness values on the independent test set, if it is used
+	 * @throws NodeException If any evaluation failed
+	 */
+	private void evaluate(ESIndividual[] individuals, ValidationMeasureDouble[][] fitnessValues,
+			ValidationMeasureDouble[][] fitnessValuesOnTestSet) throws NodeException {
+		int numberOfThreads = Math.min(AmusePreferences.getInt(KeysIntValue.NUMBER_OF_PARALLEL_EVALUATIONS), individuals.length);
+		if(numberOfThreads <= 1) {
+			for(int i=0;i<individuals.length;i++) {
+				fitnessValues[i] = individuals[i].getFitness();
+				if(isIndependentTestSetUsed) {
+					fitnessValuesOnTestSet[i] = individuals[i].getFitnessOnIndependentTestSet();
+				}
+			}
+			return;
+		}
+		
+		ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+		try {
+			List<Future<?>> futures = new ArrayList<Future<?>>(individuals.length);
+			for(int i=0;i<individuals.length;i++) {
+				final int individual = i;
+				futures.add(executor.submit(new Callable<Void>() {
+					public Void call() throws NodeException {
+						fitnessValues[individual] = individuals[individual].getFitness();
+						if(isIndependentTestSetUsed) {
+							fitnessValuesOnTestSet[individual] = individuals[individual].getFitnessOnIndependentTestSet();
+						}
+						return null;
+					}
+				}));
+			}
+			for(int i=0;i<individuals.length;i++) {
+				try {
+					futures.get(i).get();
+				} catch(ExecutionException e) {
+					if(e.getCause() instanceof NodeException) {
+						throw (NodeException)e.getCause();
+					}
+					throw new NodeException("Evaluation of individual " + i + " failed: " + e.getCause());
+				} catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new NodeException("Evaluation of individuals was interrupted");
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
 	private void runVNS(int offspringNumber, int representationToProceed,
 			List<MutationInterface> mutationsToProceed) throws NodeException {
 		
@@ -412,7 +468,7 @@ public class EvolutionaryStrategy extends AmuseTask implements OptimizerInterfac
 		// TODO If more than two operators are used for VNS local search...
 		// What operator is currently active during VNS?
 		//boolean isLocalSearchForAddingActive = new Random().nextBoolean();
-		boolean isFirstLocalSearchOperatorActive = new Random().nextBoolean();
+		boolean isFirstLocalSearchOperatorActive = random.nextBoolean();
 		// Was a previous operator successful?
 		boolean hadPreviousOperatorSuccess = true;
 		
@@ -481,6 +537,8 @@ public class EvolutionaryStrategy extends AmuseTask implements OptimizerInterfac
 	 */
 	public void setParameters(String parameterString) throws NodeException { 
 		esConfiguration = new ESConfiguration(parameterString);
+		long seed = new Long(esConfiguration.getESParameterByName("Random seed").getAttributes().getNamedItem("longValue").getNodeValue());
+		random = (seed != -1) ? new Random(seed) : new Random();
 		isIndependentTestSetUsed = (!((OptimizationConfiguration)this.correspondingScheduler.getConfiguration()).
 				getTestInput().equals("-1")) ? true : false;
 		
@@ -1063,6 +1121,20 @@ public class EvolutionaryStrategy extends AmuseTask implements OptimizerInterfac
 			offspringPopulationFitnessValuesOnTestSet[individualNumber - popSize];
 	}
 
+	/**
+	 * @return the random number generator for variation operators
+	 */
+	public Random getRandom() {
+		return random;
+	}
+	
+	/**
+	 * @return the logger of optimization results
+	 */
+	public ESLogger getESLogger() {
+		return esLogger;
+	}
+
 	/**
 	 * @return the fitnessEvalualor
 	 */
@@ -25,6 +25,7 @@ package amuse.nodes.optimizer.methods.es.evaluation;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 
 import org.apache.log4j.Level;
@@ -61,6 +62,7 @@ import amuse.nodes.validator.ValidatorNodeScheduler;
 import amuse.nodes.validator.interfaces.ValidationMeasure;
 import amuse.nodes.validator.interfaces.ValidationMeasureDouble;
 import amuse.preferences.AmusePreferences;
+import amuse.preferences.KeysIntValue;
 import amuse.preferences.KeysStringValue;
 import amuse.util.AmuseLogger;
 import amuse.util.FileOperations;
@@ -92,7 +94,19 @@ public class MultipleTrackClassification implements EvaluationInterface {
 	String processedModel;
 	String pathToFeatureDatabase;
 	String pathToProcessingDatabase;
-	String pathToModelDatabase;
+	
+	/** Folder of the optimization task for intermediate results */
+	String taskFolder;
+	
+	/** Numbers of the evaluation folders which are currently not used (see getFitness()) */
+	private final ArrayDeque<Integer> freeEvaluationFolderNumbers = new ArrayDeque<Integer>();
+	private int numberOfEvaluationFolders = 0;
+	
+	/** Processed features of earlier evaluated individuals, used if the feature processing is optimized */
+	ProcessedFeatureCache processedFeatureCache = null;
+	
+	/** Corresponding evolutionary strategy; its logger is created after the initialization of the evaluator */
+	EvolutionaryStrategy correspondingStrategy;
 		
 	/**
 	 * Initializes the Fitness Evaluator with the settings derived from the given individual
@@ -195,8 +209,14 @@ public class MultipleTrackClassification implements EvaluationInterface {
 		// These paths will be overwritten if extraction resp. processing are done here
 		pathToFeatureDatabase = new String(AmusePreferences.get(KeysStringValue.FEATURE_DATABASE));
 		pathToProcessingDatabase = new String(AmusePreferences.get(KeysStringValue.PROCESSED_FEATURE_DATABASE));
-		pathToModelDatabase = new String(strategy.getCorrespondingScheduler().getHomeFolder() +File.separator+ "input" +File.separator +"task_" +
-				strategy.getCorrespondingScheduler().getTaskId() + File.separator+ "Models");
+		taskFolder = new String(strategy.getCorrespondingScheduler().getHomeFolder() + File.separator + "input" + File.separator + "task_" +
+				strategy.getCorrespondingScheduler().getTaskId());
+
+		if(isFeatureProcessingRequired) {
+			processedFeatureCache = new ProcessedFeatureCache(new File(taskFolder + File.separator + "ProcessedFeatureCache"),
+					AmusePreferences.getInt(KeysIntValue.PROCESSED_FEATURE_CACHE_SIZE_IN_MB) * 1024L * 1024L);
+		}
+		correspondingStrategy = strategy;
 
 		// Load the processed features directly if no extraction / processing is optimized (only feature selection OR / AND
 		// classification are optimized). It means that the optimization data can be loaded only once for all individuals.
@@ -238,6 +258,38 @@ public class MultipleTrackClassification implements EvaluationInterface {
 	 */
 	public ValidationMeasureDouble[] getFitness(ESIndividual individual, boolean isEvaluatedOnIndependentTestSet) throws NodeException {
 		
+		// Individuals which are evaluated at the same time use different folders for processed features,
+		// models and intermediate results; the first folder is the task folder of the optimizer
+		int evaluationFolderNumber;
+		synchronized(freeEvaluationFolderNumbers) {
+			evaluationFolderNumber = freeEvaluationFolderNumbers.isEmpty() ? numberOfEvaluationFolders++ : freeEvaluationFolderNumbers.pop();
+		}
+		String evaluationFolder = taskFolder;
+		if(evaluationFolderNumber > 0) {
+			evaluationFolder += File.separator + "evaluation_" + evaluationFolderNumber;
+		}
+		try {
+			return getFitness(individual, isEvaluatedOnIndependentTestSet, evaluationFolder);
+		} finally {
+			synchronized(freeEvaluationFolderNumbers) {
+				freeEvaluationFolderNumbers.push(evaluationFolderNumber);
+			}
+		}
+	}
+	
+	/**
+	 * Performs the calculation of fitness value of the given ES individual
+	 * @param individual Given ES individual
+	 * @param isEvaluatedOnIndependentTestSet True if the evaluation is done on the independent test set; false (default) for
+	 * evaluation on the optimization set
+	 * @param evaluationFolder Folder for processed features, models and intermediate results of this evaluation
+	 * @return Array with fitness value(s): the 1st one is used for single-objective optimization
+	 */
+	private ValidationMeasureDouble[] getFitness(ESIndividual individual, boolean isEvaluatedOnIndependentTestSet, 
+			String evaluationFolder) throws NodeException {
+		String processingDatabase = pathToProcessingDatabase;
+		String modelDatabase = evaluationFolder + File.separator + "Models";
+		
 		// Load the feature table
 		Node featureTableNode = individual.getCorrespondingES().getConfiguration().getConstantParameterByName("Feature table");
 		FeatureTable featureTable = new FeatureTable(new File(featureTableNode.getAttributes().getNamedItem("fileValue").getNodeValue()));
@@ -286,9 +338,7 @@ public class MultipleTrackClassification implements EvaluationInterface {
 		// (II) If the extraction must be done..
 		// -------------------------------------
 		if(isFeatureExtractionRequired) {
-			pathToFeatureDatabase = new String(individual.getCorrespondingES().getCorrespondingScheduler().getHomeFolder() + 
-					File.separator + "input" +File.separator + "task_" + individual.getCorrespondingES().getCorrespondingScheduler().getTaskId() +
-					File.separator +"Features");
+			pathToFeatureDatabase = new String(evaluationFolder + File.separator + "Features");
 			
 			// TODO Run extraction
 			throw new NodeException("Extraction is currently not supported! " + pathToFeatureDatabase);
@@ -299,9 +349,7 @@ public class MultipleTrackClassification implements EvaluationInterface {
 		// --------------------------------------
 		if(isFeatureProcessingRequired) {
 			
-			pathToProcessingDatabase = new String(individual.getCorrespondingES().getCorrespondingScheduler().getHomeFolder() + 
-					File.separator + "input" +File.separator + "task_" + individual.getCorrespondingES().getCorrespondingScheduler().getTaskId() +
-					File.separator + "Processed_Features");
+			processingDatabase = new String(evaluationFolder + File.separator + "Processed_Features");
 			
 			// ------------------------------------------------------------------------------------------------
 			// (IIIa) Make the complete processing only if the classification window size is used as optimization parameter
@@ -337,7 +385,7 @@ public class MultipleTrackClassification implements EvaluationInterface {
 							getAttributes().getNamedItem("intValue").getNodeValue()),
 						individual.getCorrespondingES().getConfiguration().getConstantParameterByName("Conversion steps").
 							getAttributes().getNamedItem("stringValue").getNodeValue(),"");
-					pConf.setProcessedFeatureDatabase(pathToProcessingDatabase);
+					pConf.setProcessedFeatureDatabase(processingDatabase);
 					processingTasks.add(pConf);
 					
 					// Go to the next music file
@@ -369,7 +417,7 @@ public class MultipleTrackClassification implements EvaluationInterface {
 								getAttributes().getNamedItem("intValue").getNodeValue()),
 							individual.getCorrespondingES().getConfiguration().getConstantParameterByName("Conversion steps").
 								getAttributes().getNamedItem("stringValue").getNodeValue(),"");
-						pConf.setProcessedFeatureDatabase(pathToProcessingDatabase);
+						pConf.setProcessedFeatureDatabase(processingDatabase);
 						processingTasks.add(pConf);
 							
 						// Go to the next music file
@@ -401,7 +449,7 @@ public class MultipleTrackClassification implements EvaluationInterface {
 								getAttributes().getNamedItem("intValue").getNodeValue()),
 							individual.getCorrespondingES().getConfiguration().getConstantParameterByName("Conversion steps").
 								getAttributes().getNamedItem("stringValue").getNodeValue(),"");
-						pConf.setProcessedFeatureDatabase(pathToProcessingDatabase);
+						pConf.setProcessedFeatureDatabase(processingDatabase);
 						processingTasks.add(pConf);
 						
 						// Go to the next music file
@@ -411,15 +459,24 @@ public class MultipleTrackClassification implements EvaluationInterface {
 					
 				AmuseLogger.write(MultipleTrackClassification.class.getName(), Level.DEBUG, "Starting processing...");
 					
-				ProcessorNodeScheduler ps = new ProcessorNodeScheduler(individual.getCorrespondingES().
-					getCorrespondingScheduler().getHomeFolder() + File.separator + "input" +File.separator + "task_" +
-					individual.getCorrespondingES().getCorrespondingScheduler().getTaskId() + File.separator +"processor");
+				ProcessorNodeScheduler ps = new ProcessorNodeScheduler(evaluationFolder + File.separator + "processor");
 				ps.setCleanInputFolder(false);
 				for(ProcessingConfiguration currentConf : processingTasks) {
-					ps.proceedTask(individual.getCorrespondingES().getCorrespondingScheduler().getHomeFolder() + File.separator + "input" +File.separator + "task_" +
-							individual.getCorrespondingES().getCorrespondingScheduler().getTaskId() + File.separator +"processor",
+					
+					// Skip the processing if the same processing was done for an earlier individual
+					File processedFeatureFile = new File(ps.getProcessedFeatureFile(currentConf));
+					if(processedFeatureCache.restore(currentConf, processedFeatureFile)) {
+						continue;
+					}
+					int errorDescriptionLength = ps.getErrorDescriptionBuilder().length();
+					ps.proceedTask(evaluationFolder + File.separator + "processor",
 					new Long(individual.getCorrespondingES().getCorrespondingScheduler().getTaskId()), currentConf);
+					if(ps.getErrorDescriptionBuilder().length() == errorDescriptionLength) {
+						processedFeatureCache.store(currentConf, processedFeatureFile);
+					}
 				}
+				AmuseLogger.write(MultipleTrackClassification.class.getName(), Level.DEBUG, "Processed feature cache: " + 
+						processedFeatureCache.getStatistics());
 				
 				musicFileLoader.reset();
 			} catch (IOException e) {
@@ -469,11 +526,9 @@ public class MultipleTrackClassification implements EvaluationInterface {
 						individual.getCorrespondingES().getConfiguration().getConstantParameterByName("Classifier configuration").
 							getAttributes().getNamedItem("stringValue").getNodeValue(), 
 						new DataSetInput(optimizationDataWithOnlySelectedFeatures), GroundTruthSourceType.READY_INPUT);
-				vConf.setProcessedFeatureDatabase(pathToProcessingDatabase);
-				vConf.setModelDatabase(pathToModelDatabase);
-				ValidatorNodeScheduler vs = new ValidatorNodeScheduler(individual.getCorrespondingES().
-					getCorrespondingScheduler().getHomeFolder() + File.separator + "input" + File.separator + "task_" + 
-					individual.getCorrespondingES().getCorrespondingScheduler().getTaskId() + File.separator + "validator");
+				vConf.setProcessedFeatureDatabase(processingDatabase);
+				vConf.setModelDatabase(modelDatabase);
+				ValidatorNodeScheduler vs = new ValidatorNodeScheduler(evaluationFolder + File.separator + "validator");
 				vs.setCleanInputFolder(false);
 				vs.setCategoryDescription(categoryForLearningDescription);
 				vs.proceedTask(individual.getCorrespondingES().getCorrespondingScheduler().getHomeFolder(), 
@@ -483,8 +538,7 @@ public class MultipleTrackClassification implements EvaluationInterface {
 			// If an independent test set must be used..
 			else {
 				
-				String pathToModels = new String(individual.getCorrespondingES().getCorrespondingScheduler().getHomeFolder() + File.separator + "input" +File.separator + "task_" +
-						individual.getCorrespondingES().getCorrespondingScheduler().getTaskId() + File.separator +"Models"+ File.separator +
+				String pathToModels = new String(evaluationFolder + File.separator +"Models"+ File.separator +
 						categoryForLearningDescription + File.separator + classifierDescription + File.separator + processedModel);
 					
 				// Train the model only with the features selected by EA
@@ -517,11 +571,9 @@ public class MultipleTrackClassification implements EvaluationInterface {
 						new DataSetInput(trainingDataWithOnlySelectedFeatures), 
 						GroundTruthSourceType.READY_INPUT,
 						pathToModels + File.separator + "model.mod");
-				tConf.setProcessedFeatureDatabase(pathToProcessingDatabase);
-				tConf.setModelDatabase(pathToModelDatabase);
-				TrainerNodeScheduler ts = new TrainerNodeScheduler(individual.getCorrespondingES().
-					getCorrespondingScheduler().getHomeFolder() + File.separator + "input" +File.separator + "task_" +
-					individual.getCorrespondingES().getCorrespondingScheduler().getTaskId() + File.separator + "trainer");
+				tConf.setProcessedFeatureDatabase(processingDatabase);
+				tConf.setModelDatabase(modelDatabase);
+				TrainerNodeScheduler ts = new TrainerNodeScheduler(evaluationFolder + File.separator + "trainer");
 				ts.setCleanInputFolder(false);
 				ts.proceedTask(individual.getCorrespondingES().getCorrespondingScheduler().getHomeFolder(), 
 					individual.getCorrespondingES().getCorrespondingScheduler().getTaskId(), tConf);
@@ -556,11 +608,9 @@ public class MultipleTrackClassification implements EvaluationInterface {
 						individual.getCorrespondingES().getConfiguration().getConstantParameterByName("Classifier configuration").
 							getAttributes().getNamedItem("stringValue").getNodeValue(), 
 						new DataSetInput(testDataWithOnlySelectedFeatures), GroundTruthSourceType.READY_INPUT);
-				vConf.setProcessedFeatureDatabase(pathToProcessingDatabase);
-				vConf.setModelDatabase(pathToModelDatabase);
-				ValidatorNodeScheduler vs = new ValidatorNodeScheduler(individual.getCorrespondingES().
-					getCorrespondingScheduler().getHomeFolder() + File.separator + "input" +File.separator + "task_" +
-					individual.getCorrespondingES().getCorrespondingScheduler().getTaskId() + File.separator + "validator");
+				vConf.setProcessedFeatureDatabase(processingDatabase);
+				vConf.setModelDatabase(modelDatabase);
+				ValidatorNodeScheduler vs = new ValidatorNodeScheduler(evaluationFolder + File.separator + "validator");
 				vs.setCleanInputFolder(false);
 				vs.setCategoryDescription(categoryForTestDescription);
 				vs.proceedTask(individual.getCorrespondingES().getCorrespondingScheduler().getHomeFolder(), 
@@ -570,8 +620,7 @@ public class MultipleTrackClassification implements EvaluationInterface {
 		
 		// (b) ..or using a separate optimization set
 		else {
-			String pathToModels = new String(individual.getCorrespondingES().getCorrespondingScheduler().getHomeFolder() + File.separator + "input" +File.separator + "task_" +
-				individual.getCorrespondingES().getCorrespondingScheduler().getTaskId() + File.separator +"Models"+ File.separator +
+			String pathToModels = new String(evaluationFolder + File.separator +"Models"+ File.separator +
 				categoryForLearningDescription + File.separator + classifierDescription + File.separator + processedModel);
 			
 			// Train the model only with the features selected by EA
@@ -604,11 +653,9 @@ public class MultipleTrackClassification implements EvaluationInterface {
 					new DataSetInput(trainingDataWithOnlySelectedFeatures), 
 					GroundTruthSourceType.READY_INPUT,
 					pathToModels + File.separator + "model.mod");
-			tConf.setProcessedFeatureDatabase(pathToProcessingDatabase);
-			tConf.setModelDatabase(pathToModelDatabase);
-			TrainerNodeScheduler ts = new TrainerNodeScheduler(individual.getCorrespondingES().
-				getCorrespondingScheduler().getHomeFolder() + File.separator + "input" +File.separator + "task_" +
-				individual.getCorrespondingES().getCorrespondingScheduler().getTaskId() + File.separator + "trainer");
+			tConf.setProcessedFeatureDatabase(processingDatabase);
+			tConf.setModelDatabase(modelDatabase);
+			TrainerNodeScheduler ts = new TrainerNodeScheduler(evaluationFolder + File.separator + "trainer");
 			ts.setCleanInputFolder(false);
 			ts.proceedTask(individual.getCorrespondingES().getCorrespondingScheduler().getHomeFolder(), 
 				individual.getCorrespondingES().getCorrespondingScheduler().getTaskId(), tConf);
@@ -667,11 +714,9 @@ public class MultipleTrackClassification implements EvaluationInterface {
 							getAttributes().getNamedItem("stringValue").getNodeValue(), 
 						new DataSetInput(testDataWithOnlySelectedFeatures), GroundTruthSourceType.READY_INPUT);
 			}
-			vConf.setProcessedFeatureDatabase(pathToProcessingDatabase);
-			vConf.setModelDatabase(pathToModelDatabase);
-			ValidatorNodeScheduler vs = new ValidatorNodeScheduler(individual.getCorrespondingES().
-				getCorrespondingScheduler().getHomeFolder() + File.separator + "input" +File.separator + "task_" +
-				individual.getCorrespondingES().getCorrespondingScheduler().getTaskId() + File.separator + "validator");
+			vConf.setProcessedFeatureDatabase(processingDatabase);
+			vConf.setModelDatabase(modelDatabase);
+			ValidatorNodeScheduler vs = new ValidatorNodeScheduler(evaluationFolder + File.separator + "validator");
 			vs.setCleanInputFolder(false);
 			vs.setCategoryDescription(isEvaluatedOnIndependentTestSet ? categoryForTestDescription : categoryForOptimizationDescription);
 			vs.proceedTask(individual.getCorrespondingES().getCorrespondingScheduler().getHomeFolder(), 
@@ -794,9 +839,8 @@ public class MultipleTrackClassification implements EvaluationInterface {
 		}
 		
 		// Clean the generated results
-		FileOperations.delete(new File(pathToModelDatabase),true);
-		FileOperations.delete(new File(individual.getCorrespondingES().getCorrespondingScheduler().getHomeFolder() + 
-			File.separator + "input" + File.separator + "task_" + individual.getCorrespondingES().getCorrespondingScheduler().getTaskId() +  File.separator +"Processed_Features"),true);
+		FileOperations.delete(new File(modelDatabase),true);
+		FileOperations.delete(new File(evaluationFolder + File.separator + "Processed_Features"),true);
 			
 		ValidationMeasureDouble[] measuresAsArray = new ValidationMeasureDouble[measures.size()];
 		for(int i=0;i<measuresAsArray.length;i++) {
@@ -957,7 +1001,17 @@ public class MultipleTrackClassification implements EvaluationInterface {
 
 	@Override
 	public void close() throws NodeException {
-		// Do nothing
+		if(processedFeatureCache != null) {
+			
+			// Lines starting with % are comments in the ARFF log
+			correspondingStrategy.getESLogger().logString("% Processed feature cache: " + processedFeatureCache.getStatistics());
+			processedFeatureCache.clear();
+		}
+		
+		// Remove the folders of parallel evaluations
+		for(int i=1;i<numberOfEvaluationFolders;i++) {
+			FileOperations.delete(new File(taskFolder + File.separator + "evaluation_" + i), true);
+		}
 	}
 
 }
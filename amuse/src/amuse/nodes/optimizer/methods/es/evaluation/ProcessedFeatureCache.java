@@ -0,0 +1,194 @@
+/**
+ * This file is part of AMUSE framework (Advanced MUsic Explorer).
+ *
+ * Copyright 2006-2010 by code authors
+ *
+ * Created at TU Dortmund, Chair of Algorithm Engineering
+ * (Contact: <http://ls11-www.cs.tu-dortmund.de>)
+ *
+ * AMUSE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AMUSE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with AMUSE. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Creation date: 18.10.2026
+ */
+package amuse.nodes.optimizer.methods.es.evaluation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.log4j.Level;
+
+import amuse.nodes.processor.ProcessingConfiguration;
+import amuse.util.AmuseLogger;
+
+/**
+ * Keeps copies of processed feature files, so that the processing of a music file is not repeated
+ * if an individual requires the same processing as an earlier evaluated individual. The files are
+ * stored under the hash of the music file and all processing parameters; the disk space of the cached
+ * files is limited and the least recently used files are removed first.
+ *
+ * @author agent
+ * @version $Id$
+ */
+class ProcessedFeatureCache {
+
+	/** Folder with cached files */
+	private final File cacheFolder;
+
+	/** Maximal disk space of the cached files in bytes */
+	private final long cacheSize;
+
+	/** Sizes of the cached files by their keys, in the order of their last usage */
+	private final LinkedHashMap<String,Long> cachedFiles = new LinkedHashMap<String,Long>(16, 0.75f, true);
+
+	/** Disk space of all cached files in bytes */
+	private long cachedBytes = 0;
+
+	private long hits = 0;
+	private long misses = 0;
+
+	/**
+	 * Constructor
+	 * @param cacheFolder Folder for the cached files; it is created if required
+	 * @param cacheSize Maximal disk space of the cached files in bytes (0 = no cache)
+	 */
+	ProcessedFeatureCache(File cacheFolder, long cacheSize) {
+		this.cacheFolder = cacheFolder;
+		this.cacheSize = cacheSize;
+	}
+
+	/**
+	 * Copies the cached processed features of the given configuration to the file with processed features
+	 * @param configuration Processing configuration with one music file
+	 * @param processedFeatureFile File to which the processor node saves the processed features of this configuration
+	 * @return True if the processed features were cached; false if the processing must be done
+	 */
+	synchronized boolean restore(ProcessingConfiguration configuration, File processedFeatureFile) {
+		if(cacheSize == 0) {
+			return false;
+		}
+		String key = getKey(configuration);
+		if(cachedFiles.get(key) == null) {
+			misses++;
+			return false;
+		}
+		try {
+			processedFeatureFile.getParentFile().mkdirs();
+			Files.copy(new File(cacheFolder, key + ".arff").toPath(), processedFeatureFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch(IOException e) {
+			AmuseLogger.write(this.getClass().getName(), Level.WARN, "Could not restore cached processed features of '" +
+					configuration.getMusicFileList().getFileAt(0) + "': " + e.getMessage());
+			cachedBytes -= cachedFiles.remove(key);
+			misses++;
+			return false;
+		}
+		hits++;
+		return true;
+	}
+
+	/**
+	 * Adds the processed features of the given configuration to the cache
+	 * @param configuration Processing configuration with one music file
+	 * @param processedFeatureFile File with processed features of this configuration
+	 */
+	synchronized void store(ProcessingConfiguration configuration, File processedFeatureFile) {
+		long size = processedFeatureFile.length();
+		if(cacheSize == 0 || !processedFeatureFile.exists() || size > cacheSize) {
+			return;
+		}
+		String key = getKey(configuration);
+		try {
+			cacheFolder.mkdirs();
+			Files.copy(processedFeatureFile.toPath(), new File(cacheFolder, key + ".arff").toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch(IOException e) {
+			AmuseLogger.write(this.getClass().getName(), Level.WARN, "Could not cache processed features of '" +
+					configuration.getMusicFileList().getFileAt(0) + "': " + e.getMessage());
+			return;
+		}
+		Long replacedSize = cachedFiles.put(key, size);
+		if(replacedSize != null) {
+			cachedBytes -= replacedSize;
+		}
+		cachedBytes += size;
+
+		// Remove the least recently used files
+		Iterator<Map.Entry<String,Long>> leastRecentlyUsed = cachedFiles.entrySet().iterator();
+		while(cachedBytes > cacheSize && leastRecentlyUsed.hasNext()) {
+			Map.Entry<String,Long> cachedFile = leastRecentlyUsed.next();
+			new File(cacheFolder, cachedFile.getKey() + ".arff").delete();
+			cachedBytes -= cachedFile.getValue();
+			leastRecentlyUsed.remove();
+		}
+	}
+
+	/**
+	 * @return Description of the hits and misses of this cache
+	 */
+	synchronized String getStatistics() {
+		return hits + " hits, " + misses + " misses, " + cachedFiles.size() + " cached files with " +
+				(cachedBytes / 1024 / 1024) + " MB";
+	}
+
+	/**
+	 * Removes all cached files
+	 */
+	synchronized void clear() {
+		for(String key : cachedFiles.keySet()) {
+			new File(cacheFolder, key + ".arff").delete();
+		}
+		cachedFiles.clear();
+		cachedBytes = 0;
+		cacheFolder.delete();
+	}
+
+	/**
+	 * Calculates the key of the processed features from the music file, the features and all processing parameters
+	 */
+	private static String getKey(ProcessingConfiguration configuration) {
+		StringBuilder description = new StringBuilder();
+		description.append(configuration.getMusicFileList().getFileAt(0)).append('\n');
+		description.append(configuration.getFeatureDatabase()).append('\n');
+		if(configuration.getInputFeatureList() != null) {
+			description.append(configuration.getInputFeatureList().getSelectedIds()).append(' ');
+			description.append(configuration.getInputFeatureList().getSelectedConfigurationIds()).append('\n');
+		} else {
+			description.append(configuration.getInputFeatures()).append('\n');
+		}
+		description.append(configuration.getReductionSteps()).append('\n');
+		description.append(configuration.getConversionStep()).append('\n');
+		description.append(configuration.getAggregationWindowSize()).append(' ');
+		description.append(configuration.getAggregationWindowStepSize()).append(' ');
+		description.append(configuration.getUnit()).append('\n');
+		description.append(configuration.getFeatureDescription());
+
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch(NoSuchAlgorithmException e) {
+			throw new RuntimeException("SHA-1 is not available: " + e.getMessage());
+		}
+		StringBuilder key = new StringBuilder();
+		for(byte b : digest.digest(description.toString().getBytes(StandardCharsets.UTF_8))) {
+			key.append(String.format("%02x", b));
+		}
+		return key.toString();
+	}
+}
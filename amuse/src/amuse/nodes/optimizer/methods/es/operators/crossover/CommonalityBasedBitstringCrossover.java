@@ -71,7 +71,7 @@ public class CommonalityBasedBitstringCrossover extends AbstractCrossover {
 		}
 		
 		Boolean[][] newString = new Boolean[offspringNumber][length];
-		Random rand = new Random();
+		Random rand = correspondingES.getRandom();
 		for(int i=0;i<2;i++) {
 			AmuseLogger.write(this.getClass().getName(), Level.DEBUG, "Parent " + i + ": " + ((BinaryVector)representation[i]).toString());
 		}
@@ -68,7 +68,7 @@ public class UniformBitstringCrossover extends AbstractCrossover {
 		}
 		
 		Boolean[][] newString = new Boolean[offspringNumber][length];
-		Random rand = new Random();
+		Random rand = correspondingES.getRandom();
 		for(int i=0;i<parentNumber;i++) {
 			AmuseLogger.write(this.getClass().getName(), Level.DEBUG, "Parent " + i + ": " + ((BinaryVector)representation[i]).toString());
 		}
@@ -61,7 +61,7 @@ public class AsymmetricBitFlip extends RandomBitFlip {
 		int numberOfSelectedFeatures = 0;
 		if(representation instanceof BinaryVector) {
 			BinaryVector valueToMutate = (BinaryVector)representation;
-			Random rand = new Random();
+			Random rand = correspondingES.getRandom();
 			selfAdaptation();
 			AmuseLogger.write(this.getClass().getName(), Level.DEBUG, "Current value: " + valueToMutate.toString());
 			for(int i=0;i<valueToMutate.getValue().length;i++) {
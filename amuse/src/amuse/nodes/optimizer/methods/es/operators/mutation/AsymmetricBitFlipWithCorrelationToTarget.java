@@ -74,7 +74,7 @@ public class AsymmetricBitFlipWithCorrelationToTarget extends AsymmetricBitFlip
 		AmuseLogger.write(this.getClass().getName(), Level.DEBUG, "Asymmetric bit flip mutation started");
 		if(representation instanceof BinaryVector) {
 			BinaryVector valueToMutate = (BinaryVector)representation;
-			Random rand = new Random();
+			Random rand = correspondingES.getRandom();
 			selfAdaptation();
 			AmuseLogger.write(this.getClass().getName(), Level.DEBUG, "Current value: " + valueToMutate.toString());
 			for(int i=0;i<valueToMutate.getValue().length;i++) {
@@ -78,7 +78,7 @@ public class IntegerMutation extends AbstractMutation {
 				}
 			}
 			
-			Random rand = new Random();
+			Random rand = correspondingES.getRandom();
 			if(rand.nextDouble() < probabilityOfThisMutation) {
 				
 				// If a function is used for adaptation of expected step size, calculate it
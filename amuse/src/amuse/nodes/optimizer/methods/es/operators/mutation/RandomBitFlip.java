@@ -62,7 +62,7 @@ public class RandomBitFlip extends AbstractMutation {
 		AmuseLogger.write(this.getClass().getName(), Level.DEBUG, "Random bit flip mutation started");
 		if(representation instanceof BinaryVector) {
 			BinaryVector valueToMutate = (BinaryVector)representation;
-			Random rand = new Random();
+			Random rand = correspondingES.getRandom();
 			double mutationProbability = this.selfAdaptationFactor * gamma / valueToMutate.getValue().length;
 			selfAdaptation();
 			AmuseLogger.write(this.getClass().getName(), Level.DEBUG, "Current value: " + valueToMutate.toString());
@@ -25,8 +25,10 @@ package amuse.nodes.optimizer.methods.es.operators.selection;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
 
 import amuse.nodes.optimizer.methods.es.ESIndividual;
 import amuse.nodes.optimizer.methods.es.EvolutionaryStrategy;
@@ -39,41 +41,31 @@ import amuse.nodes.validator.interfaces.ValidationMeasureDouble;
  * For details of SMS-EMOA see: Michael Emmerich, Nicola Beume, and Boris Naujoks. An EMO algorithm using the hypervolume 
  * measure as selection criterion. In: C. A. Coello Coello et al., Eds., Proc. Evolutionary Multi-Criterion Optimization, 
  * 3rd Int'l Conf. (EMO 2005), LNCS 3410, pp. 62-76. Springer, Berlin, 2005.
+ * 
+ * The fronts are calculated by efficient non-dominated sorting with binary search (ENS-BS), see: Xingyi Zhang, Ye Tian, 
+ * Ran Cheng, and Yaochu Jin. An Efficient Approach to Nondominated Sorting for Evolutionary Multiobjective Optimization. 
+ * IEEE Transactions on Evolutionary Computation, 19(2), pp. 201-213, 2015.
+ * 
+ * The delta S values of the worst front are calculated exactly for up to three fitness values and estimated by Monte Carlo sampling 
+ * for more fitness values. The reference point is the nadir point of the worst front; individuals whose delta S would 
+ * grow with the reference point (e.g. the boundary individuals for two fitness values) are never removed.
  *
  * @author Igor Vatolkin
  * @version $Id$
  */
 public class HypervolumeSelection extends AbstractSelection {
 
-	/** List with all individuals */
-	private ArrayList<Integer>individuals = null;
+	/** Number of samples for the Monte Carlo estimation of the delta S value of one individual */
+	private static final int MONTE_CARLO_SAMPLES = 10000;
+	
+	/** Fitness values of all individuals, converted so that all fitness values are minimized */
+	private double[][] points = null;
 	
 	ArrayList<ArrayList<Integer>> fronts = null;
 	
 	public HypervolumeSelection(EvolutionaryStrategy correspondingES) {
 		super(correspondingES);
 	}
-	
-	// TODO Provide better implementation
-	private class OneFitnessValue implements Comparable<OneFitnessValue> {
-		
-		public int individualNumber;
-		public double value;
-		
-		public OneFitnessValue(int i, double val) {
-			individualNumber = i;
-			value = val;
-		}
-		
-		public int compareTo(OneFitnessValue object) {
-			OneFitnessValue valueToCompare = object;
-	        if (value <= valueToCompare.value) {
-	            return -1;
-	        } else {
-	            return 1;
-	        }
-		}
-	}
 
 	/*
 	 * (non-Javadoc)
@@ -83,28 +75,18 @@ public class HypervolumeSelection extends AbstractSelection {
 		
 		// Individual indices are sorted in the way so that at first comes the parent population
 		// (individual 0 to individual popSize-1) and then offspring population (popSize to popSize+offspringSize-1)
-		individuals = new ArrayList<Integer>(correspondingES.popSize + correspondingES.offspringPopSize);
-		for(int i=0;i<correspondingES.popSize + correspondingES.offspringPopSize;i++) {
-			individuals.add(i);
+		points = new double[correspondingES.popSize + correspondingES.offspringPopSize][];
+		for(int i=0;i<points.length;i++) {
+			points[i] = toMinimizedFitness(correspondingES.fitnessOf(i));
 		}
 		
 		// Calculate the fronts
-		fronts = fastNondominatedSorting();
+		fronts = efficientNondominatedSorting(points);
 		
 		// Calculate delta S values for the worst front
-		HashMap<Integer,Double> individualOfWorstFront2DeltaS = calculateDeltaS();
-		
-		// Search for the worst individual (with the smallest delta S) from the worst front
-		int worstIndividualIndex = -1;
-		double worstIndividualValue = Double.POSITIVE_INFINITY;
-		Iterator<Integer> keyIt = individualOfWorstFront2DeltaS.keySet().iterator();		
-		while(keyIt.hasNext()) {
-			Integer nextIndividualIndex = keyIt.next();
-			if(individualOfWorstFront2DeltaS.get(nextIndividualIndex) <= worstIndividualValue) {
-				worstIndividualIndex = nextIndividualIndex;
-				worstIndividualValue = individualOfWorstFront2DeltaS.get(nextIndividualIndex);
-			}
-		}
+		ArrayList<Integer> worstFront = fronts.get(fronts.size()-1);
+		double[] deltaS = calculateDeltaS(points, worstFront, correspondingES.getRandom());
+		int worstIndividualIndex = findWorstIndividual(worstFront, deltaS);
 		
 		// Replace parent population only if the worst individual was not the child individual
 		if(worstIndividualIndex < correspondingES.popSize) {
@@ -125,141 +107,363 @@ public class HypervolumeSelection extends AbstractSelection {
 		return 0;
 	}
 
-	private ArrayList<ArrayList<Integer>> fastNondominatedSorting() {
+	/**
+	 * Converts the fitness values of an individual, so that all fitness values are minimized
+	 * @param fitnessValues Fitness values
+	 * @return Fitness values to minimize
+	 */
+	static double[] toMinimizedFitness(ValidationMeasureDouble[] fitnessValues) {
+		double[] point = new double[fitnessValues.length];
+		for(int k=0;k<fitnessValues.length;k++) {
+			point[k] = fitnessValues[k].isForMinimizing() ? fitnessValues[k].getValue() : -fitnessValues[k].getValue();
+		}
+		return point;
+	}
+
+	/**
+	 * Searches for the worst individual (with the smallest delta S) from the worst front; from individuals 
+	 * with the same delta S the one with the largest index is returned
+	 * @param worstFront Individual indices of the worst front
+	 * @param deltaS Delta S values in the order of the front
+	 * @return Index of the worst individual
+	 */
+	static int findWorstIndividual(ArrayList<Integer> worstFront, double[] deltaS) {
+		int worstIndividualIndex = -1;
+		double worstIndividualValue = Double.POSITIVE_INFINITY;
+		for(int i=0;i<worstFront.size();i++) {
+			if(deltaS[i] < worstIndividualValue || (deltaS[i] == worstIndividualValue && worstFront.get(i) > worstIndividualIndex)) {
+				worstIndividualIndex = worstFront.get(i);
+				worstIndividualValue = deltaS[i];
+			}
+		}
+		return worstIndividualIndex;
+	}
+
+	/**
+	 * Calculates the fronts of the given points
+	 * @param points Fitness values of the individuals, which are all minimized
+	 * @return Individual indices of the fronts, beginning with the best front
+	 */
+	static ArrayList<ArrayList<Integer>> efficientNondominatedSorting(final double[][] points) {
 		
 		// fronts.get(0) contains the individual indices of the best front; fronts.get(1) from the second-best front etc.
 		ArrayList<ArrayList<Integer>> fronts = new ArrayList<ArrayList<Integer>>();
-		fronts.add(new ArrayList<Integer>());
 		
-		int individualNumber = correspondingES.popSize + correspondingES.offspringPopSize;
+		// (1) Sort the individuals lexicographically, so that an individual can be dominated only by the previous ones
+		Integer[] sortedIndividuals = new Integer[points.length];
+		for(int i=0;i<points.length;i++) {
+			sortedIndividuals[i] = i;
+		}
+		Arrays.sort(sortedIndividuals, new Comparator<Integer>() {
+			public int compare(Integer i, Integer j) {
+				for(int k=0;k<points[i].length;k++) {
+					int result = Double.compare(points[i][k], points[j][k]);
+					if(result != 0) {
+						return result;
+					}
+				}
+				return 0;
+			}
+		});
 		
-		// The number of the individuals, which dominate the current individual, are stored here
-    	int[] numberOfBetterIndividuals = new int[individualNumber];
-    	for(int i=0;i<individualNumber;i++) {
-    		numberOfBetterIndividuals[i] = 0;
-    	}
-    	
-    	// The indices of the individuals, which are dominated by the current individual, are stored here
-    	ArrayList<ArrayList<Integer>> indexesOfDominatedIndividuals = new ArrayList<ArrayList<Integer>>();
-    	for(int i=0;i<individualNumber;i++) {
-    		indexesOfDominatedIndividuals.add(new ArrayList<Integer>());
-    	}
-    	
-    	// (1) Calculate the dominance information
-    	for(int i=0;i<individualNumber;i++) {
-    		for(int j=0;j<individualNumber;j++) {
-    			
-    			// If i dominates j then include j in indexesOfDominatedIndividuals
-    			if(dominates(i,j)) {
-    				(indexesOfDominatedIndividuals.get(i)).add(new Integer(j));
-    			}
-    			
-    			// Else increment numberOfBetterIndividuals
-    			else if(dominates(j,i)) {
-    				numberOfBetterIndividuals[i]++;
-    			}
-    		}
-    		
-    		// If no solution dominates p then p is a member of the first front
-    		if(numberOfBetterIndividuals[i] == 0) {
-    			fronts.get(0).add(new Integer(i));
-    		}
-    	}
-    	
-    	// (2) Calculate the fronts
-    	int indexOfCurrentFront=0;
-    	while(true) {
-    		ArrayList<Integer> newFront = new ArrayList<Integer>();
-        	for(int i=0;i<fronts.get(indexOfCurrentFront).size();i++) {
-        		int currentIndividual = fronts.get(indexOfCurrentFront).get(i);
-       			
-        		// Go through all individuals dominated by the currentIndividual
-       			for(int j=0;j<(indexesOfDominatedIndividuals.get(currentIndividual)).size();j++) {
-       			
-       				// Decrement numberOfBetterIndividuals by one
-       				int currentDominatedIndividual = indexesOfDominatedIndividuals.get(currentIndividual).get(j);
-       				numberOfBetterIndividuals[currentDominatedIndividual]--;
-       				if(numberOfBetterIndividuals[currentDominatedIndividual] == 0) {
-       					newFront.add(new Integer(currentDominatedIndividual));
-       				}
-        		}
-        	}
-        	indexOfCurrentFront++;
-        	if(newFront.size() == 0) {
-        		break;
-        	} else {
-        		fronts.add(newFront);
-        	}
-    	}
+		// (2) Add each individual to the first front without an individual which dominates it. If an individual of
+		// a front dominates the current individual, also an individual of each previous front does, so that
+		// this front can be found by binary search
+		for(Integer currentIndividual : sortedIndividuals) {
+			int lowestFront = 0;
+			int highestFront = fronts.size();
+			while(lowestFront < highestFront) {
+				int middleFront = (lowestFront + highestFront) / 2;
+				if(isDominatedByFront(points, currentIndividual, fronts.get(middleFront))) {
+					lowestFront = middleFront + 1;
+				} else {
+					highestFront = middleFront;
+				}
+			}
+			if(lowestFront == fronts.size()) {
+				fronts.add(new ArrayList<Integer>());
+			}
+			fronts.get(lowestFront).add(currentIndividual);
+		}
 		
 		return fronts;
 	}
 	
-	private ValidationMeasureDouble[] getIndividualFitness(int i) {
-		return (i<correspondingES.popSize) ? correspondingES.populationFitnessValues[i] : 
-			correspondingES.offspringPopulationFitnessValues[i-correspondingES.popSize];
+	private static boolean isDominatedByFront(double[][] points, int i, ArrayList<Integer> front) {
+		
+		// The individuals added last are the most similar ones and are compared at first
+		for(int j=front.size()-1;j>=0;j--) {
+			if(dominates(points, front.get(j), i)) {
+				return true;
+			}
+		}
+		return false;
 	}
 	
-	private boolean dominates(int i, int j) {
+	static boolean dominates(double[][] points, int i, int j) {
     	
 		// Two conditions must be hold if i dominates j:
     	// (1) i is not worse as j in all dimensions 
-    	boolean condition1 = true;
     	// (2) i is better in at least one dimension
     	boolean condition2 = false;
-    	
-    	ValidationMeasureDouble[] firstFitnessValues = getIndividualFitness(i); 
-    	ValidationMeasureDouble[] secondFitnessValues = getIndividualFitness(j);
-    	
-    	for(int k=0;k<firstFitnessValues.length;k++) {
-    		if(firstFitnessValues[k].isForMinimizing()) {
-    			if(firstFitnessValues[k].getValue() > secondFitnessValues[k].getValue())
-    				condition1 = false;
-    			if(firstFitnessValues[k].getValue() < secondFitnessValues[k].getValue())
-    				condition2 = true;
-    		} else {
-    			if(firstFitnessValues[k].getValue() < secondFitnessValues[k].getValue())
-    				condition1 = false;
-    			if(firstFitnessValues[k].getValue() > secondFitnessValues[k].getValue())
-    				condition2 = true;
+    	for(int k=0;k<points[i].length;k++) {
+    		if(points[i][k] > points[j][k]) {
+    			return false;
+    		}
+    		if(points[i][k] < points[j][k]) {
+    			condition2 = true;
     		}
     	}
-    	if(condition1 && condition2)
-    		return true;
-    	else
-    		return false;
+    	return condition2;
     }
 	
-	private HashMap<Integer, Double> calculateDeltaS() {
-		HashMap<Integer, Double> map = new HashMap<Integer, Double>();
+	/**
+	 * Calculates the delta S values of the individuals of a front
+	 * @param points Fitness values of all individuals, which are all minimized
+	 * @param front Individual indices of the front
+	 * @param random Random generator for the estimation of delta S for more than three fitness values
+	 * @return Delta S values in the order of the front
+	 */
+	static double[] calculateDeltaS(double[][] points, ArrayList<Integer> front, Random random) {
+		int numberOfFitnessValues = points[front.get(0)].length;
+		double[][] frontPoints = new double[front.size()][];
+		for(int i=0;i<front.size();i++) {
+			frontPoints[i] = points[front.get(i)];
+		}
 		
-		ArrayList<Integer> worstFront = fronts.get(fronts.size()-1);
-		OneFitnessValue[] fitnessValuesForCurrentDimension = new OneFitnessValue[worstFront.size()];
-    	
-    	// TODO Fitness values for the first dimension of the worst front; currently only two dimensions are supported!!
-    	for(int i=0;i<worstFront.size();i++) {
-    		fitnessValuesForCurrentDimension[i] = new OneFitnessValue(worstFront.get(i),getIndividualFitness(worstFront.get(i))[0].getValue());
-    	}
-    	Arrays.sort(fitnessValuesForCurrentDimension);
-    	
-    	// Boundary individuals have the largest delta S
-    	map.put(fitnessValuesForCurrentDimension[0].individualNumber, Double.POSITIVE_INFINITY);
-    	map.put(fitnessValuesForCurrentDimension[fitnessValuesForCurrentDimension.length-1].individualNumber, Double.POSITIVE_INFINITY);
-    	
-    	for(int i=1;i<fitnessValuesForCurrentDimension.length-1;i++) {
-    		int currentIndividualIndex = fitnessValuesForCurrentDimension[i].individualNumber;
-    		double value1OfIndividual = fitnessValuesForCurrentDimension[i].value;
-    		double value1OfIndividualPlus1 = fitnessValuesForCurrentDimension[i+1].value;
-    		double value2OfIndividual = getIndividualFitness(currentIndividualIndex)[1].getValue();
-    		double value2OfIndividualMinus1 = getIndividualFitness(fitnessValuesForCurrentDimension[i-1].
-    				individualNumber)[1].getValue();
-    		double deltaS = Math.abs((value1OfIndividualPlus1 - value1OfIndividual)) * 
-    				Math.abs((value2OfIndividualMinus1 - value2OfIndividual));
-    		map.put(currentIndividualIndex, deltaS);
-    	}
+		// The nadir point of the front is used as reference point
+		double[] referencePoint = frontPoints[0].clone();
+		for(double[] point : frontPoints) {
+			for(int k=0;k<numberOfFitnessValues;k++) {
+				referencePoint[k] = Math.max(referencePoint[k], point[k]);
+			}
+		}
+		
+		double[] deltaS;
+		if(numberOfFitnessValues == 1) {
+			
+			// All individuals of the front have the same fitness
+			deltaS = new double[front.size()];
+		} else if(numberOfFitnessValues == 2) {
+			deltaS = calculateDeltaS2D(frontPoints, referencePoint[0], referencePoint[1]);
+		} else if(numberOfFitnessValues == 3) {
+			deltaS = calculateDeltaS3D(frontPoints, referencePoint);
+		} else {
+			deltaS = estimateDeltaS(frontPoints, referencePoint, random);
+		}
 		
-		return map;
+		// The delta S values of the individuals, which are not bounded by other individuals in some dimension, 
+		// depend on the reference point; these individuals are kept
+		for(int i=0;i<frontPoints.length;i++) {
+			if(isUnbounded(i, frontPoints)) {
+				deltaS[i] = Double.POSITIVE_INFINITY;
+			}
+		}
+		return deltaS;
+	}
+	
+	/**
+	 * Checks if the region dominated only by the given point is not limited in some dimension by the other points,
+	 * i.e. if no other point is not worse in all other dimensions
+	 */
+	private static boolean isUnbounded(int i, double[][] points) {
+		for(int k=0;k<points[i].length;k++) {
+			boolean isBounded = false;
+			for(int j=0;j<points.length && !isBounded;j++) {
+				if(j == i) {
+					continue;
+				}
+				isBounded = true;
+				for(int l=0;l<points[i].length;l++) {
+					if(l != k && points[j][l] > points[i][l]) {
+						isBounded = false;
+						break;
+					}
+				}
+			}
+			if(!isBounded) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Calculates the exact hypervolume contributions of the points of a front with two dimensions from 
+	 * their neighbours; points with duplicates have no contribution
+	 */
+	private static double[] calculateDeltaS2D(final double[][] points, double referenceX, double referenceY) {
+		double[] deltaS = new double[points.length];
+		Integer[] sortedPoints = new Integer[points.length];
+		for(int i=0;i<points.length;i++) {
+			sortedPoints[i] = i;
+		}
+		Arrays.sort(sortedPoints, new Comparator<Integer>() {
+			public int compare(Integer i, Integer j) {
+				int result = Double.compare(points[i][0], points[j][0]);
+				return result != 0 ? result : Double.compare(points[i][1], points[j][1]);
+			}
+		});
+		
+		// Search for the non-dominated points, which are sorted by the first dimension ascending and
+		// by the second dimension descending
+		ArrayList<Integer> nondominatedPoints = new ArrayList<Integer>(points.length);
+		boolean[] hasDuplicate = new boolean[points.length];
+		for(Integer i : sortedPoints) {
+			if(nondominatedPoints.isEmpty() || points[i][1] < points[nondominatedPoints.get(nondominatedPoints.size()-1)][1]) {
+				nondominatedPoints.add(i);
+			} else {
+				int lastPoint = nondominatedPoints.get(nondominatedPoints.size()-1);
+				if(points[i][0] == points[lastPoint][0] && points[i][1] == points[lastPoint][1]) {
+					hasDuplicate[lastPoint] = true;
+				}
+			}
+		}
+		
+		// The contribution of a point is limited by its neighbours
+		for(int i=0;i<nondominatedPoints.size();i++) {
+			int currentPoint = nondominatedPoints.get(i);
+			if(hasDuplicate[currentPoint]) {
+				continue;
+			}
+			double nextX = (i < nondominatedPoints.size()-1) ? points[nondominatedPoints.get(i+1)][0] : referenceX;
+			double previousY = (i > 0) ? points[nondominatedPoints.get(i-1)][1] : referenceY;
+			deltaS[currentPoint] = (nextX - points[currentPoint][0]) * (previousY - points[currentPoint][1]);
+		}
+		return deltaS;
+	}
+	
+	/**
+	 * Calculates the exact hypervolume contributions of points with three dimensions: the contribution of a point 
+	 * is the volume of the box between the point and the reference point minus the hypervolume of the other points 
+	 * within this box
+	 */
+	private static double[] calculateDeltaS3D(double[][] points, double[] referencePoint) {
+		double[] deltaS = new double[points.length];
+		for(int i=0;i<points.length;i++) {
+			double boxVolume = (referencePoint[0] - points[i][0]) * (referencePoint[1] - points[i][1]) * (referencePoint[2] - points[i][2]);
+			if(boxVolume == 0) {
+				continue;
+			}
+			
+			// Within the box, the other points dominate the same region as their component-wise maxima with the current point
+			double[][] limitingPoints = new double[points.length-1][3];
+			int j = 0;
+			for(int l=0;l<points.length;l++) {
+				if(l != i) {
+					for(int k=0;k<3;k++) {
+						limitingPoints[j][k] = Math.max(points[i][k], points[l][k]);
+					}
+					j++;
+				}
+			}
+			deltaS[i] = boxVolume - calculateHypervolume3D(limitingPoints, referencePoint);
+		}
+		return deltaS;
+	}
+	
+	/**
+	 * Calculates the hypervolume of points with three dimensions by a sweep along the third dimension, 
+	 * which updates the dominated area of the first two dimensions
+	 */
+	private static double calculateHypervolume3D(final double[][] points, double[] referencePoint) {
+		Integer[] sortedPoints = new Integer[points.length];
+		for(int i=0;i<points.length;i++) {
+			sortedPoints[i] = i;
+		}
+		Arrays.sort(sortedPoints, new Comparator<Integer>() {
+			public int compare(Integer i, Integer j) {
+				return Double.compare(points[i][2], points[j][2]);
+			}
+		});
+		
+		// Non-dominated points of the first two dimensions: the second dimension decreases with the first one
+		TreeMap<Double,Double> front = new TreeMap<Double,Double>();
+		double area = 0d;
+		double volume = 0d;
+		for(int i=0;i<sortedPoints.length;i++) {
+			double x = points[sortedPoints[i]][0];
+			double y = points[sortedPoints[i]][1];
+			Map.Entry<Double,Double> leftNeighbour = front.floorEntry(x);
+			if(leftNeighbour == null || leftNeighbour.getValue() > y) {
+				
+				// Add the area between the new point and the current front and remove the points dominated by the new point
+				double currentX = x;
+				double currentY = (leftNeighbour == null) ? referencePoint[1] : leftNeighbour.getValue();
+				Map.Entry<Double,Double> rightNeighbour = front.ceilingEntry(x);
+				while(rightNeighbour != null && rightNeighbour.getValue() >= y) {
+					area += (rightNeighbour.getKey() - currentX) * (currentY - y);
+					currentX = rightNeighbour.getKey();
+					currentY = rightNeighbour.getValue();
+					front.remove(currentX);
+					rightNeighbour = front.higherEntry(currentX);
+				}
+				double nextX = (rightNeighbour == null) ? referencePoint[0] : rightNeighbour.getKey();
+				area += (nextX - currentX) * (currentY - y);
+				front.put(x, y);
+			}
+			double nextZ = (i < sortedPoints.length-1) ? points[sortedPoints[i+1]][2] : referencePoint[2];
+			volume += area * (nextZ - points[sortedPoints[i]][2]);
+		}
+		return volume;
+	}
+	
+	/**
+	 * Estimates the hypervolume contributions of points with more than three dimensions: the contribution 
+	 * of a point is the share of uniform samples from the box between the point and the reference point, 
+	 * which are not dominated by other points, multiplied with the volume of this box 
+	 */
+	private static double[] estimateDeltaS(double[][] points, double[] referencePoint, Random random) {
+		double[] deltaS = new double[points.length];
+		int numberOfDimensions = referencePoint.length;
+		
+		for(int i=0;i<points.length;i++) {
+			double boxVolume = 1d;
+			for(int k=0;k<numberOfDimensions;k++) {
+				boxVolume *= referencePoint[k] - points[i][k];
+			}
+			if(boxVolume == 0 || isUnbounded(i, points)) {
+				continue;
+			}
+			
+			// Within the box, the other points dominate the same region as their component-wise maxima with the current point
+			ArrayList<double[]> limitingPoints = new ArrayList<double[]>(points.length-1);
+			for(int j=0;j<points.length;j++) {
+				if(j != i) {
+					double[] limitingPoint = new double[numberOfDimensions];
+					for(int k=0;k<numberOfDimensions;k++) {
+						limitingPoint[k] = Math.max(points[i][k], points[j][k]);
+					}
+					limitingPoints.add(limitingPoint);
+				}
+			}
+			
+			int numberOfNondominatedSamples = 0;
+			double[] sample = new double[numberOfDimensions];
+			for(int s=0;s<MONTE_CARLO_SAMPLES;s++) {
+				for(int k=0;k<numberOfDimensions;k++) {
+					sample[k] = points[i][k] + random.nextDouble() * (referencePoint[k] - points[i][k]);
+				}
+				boolean isDominated = false;
+				for(double[] limitingPoint : limitingPoints) {
+					isDominated = true;
+					for(int k=0;k<numberOfDimensions;k++) {
+						if(limitingPoint[k] > sample[k]) {
+							isDominated = false;
+							break;
+						}
+					}
+					if(isDominated) {
+						break;
+					}
+				}
+				if(!isDominated) {
+					numberOfNondominatedSamples++;
+				}
+			}
+			deltaS[i] = boxVolume * numberOfNondominatedSamples / MONTE_CARLO_SAMPLES;
+		}
+		return deltaS;
 	}
 
 }
-
@@ -23,6 +23,7 @@
  */ 
 package amuse.nodes.processor;
 
+import java.io.BufferedOutputStream;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -30,19 +31,26 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Properties;
 import java.util.StringTokenizer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.log4j.Level;
 
-import amuse.data.ArffFeatureLoader;
 import amuse.data.Feature;
 import amuse.data.FeatureTable;
 import amuse.data.io.ArffDataSet;
+import amuse.data.io.BinaryFeatureFile;
 import amuse.data.io.DataSet;
 import amuse.data.io.DataSetAbstract;
+import amuse.data.io.FeatureFileConverter;
 import amuse.data.io.attributes.Attribute;
 import amuse.interfaces.nodes.methods.AmuseTask;
 import amuse.interfaces.nodes.TaskConfiguration;
@@ -53,6 +61,7 @@ import amuse.nodes.processor.ProcessingConfiguration.Unit;
 import amuse.nodes.processor.interfaces.DimensionProcessorInterface;
 import amuse.nodes.processor.interfaces.MatrixToVectorConverterInterface;
 import amuse.preferences.AmusePreferences;
+import amuse.preferences.KeysIntValue;
 import amuse.preferences.KeysStringValue;
 import amuse.util.AmuseLogger;
 
@@ -93,6 +102,12 @@ public class ProcessorNodeScheduler extends NodeScheduler {
 	/** Saves the processed features if they are not saved in the database */
 	private List<Feature> processedFeatures;
 	
+	/** In batch mode the configurations of all jobs, each with one music file; null otherwise */
+	private List<ProcessingConfiguration> batchConfigurations = null;
+	
+	/** Error descriptions for each configuration of the batch (see getBatchErrorDescriptionBuilders()) */
+	private List<StringBuilder> batchErrorDescriptionBuilders = null;
+	
 	/**
 	 * Constructor
 	 */
@@ -136,7 +151,132 @@ public class ProcessorNodeScheduler extends NodeScheduler {
 	 */
 	@Override
 	public void proceedTask(String nodeHome, long jobId, TaskConfiguration taskConfiguration) {
-		proceedTask(nodeHome, jobId, taskConfiguration, true);
+		if(this.batchConfigurations != null) {
+			proceedBatch(nodeHome, jobId);
+		} else {
+			proceedTask(nodeHome, jobId, taskConfiguration, true);
+		}
+	}
+	
+	/**
+	 * Sets the parameters for the batch mode, in which this node scheduler processes the given configurations
+	 * in the thread started with run(). The music files are processed in parallel by up to MAX_NUMBER_OF_TASK_THREADS
+	 * threads; all configurations of a music file are processed after another, so that its raw features are
+	 * loaded only once from the feature files (see RawFeatureCache)
+	 * @param homeFolder Home folder of this node
+	 * @param jobId Job id
+	 * @param configurations Processing configurations, each with one music file
+	 */
+	public void setBatchParameters(String homeFolder, long jobId, List<ProcessingConfiguration> configurations) {
+		setThreadParameters(homeFolder, jobId, configurations.get(0));
+		this.batchConfigurations = configurations;
+	}
+	
+	/**
+	 * Returns a StringBuilder for each configuration of the batch, in which the music file name is written
+	 * if the processing fails. The first StringBuilder is the one returned by getErrorDescriptionBuilder()
+	 * @return StringBuilders in the order of the batch configurations
+	 */
+	public List<StringBuilder> getBatchErrorDescriptionBuilders() {
+		if(batchErrorDescriptionBuilders == null) {
+			batchErrorDescriptionBuilders = new ArrayList<StringBuilder>(batchConfigurations.size());
+			batchErrorDescriptionBuilders.add(this.errorDescriptionBuilder);
+			for(int i=1;i<batchConfigurations.size();i++) {
+				batchErrorDescriptionBuilders.add(new StringBuilder(""));
+			}
+		}
+		return batchErrorDescriptionBuilders;
+	}
+	
+	/**
+	 * Processes all configurations of the batch
+	 */
+	private void proceedBatch(String nodeHome, long jobId) {
+		this.nodeHome = nodeHome;
+		if(this.nodeHome.startsWith(AmusePreferences.get(KeysStringValue.AMUSE_PATH))) {
+			this.directStart = true;
+		}
+		this.jobId = new Long(jobId);
+		List<StringBuilder> errorDescriptions = this.getBatchErrorDescriptionBuilders();
+		
+		// Group the configurations by music file
+		LinkedHashMap<String,List<Integer>> configurationsOfMusicFiles = new LinkedHashMap<String,List<Integer>>();
+		for(int i=0;i<batchConfigurations.size();i++) {
+			String musicFile = batchConfigurations.get(i).getMusicFileList().getFileAt(0);
+			List<Integer> configurationsOfMusicFile = configurationsOfMusicFiles.get(musicFile);
+			if(configurationsOfMusicFile == null) {
+				configurationsOfMusicFile = new ArrayList<Integer>();
+				configurationsOfMusicFiles.put(musicFile, configurationsOfMusicFile);
+			}
+			configurationsOfMusicFile.add(i);
+		}
+		AmuseLogger.write(this.getClass().getName(), Level.INFO, "Processor node scheduler started batch of " + 
+				batchConfigurations.size() + " jobs for " + configurationsOfMusicFiles.size() + " music files");
+		
+		// Idle threads take over the music files queued for the busy threads
+		ExecutorService executor = Executors.newWorkStealingPool(AmusePreferences.getInt(KeysIntValue.MAX_NUMBER_OF_TASK_THREADS));
+		List<Future<Boolean>> results = new ArrayList<Future<Boolean>>(configurationsOfMusicFiles.size());
+		boolean allJobsProcessed = true;
+		try {
+			for(List<Integer> configurationsOfMusicFile : configurationsOfMusicFiles.values()) {
+				results.add(executor.submit(() -> proceedBatchJobs(configurationsOfMusicFile, errorDescriptions)));
+			}
+			for(Future<Boolean> result : results) {
+				allJobsProcessed &= result.get();
+			}
+		} catch(InterruptedException e) {
+			AmuseLogger.write(this.getClass().getName(), Level.ERROR, "Batch processing was interrupted");
+			allJobsProcessed = false;
+			Thread.currentThread().interrupt();
+		} catch(ExecutionException e) {
+			AmuseLogger.write(this.getClass().getName(), Level.ERROR, "Batch processing failed: " + e.getCause());
+			allJobsProcessed = false;
+		} finally {
+			executor.shutdownNow();
+		}
+		
+		// If started directly, remove generated data and fire event for Amuse scheduler
+		if(this.directStart) {
+			try {
+				this.cleanInputFolder();
+			} catch(NodeException e) {
+				AmuseLogger.write(this.getClass().getName(), Level.ERROR,
+					"Could not remove properly the intermediate results '" + 
+					this.nodeHome + File.separator + "input" + File.separator + "task_'" + this.jobId + "; please delete it manually! (Exception: "+ e.getMessage() + ")");
+			}
+			this.fireEvent(new NodeEvent(allJobsProcessed ? NodeEvent.PROCESSING_COMPLETED : NodeEvent.PROCESSING_FAILED, this));
+		}
+	}
+	
+	/**
+	 * Processes the given configurations of the batch after another, each with its own node scheduler
+	 * @param configurationIndices Indices of the configurations
+	 * @param errorDescriptions Error descriptions of all configurations of the batch
+	 * @return True if all configurations have been processed
+	 */
+	private boolean proceedBatchJobs(List<Integer> configurationIndices, List<StringBuilder> errorDescriptions) {
+		boolean allJobsProcessed = true;
+		for(int index : configurationIndices) {
+			ProcessingConfiguration configuration = batchConfigurations.get(index);
+			ProcessorNodeScheduler jobScheduler;
+			try {
+				jobScheduler = new ProcessorNodeScheduler(this.nodeHome + File.separator + "input" + File.separator + "task_" + this.jobId);
+			} catch(NodeException e) {
+				AmuseLogger.write(this.getClass().getName(), Level.ERROR, "Could not create processor node scheduler: " + e.getMessage());
+				errorDescriptions.get(index).append(configuration.getMusicFileList().getFileAt(0));
+				allJobsProcessed = false;
+				continue;
+			}
+			
+			// The intermediate results folder is shared by all jobs of the batch and cleaned at the end
+			jobScheduler.errorDescriptionBuilder = errorDescriptions.get(index);
+			jobScheduler.setCleanInputFolder(false);
+			jobScheduler.proceedTask(this.nodeHome, this.jobId, configuration, true);
+			if(errorDescriptions.get(index).length() > 0) {
+				allJobsProcessed = false;
+			}
+		}
+		return allJobsProcessed;
 	}
 	
 	/**
@@ -331,18 +471,18 @@ public class ProcessorNodeScheduler extends NodeScheduler {
 			if(relativeName.lastIndexOf(File.separator) != -1) {
 				// TODO-17C1 evomix
 				if(loadFeaturesFromGivenFolder) {
-					features.add(ArffFeatureLoader.loadFeature(((ProcessingConfiguration)this.taskConfiguration).getFeatureDatabase() + File.separator + 
+					features.add(RawFeatureCache.loadFeature(((ProcessingConfiguration)this.taskConfiguration).getFeatureDatabase() + File.separator + 
 							relativeName.substring(relativeName.lastIndexOf(File.separator)+1,relativeName.length()) + "_" + featureIDs.get(i) + 
 							(configurationIDs.get(i) == null ? "" : "_" + configurationIDs.get(i))
 							+ ".arff", featureIDs.get(i)));
 				} else {
-					features.add(ArffFeatureLoader.loadFeature(AmusePreferences.get(KeysStringValue.FEATURE_DATABASE) + File.separator + relativeName +
+					features.add(RawFeatureCache.loadFeature(AmusePreferences.get(KeysStringValue.FEATURE_DATABASE) + File.separator + relativeName +
 							relativeName.substring(relativeName.lastIndexOf(File.separator)) + "_" + featureIDs.get(i)
 							+ (configurationIDs.get(i) == null ? "" : "_" + configurationIDs.get(i))
 							+ ".arff", featureIDs.get(i)));
 				}
 			} else {
-				features.add(ArffFeatureLoader.loadFeature(AmusePreferences.get(KeysStringValue.FEATURE_DATABASE) + File.separator + relativeName +
+				features.add(RawFeatureCache.loadFeature(AmusePreferences.get(KeysStringValue.FEATURE_DATABASE) + File.separator + relativeName +
 						File.separator + relativeName + "_" + featureIDs.get(i)
 						+ (configurationIDs.get(i) == null ? "" : "_" + configurationIDs.get(i))
 						+ ".arff", featureIDs.get(i)));
@@ -384,22 +524,26 @@ public class ProcessorNodeScheduler extends NodeScheduler {
 
 			// If the complete song is used as source..
 			if(actualStepSize == -1) {
-				actualStepSize = features.get(exampleOfFeatureWithMinimalStep).getWindows().size() * minimalStepSize;
-				features.get(i).getWindows().set(0,1d);
+				actualStepSize = features.get(exampleOfFeatureWithMinimalStep).getWindowCount() * minimalStepSize;
+				features.get(i).setWindow(0,1d);
 			}
 			
 			if(actualStepSize > minimalStepSize) {
-				featureIdToWindowNumber.put(features.get(i).getId(), new Long(features.get(i).getValues().size()));
-				initialNumberOfUsedRawTimeWindows += (features.get(i).getValues().size() * (new Double(actualStepSize) / minimalStepSize));
-				ArrayList<Double[]> newValues = new ArrayList<Double[]>(features.get(exampleOfFeatureWithMinimalStep).getWindows().size());
-				ArrayList<Double> newWindows = new ArrayList<Double>(features.get(exampleOfFeatureWithMinimalStep).getWindows().size());
+				Feature currentFeature = features.get(i);
+				int dimension = currentFeature.getDimension();
+				int numberOfSmallWindows = features.get(exampleOfFeatureWithMinimalStep).getWindowCount();
+				featureIdToWindowNumber.put(currentFeature.getId(), new Long(currentFeature.getWindowCount()));
+				initialNumberOfUsedRawTimeWindows += (currentFeature.getWindowCount() * (new Double(actualStepSize) / minimalStepSize));
+				double[] newValues = new double[numberOfSmallWindows * dimension];
+				double[] newWindows = new double[numberOfSmallWindows];
+				int numberOfNewWindows = 0;
 				int numberOfCurrentSmallWindow = 0;
 				
 				// Proceed the larger time frames and map them to the smallest time frame
-				for(int indexOfLargeWindow = 0; indexOfLargeWindow < features.get(i).getWindows().size(); indexOfLargeWindow++) {
+				for(int indexOfLargeWindow = 0; indexOfLargeWindow < currentFeature.getWindowCount(); indexOfLargeWindow++) {
 
 					// Time window numbers can be doubles e.g. for CENS features
-					double numberOfLargeTimeWindow = features.get(i).getWindows().get(indexOfLargeWindow);
+					double numberOfLargeTimeWindow = currentFeature.getWindow(indexOfLargeWindow);
 					
 					// The last small time window which correspond to the large time window
 					int numberOfLastSmallTWForThisLargeTW = new Double(Math.ceil(numberOfLargeTimeWindow * (double)actualStepSize / 
@@ -408,13 +552,16 @@ public class ProcessorNodeScheduler extends NodeScheduler {
 					for(int smallTWCounter = numberOfCurrentSmallWindow; smallTWCounter < numberOfLastSmallTWForThisLargeTW;
 						smallTWCounter++) {
 						
-						Double[] currentVals = new Double[features.get(i).getValues().get(indexOfLargeWindow).length];
-						for(int b=0;b<currentVals.length;b++) {
-							currentVals[b] = new Double(features.get(i).getValues().get(indexOfLargeWindow)[b]);
+						// Grow the arrays if the large time windows exceed the track length of the features with minimal step size
+						if(numberOfNewWindows == newWindows.length) {
+							newWindows = Arrays.copyOf(newWindows, Math.max(16, newWindows.length * 2));
+							newValues = Arrays.copyOf(newValues, newWindows.length * dimension);
 						}
-						
-						newValues.add(currentVals);
-						newWindows.add(new Double(smallTWCounter + 1)); // Time windows are counted up from 1, not 0!
+						for(int b=0;b<dimension;b++) {
+							newValues[numberOfNewWindows * dimension + b] = currentFeature.getValue(indexOfLargeWindow, b);
+						}
+						newWindows[numberOfNewWindows] = smallTWCounter + 1; // Time windows are counted up from 1, not 0!
+						numberOfNewWindows++;
 					}
 					numberOfCurrentSmallWindow = numberOfLastSmallTWForThisLargeTW;
 				}
@@ -423,23 +570,28 @@ public class ProcessorNodeScheduler extends NodeScheduler {
 				// features with minimal frame length. However the features from longer source frames will not 
 				// achieve the end of music file so precise as the features from smaller source frames and we
 				// must fill some windows with NaN values
-				for(;numberOfCurrentSmallWindow < features.get(exampleOfFeatureWithMinimalStep).getWindows().size();numberOfCurrentSmallWindow++) {
-					Double[] vals = new Double[features.get(i).getValues().get(0).length];
-					for(int k=0;k<vals.length;k++) vals[k] = Double.NaN;
-					newValues.add(vals);
-					newWindows.add(new Double(numberOfCurrentSmallWindow + 1)); // Time windows are counted up from 1, not 0!
+				for(;numberOfCurrentSmallWindow < numberOfSmallWindows;numberOfCurrentSmallWindow++) {
+					if(numberOfNewWindows == newWindows.length) {
+						newWindows = Arrays.copyOf(newWindows, Math.max(16, newWindows.length * 2));
+						newValues = Arrays.copyOf(newValues, newWindows.length * dimension);
+					}
+					for(int k=0;k<dimension;k++) {
+						newValues[numberOfNewWindows * dimension + k] = Double.NaN;
+					}
+					newWindows[numberOfNewWindows] = numberOfCurrentSmallWindow + 1; // Time windows are counted up from 1, not 0!
+					numberOfNewWindows++;
 				}
 				
 				// Replace the old feature with adapted feature
-				Feature adaptedFeature = new Feature(features.get(i).getIds(), features.get(i).getDescription(), 
-						newValues, newWindows);
-				adaptedFeature.setHistory(features.get(i).getHistory());
-				adaptedFeature.setSampleRate(features.get(i).getSampleRate());
-				adaptedFeature.setSourceFrameSize(features.get(i).getSourceFrameSize());
-				adaptedFeature.setSourceStepSize(features.get(i).getSourceStepSize());
+				Feature adaptedFeature = new Feature(currentFeature.getIds(), currentFeature.getDescription(), dimension,
+						Arrays.copyOf(newValues, numberOfNewWindows * dimension), Arrays.copyOf(newWindows, numberOfNewWindows));
+				adaptedFeature.setHistory(currentFeature.getHistory());
+				adaptedFeature.setSampleRate(currentFeature.getSampleRate());
+				adaptedFeature.setSourceFrameSize(currentFeature.getSourceFrameSize());
+				adaptedFeature.setSourceStepSize(currentFeature.getSourceStepSize());
 				features.set(i, adaptedFeature);
 			} else {
-				initialNumberOfUsedRawTimeWindows += features.get(i).getValues().size();
+				initialNumberOfUsedRawTimeWindows += features.get(i).getWindowCount();
 			}
 		}
 		
@@ -447,7 +599,7 @@ public class ProcessorNodeScheduler extends NodeScheduler {
 		for(Feature f: features) {
 			numberOfAllFeatureDimensions += f.getDimension();
 		}
-		initialNumberOfFeatureMatrixEntries = numberOfAllFeatureDimensions * features.get(0).getWindows().size();
+		initialNumberOfFeatureMatrixEntries = numberOfAllFeatureDimensions * features.get(0).getWindowCount();
 		
 		return features;
 	}
@@ -746,12 +898,12 @@ public class ProcessorNodeScheduler extends NodeScheduler {
 	}
 	
 	/**
-	 * Saves the processed features to feature database
+	 * Returns the file to which the processed features of the given configuration are saved
+	 * @param configuration Processing configuration with one music file
+	 * @return Path to the file with processed features
 	 */
-	private void saveProcessedFeaturesToDatabase(ArrayList<Feature> features) throws NodeException {
-
-		// Create file and folder for processed features
-		String destinationFile = ((ProcessingConfiguration)this.taskConfiguration).getMusicFileList().getFileAt(0);
+	public String getProcessedFeatureFile(ProcessingConfiguration configuration) {
+		String destinationFile = configuration.getMusicFileList().getFileAt(0);
 		String relativeName = new String();
 		String musicDatabasePath = AmusePreferences.get(KeysStringValue.MUSIC_DATABASE);
 		// Make sure music database path ends with file separator to catch tracks that have the data base path as suffix but are not in the database
@@ -766,40 +918,50 @@ public class ProcessorNodeScheduler extends NodeScheduler {
 		}
 		relativeName = relativeName.substring(0,relativeName.lastIndexOf("."));
 		String featureDesc = new String("");
-		if(!((ProcessingConfiguration)this.taskConfiguration).getFeatureDescription().equals(new String(""))) {
-			featureDesc = "_" + ((ProcessingConfiguration)this.taskConfiguration).getFeatureDescription();
+		if(!configuration.getFeatureDescription().equals(new String(""))) {
+			featureDesc = "_" + configuration.getFeatureDescription();
 		}
 		
 		// Can be used in tool node
 		String unitString;
-		if(((ProcessingConfiguration)this.taskConfiguration).getUnit().toString().equals("SAMPLES")) {
+		if(configuration.getUnit().toString().equals("SAMPLES")) {
 			unitString = "samples";
 		} else {
 			unitString = "ms";
 		}
 		if(saveDirectlyToDatabase) {
 			relativeName = relativeName.substring(relativeName.lastIndexOf(File.separator)+1,relativeName.length());
-			relativeName = ((ProcessingConfiguration)this.getConfiguration()).getProcessedFeatureDatabase() + File.separator + relativeName + "_" + 
-					((ProcessingConfiguration)this.taskConfiguration).getReductionSteps() + "__" +
-					((ProcessingConfiguration)this.taskConfiguration).getConversionStep() + "__" + 
-					((ProcessingConfiguration)this.taskConfiguration).getAggregationWindowSize() + unitString + "_" + 
-					((ProcessingConfiguration)this.taskConfiguration).getAggregationWindowStepSize() + unitString + featureDesc + ".arff";
+			relativeName = configuration.getProcessedFeatureDatabase() + File.separator + relativeName + "_" + 
+					configuration.getReductionSteps() + "__" +
+					configuration.getConversionStep() + "__" + 
+					configuration.getAggregationWindowSize() + unitString + "_" + 
+					configuration.getAggregationWindowStepSize() + unitString + featureDesc + ".arff";
 		} else {
 			if(relativeName.lastIndexOf(File.separator) != -1) {
-				relativeName = ((ProcessingConfiguration)this.getConfiguration()).getProcessedFeatureDatabase() + File.separator + relativeName +
+				relativeName = configuration.getProcessedFeatureDatabase() + File.separator + relativeName +
 					relativeName.substring(relativeName.lastIndexOf(File.separator)) + "_" +
-					((ProcessingConfiguration)this.taskConfiguration).getReductionSteps() + "__" + 
-					((ProcessingConfiguration)this.taskConfiguration).getConversionStep() + "__" + 
-					((ProcessingConfiguration)this.taskConfiguration).getAggregationWindowSize() + unitString + "_" + 
-					((ProcessingConfiguration)this.taskConfiguration).getAggregationWindowStepSize() + unitString + featureDesc + ".arff";
+					configuration.getReductionSteps() + "__" + 
+					configuration.getConversionStep() + "__" + 
+					configuration.getAggregationWindowSize() + unitString + "_" + 
+					configuration.getAggregationWindowStepSize() + unitString + featureDesc + ".arff";
 			} else {
-				relativeName = ((ProcessingConfiguration)this.getConfiguration()).getProcessedFeatureDatabase() + File.separator + relativeName +
-						File.separator + relativeName + "_" + ((ProcessingConfiguration)this.taskConfiguration).getReductionSteps() + "__" +
-						((ProcessingConfiguration)this.taskConfiguration).getConversionStep() + "__" + 
-						((ProcessingConfiguration)this.taskConfiguration).getAggregationWindowSize() + unitString + "_" + 
-						((ProcessingConfiguration)this.taskConfiguration).getAggregationWindowStepSize() + unitString + featureDesc + ".arff";
+				relativeName = configuration.getProcessedFeatureDatabase() + File.separator + relativeName +
+						File.separator + relativeName + "_" + configuration.getReductionSteps() + "__" +
+						configuration.getConversionStep() + "__" + 
+						configuration.getAggregationWindowSize() + unitString + "_" + 
+						configuration.getAggregationWindowStepSize() + unitString + featureDesc + ".arff";
 			}
 		}
+		return relativeName;
+	}
+	
+	/**
+	 * Saves the processed features to feature database
+	 */
+	private void saveProcessedFeaturesToDatabase(ArrayList<Feature> features) throws NodeException {
+
+		// Create file and folder for processed features
+		String relativeName = getProcessedFeatureFile((ProcessingConfiguration)this.taskConfiguration);
 		
 		File destinationFileFolder = new File(relativeName.substring(0,relativeName.lastIndexOf(File.separator)));
 		destinationFileFolder.mkdirs();
@@ -819,41 +981,6 @@ public class ProcessorNodeScheduler extends NodeScheduler {
 						feature_values_save_file.getAbsolutePath() + "' will be overwritten");
 			}
 			
-			FileOutputStream values_to = new FileOutputStream(feature_values_save_file);
-			DataOutputStream values_writer = new DataOutputStream(values_to);
-			String sep = System.getProperty("line.separator");
-			values_writer.writeBytes("@RELATION 'Classifier input'");
-			values_writer.writeBytes(sep);
-			values_writer.writeBytes("%initialNumberOfUsedRawTimeWindows=" + this.initialNumberOfUsedRawTimeWindows);
-			values_writer.writeBytes(sep);
-			values_writer.writeBytes("%finalNumberOfUsedRawTimeWindows=" + this.finalNumberOfUsedRawTimeWindows);
-			values_writer.writeBytes(sep);
-			values_writer.writeBytes("%initalNumberOfFeatureMatrixEntries=" + this.initialNumberOfFeatureMatrixEntries);
-			values_writer.writeBytes(sep);
-			values_writer.writeBytes("%finalNumberOfFeatureMatrixEntries=" + this.finalNumberOfFeatureMatrixEntries);
-			values_writer.writeBytes(sep);
-			values_writer.writeBytes("%finalNumberOfFeatureVectorEntries=" + features.size());
-			values_writer.writeBytes(sep);
-			
-			// @deprecated
-			//values_writer.writeBytes("%finalNumberOfUsedTimeWindows=" + this.finalNumberOfUsedTimeWindows);
-			values_writer.writeBytes(sep+sep);
-			
-			// Save the attributes
-			for(int i=0;i<features.size();i++) {
-				values_writer.writeBytes("@ATTRIBUTE '");
-				values_writer.writeBytes(features.get(i).getHistoryAsString());
-				values_writer.writeBytes("' NUMERIC" + sep);
-			}
-			values_writer.writeBytes("@ATTRIBUTE Unit {MILLISECONDS, SAMPLES}");
-			values_writer.writeBytes(sep);
-			values_writer.writeBytes("@ATTRIBUTE Start NUMERIC");
-			values_writer.writeBytes(sep);
-			values_writer.writeBytes("@ATTRIBUTE End NUMERIC");
-			values_writer.writeBytes(sep+sep);
-			values_writer.writeBytes("@DATA");
-			values_writer.writeBytes(sep);
-			
 			// TODO Consider only the classification windows up to 6 minutes of a music track; should be a parameter?
 			int numberOfMaxClassificatoinWindows = features.get(0).getValues().size();
 			for(int j=1;j<features.size();j++) {
@@ -886,31 +1013,100 @@ public class ProcessorNodeScheduler extends NodeScheduler {
 			
 			String unit = ((ProcessingConfiguration)this.taskConfiguration).getUnit().toString();
 			
-			// Save the data
+			// Calculate the classification window boundaries
+			double[] classificationWindowStarts = new double[numberOfMaxClassificatoinWindows];
+			double[] classificationWindowEnds = new double[numberOfMaxClassificatoinWindows];
+			double sampleRate = new Integer(features.get(0).getSampleRate()).doubleValue();
 			for(int i=0;i<numberOfMaxClassificatoinWindows;i++) {
-				for(int j=0;j<features.size();j++) {
-				
-					// [0] since the converted features must be single-dimensional!
-					values_writer.writeBytes(features.get(j).getValues().get(i)[0].toString() + ",");
-				}
-				double sampleRate = new Integer(features.get(0).getSampleRate()).doubleValue();
 				if(!((ProcessingConfiguration)this.taskConfiguration).getConversionStep().startsWith(new String("1"))) {
-					//values_writer.writeBytes("milliseconds," + features.get(0).getWindows().get(i)*((double)minimalFrameSize/sampleRate*1000d) + "," + 
-						//	(features.get(0).getWindows().get(i)*((double)minimalFrameSize/sampleRate*1000d)+((ProcessingConfiguration)this.taskConfiguration).getClassificationWindowSize()) + sep);
-					values_writer.writeBytes(unit + "," + (i*stepSize) + "," + (i*stepSize + partSize) + sep);
+					classificationWindowStarts[i] = i*stepSize;
+					classificationWindowEnds[i] = i*stepSize + partSize;
 				} else {
 					
 					// TODO [2/2] For adaptive onset classification windows the boundaries are calculated here. A more generic solution
 					// is to change Feature class and allow frames of different sizes (e.g. with a child class)
 					if(unit.equals(Unit.SAMPLES.toString())) {
-						Double classificationWindowStart = Math.ceil((attackStarts[i] * sampleRate) / this.minimalStepSize); 
-						Double classificationWindowEnd = Math.ceil((releaseEnds[i] * sampleRate) / this.minimalStepSize) + 1;
-						values_writer.writeBytes(unit + "," + classificationWindowStart + "," + classificationWindowEnd + sep);
+						classificationWindowStarts[i] = Math.ceil((attackStarts[i] * sampleRate) / this.minimalStepSize); 
+						classificationWindowEnds[i] = Math.ceil((releaseEnds[i] * sampleRate) / this.minimalStepSize) + 1;
 					} else {
-						values_writer.writeBytes(unit + "," + attackStarts[i] * 1000 + "," + releaseEnds[i] * 1000 + sep);
+						classificationWindowStarts[i] = attackStarts[i] * 1000;
+						classificationWindowEnds[i] = releaseEnds[i] * 1000;
 					}
-					
 				}
+			}
+			
+			int fileFormat = AmusePreferences.getInt(KeysIntValue.FEATURE_FILE_FORMAT);
+			if(fileFormat != FeatureFileConverter.FORMAT_ARFF) {
+				BinaryFeatureFile binaryFile = new BinaryFeatureFile("Classifier input");
+				binaryFile.addMetadata("initialNumberOfUsedRawTimeWindows", String.valueOf(this.initialNumberOfUsedRawTimeWindows));
+				binaryFile.addMetadata("finalNumberOfUsedRawTimeWindows", String.valueOf(this.finalNumberOfUsedRawTimeWindows));
+				binaryFile.addMetadata("initalNumberOfFeatureMatrixEntries", String.valueOf(this.initialNumberOfFeatureMatrixEntries));
+				binaryFile.addMetadata("finalNumberOfFeatureMatrixEntries", String.valueOf(this.finalNumberOfFeatureMatrixEntries));
+				binaryFile.addMetadata("finalNumberOfFeatureVectorEntries", String.valueOf(features.size()));
+				for(int j=0;j<features.size();j++) {
+					double[] featureValues = new double[numberOfMaxClassificatoinWindows];
+					for(int i=0;i<numberOfMaxClassificatoinWindows;i++) {
+						
+						// [0] since the converted features must be single-dimensional!
+						featureValues[i] = features.get(j).getValue(i, 0);
+					}
+					binaryFile.addNumericAttribute(features.get(j).getHistoryAsString(), featureValues);
+				}
+				double[] unitValues = new double[numberOfMaxClassificatoinWindows];
+				Arrays.fill(unitValues, unit.equals(Unit.SAMPLES.toString()) ? 1d : 0d);
+				binaryFile.addAttribute("Unit", BinaryFeatureFile.NOMINAL, Arrays.asList("MILLISECONDS", "SAMPLES"), unitValues);
+				binaryFile.addNumericAttribute("Start", classificationWindowStarts);
+				binaryFile.addNumericAttribute("End", classificationWindowEnds);
+				binaryFile.save(feature_values_save_file, fileFormat == FeatureFileConverter.FORMAT_BINARY_SINGLE_PRECISION);
+				return;
+			}
+			
+			FileOutputStream values_to = new FileOutputStream(feature_values_save_file);
+			DataOutputStream values_writer = new DataOutputStream(new BufferedOutputStream(values_to));
+			String sep = System.getProperty("line.separator");
+			values_writer.writeBytes("@RELATION 'Classifier input'");
+			values_writer.writeBytes(sep);
+			values_writer.writeBytes("%initialNumberOfUsedRawTimeWindows=" + this.initialNumberOfUsedRawTimeWindows);
+			values_writer.writeBytes(sep);
+			values_writer.writeBytes("%finalNumberOfUsedRawTimeWindows=" + this.finalNumberOfUsedRawTimeWindows);
+			values_writer.writeBytes(sep);
+			values_writer.writeBytes("%initalNumberOfFeatureMatrixEntries=" + this.initialNumberOfFeatureMatrixEntries);
+			values_writer.writeBytes(sep);
+			values_writer.writeBytes("%finalNumberOfFeatureMatrixEntries=" + this.finalNumberOfFeatureMatrixEntries);
+			values_writer.writeBytes(sep);
+			values_writer.writeBytes("%finalNumberOfFeatureVectorEntries=" + features.size());
+			values_writer.writeBytes(sep);
+			
+			// @deprecated
+			//values_writer.writeBytes("%finalNumberOfUsedTimeWindows=" + this.finalNumberOfUsedTimeWindows);
+			values_writer.writeBytes(sep+sep);
+			
+			// Save the attributes
+			for(int i=0;i<features.size();i++) {
+				values_writer.writeBytes("@ATTRIBUTE '");
+				values_writer.writeBytes(features.get(i).getHistoryAsString());
+				values_writer.writeBytes("' NUMERIC" + sep);
+			}
+			values_writer.writeBytes("@ATTRIBUTE Unit {MILLISECONDS, SAMPLES}");
+			values_writer.writeBytes(sep);
+			values_writer.writeBytes("@ATTRIBUTE Start NUMERIC");
+			values_writer.writeBytes(sep);
+			values_writer.writeBytes("@ATTRIBUTE End NUMERIC");
+			values_writer.writeBytes(sep+sep);
+			values_writer.writeBytes("@DATA");
+			values_writer.writeBytes(sep);
+			
+			// Save the data
+			StringBuilder line = new StringBuilder();
+			for(int i=0;i<numberOfMaxClassificatoinWindows;i++) {
+				line.setLength(0);
+				for(int j=0;j<features.size();j++) {
+				
+					// [0] since the converted features must be single-dimensional!
+					line.append(features.get(j).getValues().get(i)[0].toString()).append(',');
+				}
+				line.append(unit).append(',').append(classificationWindowStarts[i]).append(',').append(classificationWindowEnds[i]).append(sep);
+				values_writer.writeBytes(line.toString());
 			} 
 			values_writer.close();
 		} catch(IOException e) {
@@ -0,0 +1,127 @@
+/**
+ * This file is part of AMUSE framework (Advanced MUsic Explorer).
+ *
+ * Copyright 2006-2010 by code authors
+ *
+ * Created at TU Dortmund, Chair of Algorithm Engineering
+ * (Contact: <http://ls11-www.cs.tu-dortmund.de>)
+ *
+ * AMUSE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AMUSE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with AMUSE. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Creation date: 18.10.2026
+ */
+package amuse.nodes.processor;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.log4j.Level;
+
+import amuse.data.ArffFeatureLoader;
+import amuse.data.Feature;
+import amuse.interfaces.nodes.NodeException;
+import amuse.preferences.AmusePreferences;
+import amuse.preferences.KeysIntValue;
+import amuse.util.AmuseLogger;
+
+/**
+ * Keeps the recently loaded raw features of all processor node schedulers of this AMUSE instance,
+ * so that several processing tasks over the same music files load each feature file only once.
+ * A cached feature is used as long as its file has not been changed. The memory of the cached
+ * features is limited by FEATURE_CACHE_SIZE_IN_MB; the least recently used features are removed first.
+ *
+ * @author agent
+ * @version $Id$
+ */
+class RawFeatureCache {
+
+	/** Cached features by path to feature file, in the order of their last usage */
+	private static final LinkedHashMap<String,CachedFeature> cachedFeatures = new LinkedHashMap<String,CachedFeature>(16, 0.75f, true);
+
+	/** Estimated memory of all cached features in bytes */
+	private static long cachedBytes = 0;
+
+	/**
+	 * Loads a raw feature from the cache or, if it is not cached or the feature file has changed, from the feature file
+	 * @param featureFile Path to the feature file
+	 * @param id Feature id
+	 * @return Feature which can be modified by the caller
+	 * @throws NodeException If the feature file could not be loaded
+	 */
+	static Feature loadFeature(String featureFile, int id) throws NodeException {
+		long cacheSize = AmusePreferences.getInt(KeysIntValue.FEATURE_CACHE_SIZE_IN_MB) * 1024L * 1024L;
+		if(cacheSize == 0) {
+			return ArffFeatureLoader.loadFeature(featureFile, id);
+		}
+		File file = new File(featureFile);
+		long lastModified = file.lastModified();
+		long length = file.length();
+		synchronized(cachedFeatures) {
+			CachedFeature cachedFeature = cachedFeatures.get(featureFile);
+			if(cachedFeature != null) {
+				if(cachedFeature.lastModified == lastModified && cachedFeature.length == length && cachedFeature.id == id) {
+					return new Feature(cachedFeature.feature);
+				}
+				cachedFeatures.remove(featureFile);
+				cachedBytes -= cachedFeature.bytes;
+			}
+		}
+
+		// The file is loaded outside of the lock, so that other feature files can be loaded in parallel
+		Feature feature = ArffFeatureLoader.loadFeature(featureFile, id);
+		CachedFeature cachedFeature = new CachedFeature(new Feature(feature), id, lastModified, length);
+		if(cachedFeature.bytes > cacheSize) {
+			return feature;
+		}
+		synchronized(cachedFeatures) {
+			CachedFeature replacedFeature = cachedFeatures.put(featureFile, cachedFeature);
+			if(replacedFeature != null) {
+				cachedBytes -= replacedFeature.bytes;
+			}
+			cachedBytes += cachedFeature.bytes;
+
+			// Remove the least recently used features
+			Iterator<Map.Entry<String,CachedFeature>> leastRecentlyUsed = cachedFeatures.entrySet().iterator();
+			while(cachedBytes > cacheSize && leastRecentlyUsed.hasNext()) {
+				cachedBytes -= leastRecentlyUsed.next().getValue().bytes;
+				leastRecentlyUsed.remove();
+			}
+		}
+		AmuseLogger.write(RawFeatureCache.class.getName(), Level.DEBUG, "Feature file cached: " + featureFile);
+		return feature;
+	}
+
+	private static class CachedFeature {
+
+		private final Feature feature;
+		private final int id;
+
+		/** Modification time and length of the feature file when the feature was loaded */
+		private final long lastModified;
+		private final long length;
+
+		/** Estimated memory of the feature values, time windows and object headers */
+		private final long bytes;
+
+		private CachedFeature(Feature feature, int id, long lastModified, long length) {
+			this.feature = feature;
+			this.id = id;
+			this.lastModified = lastModified;
+			this.length = length;
+			this.bytes = 8L * feature.getWindowCount() * (feature.getDimension() + 1) + 256;
+		}
+	}
+}
@@ -80,8 +80,9 @@ public class GMMConverter extends AmuseTask implements MatrixToVectorConverterIn
 
 			// Go through music features
 			for(int i=0;i<features.size();i++) {
-				int sampleRate = features.get(i).getSampleRate();
-				int numberOfAllSingleFeatures = features.get(i).getValues().get(0).length;
+				Feature currentFeature = features.get(i);
+				int sampleRate = currentFeature.getSampleRate();
+				int numberOfAllSingleFeatures = currentFeature.getDimension();
 				
 				ArrayList<Feature> newFeatures = new ArrayList<Feature>(numberOfAllSingleFeatures * 
 						((saveMeanValues ? 1 : 0) + (saveStddevValues ? 1 : 0)));
@@ -111,7 +112,7 @@ public class GMMConverter extends AmuseTask implements MatrixToVectorConverterIn
 					
 					// In 1st case we have only one "classification window" which covers the complete track
 					// ("+ 1" is used because of the exclusive calculation of the classification window end window)
-					classificationWindowSizeInWindows = features.get(i).getWindows().get(features.get(i).getWindows().size()-1) + 1;
+					classificationWindowSizeInWindows = currentFeature.getWindow(currentFeature.getWindowCount()-1) + 1;
 					overlapSizeInWindows = classificationWindowSizeInWindows;
 					numberOfAllClassificationWindows = 1;
 				} else {
@@ -126,7 +127,7 @@ public class GMMConverter extends AmuseTask implements MatrixToVectorConverterIn
 					}
 					
 					// Calculates the last used time window and the number of maximum available classification windows from it
-					double numberOfAllClassificationWindowsD = ((features.get(i).getWindows().get(features.get(i).getWindows().size()-1)) - classificationWindowSizeInWindows)/(classificationWindowSizeInWindows - overlapSizeInWindows)+1;
+					double numberOfAllClassificationWindowsD = ((currentFeature.getWindow(currentFeature.getWindowCount()-1)) - classificationWindowSizeInWindows)/(classificationWindowSizeInWindows - overlapSizeInWindows)+1;
 					numberOfAllClassificationWindows = new Double(Math.ceil(numberOfAllClassificationWindowsD)).intValue();
 				}
 				
@@ -141,88 +142,36 @@ public class GMMConverter extends AmuseTask implements MatrixToVectorConverterIn
 					//numberOfAllClassificationWindows = 360000/overlap;
 				}*/
 				
-				int currentWindow = 0;
+				// Find the time windows of all classification windows in one pass
+				SlidingWindowAggregator aggregator = new SlidingWindowAggregator(currentFeature);
+				aggregator.findClassificationWindows(classificationWindowSizeInWindows, overlapSizeInWindows, 
+						numberOfAllClassificationWindows, false);
+				int numberOfOutputsPerDimension = (saveMeanValues ? 1 : 0) + (saveStddevValues ? 1 : 0);
 				
-				// Go through all classification windows
-				for(int numberOfCurrentClassificationWindow=0;numberOfCurrentClassificationWindow<numberOfAllClassificationWindows;numberOfCurrentClassificationWindow++) {
+				// Calculate mean and standard deviation for feature dimensions
+				// Go through all feature dimensions
+				for(int k=0;k<numberOfAllSingleFeatures;k++) {
 					
-					// Calculate the start (inclusive) and end (exclusive) windows for the current classification window
-					Double classificationWindowStart = Math.floor(new Double(classificationWindowSizeInWindows - overlapSizeInWindows)*new Double(numberOfCurrentClassificationWindow));
-					Double classificationWindowEnd = Math.ceil((new Double(classificationWindowSizeInWindows - overlapSizeInWindows)*new Double(numberOfCurrentClassificationWindow)+classificationWindowSizeInWindows));
-					
-					// Increment the number of current time window if the lower classification window boundary is not achieved
-					for(int k=currentWindow;k<features.get(i).getWindows().size();k++) {
-						if(features.get(i).getWindows().get(k) >= classificationWindowStart) {
-							currentWindow = k;
-							break;
-						}
-					}
-					
-					// If no features are available for the current classification window, go to the next classification window
-					if(features.get(i).getWindows().get(currentWindow) > classificationWindowEnd) {
-						continue;
-					}
-					
-					// Create a list with time windows which are in the current classification window
-					ArrayList<Double> windowsOfCurrentClassificationWindow = new ArrayList<Double>();
-					while(features.get(i).getWindows().get(currentWindow) >= classificationWindowStart && 
-							features.get(i).getWindows().get(currentWindow) < classificationWindowEnd) {
-						windowsOfCurrentClassificationWindow.add(features.get(i).getWindows().get(currentWindow));
-						
-						// The last existing window is achieved
-						if(currentWindow == features.get(i).getWindows().size() - 1) {
-							break;
-						}
-						currentWindow++;
-					}
-					
-					// Check if the current classification window has any windows
-					if(windowsOfCurrentClassificationWindow.size() == 0) {
-						continue;
-					}
-					
-					// Calculate mean and standard deviation for feature dimensions
-					// Go through all feature dimensions
-					for(int k=0;k<numberOfAllSingleFeatures;k++) {
+					// Go through all classification windows which have any time windows
+					for(int c=0;c<aggregator.getNumberOfClassificationWindows();c++) {
+						int firstWindowOfCurrentClassificationWindow = aggregator.getFirstWindow(c);
+						int lastWindowOfCurrentClassificationWindow = aggregator.getEndWindow(c);
+						Double classificationWindowStart = aggregator.getClassificationWindowStart(c);
 						
-						// Number of values (NaN values are omitted!)
-						int valueNumber = 0;
-						
-						// Calculate mean and variance
-						Double mean = 0d;
-						Double variance = 0d;
-						for(Double l:windowsOfCurrentClassificationWindow) {
-							if(!Double.isNaN(features.get(i).getValuesFromWindow(l)[k])) {
-								mean += features.get(i).getValuesFromWindow(l)[k];
-								valueNumber++;
-							}
-						}
-						mean /= valueNumber;
-						for(Double l:windowsOfCurrentClassificationWindow) {
-							if(!Double.isNaN(features.get(i).getValuesFromWindow(l)[k])) {
-								variance += Math.pow((Double)features.get(i).getValuesFromWindow(l)[k]-mean,2);
-							}
-						}
-						variance /= valueNumber;
+						// Calculate mean and variance (NaN values are omitted!)
+						double mean = aggregator.getMean(k, firstWindowOfCurrentClassificationWindow, lastWindowOfCurrentClassificationWindow);
+						double variance = aggregator.getVariance(k, firstWindowOfCurrentClassificationWindow, lastWindowOfCurrentClassificationWindow, mean);
 								
 						// Add mean and deviation to the new generated features
-						if(numberOfCurrentClassificationWindow < numberOfAllClassificationWindows) {
-							Double[] meanD = new Double[1]; meanD[0] = mean;
-							Double[] stddevD = new Double[1]; stddevD[0] = variance;
-							if(saveMeanValues) {
-								newFeatures.get(((saveMeanValues ? 1 : 0) + (saveStddevValues ? 1 : 0))*k).getValues().add(meanD);
-								newFeatures.get(((saveMeanValues ? 1 : 0) + (saveStddevValues ? 1 : 0))*k).getWindows().add(new Double(classificationWindowStart));
-							}
-							if(saveStddevValues) {
-								newFeatures.get(((saveMeanValues ? 1 : 0) + (saveStddevValues ? 1 : 0))*k+(saveMeanValues ? 1 : 0)).getValues().add(stddevD);
-								newFeatures.get(((saveMeanValues ? 1 : 0) + (saveStddevValues ? 1 : 0))*k+(saveMeanValues ? 1 : 0)).getWindows().add(new Double(classificationWindowStart));
-							}
+						Double[] meanD = new Double[1]; meanD[0] = mean;
+						Double[] stddevD = new Double[1]; stddevD[0] = variance;
+						if(saveMeanValues) {
+							newFeatures.get(numberOfOutputsPerDimension*k).getValues().add(meanD);
+							newFeatures.get(numberOfOutputsPerDimension*k).getWindows().add(new Double(classificationWindowStart));
 						}
-						
-						// Go with the current window back because of overlap (some time windows used in the
-						// current classification window may be also used in the next classification window)
-						while(features.get(i).getWindows().get(currentWindow) >= classificationWindowStart + (classificationWindowSizeInWindows - overlapSizeInWindows) && currentWindow > 0) {
-							currentWindow--;
+						if(saveStddevValues) {
+							newFeatures.get(numberOfOutputsPerDimension*k+(saveMeanValues ? 1 : 0)).getValues().add(stddevD);
+							newFeatures.get(numberOfOutputsPerDimension*k+(saveMeanValues ? 1 : 0)).getWindows().add(new Double(classificationWindowStart));
 						}
 					}
 				}
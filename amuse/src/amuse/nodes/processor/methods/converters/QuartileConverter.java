@@ -74,8 +74,9 @@ public class QuartileConverter extends AmuseTask implements MatrixToVectorConver
 
 			// Go through music features
 			for(int i=0;i<features.size();i++) {
-				int sampleRate = features.get(i).getSampleRate();
-				int numberOfAllSingleFeatures = features.get(i).getValues().get(0).length;
+				Feature currentFeature = features.get(i);
+				int sampleRate = currentFeature.getSampleRate();
+				int numberOfAllSingleFeatures = currentFeature.getDimension();
 				
 				ArrayList<Feature> newFeatures = new ArrayList<Feature>(numberOfAllSingleFeatures*5);
 				for(int j=0;j<numberOfAllSingleFeatures;j++) {
@@ -114,7 +115,7 @@ public class QuartileConverter extends AmuseTask implements MatrixToVectorConver
 				if(aggregationWindowSize == -1) {
 					
 					// In 1st case we have only one "classificatoin window" which covers the complete track
-					classificationWindowSizeInWindows = features.get(i).getWindows().get(features.get(i).getWindows().size()-1);
+					classificationWindowSizeInWindows = currentFeature.getWindow(currentFeature.getWindowCount()-1);
 					overlapSizeInWindows = classificationWindowSizeInWindows;
 					numberOfAllClassificationWindows = 1;
 				} else {
@@ -129,7 +130,7 @@ public class QuartileConverter extends AmuseTask implements MatrixToVectorConver
 					}
 					
 					// FIXME evtl. check! Calculates the last used time window and the number of maximum available classification windows from it
-					double numberOfAllClassificationWindowsD = ((features.get(i).getWindows().get(features.get(i).getWindows().size()-1)) - classificationWindowSizeInWindows)/(classificationWindowSizeInWindows - overlapSizeInWindows)+1;
+					double numberOfAllClassificationWindowsD = ((currentFeature.getWindow(currentFeature.getWindowCount()-1)) - classificationWindowSizeInWindows)/(classificationWindowSizeInWindows - overlapSizeInWindows)+1;
 					numberOfAllClassificationWindows = new Double(Math.floor(numberOfAllClassificationWindowsD)).intValue();
 				}
 				
@@ -144,64 +145,24 @@ public class QuartileConverter extends AmuseTask implements MatrixToVectorConver
 					//numberOfAllClassificationWindows = 360000/overlap;
 				}*/
 				
-				int currentWindow = 0;
+				// Find the time windows of all classification windows in one pass
+				SlidingWindowAggregator aggregator = new SlidingWindowAggregator(currentFeature);
+				aggregator.findClassificationWindows(classificationWindowSizeInWindows, overlapSizeInWindows, 
+						numberOfAllClassificationWindows, false);
 				
-				// Go through all classification windows
-				for(int numberOfCurrentClassificationWindow=0;numberOfCurrentClassificationWindow<numberOfAllClassificationWindows;numberOfCurrentClassificationWindow++) {
+				// Go through all feature dimensions
+				for(int k=0;k<numberOfAllSingleFeatures;k++) {
 					
-					// Calculate the start (inclusive) and end (exclusive) windows for the current classification window
-					Double classificationWindowStart = Math.floor(new Double(classificationWindowSizeInWindows - overlapSizeInWindows)*new Double(numberOfCurrentClassificationWindow));
-					Double classificationWindowEnd = Math.ceil((new Double(classificationWindowSizeInWindows - overlapSizeInWindows)*new Double(numberOfCurrentClassificationWindow)+classificationWindowSizeInWindows));
+					// The sorted feature values of the current classification window. NaN-values are
+					// omitted for quartile calculation (it is also possible that for feature with large source 
+					// frames the last smaller frames are filled with NaN-values!)
+					SlidingWindowAggregator.SortedValues featureValuesForThisClassificationWindow = aggregator.getSortedValues(k);
 					
-					// Increment the number of current time window if the lower classification window boundary is not achieved
-					for(int k=currentWindow;k<features.get(i).getWindows().size();k++) {
-						if(features.get(i).getWindows().get(k) >= classificationWindowStart) {
-							currentWindow = k;
-							break;
-						}
-					}
-					
-					// If no features are available for the current classification window, go to the next classification window
-					if(features.get(i).getWindows().get(currentWindow) > classificationWindowEnd) {
-						continue;
-					}
-					
-					// Create a list with time windows which are in the current classification window
-					ArrayList<Double> windowsOfCurrentClassificationWindow = new ArrayList<Double>();
-					while(features.get(i).getWindows().get(currentWindow) >= classificationWindowStart && 
-							features.get(i).getWindows().get(currentWindow) < classificationWindowEnd) {
-						windowsOfCurrentClassificationWindow.add(features.get(i).getWindows().get(currentWindow));
-						
-						// The last existing window is achieved
-						if(currentWindow == features.get(i).getWindows().size() - 1) {
-							break;
-						}
-						currentWindow++;
-					}
-					
-					// Check if the current classification window has any windows
-					if(windowsOfCurrentClassificationWindow.size() == 0) {
-						continue;
-					}
-					
-					// Calculate mean and standard deviation for feature dimensions
-					// Go through all feature dimensions
-					for(int k=0;k<numberOfAllSingleFeatures;k++) {
-						
-						// Save the feature values for this classification window here for sorting
-						ArrayList<Double> featureValuesForThisClassificationWindow = new ArrayList<Double>();
-						for(Double l:windowsOfCurrentClassificationWindow) {
-							featureValuesForThisClassificationWindow.add(features.get(i).getValuesFromWindow(l)[k]);
-						}
-						
-						// Remove NaN-values for quartile calculation (it is also possible that for feature with
-						// large source frames the last smaller frames are filled with NaN-values!)
-						for(int z=0;z<featureValuesForThisClassificationWindow.size();z++) {
-							if(featureValuesForThisClassificationWindow.get(z).isNaN()) {
-								featureValuesForThisClassificationWindow.remove(z); z--;
-							}
-						}
-						java.util.Collections.sort(featureValuesForThisClassificationWindow);
+					// Go through all classification windows which have any time windows
+					for(int c=0;c<aggregator.getNumberOfClassificationWindows();c++) {
+						Double classificationWindowStart = aggregator.getClassificationWindowStart(c);
+						featureValuesForThisClassificationWindow.moveTo(aggregator.getFirstWindow(c), aggregator.getEndWindow(c));
+						int numberOfValues = featureValuesForThisClassificationWindow.size();
 						
 						Double[] minD = new Double[1]; 
 						Double[] firstQD = new Double[1]; 
@@ -209,41 +170,33 @@ public class QuartileConverter extends AmuseTask implements MatrixToVectorConver
 						Double[] thirdQD = new Double[1]; 
 						Double[] maxD = new Double[1];
 						
-						if(numberOfCurrentClassificationWindow < numberOfAllClassificationWindows) {
-							if(featureValuesForThisClassificationWindow.size() > 0) {
-								minD[0] = (Double)featureValuesForThisClassificationWindow.get(0);
-								int indexOfFirstBoundary = new Double(featureValuesForThisClassificationWindow.size()*0.25).intValue();
-								firstQD[0] = (Double)featureValuesForThisClassificationWindow.get(indexOfFirstBoundary);
-								int indexOfSecondBoundary = new Double(featureValuesForThisClassificationWindow.size()*0.5).intValue();
-								secondQD[0] = (Double)featureValuesForThisClassificationWindow.get(indexOfSecondBoundary);
-								int indexOfThirdBoundary = new Double(featureValuesForThisClassificationWindow.size()*0.75).intValue();
-								thirdQD[0] = (Double)featureValuesForThisClassificationWindow.get(indexOfThirdBoundary);
-								maxD[0] = (Double)featureValuesForThisClassificationWindow.get(featureValuesForThisClassificationWindow.size()-1);
-							} else { // If all feature values consist of NaN values
-								minD[0] = Double.NaN;
-								firstQD[0] = Double.NaN;
-								secondQD[0] = Double.NaN;
-								thirdQD[0] = Double.NaN;
-								maxD[0] = Double.NaN;
-							}
-							
-							newFeatures.get(5*k).getValues().add(minD);
-							newFeatures.get(5*k).getWindows().add(new Double(classificationWindowStart));
-							newFeatures.get(5*k+1).getValues().add(firstQD);
-							newFeatures.get(5*k+1).getWindows().add(new Double(classificationWindowStart));
-							newFeatures.get(5*k+2).getValues().add(secondQD);
-							newFeatures.get(5*k+2).getWindows().add(new Double(classificationWindowStart));
-							newFeatures.get(5*k+3).getValues().add(thirdQD);
-							newFeatures.get(5*k+3).getWindows().add(new Double(classificationWindowStart));
-							newFeatures.get(5*k+4).getValues().add(maxD);
-							newFeatures.get(5*k+4).getWindows().add(new Double(classificationWindowStart));
-						}
-							
-						// Go with the current window back because of overlap (some time windows used in the
-						// current classification window may be also used in the next classification window)
-						while(features.get(i).getWindows().get(currentWindow) >= classificationWindowStart + (classificationWindowSizeInWindows - overlapSizeInWindows) && currentWindow > 0) {
-							currentWindow--;
+						if(numberOfValues > 0) {
+							minD[0] = featureValuesForThisClassificationWindow.get(0);
+							int indexOfFirstBoundary = new Double(numberOfValues*0.25).intValue();
+							firstQD[0] = featureValuesForThisClassificationWindow.get(indexOfFirstBoundary);
+							int indexOfSecondBoundary = new Double(numberOfValues*0.5).intValue();
+							secondQD[0] = featureValuesForThisClassificationWindow.get(indexOfSecondBoundary);
+							int indexOfThirdBoundary = new Double(numberOfValues*0.75).intValue();
+							thirdQD[0] = featureValuesForThisClassificationWindow.get(indexOfThirdBoundary);
+							maxD[0] = featureValuesForThisClassificationWindow.get(numberOfValues-1);
+						} else { // If all feature values consist of NaN values
+							minD[0] = Double.NaN;
+							firstQD[0] = Double.NaN;
+							secondQD[0] = Double.NaN;
+							thirdQD[0] = Double.NaN;
+							maxD[0] = Double.NaN;
 						}
+						
+						newFeatures.get(5*k).getValues().add(minD);
+						newFeatures.get(5*k).getWindows().add(new Double(classificationWindowStart));
+						newFeatures.get(5*k+1).getValues().add(firstQD);
+						newFeatures.get(5*k+1).getWindows().add(new Double(classificationWindowStart));
+						newFeatures.get(5*k+2).getValues().add(secondQD);
+						newFeatures.get(5*k+2).getWindows().add(new Double(classificationWindowStart));
+						newFeatures.get(5*k+3).getValues().add(thirdQD);
+						newFeatures.get(5*k+3).getWindows().add(new Double(classificationWindowStart));
+						newFeatures.get(5*k+4).getValues().add(maxD);
+						newFeatures.get(5*k+4).getWindows().add(new Double(classificationWindowStart));
 					}
 				}
 
@@ -0,0 +1,451 @@
+/**
+ * This file is part of AMUSE framework (Advanced MUsic Explorer).
+ *
+ * Copyright 2006-2010 by code authors
+ *
+ * Created at TU Dortmund, Chair of Algorithm Engineering
+ * (Contact: <http://ls11-www.cs.tu-dortmund.de>)
+ *
+ * AMUSE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AMUSE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with AMUSE. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Creation date: 18.10.2026
+ */
+package amuse.nodes.processor.methods.converters;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import amuse.data.Feature;
+
+/**
+ * Aggregates the values of a feature over overlapping classification windows. The values are
+ * copied once into one primitive array per dimension; the classification windows are found in a
+ * single pass over the time windows and are described as index ranges [first, end) of time windows.
+ * Numbers of non-NaN values are available for any range in constant time, sorted values
+ * are updated incrementally while the classification windows slide along the track.<br/>
+ *
+ * Sums are accumulated for each range in the order of the time windows, so that the results
+ * are the same as of a separate calculation for each classification window.
+ *
+ * @author agent
+ * @version $Id$
+ */
+class SlidingWindowAggregator {
+
+	/** Time windows */
+	private final double[] windows;
+
+	/** Feature values, one array for each dimension */
+	private final double[][] values;
+
+	/** For each dimension the number of non-NaN values before each time window */
+	private final int[][] valueCounts;
+
+	/** For each time window the index of the next time window (itself included) which is not available in the
+	 * aggregated feature or the number of time windows if there is none; null if all time windows are available */
+	private final int[] nextMissingWindows;
+
+	/** Start and end (exclusive) of the classification windows with at least one time window */
+	private double[] classificationWindowStarts;
+	private double[] classificationWindowEnds;
+
+	/** First and end (exclusive) time window indices of the classification windows */
+	private int[] firstWindows;
+	private int[] endWindows;
+
+	private int numberOfClassificationWindows;
+
+	/**
+	 * @param feature Feature to aggregate
+	 */
+	SlidingWindowAggregator(Feature feature) {
+		int numberOfWindows = feature.getWindowCount();
+		windows = new double[numberOfWindows];
+		for(int i=0;i<numberOfWindows;i++) {
+			windows[i] = feature.getWindow(i);
+		}
+		values = new double[feature.getDimension()][numberOfWindows];
+		for(int i=0;i<numberOfWindows;i++) {
+			for(int d=0;d<values.length;d++) {
+				values[d][i] = feature.getValue(i, d);
+			}
+		}
+		nextMissingWindows = null;
+		valueCounts = countValues(values);
+	}
+
+	/**
+	 * Aggregates a feature along the time windows of another feature. For each of these time windows,
+	 * the values of the first time window with the same time in the aggregated feature are used
+	 * @param feature Feature to aggregate
+	 * @param timeAxis Feature with the time windows to use
+	 */
+	SlidingWindowAggregator(Feature feature, Feature timeAxis) {
+		HashMap<Double,Integer> windowIndices = new HashMap<Double,Integer>();
+		for(int i=feature.getWindowCount()-1;i>=0;i--) {
+
+			// Windows are compared with ==, so that 0.0 and -0.0 are the same time and NaN is never found
+			windowIndices.put(feature.getWindow(i) + 0d, i);
+		}
+		int numberOfWindows = timeAxis.getWindowCount();
+		windows = new double[numberOfWindows];
+		values = new double[feature.getDimension()][numberOfWindows];
+		boolean[] missing = null;
+		for(int i=0;i<numberOfWindows;i++) {
+			windows[i] = timeAxis.getWindow(i);
+			Integer index = Double.isNaN(windows[i]) ? null : windowIndices.get(windows[i] + 0d);
+			if(index == null) {
+				if(missing == null) {
+					missing = new boolean[numberOfWindows];
+				}
+				missing[i] = true;
+				continue;
+			}
+			for(int d=0;d<values.length;d++) {
+				values[d][i] = feature.getValue(index, d);
+			}
+		}
+		if(missing != null) {
+			nextMissingWindows = new int[numberOfWindows + 1];
+			nextMissingWindows[numberOfWindows] = numberOfWindows;
+			for(int i=numberOfWindows-1;i>=0;i--) {
+				nextMissingWindows[i] = missing[i] ? i : nextMissingWindows[i+1];
+			}
+		} else {
+			nextMissingWindows = null;
+		}
+		valueCounts = countValues(values);
+	}
+
+	private static int[][] countValues(double[][] values) {
+		int[][] valueCounts = new int[values.length][];
+		for(int d=0;d<values.length;d++) {
+			int[] counts = new int[values[d].length + 1];
+			for(int i=0;i<values[d].length;i++) {
+				counts[i+1] = counts[i] + (Double.isNaN(values[d][i]) ? 0 : 1);
+			}
+			valueCounts[d] = counts;
+		}
+		return valueCounts;
+	}
+
+	/**
+	 * Finds the time windows of the classification windows. The classification window n starts at
+	 * floor(n * step) (inclusive) and ends at ceil(n * step + size) (exclusive), where the step is the
+	 * classification window size minus the overlap size. Classification windows without time windows are omitted.
+	 * @param classificationWindowSizeInWindows Classification window size
+	 * @param overlapSizeInWindows Overlap of the neighboring classification windows
+	 * @param numberOfAllClassificationWindows Number of classification windows
+	 * @param searchFromTrackStart If true, the first time window of a classification window is the first time
+	 * window of the track which is not before the classification window start; otherwise it is searched from
+	 * the last time window of the previous classification window which is before the current start plus the
+	 * step. Both searches find the same time windows if the time windows are at least one window apart
+	 */
+	void findClassificationWindows(double classificationWindowSizeInWindows, double overlapSizeInWindows,
+			int numberOfAllClassificationWindows, boolean searchFromTrackStart) {
+		int capacity = Math.max(numberOfAllClassificationWindows, 0);
+		classificationWindowStarts = new double[capacity];
+		classificationWindowEnds = new double[capacity];
+		firstWindows = new int[capacity];
+		endWindows = new int[capacity];
+		numberOfClassificationWindows = 0;
+		double step = classificationWindowSizeInWindows - overlapSizeInWindows;
+		int currentWindow = 0;
+
+		// Search position for the first time window not before the start; all time windows
+		// before it are also before the starts of the next classification windows
+		int firstWindowNotBeforeStart = 0;
+		for(int numberOfCurrentClassificationWindow=0;numberOfCurrentClassificationWindow<numberOfAllClassificationWindows;numberOfCurrentClassificationWindow++) {
+			double classificationWindowStart = Math.floor(step*numberOfCurrentClassificationWindow);
+			double classificationWindowEnd = Math.ceil(step*numberOfCurrentClassificationWindow+classificationWindowSizeInWindows);
+
+			// Increment the number of current time window if the lower classification window boundary is not achieved
+			if(searchFromTrackStart) {
+				if(numberOfCurrentClassificationWindow > 0 && classificationWindowStart < Math.floor(step*(numberOfCurrentClassificationWindow-1))) {
+					firstWindowNotBeforeStart = 0;
+				}
+				while(firstWindowNotBeforeStart < windows.length && !(windows[firstWindowNotBeforeStart] >= classificationWindowStart)) {
+					firstWindowNotBeforeStart++;
+				}
+				currentWindow = firstWindowNotBeforeStart < windows.length ? firstWindowNotBeforeStart : 0;
+			} else {
+				for(int k=currentWindow;k<windows.length;k++) {
+					if(windows[k] >= classificationWindowStart) {
+						currentWindow = k;
+						break;
+					}
+				}
+			}
+
+			// Find the range of time windows which are in the current classification window
+			int firstWindow = currentWindow;
+			while(windows[currentWindow] >= classificationWindowStart && windows[currentWindow] < classificationWindowEnd) {
+
+				// The last existing window is achieved
+				if(currentWindow == windows.length - 1) {
+					currentWindow++;
+					break;
+				}
+				currentWindow++;
+			}
+			int endWindow = currentWindow;
+			if(currentWindow == windows.length) {
+				currentWindow--;
+			}
+
+			// Check if the current classification window has any windows
+			if(endWindow == firstWindow) {
+				continue;
+			}
+			classificationWindowStarts[numberOfClassificationWindows] = classificationWindowStart;
+			classificationWindowEnds[numberOfClassificationWindows] = classificationWindowEnd;
+			firstWindows[numberOfClassificationWindows] = firstWindow;
+			endWindows[numberOfClassificationWindows] = endWindow;
+			numberOfClassificationWindows++;
+
+			// Go with the current window back because of overlap (some time windows used in the
+			// current classification window may be also used in the next classification window)
+			while(windows[currentWindow] >= classificationWindowStart + step && currentWindow > 0) {
+				currentWindow--;
+			}
+		}
+	}
+
+	/**
+	 * @return Number of classification windows with at least one time window
+	 */
+	int getNumberOfClassificationWindows() {
+		return numberOfClassificationWindows;
+	}
+
+	double getClassificationWindowStart(int classificationWindow) {
+		return classificationWindowStarts[classificationWindow];
+	}
+
+	double getClassificationWindowEnd(int classificationWindow) {
+		return classificationWindowEnds[classificationWindow];
+	}
+
+	/**
+	 * @return Index of the first time window of the given classification window
+	 */
+	int getFirstWindow(int classificationWindow) {
+		return firstWindows[classificationWindow];
+	}
+
+	/**
+	 * @return Index after the last time window of the given classification window
+	 */
+	int getEndWindow(int classificationWindow) {
+		return endWindows[classificationWindow];
+	}
+
+	double getWindow(int window) {
+		return windows[window];
+	}
+
+	int getDimension() {
+		return values.length;
+	}
+
+	/**
+	 * @return Number of non-NaN values of the given dimension in the time windows [from, to)
+	 */
+	int getNumberOfValues(int dimension, int from, int to) {
+		return valueCounts[dimension][to] - valueCounts[dimension][from];
+	}
+
+	/**
+	 * @return Sum of non-NaN values of the given dimension in the time windows [from, to)
+	 */
+	double getSum(int dimension, int from, int to) {
+		checkWindows(from, to);
+		double[] column = values[dimension];
+		double sum = 0d;
+		if(getNumberOfValues(dimension, from, to) == to - from) {
+			for(int i=from;i<to;i++) {
+				sum += column[i];
+			}
+		} else {
+			for(int i=from;i<to;i++) {
+				if(!Double.isNaN(column[i])) {
+					sum += column[i];
+				}
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * @return Mean of non-NaN values of the given dimension in the time windows [from, to)
+	 */
+	double getMean(int dimension, int from, int to) {
+		return getSum(dimension, from, to) / getNumberOfValues(dimension, from, to);
+	}
+
+	/**
+	 * @return Variance of non-NaN values of the given dimension in the time windows [from, to)
+	 */
+	double getVariance(int dimension, int from, int to, double mean) {
+		checkWindows(from, to);
+		double[] column = values[dimension];
+		double variance = 0d;
+		for(int i=from;i<to;i++) {
+			if(!Double.isNaN(column[i])) {
+				variance += Math.pow(column[i]-mean,2);
+			}
+		}
+		return variance / getNumberOfValues(dimension, from, to);
+	}
+
+	/**
+	 * @return Sorted values of the given dimension, which are updated by {@link SortedValues#moveTo(int, int)}
+	 */
+	SortedValues getSortedValues(int dimension) {
+		return new SortedValues(values[dimension]);
+	}
+
+	private void checkWindows(int from, int to) {
+		if(nextMissingWindows != null && nextMissingWindows[from] < to) {
+			throw new IllegalArgumentException("No values for time window " + windows[nextMissingWindows[from]]);
+		}
+	}
+
+	/**
+	 * Checks the time windows which are read if the values of [from, to) are summed up by scanning the time
+	 * windows from the start of [from, end) until the first non-NaN value at or after to in each dimension
+	 * @throws IllegalArgumentException if one of these time windows is not available in the aggregated feature
+	 */
+	void checkScannedWindows(int from, int to, int end) {
+		if(nextMissingWindows == null || nextMissingWindows[from] >= end) {
+			return;
+		}
+		int missingWindow = nextMissingWindows[from];
+		boolean isScanned = missingWindow < to;
+		for(int d=0;d<values.length && !isScanned;d++) {
+			isScanned = valueCounts[d][missingWindow] == valueCounts[d][to];
+		}
+		if(isScanned) {
+			throw new IllegalArgumentException("No values for time window " + windows[missingWindow]);
+		}
+	}
+
+	/**
+	 * Non-NaN values of a range of time windows in ascending order (as sorted by Arrays.sort()).
+	 * When the range is moved forward, only the values of the left and entered time windows are
+	 * merged into the sorted values
+	 */
+	class SortedValues {
+
+		private final double[] column;
+
+		private double[] sortedValues = new double[16];
+
+		private double[] buffer = new double[16];
+
+		private int size = 0;
+
+		/** Current range of time windows */
+		private int from = 0;
+		private int to = 0;
+
+		private SortedValues(double[] column) {
+			this.column = column;
+		}
+
+		/**
+		 * Sets the range of time windows
+		 * @param newFrom First time window (inclusive)
+		 * @param newTo Last time window (exclusive)
+		 */
+		void moveTo(int newFrom, int newTo) {
+			checkWindows(newFrom, newTo);
+			if(newFrom < from || newTo < to || newFrom >= to) {
+
+				// The ranges do not overlap, so all values are sorted
+				sortedValues = ensureCapacity(sortedValues, newTo - newFrom);
+				size = copyValues(newFrom, newTo, sortedValues);
+				Arrays.sort(sortedValues, 0, size);
+			} else {
+				double[] removedValues = new double[newFrom - from];
+				int numberOfRemovedValues = copyValues(from, newFrom, removedValues);
+				Arrays.sort(removedValues, 0, numberOfRemovedValues);
+				double[] addedValues = new double[newTo - to];
+				int numberOfAddedValues = copyValues(to, newTo, addedValues);
+				Arrays.sort(addedValues, 0, numberOfAddedValues);
+
+				// Merge the remaining and the added values
+				buffer = ensureCapacity(buffer, size + numberOfAddedValues);
+				int newSize = 0;
+				int removed = 0;
+				int added = 0;
+				for(int i=0;i<size;i++) {
+					double value = sortedValues[i];
+					if(removed < numberOfRemovedValues && Double.compare(value, removedValues[removed]) == 0) {
+						removed++;
+						continue;
+					}
+					while(added < numberOfAddedValues && Double.compare(addedValues[added], value) < 0) {
+						buffer[newSize++] = addedValues[added++];
+					}
+					buffer[newSize++] = value;
+				}
+				while(added < numberOfAddedValues) {
+					buffer[newSize++] = addedValues[added++];
+				}
+				double[] previousValues = sortedValues;
+				sortedValues = buffer;
+				buffer = previousValues;
+				size = newSize;
+			}
+			from = newFrom;
+			to = newTo;
+		}
+
+		/**
+		 * @return Number of non-NaN values in the current range
+		 */
+		int size() {
+			return size;
+		}
+
+		/**
+		 * @param index Position in the sorted values
+		 * @return Value at this position
+		 */
+		double get(int index) {
+			if(index >= size) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", number of values: " + size);
+			}
+			return sortedValues[index];
+		}
+
+		private int copyValues(int from, int to, double[] target) {
+			int numberOfValues = 0;
+			for(int i=from;i<to;i++) {
+				if(!Double.isNaN(column[i])) {
+					target[numberOfValues++] = column[i];
+				}
+			}
+			return numberOfValues;
+		}
+
+		private double[] ensureCapacity(double[] array, int capacity) {
+			if(array.length >= capacity) {
+				return array;
+			}
+			return new double[Math.max(capacity, array.length * 2)];
+		}
+	}
+}
@@ -24,7 +24,7 @@
 package amuse.nodes.processor.methods.converters;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.StringTokenizer;
 
 import org.apache.log4j.Level;
@@ -137,7 +137,7 @@ public class StructuralComplexityConverter extends AmuseTask implements MatrixTo
 					
 				// In 1st case we have only one "classification window" which covers the complete track
 				// ("+ 1" is used because of the exclusive calculation of the classification window end window)
-				classificationWindowSizeInWindows = features.get(0).getWindows().get(features.get(0).getWindows().size()-1) + 1;
+				classificationWindowSizeInWindows = features.get(0).getWindow(features.get(0).getWindowCount()-1) + 1;
 				overlapSizeInWindows = classificationWindowSizeInWindows;
 				numberOfAllClassificationWindows = 1;
 			} else {
@@ -152,7 +152,7 @@ public class StructuralComplexityConverter extends AmuseTask implements MatrixTo
 				}
 				
 				// Calculates the last used time window and the number of maximum available classification windows from it
-				double numberOfAllClassificationWindowsD = ((features.get(0).getWindows().get(features.get(0).getWindows().size()-1)) - classificationWindowSizeInWindows)/(classificationWindowSizeInWindows - overlapSizeInWindows)+1;
+				double numberOfAllClassificationWindowsD = ((features.get(0).getWindow(features.get(0).getWindowCount()-1)) - classificationWindowSizeInWindows)/(classificationWindowSizeInWindows - overlapSizeInWindows)+1;
 				// Round down since the complete classification windows are required!
 				numberOfAllClassificationWindows = new Double(Math.floor(numberOfAllClassificationWindowsD)).intValue();
 			}
@@ -162,165 +162,146 @@ public class StructuralComplexityConverter extends AmuseTask implements MatrixTo
 				throw new NodeException("Classification window size too large");
 			}
 				
-		    // Go through all classification windows
-			for(int numberOfCurrentClassificationWindow=0;numberOfCurrentClassificationWindow<numberOfAllClassificationWindows;numberOfCurrentClassificationWindow++) {
-				int currentWindow = 0;
-				
-				// Calculate the start (inclusive) and end (exclusive) windows for the current classification window
-				Double classificationWindowStartWindow = Math.floor(new Double(classificationWindowSizeInWindows - overlapSizeInWindows)*new Double(numberOfCurrentClassificationWindow));
-				Double classificaotinWindowEndWindow = Math.ceil((new Double(classificationWindowSizeInWindows - overlapSizeInWindows)*new Double(numberOfCurrentClassificationWindow)+classificationWindowSizeInWindows));
-				
-				// Increment the number of current time window if the lower classification window boundary is not achieved
-				for(int k=currentWindow;k<features.get(0).getWindows().size();k++) {
-					if(features.get(0).getWindows().get(k) >= classificationWindowStartWindow) {
-						currentWindow = k;
-						break;
-					}
-				}
-					
-				// If no features are available for the current classification window, go to the next classification window
-				if(features.get(0).getWindows().get(currentWindow) > classificaotinWindowEndWindow) {
-					continue;
-				}
-					
-				// Create a list with time windows which are in the current classification window
-				ArrayList<Double> windowsOfCurrentClassificationWindow = new ArrayList<Double>();
-				while(features.get(0).getWindows().get(currentWindow) >= classificationWindowStartWindow && 
-						features.get(0).getWindows().get(currentWindow) < classificaotinWindowEndWindow) {
-					windowsOfCurrentClassificationWindow.add(features.get(0).getWindows().get(currentWindow));
-					
-					// The last existing window is achieved
-					if(currentWindow == features.get(0).getWindows().size() - 1) {
-						break;
-					}
-					currentWindow++;
-				}
-					
-				// Check if the current classification window has any windows
-				if(windowsOfCurrentClassificationWindow.size() == 0) {
-					continue;
-				}
+			// Find the time windows of all classification windows in one pass; all features are aggregated
+			// along the time windows of the first feature
+			SlidingWindowAggregator[] aggregators = new SlidingWindowAggregator[features.size()];
+			int numberOfAllSingleFeatures = 0;
+			for(int i=0;i<features.size();i++) {
+				aggregators[i] = new SlidingWindowAggregator(features.get(i), features.get(0));
+				numberOfAllSingleFeatures += aggregators[i].getDimension();
+			}
+			SlidingWindowAggregator timeAxis = aggregators[0];
+			timeAxis.findClassificationWindows(classificationWindowSizeInWindows, overlapSizeInWindows, 
+					numberOfAllClassificationWindows, true);
+			
+		    // Go through all classification windows which have any time windows
+			for(int c=0;c<timeAxis.getNumberOfClassificationWindows();c++) {
+				Double classificationWindowStartWindow = timeAxis.getClassificationWindowStart(c);
+				Double classificaotinWindowEndWindow = timeAxis.getClassificationWindowEnd(c);
+				int firstWindow = timeAxis.getFirstWindow(c);
+				int endWindow = timeAxis.getEndWindow(c);
 					
 				// Go through different time scales
 				for(int s=0;s<timeScales.size();s++) {
-					ArrayList<Double> distances = new ArrayList<Double>();
+					double[] distances = new double[endWindow - firstWindow];
+					int numberOfDistances = 0;
 					
 					// Estimate the number of windows for the number of seconds from the current time scale
 					double seconds = timeScales.get(s);
 					int windowNumber = new Double(sampleRate * seconds / (double)windowSize).intValue();
+					
+					// Time windows in (l - windowNumber, l] are in [before, current), time windows
+					// in (l, l + windowNumber] are in [current, after)
+					int before = firstWindow;
+					int current = firstWindow;
+					int after = firstWindow;
 						
 					// Go through all windows of the current classification window
-					for(Double l:windowsOfCurrentClassificationWindow) {
+					for(int lIndex=firstWindow;lIndex<endWindow;lIndex++) {
+						double l = timeAxis.getWindow(lIndex);
 							
 						// Complexity can be only calculated if w_j windows before and after the current window
 						// belong to this classification window (see the paper)
 						if(l - windowNumber < classificationWindowStartWindow+1 || l + windowNumber >= classificaotinWindowEndWindow) {
 							continue;
-						} else {
-							ArrayList<Double> s1 = new ArrayList<Double>();
-							ArrayList<Double> s2 = new ArrayList<Double>();
-							for(int i=0;i<features.size();i++) {
-								for(int j=0;j<features.get(i).getDimension();j++) {
-										
-									// Summary of the current dimension of the current feature for the windows before window l
-									double sum1 = 0d;
-									int numberOfValues1 = 0;
-									double sum2 = 0d;
-									int numberOfValues2 = 0;
-									for(int cWin=0;cWin<windowsOfCurrentClassificationWindow.size();cWin++) {
-										if(!features.get(i).getValuesFromWindow(windowsOfCurrentClassificationWindow.get(cWin))[j].isNaN()) {
-											if(windowsOfCurrentClassificationWindow.get(cWin) > l - windowNumber && windowsOfCurrentClassificationWindow.get(cWin) <= l) {
-												sum1 += features.get(i).getValuesFromWindow(windowsOfCurrentClassificationWindow.get(cWin))[j];
-												numberOfValues1++;
-											} else if(windowsOfCurrentClassificationWindow.get(cWin) > l && windowsOfCurrentClassificationWindow.get(cWin) <= l + windowNumber) {
-												sum2 += features.get(i).getValuesFromWindow(windowsOfCurrentClassificationWindow.get(cWin))[j];
-												numberOfValues2++;
-											} else if(windowsOfCurrentClassificationWindow.get(cWin) > l + windowNumber) {
-												break;
-											}
-										}
-									}
-										
-									// Estimate the means (summaries)
-									s1.add(sum1 / (double)numberOfValues1);
-									s2.add(sum2 / (double)numberOfValues2);
-								}
+						}
+						while(before < endWindow && timeAxis.getWindow(before) <= l - windowNumber) {
+							before++;
+						}
+						while(current < endWindow && timeAxis.getWindow(current) <= l) {
+							current++;
+						}
+						while(after < endWindow && timeAxis.getWindow(after) <= l + windowNumber) {
+							after++;
+						}
+						
+						// All features must have the time windows up to the first value after window l + windowNumber
+						for(int i=0;i<features.size();i++) {
+							aggregators[i].checkScannedWindows(firstWindow, after, endWindow);
+						}
+						double[] s1 = new double[numberOfAllSingleFeatures];
+						double[] s2 = new double[numberOfAllSingleFeatures];
+						int singleFeature = 0;
+						for(int i=0;i<features.size();i++) {
+							for(int j=0;j<aggregators[i].getDimension();j++) {
+									
+								// Estimate the means (summaries) of the current dimension of the current feature 
+								// for the windows before and after window l
+								s1[singleFeature] = aggregators[i].getSum(j, before, current) / (double)aggregators[i].getNumberOfValues(j, before, current);
+								s2[singleFeature] = aggregators[i].getSum(j, current, after) / (double)aggregators[i].getNumberOfValues(j, current, after);
+								singleFeature++;
 							}
-								
-							double complexity = jensonShannonDivergence(s1,s2);
-							distances.add(complexity);
 						}
+							
+						distances[numberOfDistances++] = jensonShannonDivergence(s1,s2);
 					}
 						 
 					// Add complexity mean and deviation to the new generated features
-					if(numberOfCurrentClassificationWindow < numberOfAllClassificationWindows) {
-							
-						// Calculate different statistics for the complexity vector
-						Collections.sort(distances);
 						
-						Double[] minD = new Double[1]; 
-						Double[] firstQD = new Double[1]; 
-						Double[] secondQD = new Double[1]; 
-						Double[] thirdQD = new Double[1]; 
-						Double[] maxD = new Double[1];
-						Double[] meanD = new Double[1];
-						Double[] stddevD = new Double[1];
-							
-						meanD[0] = 0d;
-						stddevD[0] = 0d;
-						int valuesNumber = 0;
-						for(int d=0;d<distances.size();d++) {
-							if(!distances.get(d).isNaN()) {
-								meanD[0] += distances.get(d);
-								valuesNumber++;
-							}
-						}
-						meanD[0] /= valuesNumber;
-							
-						for(int d=0;d<distances.size();d++) {
-							if(!distances.get(d).isNaN()) {
-								stddevD[0] += Math.pow(distances.get(d)-meanD[0],2);
-							}
+					// Calculate different statistics for the complexity vector
+					Arrays.sort(distances, 0, numberOfDistances);
+					
+					Double[] minD = new Double[1]; 
+					Double[] firstQD = new Double[1]; 
+					Double[] secondQD = new Double[1]; 
+					Double[] thirdQD = new Double[1]; 
+					Double[] maxD = new Double[1];
+					Double[] meanD = new Double[1];
+					Double[] stddevD = new Double[1];
+						
+					double mean = 0d;
+					double stddev = 0d;
+					int valuesNumber = 0;
+					for(int d=0;d<numberOfDistances;d++) {
+						if(!Double.isNaN(distances[d])) {
+							mean += distances[d];
+							valuesNumber++;
 						}
-						stddevD[0] /= valuesNumber;
-							
-						if(numberOfCurrentClassificationWindow < numberOfAllClassificationWindows) {
-							if(distances.size() > 0) {
-								minD[0] = (Double)distances.get(0);
-								int indexOfFirstBoundary = new Double(distances.size()*0.25).intValue();
-								firstQD[0] = (Double)distances.get(indexOfFirstBoundary);
-								int indexOfSecondBoundary = new Double(distances.size()*0.5).intValue();
-								secondQD[0] = (Double)distances.get(indexOfSecondBoundary);
-								int indexOfThirdBoundary = new Double(distances.size()*0.75).intValue();
-								thirdQD[0] = (Double)distances.get(indexOfThirdBoundary);
-								maxD[0] = (Double)distances.get(distances.size()-1);
-							} else { // If all feature values consist of NaN values
-								minD[0] = Double.NaN;
-								firstQD[0] = Double.NaN;
-								secondQD[0] = Double.NaN;
-								thirdQD[0] = Double.NaN;
-								maxD[0] = Double.NaN;
-								meanD[0] = Double.NaN;
-								stddevD[0] = Double.NaN;
-							}
+					}
+					mean /= valuesNumber;
+						
+					for(int d=0;d<numberOfDistances;d++) {
+						if(!Double.isNaN(distances[d])) {
+							stddev += Math.pow(distances[d]-mean,2);
 						}
-							
-						newFeatures.get(7*s).getValues().add(minD);
-						newFeatures.get(7*s).getWindows().add(new Double(classificationWindowStartWindow));
-						newFeatures.get(7*s+1).getValues().add(firstQD);
-						newFeatures.get(7*s+1).getWindows().add(new Double(classificationWindowStartWindow));
-						newFeatures.get(7*s+2).getValues().add(secondQD);
-						newFeatures.get(7*s+2).getWindows().add(new Double(classificationWindowStartWindow));
-						newFeatures.get(7*s+3).getValues().add(thirdQD);
-						newFeatures.get(7*s+3).getWindows().add(new Double(classificationWindowStartWindow));
-						newFeatures.get(7*s+4).getValues().add(maxD);
-						newFeatures.get(7*s+4).getWindows().add(new Double(classificationWindowStartWindow));
-						newFeatures.get(7*s+5).getValues().add(meanD);
-						newFeatures.get(7*s+5).getWindows().add(new Double(classificationWindowStartWindow));
-						newFeatures.get(7*s+6).getValues().add(stddevD);
-						newFeatures.get(7*s+6).getWindows().add(new Double(classificationWindowStartWindow));
+					}
+					stddev /= valuesNumber;
+					meanD[0] = mean;
+					stddevD[0] = stddev;
+						
+					if(numberOfDistances > 0) {
+						minD[0] = distances[0];
+						int indexOfFirstBoundary = new Double(numberOfDistances*0.25).intValue();
+						firstQD[0] = distances[indexOfFirstBoundary];
+						int indexOfSecondBoundary = new Double(numberOfDistances*0.5).intValue();
+						secondQD[0] = distances[indexOfSecondBoundary];
+						int indexOfThirdBoundary = new Double(numberOfDistances*0.75).intValue();
+						thirdQD[0] = distances[indexOfThirdBoundary];
+						maxD[0] = distances[numberOfDistances-1];
+					} else { // If all feature values consist of NaN values
+						minD[0] = Double.NaN;
+						firstQD[0] = Double.NaN;
+						secondQD[0] = Double.NaN;
+						thirdQD[0] = Double.NaN;
+						maxD[0] = Double.NaN;
+						meanD[0] = Double.NaN;
+						stddevD[0] = Double.NaN;
 					}
 						
+					newFeatures.get(7*s).getValues().add(minD);
+					newFeatures.get(7*s).getWindows().add(new Double(classificationWindowStartWindow));
+					newFeatures.get(7*s+1).getValues().add(firstQD);
+					newFeatures.get(7*s+1).getWindows().add(new Double(classificationWindowStartWindow));
+					newFeatures.get(7*s+2).getValues().add(secondQD);
+					newFeatures.get(7*s+2).getWindows().add(new Double(classificationWindowStartWindow));
+					newFeatures.get(7*s+3).getValues().add(thirdQD);
+					newFeatures.get(7*s+3).getWindows().add(new Double(classificationWindowStartWindow));
+					newFeatures.get(7*s+4).getValues().add(maxD);
+					newFeatures.get(7*s+4).getWindows().add(new Double(classificationWindowStartWindow));
+					newFeatures.get(7*s+5).getValues().add(meanD);
+					newFeatures.get(7*s+5).getWindows().add(new Double(classificationWindowStartWindow));
+					newFeatures.get(7*s+6).getValues().add(stddevD);
+					newFeatures.get(7*s+6).getWindows().add(new Double(classificationWindowStartWindow));
 				}
 			}
 
@@ -336,19 +317,19 @@ public class StructuralComplexityConverter extends AmuseTask implements MatrixTo
 		return endFeatures;
 	}
 	
-	private double jensonShannonDivergence(ArrayList<Double> s1, ArrayList<Double> s2) {
-		ArrayList<Double> m = new ArrayList<Double>(s1.size());
-		for(int i=0;i<s1.size();i++) {
-			m.add((s1.get(i) + s2.get(i)) / 2);
+	private double jensonShannonDivergence(double[] s1, double[] s2) {
+		double[] m = new double[s1.length];
+		for(int i=0;i<s1.length;i++) {
+			m[i] = (s1[i] + s2[i]) / 2;
 		}
 		return (kullbackLeiblerDivergence(s1,m) + kullbackLeiblerDivergence(s2,m)) / 2;
 	}
 	
-	private double kullbackLeiblerDivergence(ArrayList<Double> s1, ArrayList<Double> s2) {
+	private double kullbackLeiblerDivergence(double[] s1, double[] s2) {
 		double sum = 0d;
-		for(int i=0;i<s1.size();i++) {
-			if(s1.get(i) != 0 && s2.get(i) != 0) {
-				sum += s1.get(i) * Math.log(s1.get(i) / s2.get(i));
+		for(int i=0;i<s1.length;i++) {
+			if(s1[i] != 0 && s2[i] != 0) {
+				sum += s1[i] * Math.log(s1[i] / s2[i]);
 			}
 		}
 		return sum;
@@ -33,6 +33,7 @@ import weka.core.Instance;
 import weka.core.converters.ArffLoader;
 
 import amuse.data.Feature;
+import amuse.data.io.BinaryFeatureFile;
 import amuse.interfaces.nodes.methods.AmuseTask;
 import amuse.interfaces.nodes.NodeException;
 import amuse.nodes.processor.ProcessingConfiguration;
@@ -99,7 +100,7 @@ public class StructureGMMConverter extends AmuseTask implements MatrixToVectorCo
 			}	
 			
 			ArffLoader structureArffLoader = new ArffLoader();
-			structureArffLoader.setFile(new File(relativeName));
+			structureArffLoader.setSource(BinaryFeatureFile.openAsArffStream(new File(relativeName)));
 			Attribute segmentStartAttribute = structureArffLoader.getStructure().attribute("SegmentStart");
 			Attribute segmentEndAttribute = structureArffLoader.getStructure().attribute("SegmentEnd");
 			Instance segmentInstance = structureArffLoader.getNextInstance(structureArffLoader.getStructure());
@@ -165,28 +165,28 @@ public class AORSplitter extends AmuseTask implements DimensionProcessorInterfac
 			int windowOfCurrentReleaseEnd = new Double(Math.floor(releaseEndTimes[currentReleaseEndTimeNumber]*sampleRate/windowSize)).intValue();
 			
 			// Go through all time windows
-			for(int k=0;k<features.get(j).getWindows().size();k++) {
+			for(int k=0;k<features.get(j).getWindowCount();k++) {
 				
-				int currentWindow = features.get(j).getWindows().get(k).intValue()-1;
+				int currentWindow = (int)features.get(j).getWindow(k)-1;
 				
 				// If any of the current time events belongs to the end frames of a track from which the current feature has not
 				// been extracted (holds e.g. for delta MFCCs and occurs rather seldom! - the time event must be at the very end
 				// of the music piece), an approximation is used: window of the current time event is set to the last window for 
 				// which this feature has been extracted
-				if(windowOfCurrentAttackStart > features.get(j).getWindows().size()-1) {
-					windowOfCurrentAttackStart = features.get(j).getWindows().size()-1;
+				if(windowOfCurrentAttackStart > features.get(j).getWindowCount()-1) {
+					windowOfCurrentAttackStart = features.get(j).getWindowCount()-1;
 				}
-				if(windowOfCurrentAttackMiddle > features.get(j).getWindows().size()-1) {
-					windowOfCurrentAttackMiddle = features.get(j).getWindows().size()-1;
+				if(windowOfCurrentAttackMiddle > features.get(j).getWindowCount()-1) {
+					windowOfCurrentAttackMiddle = features.get(j).getWindowCount()-1;
 				}
-				if(windowOfCurrentOnset > features.get(j).getWindows().size()-1) {
-					windowOfCurrentOnset = features.get(j).getWindows().size()-1;
+				if(windowOfCurrentOnset > features.get(j).getWindowCount()-1) {
+					windowOfCurrentOnset = features.get(j).getWindowCount()-1;
 				}
-				if(windowOfCurrentReleaseMiddle > features.get(j).getWindows().size()-1) {
-					windowOfCurrentReleaseMiddle = features.get(j).getWindows().size()-1;
+				if(windowOfCurrentReleaseMiddle > features.get(j).getWindowCount()-1) {
+					windowOfCurrentReleaseMiddle = features.get(j).getWindowCount()-1;
 				}
-				if(windowOfCurrentReleaseEnd > features.get(j).getWindows().size()-1) {
-					windowOfCurrentReleaseEnd = features.get(j).getWindows().size()-1;
+				if(windowOfCurrentReleaseEnd > features.get(j).getWindowCount()-1) {
+					windowOfCurrentReleaseEnd = features.get(j).getWindowCount()-1;
 				}
 						
 				// Update attack start feature?
@@ -203,8 +203,7 @@ public class AORSplitter extends AmuseTask implements DimensionProcessorInterfac
 						}
 						windowOfCurrentAttackStart = new Double(Math.floor(attackBeginTimes[currentAttackStartTimeNumber]*sampleRate/windowSize)).intValue();
 					} 
-					AWindowsFeature.getWindows().add(features.get(j).getWindows().get(k));
-					AWindowsFeature.getValues().add(features.get(j).getValues().get(k));
+					AWindowsFeature.addWindow(features.get(j), k);
 				} 
 					
 				// Update attack middle features?
@@ -224,8 +223,7 @@ public class AORSplitter extends AmuseTask implements DimensionProcessorInterfac
 					    		attackBeginTimes[currentAttackMiddleTimeNumber]*sampleRate/windowSize))/2 ).intValue();
 					} 
 					
-					AOWindowsFeature.getWindows().add(features.get(j).getWindows().get(k));
-					AOWindowsFeature.getValues().add(features.get(j).getValues().get(k));
+					AOWindowsFeature.addWindow(features.get(j), k);
 				} 
 					
 				// Update onset features?
@@ -243,8 +241,7 @@ public class AORSplitter extends AmuseTask implements DimensionProcessorInterfac
 						windowOfCurrentOnset = new Double(Math.floor(onsetTimes[currentOnsetTimeNumber]*sampleRate/windowSize)).intValue();
 					} 
 					
-					OWindowsFeature.getWindows().add(features.get(j).getWindows().get(k));
-					OWindowsFeature.getValues().add(features.get(j).getValues().get(k));
+					OWindowsFeature.addWindow(features.get(j), k);
 				} 
 					
 				// Update release middle features?
@@ -264,8 +261,7 @@ public class AORSplitter extends AmuseTask implements DimensionProcessorInterfac
 					    		onsetTimes[currentReleaseMiddleTimeNumber]*sampleRate/windowSize))/2 ).intValue();
 					} 
 					
-					ORWindowsFeature.getWindows().add(features.get(j).getWindows().get(k));
-					ORWindowsFeature.getValues().add(features.get(j).getValues().get(k));
+					ORWindowsFeature.addWindow(features.get(j), k);
 				} 
 					
 				// Update release end features?
@@ -283,8 +279,7 @@ public class AORSplitter extends AmuseTask implements DimensionProcessorInterfac
 						windowOfCurrentReleaseEnd = new Double(Math.floor(releaseEndTimes[currentReleaseEndTimeNumber]*sampleRate/windowSize)).intValue();
 					} 
 						
-					RWindowsFeature.getWindows().add(features.get(j).getWindows().get(k));
-					RWindowsFeature.getValues().add(features.get(j).getValues().get(k));
+					RWindowsFeature.addWindow(features.get(j), k);
 				} 
 			}
 				
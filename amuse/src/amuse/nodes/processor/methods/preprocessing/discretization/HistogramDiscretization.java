@@ -24,7 +24,6 @@
 package amuse.nodes.processor.methods.preprocessing.discretization;
 
 import java.util.ArrayList;
-import java.util.Collections;
 
 import org.apache.log4j.Level;
 
@@ -58,32 +57,8 @@ public class HistogramDiscretization extends AmuseTask implements DimensionProce
 	public void runDimensionProcessing(ArrayList<Feature> features) throws NodeException {
 		AmuseLogger.write(this.getClass().getName(), Level.INFO, "Starting histogram discretization...");
 		
-		// Go through features
-		for(int f=0;f<features.size();f++) {
-			
-			// After each indexBoundaryForHistogramBin indice begins the new interval for discretization
-			int indexBoundaryForHistogramBin = features.get(f).getWindows().size() / numOfHistogramBins;
-			   	
-			features.get(f).getHistory().add(new String("HistogramEqualBinWidthDiscretized"));
-				
-			// Go through feature dimensions
-			for(int d=0;d<features.get(f).getValues().get(0).length;d++) {
-				
-				ArrayList<Double> sortedValuesOfCurrentDimension = new ArrayList<Double>(features.get(f).getWindows().size());
-				
-				// Sort the values for all time windows
-				for(int tw=0;tw<features.get(f).getWindows().size();tw++) {
-					sortedValuesOfCurrentDimension.add(features.get(f).getValues().get(tw)[d]);
-				}
-				Collections.sort(sortedValuesOfCurrentDimension);
-				
-				// Go through all time windows and discretize
-				for(int tw=0;tw<features.get(f).getWindows().size();tw++) {
-					int positionInSortedList = sortedValuesOfCurrentDimension.indexOf(features.get(f).getValues().get(tw)[d]);
-					features.get(f).getValues().get(tw)[d] = new Double(positionInSortedList / indexBoundaryForHistogramBin);
-				}
-			}
-		}
+		// Go through the dimensions of all features
+		RankDiscretization.discretize(features, numOfHistogramBins, "HistogramEqualBinWidthDiscretized");
 		
 		AmuseLogger.write(this.getClass().getName(), Level.INFO, "...discretization succeeded");
 	}
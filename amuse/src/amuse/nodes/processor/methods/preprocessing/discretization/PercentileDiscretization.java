@@ -24,7 +24,6 @@
 package amuse.nodes.processor.methods.preprocessing.discretization;
 
 import java.util.ArrayList;
-import java.util.Collections;
 
 import org.apache.log4j.Level;
 
@@ -58,32 +57,8 @@ public class PercentileDiscretization extends AmuseTask implements DimensionProc
 	public void runDimensionProcessing(ArrayList<Feature> features) throws NodeException {
 		AmuseLogger.write(this.getClass().getName(), Level.INFO, "Starting percentile discretization...");
 		
-		// Go through features
-		for(int f=0;f<features.size();f++) {
-			
-			// After each indexBoundaryForPercentile indices begins the new interval for discretization
-			int indexBoundaryForPercentile = features.get(f).getWindows().size() / numOfPercentileBoundaries;
-			   	
-			features.get(f).getHistory().add(new String("PercentileDiscretized"));
-				
-			// Go through feature dimensions
-			for(int d=0;d<features.get(f).getValues().get(0).length;d++) {
-				
-				ArrayList<Double> sortedValuesOfCurrentDimension = new ArrayList<Double>(features.get(f).getWindows().size());
-				
-				// Sort the values for all time windows
-				for(int tw=0;tw<features.get(f).getWindows().size();tw++) {
-					sortedValuesOfCurrentDimension.add(features.get(f).getValues().get(tw)[d]);
-				}
-				Collections.sort(sortedValuesOfCurrentDimension);
-				
-				// Go through all time windows and discretize
-				for(int tw=0;tw<features.get(f).getWindows().size();tw++) {
-					int positionInSortedList = sortedValuesOfCurrentDimension.indexOf(features.get(f).getValues().get(tw)[d]);
-					features.get(f).getValues().get(tw)[d] = new Double(positionInSortedList / indexBoundaryForPercentile);
-				}
-			}
-		}
+		// Go through the dimensions of all features
+		RankDiscretization.discretize(features, numOfPercentileBoundaries, "PercentileDiscretized");
 		
 		AmuseLogger.write(this.getClass().getName(), Level.INFO, "...discretization succeeded");
 	}
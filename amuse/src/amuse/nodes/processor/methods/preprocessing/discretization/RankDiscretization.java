@@ -0,0 +1,210 @@
+/**
+ * This file is part of AMUSE framework (Advanced MUsic Explorer).
+ *
+ * Copyright 2006-2010 by code authors
+ *
+ * Created at TU Dortmund, Chair of Algorithm Engineering
+ * (Contact: <http://ls11-www.cs.tu-dortmund.de>)
+ *
+ * AMUSE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AMUSE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with AMUSE. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Creation date: 18.10.2026
+ */
+package amuse.nodes.processor.methods.preprocessing.discretization;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import amuse.data.Feature;
+import amuse.interfaces.nodes.NodeException;
+import amuse.preferences.AmusePreferences;
+import amuse.preferences.KeysIntValue;
+
+/**
+ * Discretizes feature values by their positions in the sorted values of a feature dimension:
+ * the value of a time window is replaced by the position of its first occurrence in the sorted
+ * values, divided by the number of positions per interval. The values of each dimension are sorted
+ * once together with their time windows, so that the intervals are assigned in one pass over the
+ * sorted values. If NUMBER_OF_PROCESSING_THREADS is larger than one, the dimensions of all features
+ * are discretized in parallel by a shared thread pool; otherwise they are discretized by the calling thread,
+ * which may already be a worker of a parallel validation, processing or optimization.
+ *
+ * @author agent
+ * @version $Id$
+ */
+class RankDiscretization {
+
+	/** Thread pool shared by all discretizations, created at the first parallel discretization */
+	private static ExecutorService executor = null;
+
+	/** True if the preference for the shared thread pool has been read */
+	private static boolean executorInitialized = false;
+
+	/**
+	 * Discretizes all dimensions of the given features
+	 * @param features Features to discretize
+	 * @param numberOfIntervals Number of intervals
+	 * @param historyEntry Processing step which is added to the history of the features
+	 * @throws NodeException
+	 */
+	static void discretize(ArrayList<Feature> features, int numberOfIntervals, String historyEntry) throws NodeException {
+		discretize(features, numberOfIntervals, historyEntry, getExecutor());
+	}
+
+	/**
+	 * Discretizes all dimensions of the given features with the given thread pool
+	 * @param features Features to discretize
+	 * @param numberOfIntervals Number of intervals
+	 * @param historyEntry Processing step which is added to the history of the features
+	 * @param executor Thread pool or null if the dimensions are discretized by the calling thread
+	 * @throws NodeException
+	 */
+	static void discretize(ArrayList<Feature> features, int numberOfIntervals, String historyEntry, ExecutorService executor) throws NodeException {
+		final List<Feature> featuresOfTasks = new ArrayList<Feature>();
+		final List<Integer> dimensionsOfTasks = new ArrayList<Integer>();
+		final List<Integer> indexBoundariesOfTasks = new ArrayList<Integer>();
+		for(int f=0;f<features.size();f++) {
+			Feature feature = features.get(f);
+
+			// After each indexBoundary indices begins the new interval for discretization
+			int indexBoundary = feature.getWindowCount() / numberOfIntervals;
+			feature.getHistory().add(new String(historyEntry));
+			int numberOfDimensions = feature.hasPrimitiveStorage() ? feature.getDimension() : feature.getValues().get(0).length;
+			for(int d=0;d<numberOfDimensions;d++) {
+				featuresOfTasks.add(feature);
+				dimensionsOfTasks.add(d);
+				indexBoundariesOfTasks.add(indexBoundary);
+			}
+		}
+
+		if(executor == null || featuresOfTasks.size() <= 1) {
+			for(int i=0;i<featuresOfTasks.size();i++) {
+				discretizeDimension(featuresOfTasks.get(i), dimensionsOfTasks.get(i), indexBoundariesOfTasks.get(i));
+			}
+			return;
+		}
+		List<Future<?>> futures = new ArrayList<Future<?>>(featuresOfTasks.size());
+		try {
+			for(int i=0;i<featuresOfTasks.size();i++) {
+				final int task = i;
+				futures.add(executor.submit(new Runnable() {
+					public void run() {
+						discretizeDimension(featuresOfTasks.get(task), dimensionsOfTasks.get(task), indexBoundariesOfTasks.get(task));
+					}
+				}));
+			}
+			for(Future<?> future : futures) {
+				future.get();
+			}
+		} catch(ExecutionException e) {
+			if(e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException)e.getCause();
+			}
+			throw new NodeException("Discretization failed: " + e.getCause());
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new NodeException("Discretization interrupted");
+		} finally {
+			for(Future<?> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * Returns the shared thread pool with NUMBER_OF_PROCESSING_THREADS threads, which is created at the first call
+	 * @return Thread pool or null if the dimensions are discretized by the calling thread
+	 */
+	private static synchronized ExecutorService getExecutor() {
+		if(!executorInitialized) {
+			int numberOfThreads = AmusePreferences.getInt(KeysIntValue.NUMBER_OF_PROCESSING_THREADS);
+			if(numberOfThreads > 1) {
+				executor = Executors.newFixedThreadPool(numberOfThreads, new ThreadFactory() {
+					public Thread newThread(Runnable runnable) {
+						Thread thread = new Thread(runnable, "Amuse discretization");
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+			}
+			executorInitialized = true;
+		}
+		return executor;
+	}
+
+	/**
+	 * Discretizes one dimension of a feature
+	 */
+	private static void discretizeDimension(Feature feature, int dimension, int indexBoundary) {
+		int numberOfWindows = feature.getWindowCount();
+
+		// Sort the values for all time windows
+		double[] sortedValues = new double[numberOfWindows];
+		int[] windowsOfSortedValues = new int[numberOfWindows];
+		for(int tw=0;tw<numberOfWindows;tw++) {
+			sortedValues[tw] = feature.getValue(tw, dimension);
+			windowsOfSortedValues[tw] = tw;
+		}
+		sort(sortedValues, windowsOfSortedValues, new double[numberOfWindows], new int[numberOfWindows], 0, numberOfWindows);
+
+		// Go through the sorted values and discretize; equal values get the position of their first occurrence
+		int positionInSortedList = 0;
+		for(int i=0;i<numberOfWindows;i++) {
+			if(i > 0 && Double.compare(sortedValues[i], sortedValues[i-1]) != 0) {
+				positionInSortedList = i;
+			}
+			feature.setValue(windowsOfSortedValues[i], dimension, positionInSortedList / indexBoundary);
+		}
+	}
+
+	/**
+	 * Sorts the values between from (inclusive) and to (exclusive) with merge sort in the order of
+	 * Double.compare(), moving the time windows together with the values
+	 */
+	private static void sort(double[] values, int[] windows, double[] valueBuffer, int[] windowBuffer, int from, int to) {
+		if(to - from < 2) {
+			return;
+		}
+		int middle = (from + to) >>> 1;
+		sort(values, windows, valueBuffer, windowBuffer, from, middle);
+		sort(values, windows, valueBuffer, windowBuffer, middle, to);
+		int left = from;
+		int right = middle;
+		int current = from;
+		while(left < middle && right < to) {
+			if(Double.compare(values[left], values[right]) <= 0) {
+				valueBuffer[current] = values[left];
+				windowBuffer[current++] = windows[left++];
+			} else {
+				valueBuffer[current] = values[right];
+				windowBuffer[current++] = windows[right++];
+			}
+		}
+		while(left < middle) {
+			valueBuffer[current] = values[left];
+			windowBuffer[current++] = windows[left++];
+		}
+		while(right < to) {
+			valueBuffer[current] = values[right];
+			windowBuffer[current++] = windows[right++];
+		}
+		System.arraycopy(valueBuffer, from, values, from, to - from);
+		System.arraycopy(windowBuffer, from, windows, from, to - from);
+	}
+}
@@ -25,14 +25,15 @@ package amuse.nodes.processor.methods.reducers;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.util.ArrayList;
 
 import org.apache.log4j.Level;
 
 import amuse.data.Feature;
 import amuse.data.io.ArffDataSet;
+import amuse.data.io.BinaryFeatureFile;
 import amuse.data.io.DataSetAbstract;
 import amuse.interfaces.nodes.methods.AmuseTask;
 import amuse.interfaces.nodes.NodeException;
@@ -118,9 +119,7 @@ public class DataSampler extends AmuseTask implements DimensionProcessorInterfac
 				int eventTimesNumber = 0;
 				boolean attrFound = false;
 				File featureFile = new File(relativeName);
-				FileReader featureInput = null;
-				featureInput = new FileReader(featureFile);
-				BufferedReader resultReader = new BufferedReader(featureInput);
+				BufferedReader resultReader = new BufferedReader(new InputStreamReader(BinaryFeatureFile.openAsArffStream(featureFile)));
 				String line = new String();
 				while ((line = resultReader.readLine()) != null) {
 
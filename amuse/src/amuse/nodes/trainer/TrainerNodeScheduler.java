@@ -47,6 +47,7 @@ import amuse.data.FileTable;
 import amuse.data.GroundTruthSourceType;
 import amuse.data.InputFeatureType;
 import amuse.data.io.ArffDataSet;
+import amuse.data.io.BinaryFeatureFile;
 import amuse.data.io.DataSet;
 import amuse.data.io.DataSetAbstract;
 import amuse.data.io.DataSetInput;
@@ -508,7 +509,7 @@ public class TrainerNodeScheduler extends NodeScheduler {
 					if(!processedFeatureFile.exists()) {
 						throw new NodeException("The processed feature file does not exist.");
 					}
-					classifierInputLoader.setFile(processedFeatureFile);
+					classifierInputLoader.setSource(BinaryFeatureFile.openAsArffStream(processedFeatureFile));
 					inputInstance = classifierInputLoader.getNextInstance(classifierInputLoader.getStructure());
 					
 					// Create the attributes omitting UNIT, START and END attributes (they describe the classification window for modeled features)
@@ -664,7 +665,7 @@ public class TrainerNodeScheduler extends NodeScheduler {
 							currentInputFile = newInputFile;
 							AmuseLogger.write(this.getClass().getName(), Level.DEBUG, "Loading: " + currentInputFile);
 							classifierInputLoader = new ArffLoader();
-							classifierInputLoader.setFile(new File(currentInputFile));
+							classifierInputLoader.setSource(BinaryFeatureFile.openAsArffStream(new File(currentInputFile)));
 						} 
 						
 						// Load the next input vector
@@ -30,15 +30,15 @@ import amuse.interfaces.nodes.NodeException;
 import amuse.interfaces.nodes.methods.AmuseTask;
 import amuse.nodes.trainer.TrainingConfiguration;
 import amuse.nodes.trainer.interfaces.TrainerInterface;
-import amuse.util.FileOperations;
 import amuse.util.LibraryInitializer;
+import amuse.util.RapidMinerModelStore;
 
 import java.io.File;
 
 import com.rapidminer.Process;
 import com.rapidminer.operator.IOContainer;
+import com.rapidminer.operator.Model;
 import com.rapidminer.operator.Operator;
-import com.rapidminer.operator.io.RepositoryStorer;
 import com.rapidminer.operator.ports.InputPort;
 import com.rapidminer.operator.ports.OutputPort;
 import com.rapidminer.repository.Repository;
@@ -98,25 +98,20 @@ public class J48Adapter extends AmuseTask implements TrainerInterface {
 			Operator modelLearner = OperatorService.createOperator("weka:W-J48");
 			process.getRootOperator().getSubprocess(0).addOperator(modelLearner);
 			
-			// Write the model
-			RepositoryStorer modelWriter = OperatorService.createOperator(RepositoryStorer.class);
-			modelWriter.setParameter(RepositoryStorer.PARAMETER_REPOSITORY_ENTRY, "//" + LibraryInitializer.RAPIDMINER_REPO_NAME + "/model");
-			process.getRootOperator().getSubprocess(0).addOperator(modelWriter);
-			
 			// Connect the Ports
 			InputPort modelLearnerInputPort = modelLearner.getInputPorts().getPortByName("training set");
 			OutputPort modelLearnerOutputPort = modelLearner.getOutputPorts().getPortByName("model");
-			InputPort modelWriterInputPort = modelWriter.getInputPorts().getPortByName("input");
+			InputPort processInputPort = process.getRootOperator().getSubprocess(0).getInnerSinks().getPortByIndex(0);
 			OutputPort processOutputPort = process.getRootOperator().getSubprocess(0).getInnerSources().getPortByIndex(0);
 			
-			modelLearnerOutputPort.connectTo(modelWriterInputPort);
+			modelLearnerOutputPort.connectTo(processInputPort);
 			processOutputPort.connectTo(modelLearnerInputPort);
 			
 			// Run the process
-			process.run(new IOContainer(dataSet.convertToRapidMinerExampleSet()));
+			IOContainer result = process.run(new IOContainer(dataSet.convertToRapidMinerExampleSet()));
 			
-			// Copy the model into the model database
-			FileOperations.copy(new File(LibraryInitializer.REPOSITORY_PATH + File.separator + "model.ioo"), new File(outputModel));
+			// Save the model into the model database
+			RapidMinerModelStore.save(result.get(Model.class), outputModel);
 			
 		} catch (Exception e) {
 			throw new NodeException("Classification training failed: " + e.getMessage());
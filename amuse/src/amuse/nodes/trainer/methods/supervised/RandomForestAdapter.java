@@ -29,11 +29,11 @@ import amuse.interfaces.nodes.NodeException;
 import amuse.interfaces.nodes.methods.AmuseTask;
 import amuse.nodes.trainer.TrainingConfiguration;
 import amuse.nodes.trainer.interfaces.TrainerInterface;
-import amuse.util.FileOperations;
 import amuse.util.LibraryInitializer;
+import amuse.util.RapidMinerModelStore;
 import com.rapidminer.operator.IOContainer;
+import com.rapidminer.operator.Model;
 import com.rapidminer.operator.Operator;
-import com.rapidminer.operator.io.RepositoryStorer;
 import com.rapidminer.operator.ports.InputPort;
 import com.rapidminer.operator.ports.OutputPort;
 import com.rapidminer.repository.Repository;
@@ -41,7 +41,6 @@ import com.rapidminer.repository.RepositoryManager;
 import com.rapidminer.repository.local.LocalRepository;
 import com.rapidminer.tools.OperatorService;
 
-import java.io.File;
 import java.util.List;
 
 import com.rapidminer.Process;
@@ -100,25 +99,20 @@ public class RandomForestAdapter extends AmuseTask implements TrainerInterface {
 			modelLearner.setParameter("I", "" + this.treeNumber);
 			process.getRootOperator().getSubprocess(0).addOperator(modelLearner);
 			
-			// Write the model
-			RepositoryStorer modelWriter = OperatorService.createOperator(RepositoryStorer.class);
-			modelWriter.setParameter(RepositoryStorer.PARAMETER_REPOSITORY_ENTRY, "//" + LibraryInitializer.RAPIDMINER_REPO_NAME + "/model");
-			process.getRootOperator().getSubprocess(0).addOperator(modelWriter);
-			
 			// Connect the Ports
 			InputPort modelLearnerInputPort = modelLearner.getInputPorts().getPortByName("training set");
 			OutputPort modelLearnerOutputPort = modelLearner.getOutputPorts().getPortByName("model");
-			InputPort modelWriterInputPort = modelWriter.getInputPorts().getPortByName("input");
+			InputPort processInputPort = process.getRootOperator().getSubprocess(0).getInnerSinks().getPortByIndex(0);
 			OutputPort processOutputPort = process.getRootOperator().getSubprocess(0).getInnerSources().getPortByIndex(0);
 			
-			modelLearnerOutputPort.connectTo(modelWriterInputPort);
+			modelLearnerOutputPort.connectTo(processInputPort);
 			processOutputPort.connectTo(modelLearnerInputPort);
 
 			// Run the process
-			process.run(new IOContainer(dataSet.convertToRapidMinerExampleSet()));
+			IOContainer result = process.run(new IOContainer(dataSet.convertToRapidMinerExampleSet()));
 			
-			// Copy the model into the model database
-			FileOperations.copy(new File(LibraryInitializer.REPOSITORY_PATH + File.separator + "model.ioo"), new File(outputModel));
+			// Save the model into the model database
+			RapidMinerModelStore.save(result.get(Model.class), outputModel);
 			
 		} catch (Exception e) {
 			e.printStackTrace();
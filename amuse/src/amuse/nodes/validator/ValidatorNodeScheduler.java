@@ -46,6 +46,7 @@ import amuse.data.ModelType.MethodType;
 import amuse.data.ModelType.RelationshipType;
 import amuse.data.annotation.ClassifiedClassificationWindow;
 import amuse.data.io.ArffDataSet;
+import amuse.data.io.BinaryFeatureFile;
 import amuse.data.io.DataSet;
 import amuse.data.io.DataSetAbstract;
 import amuse.data.io.DataSetInput;
@@ -533,7 +534,7 @@ public class ValidatorNodeScheduler extends NodeScheduler {
 					ArffLoader validatorInputLoader = new ArffLoader();
 					Instance inputInstance;
 					AmuseLogger.write(this.getClass().getName(), Level.DEBUG, "Loading: " + currentInputFile);
-					validatorInputLoader.setFile(new File(currentInputFile));
+					validatorInputLoader.setSource(BinaryFeatureFile.openAsArffStream(new File(currentInputFile)));
 					inputInstance = validatorInputLoader.getNextInstance(validatorInputLoader.getStructure());
 					
 					// Create the attributes omitting UNIT, START and END attributes (they describe the classification window for modeled features)
@@ -701,7 +702,7 @@ public class ValidatorNodeScheduler extends NodeScheduler {
 							currentInputFile = newInputFile;
 							AmuseLogger.write(this.getClass().getName(), Level.DEBUG, "Loading: " + currentInputFile);
 							validatorInputLoader = new ArffLoader();
-							validatorInputLoader.setFile(new File(currentInputFile));
+							validatorInputLoader.setSource(BinaryFeatureFile.openAsArffStream(new File(currentInputFile)));
 						} 
 						
 						// Load the next input vector
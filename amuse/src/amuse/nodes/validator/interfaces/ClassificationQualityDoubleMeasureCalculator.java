@@ -27,6 +27,8 @@ import java.util.ArrayList;
 
 import amuse.data.annotation.ClassifiedClassificationWindow;
 import amuse.interfaces.nodes.NodeException;
+import amuse.nodes.validator.measures.confusionmatrix.base.ConfusionMatrix;
+import amuse.nodes.validator.measures.confusionmatrix.base.ConfusionMatrixCache;
 
 /**
  * Methods which calculate double measures based on classification results and ground truth information should extend this class.
@@ -44,6 +46,9 @@ public abstract class ClassificationQualityDoubleMeasureCalculator implements Cl
 	
 	/** True if this measure will be calculated in a fuzzy way */
 	private boolean continuous = false;
+	
+	/** Confusion matrices shared by all measures of the current validation run (may be null) */
+	private ConfusionMatrixCache confusionMatrixCache = null;
 
 	/*
 	 * (non-Javadoc)
@@ -203,5 +208,44 @@ public abstract class ClassificationQualityDoubleMeasureCalculator implements Cl
 			return null;
 		}
 	}
+	
+	/**
+	 * Sets the confusion matrices which are shared by all measures of the current validation run
+	 * @param confusionMatrixCache Confusion matrices of the current validation run or null, if the 
+	 * matrices should be calculated by each measure
+	 */
+	public void setConfusionMatrixCache(ConfusionMatrixCache confusionMatrixCache) {
+		this.confusionMatrixCache = confusionMatrixCache;
+	}
+	
+	/**
+	 * Returns the confusion matrix for one class, using the shared matrices of the current validation run if available
+	 * @param groundTruthRelationships Ground truth relationships of the tracks
+	 * @param predictedRelationships Predicted relationships of the tracks
+	 * @param trackLevel True for track level, false for classification window level
+	 * @return Confusion matrix
+	 */
+	protected ConfusionMatrix getOneClassConfusionMatrix(ArrayList<Double> groundTruthRelationships, 
+			ArrayList<ClassifiedClassificationWindow> predictedRelationships, boolean trackLevel) {
+		if(confusionMatrixCache == null) {
+			return ConfusionMatrix.calculateOneClassMatrix(groundTruthRelationships, predictedRelationships, trackLevel, isContinuous());
+		}
+		return confusionMatrixCache.getOneClassMatrix(groundTruthRelationships, predictedRelationships, trackLevel, isContinuous());
+	}
+	
+	/**
+	 * Returns the confusion matrix for multiple categories, using the shared matrices of the current validation run if available
+	 * @param groundTruthRelationships Ground truth relationships of the tracks
+	 * @param predictedRelationships Predicted relationships of the tracks
+	 * @param trackLevel True for track level, false for classification window level
+	 * @return Confusion matrix
+	 */
+	protected ConfusionMatrix getMultiLabelConfusionMatrix(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, 
+			ArrayList<ClassifiedClassificationWindow> predictedRelationships, boolean trackLevel) {
+		if(confusionMatrixCache == null) {
+			return ConfusionMatrix.calculateMultiLabelMatrix(groundTruthRelationships, predictedRelationships, trackLevel, isContinuous());
+		}
+		return confusionMatrixCache.getMultiLabelMatrix(groundTruthRelationships, predictedRelationships, trackLevel, isContinuous());
+	}
 
 }
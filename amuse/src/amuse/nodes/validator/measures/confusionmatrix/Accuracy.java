@@ -29,10 +29,7 @@ import amuse.data.annotation.ClassifiedClassificationWindow;
 import amuse.interfaces.nodes.NodeException;
 import amuse.nodes.validator.interfaces.ClassificationQualityDoubleMeasureCalculator;
 import amuse.nodes.validator.interfaces.ValidationMeasureDouble;
-import amuse.nodes.validator.measures.confusionmatrix.base.FalseNegatives;
-import amuse.nodes.validator.measures.confusionmatrix.base.FalsePositives;
-import amuse.nodes.validator.measures.confusionmatrix.base.TrueNegatives;
-import amuse.nodes.validator.measures.confusionmatrix.base.TruePositives;
+import amuse.nodes.validator.measures.confusionmatrix.base.ConfusionMatrix;
 
 /**
  * The root mean square error calculates the root of the sum of squared differences between 
@@ -134,35 +131,17 @@ public class Accuracy extends ClassificationQualityDoubleMeasureCalculator {
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateMultiLabelMeasureOnTrackLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateMultiLabelMeasureOnTrackLevel(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		//Get True Positives
-		TruePositives truePositivesCalculator = new TruePositives();
-		truePositivesCalculator.setTrackLevel(true);
-		truePositivesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble[] tp = truePositivesCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships);
-		
-		//Get True Negatives
-		TrueNegatives trueNegativesCalculator = new TrueNegatives();
-		trueNegativesCalculator.setTrackLevel(true);
-		trueNegativesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble[] tn = trueNegativesCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships);
-		
-		//Get False Positives
-		FalsePositives falsePositivesCalculator = new FalsePositives();
-		falsePositivesCalculator.setTrackLevel(true);
-		falsePositivesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble[] fp = falsePositivesCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships);
-		
-		//Get False Negatives
-		FalseNegatives falseNegativesCalculator = new FalseNegatives();
-		falseNegativesCalculator.setTrackLevel(true);
-		falseNegativesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble[] fn = falseNegativesCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships);
+		ConfusionMatrix confusionMatrix = getMultiLabelConfusionMatrix(groundTruthRelationships, predictedRelationships, true);
+		double[] tp = confusionMatrix.getTruePositives();
+		double[] tn = confusionMatrix.getTrueNegatives();
+		double[] fp = confusionMatrix.getFalsePositives();
+		double[] fn = confusionMatrix.getFalseNegatives();
 		
 		int numberOfCategories = groundTruthRelationships.get(0).getLabels().length;
 		
 		double accuracy = 0;
 		for(int i = 0; i < numberOfCategories; i++) {
-			accuracy += (tp[i].getValue() + tn[i].getValue()) / (tp[i].getValue() + fn[i].getValue() + fp[i].getValue() + tn[i].getValue());
+			accuracy += (tp[i] + tn[i]) / (tp[i] + fn[i] + fp[i] + tn[i]);
 		}
 		accuracy /= numberOfCategories;
 		
@@ -181,35 +160,17 @@ public class Accuracy extends ClassificationQualityDoubleMeasureCalculator {
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateMultiLabelMeasureOnClassificationWindowLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateMultiLabelMeasureOnWindowLevel(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		//Get True Positives
-		TruePositives truePositivesCalculator = new TruePositives();
-		truePositivesCalculator.setWindowLevel(true);
-		truePositivesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble[] tp = truePositivesCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships);
-		
-		//Get True Negatives
-		TrueNegatives trueNegativesCalculator = new TrueNegatives();
-		trueNegativesCalculator.setWindowLevel(true);
-		trueNegativesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble[] tn = trueNegativesCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships);
-		
-		//Get False Positives
-		FalsePositives falsePositivesCalculator = new FalsePositives();
-		falsePositivesCalculator.setWindowLevel(true);
-		falsePositivesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble[] fp = falsePositivesCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships);
-		
-		//Get False Negatives
-		FalseNegatives falseNegativesCalculator = new FalseNegatives();
-		falseNegativesCalculator.setWindowLevel(true);
-		falseNegativesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble[] fn = falseNegativesCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships);
+		ConfusionMatrix confusionMatrix = getMultiLabelConfusionMatrix(groundTruthRelationships, predictedRelationships, false);
+		double[] tp = confusionMatrix.getTruePositives();
+		double[] tn = confusionMatrix.getTrueNegatives();
+		double[] fp = confusionMatrix.getFalsePositives();
+		double[] fn = confusionMatrix.getFalseNegatives();
 		
 		int numberOfCategories = groundTruthRelationships.get(0).getLabels().length;
 		
 		double accuracy = 0;
 		for(int i = 0; i < numberOfCategories; i++) {
-			accuracy += (tp[i].getValue() + tn[i].getValue()) / (tp[i].getValue() + fn[i].getValue() + fp[i].getValue() + tn[i].getValue());
+			accuracy += (tp[i] + tn[i]) / (tp[i] + fn[i] + fp[i] + tn[i]);
 		}
 		accuracy /= numberOfCategories;
 		
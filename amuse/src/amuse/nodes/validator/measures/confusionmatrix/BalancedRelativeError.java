@@ -29,10 +29,7 @@ import amuse.data.annotation.ClassifiedClassificationWindow;
 import amuse.interfaces.nodes.NodeException;
 import amuse.nodes.validator.interfaces.ClassificationQualityDoubleMeasureCalculator;
 import amuse.nodes.validator.interfaces.ValidationMeasureDouble;
-import amuse.nodes.validator.measures.confusionmatrix.base.FalseNegatives;
-import amuse.nodes.validator.measures.confusionmatrix.base.FalsePositives;
-import amuse.nodes.validator.measures.confusionmatrix.base.TrueNegatives;
-import amuse.nodes.validator.measures.confusionmatrix.base.TruePositives;
+import amuse.nodes.validator.measures.confusionmatrix.base.ConfusionMatrix;
 
 /**
  * Precision measure
@@ -54,31 +51,13 @@ public class BalancedRelativeError extends ClassificationQualityDoubleMeasureCal
 	 */
 	public ValidationMeasureDouble[] calculateOneClassMeasureOnTrackLevel(ArrayList<Double> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
 		
-		// Get true positives
-		TruePositives truePositivesCalculator = new TruePositives();
-		truePositivesCalculator.setTrackLevel(true);
-		truePositivesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble tp = truePositivesCalculator.calculateOneClassMeasure(groundTruthRelationships, predictedRelationships)[0];
+		ConfusionMatrix confusionMatrix = getOneClassConfusionMatrix(groundTruthRelationships, predictedRelationships, true);
+		double tp = confusionMatrix.getTruePositives()[0];
+		double fp = confusionMatrix.getFalsePositives()[0];
+		double tn = confusionMatrix.getTrueNegatives()[0];
+		double fn = confusionMatrix.getFalseNegatives()[0];
 		
-		// Get false positives
-		FalsePositives falsePositivesCalculator = new FalsePositives();
-		falsePositivesCalculator.setTrackLevel(true);
-		falsePositivesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble fp = falsePositivesCalculator.calculateOneClassMeasure(groundTruthRelationships, predictedRelationships)[0];
-		
-		// Get true negatives
-		TrueNegatives trueNegativesCalculator = new TrueNegatives();
-		trueNegativesCalculator.setTrackLevel(true);
-		trueNegativesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble tn = trueNegativesCalculator.calculateOneClassMeasure(groundTruthRelationships, predictedRelationships)[0];
-		
-		// Get false negatives
-		FalseNegatives falseNegativesCalculator = new FalseNegatives();
-		falseNegativesCalculator.setTrackLevel(true);
-		falseNegativesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble fn = falseNegativesCalculator.calculateOneClassMeasure(groundTruthRelationships, predictedRelationships)[0];
-		
-		double bre = 0.5 * (fn.getValue()/(tp.getValue() + fn.getValue()) + fp.getValue()/(tn.getValue() + fp.getValue()));
+		double bre = 0.5 * (fn/(tp + fn) + fp/(tn + fp));
 		
 		// Prepare the result
 		ValidationMeasureDouble[] breMeasure = new ValidationMeasureDouble[1];
@@ -94,31 +73,13 @@ public class BalancedRelativeError extends ClassificationQualityDoubleMeasureCal
 	 */
 	public ValidationMeasureDouble[] calculateOneClassMeasureOnClassficationWindowLevel(ArrayList<Double> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
 		
-		// Get true positives
-		TruePositives truePositivesCalculator = new TruePositives();
-		truePositivesCalculator.setWindowLevel(true);
-		truePositivesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble tp = truePositivesCalculator.calculateOneClassMeasure(groundTruthRelationships, predictedRelationships)[0];
-		
-		// Get false positives
-		FalsePositives falsePositivesCalculator = new FalsePositives();
-		falsePositivesCalculator.setWindowLevel(true);
-		falsePositivesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble fp = falsePositivesCalculator.calculateOneClassMeasure(groundTruthRelationships, predictedRelationships)[0];
-		
-		// Get true negatives
-		TrueNegatives trueNegativesCalculator = new TrueNegatives();
-		trueNegativesCalculator.setWindowLevel(true);
-		trueNegativesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble tn = trueNegativesCalculator.calculateOneClassMeasure(groundTruthRelationships, predictedRelationships)[0];
-		
-		// Get false negatives
-		FalseNegatives falseNegativesCalculator = new FalseNegatives();
-		falseNegativesCalculator.setWindowLevel(true);
-		falseNegativesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble fn = falseNegativesCalculator.calculateOneClassMeasure(groundTruthRelationships, predictedRelationships)[0];
+		ConfusionMatrix confusionMatrix = getOneClassConfusionMatrix(groundTruthRelationships, predictedRelationships, false);
+		double tp = confusionMatrix.getTruePositives()[0];
+		double fp = confusionMatrix.getFalsePositives()[0];
+		double tn = confusionMatrix.getTrueNegatives()[0];
+		double fn = confusionMatrix.getFalseNegatives()[0];
 		
-		double bre = 0.5 * (fn.getValue()/(tp.getValue() + fn.getValue()) + fp.getValue()/(tn.getValue() + fp.getValue()));
+		double bre = 0.5 * (fn/(tp + fn) + fp/(tn + fp));
 		
 		// Prepare the result
 		ValidationMeasureDouble[] breMeasure = new ValidationMeasureDouble[1];
@@ -149,29 +110,11 @@ public class BalancedRelativeError extends ClassificationQualityDoubleMeasureCal
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateMultiLabelMeasureOnTrackLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateMultiLabelMeasureOnTrackLevel(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		// Get true positives
-		TruePositives truePositivesCalculator = new TruePositives();
-		truePositivesCalculator.setTrackLevel(true);
-		truePositivesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble[] tp = truePositivesCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships);
-		
-		// Get false positives
-		FalsePositives falsePositivesCalculator = new FalsePositives();
-		falsePositivesCalculator.setTrackLevel(true);
-		falsePositivesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble[] fp = falsePositivesCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships);
-		
-		// Get true negatives
-		TrueNegatives trueNegativesCalculator = new TrueNegatives();
-		trueNegativesCalculator.setTrackLevel(true);
-		trueNegativesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble[] tn = trueNegativesCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships);
-		
-		// Get false negatives
-		FalseNegatives falseNegativesCalculator = new FalseNegatives();
-		falseNegativesCalculator.setTrackLevel(true);
-		falseNegativesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble[] fn = falseNegativesCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships);
+		ConfusionMatrix confusionMatrix = getMultiLabelConfusionMatrix(groundTruthRelationships, predictedRelationships, true);
+		double[] tp = confusionMatrix.getTruePositives();
+		double[] fp = confusionMatrix.getFalsePositives();
+		double[] tn = confusionMatrix.getTrueNegatives();
+		double[] fn = confusionMatrix.getFalseNegatives();
 		
 		int numberOfCategories = groundTruthRelationships.get(0).getLabels().length;
 		
@@ -181,10 +124,10 @@ public class BalancedRelativeError extends ClassificationQualityDoubleMeasureCal
 		double fnSum = 0;
 		
 		for(int i = 0; i < numberOfCategories; i++) {
-			tpSum += tp[i].getValue();
-			fpSum += fp[i].getValue();
-			tnSum += tn[i].getValue();
-			fnSum += fn[i].getValue();
+			tpSum += tp[i];
+			fpSum += fp[i];
+			tnSum += tn[i];
+			fnSum += fn[i];
 		}
 		
 		double bre = 0.5 * (fnSum / (tpSum + fnSum) + fpSum / (tnSum + fpSum));
@@ -204,29 +147,11 @@ public class BalancedRelativeError extends ClassificationQualityDoubleMeasureCal
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateMultiLabelMeasureOnClassificationWindowLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateMultiLabelMeasureOnWindowLevel(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		// Get true positives
-		TruePositives truePositivesCalculator = new TruePositives();
-		truePositivesCalculator.setWindowLevel(true);
-		truePositivesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble[] tp = truePositivesCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships);
-		
-		// Get false positives
-		FalsePositives falsePositivesCalculator = new FalsePositives();
-		falsePositivesCalculator.setWindowLevel(true);
-		falsePositivesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble[] fp = falsePositivesCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships);
-		
-		// Get true negatives
-		TrueNegatives trueNegativesCalculator = new TrueNegatives();
-		trueNegativesCalculator.setWindowLevel(true);
-		trueNegativesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble[] tn = trueNegativesCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships);
-		
-		// Get false negatives
-		FalseNegatives falseNegativesCalculator = new FalseNegatives();
-		falseNegativesCalculator.setWindowLevel(true);
-		falseNegativesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble[] fn = falseNegativesCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships);
+		ConfusionMatrix confusionMatrix = getMultiLabelConfusionMatrix(groundTruthRelationships, predictedRelationships, false);
+		double[] tp = confusionMatrix.getTruePositives();
+		double[] fp = confusionMatrix.getFalsePositives();
+		double[] tn = confusionMatrix.getTrueNegatives();
+		double[] fn = confusionMatrix.getFalseNegatives();
 		
 		int numberOfCategories = groundTruthRelationships.get(0).getLabels().length;
 		
@@ -236,10 +161,10 @@ public class BalancedRelativeError extends ClassificationQualityDoubleMeasureCal
 		double fnSum = 0;
 		
 		for(int i = 0; i < numberOfCategories; i++) {
-			tpSum += tp[i].getValue();
-			fpSum += fp[i].getValue();
-			tnSum += tn[i].getValue();
-			fnSum += fn[i].getValue();
+			tpSum += tp[i];
+			fpSum += fp[i];
+			tnSum += tn[i];
+			fnSum += fn[i];
 		}
 		
 		double bre = 0.5 * (fnSum / (tpSum + fnSum) + fpSum / (tnSum + fpSum));
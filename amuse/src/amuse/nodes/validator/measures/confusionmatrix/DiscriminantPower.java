@@ -29,6 +29,7 @@ import amuse.data.annotation.ClassifiedClassificationWindow;
 import amuse.interfaces.nodes.NodeException;
 import amuse.nodes.validator.interfaces.ClassificationQualityDoubleMeasureCalculator;
 import amuse.nodes.validator.interfaces.ValidationMeasureDouble;
+import amuse.nodes.validator.measures.confusionmatrix.base.ConfusionMatrix;
 
 /**
  * The classification algorithm distinguishes poorly between positive and negative examples if Discriminant Power (DP) < 1, 
@@ -51,18 +52,12 @@ public class DiscriminantPower extends ClassificationQualityDoubleMeasureCalcula
 	 */
 	public ValidationMeasureDouble[] calculateOneClassMeasureOnTrackLevel(ArrayList<Double> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
 		
-		Specificity specificityCalculator = new Specificity();
-		specificityCalculator.setContinuous(isContinuous());
-		Recall recallCalculator = new Recall();
-		recallCalculator.setContinuous(isContinuous());
+		ConfusionMatrix confusionMatrix = getOneClassConfusionMatrix(groundTruthRelationships, predictedRelationships, true);
+		double specificity = confusionMatrix.getSpecificity();
+		double recall = confusionMatrix.getRecall();
 		
-		ValidationMeasureDouble[] specificity = specificityCalculator.calculateOneClassMeasureOnTrackLevel(
-				groundTruthRelationships, predictedRelationships);
-		ValidationMeasureDouble[] recall = recallCalculator.calculateOneClassMeasureOnTrackLevel(
-				groundTruthRelationships, predictedRelationships);
-		
-		double firstLog = Math.log10(recall[0].getValue()/(1.0d-recall[0].getValue()));
-		double secondLog = Math.log10(specificity[0].getValue()/(1.0d-specificity[0].getValue()));
+		double firstLog = Math.log10(recall/(1.0d-recall));
+		double secondLog = Math.log10(specificity/(1.0d-specificity));
 		double dp = Math.sqrt(3.0d) / Math.PI;
 		dp *= (firstLog + secondLog);
 		
@@ -80,18 +75,12 @@ public class DiscriminantPower extends ClassificationQualityDoubleMeasureCalcula
 	 */
 	public ValidationMeasureDouble[] calculateOneClassMeasureOnClassficationWindowLevel(ArrayList<Double> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
 		
-		Specificity specificityCalculator = new Specificity();
-		specificityCalculator.setContinuous(isContinuous());
-		Recall recallCalculator = new Recall();
-		recallCalculator.setContinuous(isContinuous());
-		
-		ValidationMeasureDouble[] specificity = specificityCalculator.calculateOneClassMeasureOnClassficationWindowLevel(
-				groundTruthRelationships, predictedRelationships);
-		ValidationMeasureDouble[] recall = recallCalculator.calculateOneClassMeasureOnClassficationWindowLevel(
-				groundTruthRelationships, predictedRelationships);
+		ConfusionMatrix confusionMatrix = getOneClassConfusionMatrix(groundTruthRelationships, predictedRelationships, false);
+		double specificity = confusionMatrix.getSpecificity();
+		double recall = confusionMatrix.getRecall();
 		
-		double firstLog = Math.log10(recall[0].getValue()/(1.0d-recall[0].getValue()));
-		double secondLog = Math.log10(specificity[0].getValue()/(1.0d-specificity[0].getValue()));
+		double firstLog = Math.log10(recall/(1.0d-recall));
+		double secondLog = Math.log10(specificity/(1.0d-specificity));
 		double dp = Math.sqrt(3.0d) / Math.PI;
 		dp *= (firstLog + secondLog);
 		
@@ -125,18 +114,13 @@ public class DiscriminantPower extends ClassificationQualityDoubleMeasureCalcula
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateMultiLabelMeasureOnTrackLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateMultiLabelMeasureOnTrackLevel(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		Specificity specificityCalculator = new Specificity();
-		specificityCalculator.setContinuous(isContinuous());
-		Recall recallCalculator = new Recall();
-		recallCalculator.setContinuous(isContinuous());
 		
-		ValidationMeasureDouble[] specificity = specificityCalculator.calculateMultiLabelMeasureOnTrackLevel(
-				groundTruthRelationships, predictedRelationships);
-		ValidationMeasureDouble[] recall = recallCalculator.calculateMultiLabelMeasureOnTrackLevel(
-				groundTruthRelationships, predictedRelationships);
+		ConfusionMatrix confusionMatrix = getMultiLabelConfusionMatrix(groundTruthRelationships, predictedRelationships, true);
+		double specificity = confusionMatrix.getSpecificity();
+		double recall = confusionMatrix.getRecall();
 		
-		double firstLog = Math.log10(recall[0].getValue()/(1.0d-recall[0].getValue()));
-		double secondLog = Math.log10(specificity[0].getValue()/(1.0d-specificity[0].getValue()));
+		double firstLog = Math.log10(recall/(1.0d-recall));
+		double secondLog = Math.log10(specificity/(1.0d-specificity));
 		double dp = Math.sqrt(3.0d) / Math.PI;
 		dp *= (firstLog + secondLog);
 		
@@ -155,18 +139,13 @@ public class DiscriminantPower extends ClassificationQualityDoubleMeasureCalcula
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateMultiLabelMeasureOnClassificationWindowLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateMultiLabelMeasureOnWindowLevel(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		Specificity specificityCalculator = new Specificity();
-		specificityCalculator.setContinuous(isContinuous());
-		Recall recallCalculator = new Recall();
-		recallCalculator.setContinuous(isContinuous());
 		
-		ValidationMeasureDouble[] specificity = specificityCalculator.calculateMultiLabelMeasureOnWindowLevel(
-				groundTruthRelationships, predictedRelationships);
-		ValidationMeasureDouble[] recall = recallCalculator.calculateMultiLabelMeasureOnWindowLevel(
-				groundTruthRelationships, predictedRelationships);
+		ConfusionMatrix confusionMatrix = getMultiLabelConfusionMatrix(groundTruthRelationships, predictedRelationships, false);
+		double specificity = confusionMatrix.getSpecificity();
+		double recall = confusionMatrix.getRecall();
 		
-		double firstLog = Math.log10(recall[0].getValue()/(1.0d-recall[0].getValue()));
-		double secondLog = Math.log10(specificity[0].getValue()/(1.0d-specificity[0].getValue()));
+		double firstLog = Math.log10(recall/(1.0d-recall));
+		double secondLog = Math.log10(specificity/(1.0d-specificity));
 		double dp = Math.sqrt(3.0d) / Math.PI;
 		dp *= (firstLog + secondLog);
 		
@@ -29,6 +29,7 @@ import amuse.data.annotation.ClassifiedClassificationWindow;
 import amuse.interfaces.nodes.NodeException;
 import amuse.nodes.validator.interfaces.ClassificationQualityDoubleMeasureCalculator;
 import amuse.nodes.validator.interfaces.ValidationMeasureDouble;
+import amuse.nodes.validator.measures.confusionmatrix.base.ConfusionMatrix;
 
 /**
  * F-Measure measure 
@@ -50,19 +51,11 @@ public class FMeasure extends ClassificationQualityDoubleMeasureCalculator {
 	 */
 	public ValidationMeasureDouble[] calculateOneClassMeasureOnTrackLevel(ArrayList<Double> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
 		
-		// Get precision
-		Precision precisionCalculator = new Precision();
-		precisionCalculator.setTrackLevel(true);
-		precisionCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble p = precisionCalculator.calculateOneClassMeasure(groundTruthRelationships, predictedRelationships)[0];
+		ConfusionMatrix confusionMatrix = getOneClassConfusionMatrix(groundTruthRelationships, predictedRelationships, true);
+		double p = confusionMatrix.getPrecision();
+		double r = confusionMatrix.getRecall();
 		
-		// Get recall
-		Recall recallCalculator = new Recall();
-		recallCalculator.setTrackLevel(true);
-		recallCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble r = recallCalculator.calculateOneClassMeasure(groundTruthRelationships, predictedRelationships)[0];
-		
-		double fMeasure = 2 * p.getValue() * r.getValue() / (p.getValue() + r.getValue());
+		double fMeasure = 2 * p * r / (p + r);
 		
 		// Prepare the result
 		ValidationMeasureDouble[] fMeasureMeasure = new ValidationMeasureDouble[1];
@@ -78,19 +71,11 @@ public class FMeasure extends ClassificationQualityDoubleMeasureCalculator {
 	 */
 	public ValidationMeasureDouble[] calculateOneClassMeasureOnClassficationWindowLevel(ArrayList<Double> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
 		
-		// Get precision
-		Precision precisionCalculator = new Precision();
-		precisionCalculator.setWindowLevel(true);
-		precisionCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble p = precisionCalculator.calculateOneClassMeasure(groundTruthRelationships, predictedRelationships)[0];
-		
-		// Get recall
-		Recall recallCalculator = new Recall();
-		recallCalculator.setWindowLevel(true);
-		recallCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble r = recallCalculator.calculateOneClassMeasure(groundTruthRelationships, predictedRelationships)[0];
+		ConfusionMatrix confusionMatrix = getOneClassConfusionMatrix(groundTruthRelationships, predictedRelationships, false);
+		double p = confusionMatrix.getPrecision();
+		double r = confusionMatrix.getRecall();
 		
-		double fMeasure = 2 * p.getValue() * r.getValue() / (p.getValue() + r.getValue());
+		double fMeasure = 2 * p * r / (p + r);
 		
 		// Prepare the result
 		ValidationMeasureDouble[] fMeasureMeasure = new ValidationMeasureDouble[1];
@@ -123,19 +108,11 @@ public class FMeasure extends ClassificationQualityDoubleMeasureCalculator {
 	 */
 	public ValidationMeasureDouble[] calculateMultiLabelMeasureOnTrackLevel(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
 		
-		// Get precision
-		Precision precisionCalculator = new Precision();
-		precisionCalculator.setTrackLevel(true);
-		precisionCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble p = precisionCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships)[0];
+		ConfusionMatrix confusionMatrix = getMultiLabelConfusionMatrix(groundTruthRelationships, predictedRelationships, true);
+		double p = confusionMatrix.getPrecision();
+		double r = confusionMatrix.getRecall();
 		
-		// Get recall
-		Recall recallCalculator = new Recall();
-		recallCalculator.setTrackLevel(true);
-		recallCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble r = recallCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships)[0];
-		
-		double fMeasure = 2 * p.getValue() * r.getValue() / (p.getValue() + r.getValue());
+		double fMeasure = 2 * p * r / (p + r);
 		
 		// Prepare the result
 		ValidationMeasureDouble[] fMeasureMeasure = new ValidationMeasureDouble[1];
@@ -152,19 +129,11 @@ public class FMeasure extends ClassificationQualityDoubleMeasureCalculator {
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateMultiLabelMeasureOnClassificationWindowLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateMultiLabelMeasureOnWindowLevel(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		// Get precision
-		Precision precisionCalculator = new Precision();
-		precisionCalculator.setWindowLevel(true);
-		precisionCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble p = precisionCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships)[0];
-		
-		// Get recall
-		Recall recallCalculator = new Recall();
-		recallCalculator.setWindowLevel(true);
-		recallCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble r = recallCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships)[0];
+		ConfusionMatrix confusionMatrix = getMultiLabelConfusionMatrix(groundTruthRelationships, predictedRelationships, false);
+		double p = confusionMatrix.getPrecision();
+		double r = confusionMatrix.getRecall();
 		
-		double fMeasure = 2 * p.getValue() * r.getValue() / (p.getValue() + r.getValue());
+		double fMeasure = 2 * p * r / (p + r);
 		
 		// Prepare the result
 		ValidationMeasureDouble[] fMeasureMeasure = new ValidationMeasureDouble[1];
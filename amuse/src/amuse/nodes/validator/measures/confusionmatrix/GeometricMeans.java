@@ -29,6 +29,7 @@ import amuse.data.annotation.ClassifiedClassificationWindow;
 import amuse.interfaces.nodes.NodeException;
 import amuse.nodes.validator.interfaces.ClassificationQualityDoubleMeasureCalculator;
 import amuse.nodes.validator.interfaces.ValidationMeasureDouble;
+import amuse.nodes.validator.measures.confusionmatrix.base.ConfusionMatrix;
 
 /**
  * This measure is high when sensivity and specificity are high and the difference between them is low. 
@@ -52,17 +53,11 @@ public class GeometricMeans extends ClassificationQualityDoubleMeasureCalculator
 	 */
 	public ValidationMeasureDouble[] calculateOneClassMeasureOnTrackLevel(ArrayList<Double> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
 		
-		Specificity specificityCalculator = new Specificity();
-		specificityCalculator.setContinuous(isContinuous());
-		Recall recallCalculator = new Recall();
-		recallCalculator.setContinuous(isContinuous());
+		ConfusionMatrix confusionMatrix = getOneClassConfusionMatrix(groundTruthRelationships, predictedRelationships, true);
+		double specificity = confusionMatrix.getSpecificity();
+		double recall = confusionMatrix.getRecall();
 		
-		ValidationMeasureDouble[] specificity = specificityCalculator.calculateOneClassMeasureOnTrackLevel(
-				groundTruthRelationships, predictedRelationships);
-		ValidationMeasureDouble[] recall = recallCalculator.calculateOneClassMeasureOnTrackLevel(
-				groundTruthRelationships, predictedRelationships);
-		
-		double gm = Math.sqrt(recall[0].getValue() * specificity[0].getValue());
+		double gm = Math.sqrt(recall * specificity);
 		
 		// Prepare the result
 		ValidationMeasureDouble[] geometricMeansMeasure = new ValidationMeasureDouble[1];
@@ -78,17 +73,11 @@ public class GeometricMeans extends ClassificationQualityDoubleMeasureCalculator
 	 */
 	public ValidationMeasureDouble[] calculateOneClassMeasureOnClassficationWindowLevel(ArrayList<Double> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
 		
-		Specificity specificityCalculator = new Specificity();
-		specificityCalculator.setContinuous(isContinuous());
-		Recall recallCalculator = new Recall();
-		recallCalculator.setContinuous(isContinuous());
-		
-		ValidationMeasureDouble[] specificity = specificityCalculator.calculateOneClassMeasureOnClassficationWindowLevel(
-				groundTruthRelationships, predictedRelationships);
-		ValidationMeasureDouble[] recall = recallCalculator.calculateOneClassMeasureOnClassficationWindowLevel(
-				groundTruthRelationships, predictedRelationships);
+		ConfusionMatrix confusionMatrix = getOneClassConfusionMatrix(groundTruthRelationships, predictedRelationships, false);
+		double specificity = confusionMatrix.getSpecificity();
+		double recall = confusionMatrix.getRecall();
 		
-		double gm = Math.sqrt(recall[0].getValue() * specificity[0].getValue());
+		double gm = Math.sqrt(recall * specificity);
 		
 		// Prepare the result
 		ValidationMeasureDouble[] geometricMeansMeasure = new ValidationMeasureDouble[1];
@@ -120,17 +109,12 @@ public class GeometricMeans extends ClassificationQualityDoubleMeasureCalculator
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateMultiLabelMeasureOnTrackLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateMultiLabelMeasureOnTrackLevel(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		Specificity specificityCalculator = new Specificity();
-		specificityCalculator.setContinuous(isContinuous());
-		Recall recallCalculator = new Recall();
-		recallCalculator.setContinuous(isContinuous());
 		
-		ValidationMeasureDouble[] specificity = specificityCalculator.calculateMultiLabelMeasureOnTrackLevel(
-				groundTruthRelationships, predictedRelationships);
-		ValidationMeasureDouble[] recall = recallCalculator.calculateMultiLabelMeasureOnTrackLevel(
-				groundTruthRelationships, predictedRelationships);
+		ConfusionMatrix confusionMatrix = getMultiLabelConfusionMatrix(groundTruthRelationships, predictedRelationships, true);
+		double specificity = confusionMatrix.getSpecificity();
+		double recall = confusionMatrix.getRecall();
 		
-		double gm = Math.sqrt(recall[0].getValue() * specificity[0].getValue());
+		double gm = Math.sqrt(recall * specificity);
 		
 		// Prepare the result
 		ValidationMeasureDouble[] geometricMeansMeasure = new ValidationMeasureDouble[1];
@@ -147,17 +131,12 @@ public class GeometricMeans extends ClassificationQualityDoubleMeasureCalculator
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateMultiLabelMeasureOnClassificationWindowLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateMultiLabelMeasureOnWindowLevel(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		Specificity specificityCalculator = new Specificity();
-		specificityCalculator.setContinuous(isContinuous());
-		Recall recallCalculator = new Recall();
-		recallCalculator.setContinuous(isContinuous());
 		
-		ValidationMeasureDouble[] specificity = specificityCalculator.calculateMultiLabelMeasureOnWindowLevel(
-				groundTruthRelationships, predictedRelationships);
-		ValidationMeasureDouble[] recall = recallCalculator.calculateMultiLabelMeasureOnWindowLevel(
-				groundTruthRelationships, predictedRelationships);
+		ConfusionMatrix confusionMatrix = getMultiLabelConfusionMatrix(groundTruthRelationships, predictedRelationships, false);
+		double specificity = confusionMatrix.getSpecificity();
+		double recall = confusionMatrix.getRecall();
 		
-		double gm = Math.sqrt(recall[0].getValue() * specificity[0].getValue());
+		double gm = Math.sqrt(recall * specificity);
 		
 		// Prepare the result
 		ValidationMeasureDouble[] geometricMeansMeasure = new ValidationMeasureDouble[1];
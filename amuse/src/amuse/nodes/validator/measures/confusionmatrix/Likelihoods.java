@@ -29,6 +29,7 @@ import amuse.data.annotation.ClassifiedClassificationWindow;
 import amuse.interfaces.nodes.NodeException;
 import amuse.nodes.validator.interfaces.ClassificationQualityDoubleMeasureCalculator;
 import amuse.nodes.validator.interfaces.ValidationMeasureDouble;
+import amuse.nodes.validator.measures.confusionmatrix.base.ConfusionMatrix;
 
 /**
  * Higher positive and lower negative likelihood mean better performance on positive and negative classes.
@@ -51,18 +52,12 @@ public class Likelihoods extends ClassificationQualityDoubleMeasureCalculator {
 	 */
 	public ValidationMeasureDouble[] calculateOneClassMeasureOnTrackLevel(ArrayList<Double> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
 		
-		Specificity specificityCalculator = new Specificity();
-		specificityCalculator.setContinuous(isContinuous());
-		Recall recallCalculator = new Recall();
-		recallCalculator.setContinuous(isContinuous());
+		ConfusionMatrix confusionMatrix = getOneClassConfusionMatrix(groundTruthRelationships, predictedRelationships, true);
+		double specificity = confusionMatrix.getSpecificity();
+		double recall = confusionMatrix.getRecall();
 		
-		ValidationMeasureDouble[] specificity = specificityCalculator.calculateOneClassMeasureOnTrackLevel(
-				groundTruthRelationships, predictedRelationships);
-		ValidationMeasureDouble[] recall = recallCalculator.calculateOneClassMeasureOnTrackLevel(
-				groundTruthRelationships, predictedRelationships);
-		
-		double likelihoodPositive = recall[0].getValue() / (1 - specificity[0].getValue());
-		double likelihoodNegative = (1 - recall[0].getValue()) / specificity[0].getValue();
+		double likelihoodPositive = recall / (1 - specificity);
+		double likelihoodNegative = (1 - recall) / specificity;
 		
 		// Prepare the result
 		ValidationMeasureDouble[] likelihoodsMeasure = new ValidationMeasureDouble[2];
@@ -82,18 +77,12 @@ public class Likelihoods extends ClassificationQualityDoubleMeasureCalculator {
 	 */
 	public ValidationMeasureDouble[] calculateOneClassMeasureOnClassficationWindowLevel(ArrayList<Double> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
 		
-		Specificity specificityCalculator = new Specificity();
-		specificityCalculator.setContinuous(isContinuous());
-		Recall recallCalculator = new Recall();
-		recallCalculator.setContinuous(isContinuous());
-		
-		ValidationMeasureDouble[] specificity = specificityCalculator.calculateOneClassMeasureOnClassficationWindowLevel(
-				groundTruthRelationships, predictedRelationships);
-		ValidationMeasureDouble[] recall = recallCalculator.calculateOneClassMeasureOnClassficationWindowLevel(
-				groundTruthRelationships, predictedRelationships);
+		ConfusionMatrix confusionMatrix = getOneClassConfusionMatrix(groundTruthRelationships, predictedRelationships, false);
+		double specificity = confusionMatrix.getSpecificity();
+		double recall = confusionMatrix.getRecall();
 		
-		double likelihoodPositive = recall[0].getValue() / (1 - specificity[0].getValue());
-		double likelihoodNegative = (1 - recall[0].getValue()) / specificity[0].getValue();
+		double likelihoodPositive = recall / (1 - specificity);
+		double likelihoodNegative = (1 - recall) / specificity;
 		
 		// Prepare the result
 		ValidationMeasureDouble[] likelihoodsMeasure = new ValidationMeasureDouble[2];
@@ -129,18 +118,13 @@ public class Likelihoods extends ClassificationQualityDoubleMeasureCalculator {
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateMultiLabelMeasureOnTrackLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateMultiLabelMeasureOnTrackLevel(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		Specificity specificityCalculator = new Specificity();
-		specificityCalculator.setContinuous(isContinuous());
-		Recall recallCalculator = new Recall();
-		recallCalculator.setContinuous(isContinuous());
 		
-		ValidationMeasureDouble[] specificity = specificityCalculator.calculateMultiLabelMeasureOnTrackLevel(
-				groundTruthRelationships, predictedRelationships);
-		ValidationMeasureDouble[] recall = recallCalculator.calculateMultiLabelMeasureOnTrackLevel(
-				groundTruthRelationships, predictedRelationships);
+		ConfusionMatrix confusionMatrix = getMultiLabelConfusionMatrix(groundTruthRelationships, predictedRelationships, true);
+		double specificity = confusionMatrix.getSpecificity();
+		double recall = confusionMatrix.getRecall();
 		
-		double likelihoodPositive = recall[0].getValue() / (1 - specificity[0].getValue());
-		double likelihoodNegative = (1 - recall[0].getValue()) / specificity[0].getValue();
+		double likelihoodPositive = recall / (1 - specificity);
+		double likelihoodNegative = (1 - recall) / specificity;
 		
 		// Prepare the result
 		ValidationMeasureDouble[] likelihoodsMeasure = new ValidationMeasureDouble[2];
@@ -161,18 +145,13 @@ public class Likelihoods extends ClassificationQualityDoubleMeasureCalculator {
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateMultiLabelMeasureOnClassificationWindowLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateMultiLabelMeasureOnWindowLevel(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		Specificity specificityCalculator = new Specificity();
-		specificityCalculator.setContinuous(isContinuous());
-		Recall recallCalculator = new Recall();
-		recallCalculator.setContinuous(isContinuous());
 		
-		ValidationMeasureDouble[] specificity = specificityCalculator.calculateMultiLabelMeasureOnWindowLevel(
-				groundTruthRelationships, predictedRelationships);
-		ValidationMeasureDouble[] recall = recallCalculator.calculateMultiLabelMeasureOnWindowLevel(
-				groundTruthRelationships, predictedRelationships);
+		ConfusionMatrix confusionMatrix = getMultiLabelConfusionMatrix(groundTruthRelationships, predictedRelationships, false);
+		double specificity = confusionMatrix.getSpecificity();
+		double recall = confusionMatrix.getRecall();
 		
-		double likelihoodPositive = recall[0].getValue() / (1 - specificity[0].getValue());
-		double likelihoodNegative = (1 - recall[0].getValue()) / specificity[0].getValue();
+		double likelihoodPositive = recall / (1 - specificity);
+		double likelihoodNegative = (1 - recall) / specificity;
 		
 		// Prepare the result
 		ValidationMeasureDouble[] likelihoodsMeasure = new ValidationMeasureDouble[2];
@@ -29,8 +29,6 @@ import amuse.data.annotation.ClassifiedClassificationWindow;
 import amuse.interfaces.nodes.NodeException;
 import amuse.nodes.validator.interfaces.ClassificationQualityDoubleMeasureCalculator;
 import amuse.nodes.validator.interfaces.ValidationMeasureDouble;
-import amuse.nodes.validator.measures.confusionmatrix.base.FalsePositives;
-import amuse.nodes.validator.measures.confusionmatrix.base.TruePositives;
 
 /**
  * Precision measure
@@ -52,19 +50,7 @@ public class Precision extends ClassificationQualityDoubleMeasureCalculator {
 	 */
 	public ValidationMeasureDouble[] calculateOneClassMeasureOnTrackLevel(ArrayList<Double> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
 		
-		// Get true positives
-		TruePositives truePositivesCalculator = new TruePositives();
-		truePositivesCalculator.setTrackLevel(true);
-		truePositivesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble tp = truePositivesCalculator.calculateOneClassMeasure(groundTruthRelationships, predictedRelationships)[0];
-		
-		// Get false positives
-		FalsePositives falsePositivesCalculator = new FalsePositives();
-		falsePositivesCalculator.setTrackLevel(true);
-		falsePositivesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble fp = falsePositivesCalculator.calculateOneClassMeasure(groundTruthRelationships, predictedRelationships)[0];
-		
-		double precision = tp.getValue() / (tp.getValue() + fp.getValue());
+		double precision = getOneClassConfusionMatrix(groundTruthRelationships, predictedRelationships, true).getPrecision();
 		
 		// Prepare the result
 		ValidationMeasureDouble[] precisionMeasure = new ValidationMeasureDouble[1];
@@ -80,19 +66,7 @@ public class Precision extends ClassificationQualityDoubleMeasureCalculator {
 	 */
 	public ValidationMeasureDouble[] calculateOneClassMeasureOnClassficationWindowLevel(ArrayList<Double> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
 		
-		// Get true positives
-		TruePositives truePositivesCalculator = new TruePositives();
-		truePositivesCalculator.setWindowLevel(true);
-		truePositivesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble tp = truePositivesCalculator.calculateOneClassMeasure(groundTruthRelationships, predictedRelationships)[0];
-		
-		// Get false positives
-		FalsePositives falsePositivesCalculator = new FalsePositives();
-		falsePositivesCalculator.setWindowLevel(true);
-		falsePositivesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble fp = falsePositivesCalculator.calculateOneClassMeasure(groundTruthRelationships, predictedRelationships)[0];
-		
-		double precision = tp.getValue() / (tp.getValue() + fp.getValue());
+		double precision = getOneClassConfusionMatrix(groundTruthRelationships, predictedRelationships, false).getPrecision();
 		
 		// Prepare the result
 		ValidationMeasureDouble[] precisionMeasure = new ValidationMeasureDouble[1];
@@ -123,27 +97,7 @@ public class Precision extends ClassificationQualityDoubleMeasureCalculator {
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateMultiLabelMeasureOnTrackLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateMultiLabelMeasureOnTrackLevel(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		// Get true positives
-		TruePositives truePositivesCalculator = new TruePositives();
-		truePositivesCalculator.setTrackLevel(true);
-		truePositivesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble[] tp = truePositivesCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships);
-		
-		// Get false positives
-		FalsePositives falsePositivesCalculator = new FalsePositives();
-		falsePositivesCalculator.setTrackLevel(true);
-		falsePositivesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble[] fp = falsePositivesCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships);
-		
-		int numberOfCategories = groundTruthRelationships.get(0).getLabels().length;
-		
-		double enumerator = 0;
-		double denominator = 0;
-		for(int i = 0; i < numberOfCategories; i++) {
-			enumerator += tp[i].getValue();
-			denominator += tp[i].getValue() + fp[i].getValue();
-		}
-		double precision = enumerator / denominator;
+		double precision = getMultiLabelConfusionMatrix(groundTruthRelationships, predictedRelationships, true).getPrecision();
 		
 		// Prepare the result
 		ValidationMeasureDouble[] precisionMeasure = new ValidationMeasureDouble[1];
@@ -160,27 +114,7 @@ public class Precision extends ClassificationQualityDoubleMeasureCalculator {
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateMultiLabelMeasureOnClassificationWindowLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateMultiLabelMeasureOnWindowLevel(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		// Get true positives
-		TruePositives truePositivesCalculator = new TruePositives();
-		truePositivesCalculator.setWindowLevel(true);
-		truePositivesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble[] tp = truePositivesCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships);
-		
-		// Get false positives
-		FalsePositives falsePositivesCalculator = new FalsePositives();
-		falsePositivesCalculator.setWindowLevel(true);
-		falsePositivesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble[] fp = falsePositivesCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships);
-		
-		int numberOfCategories = groundTruthRelationships.get(0).getLabels().length;
-		
-		double enumerator = 0;
-		double denominator = 0;
-		for(int i = 0; i < numberOfCategories; i++) {
-			enumerator += tp[i].getValue();
-			denominator += tp[i].getValue() + fp[i].getValue();
-		}
-		double precision = enumerator / denominator;
+		double precision = getMultiLabelConfusionMatrix(groundTruthRelationships, predictedRelationships, false).getPrecision();
 		
 		// Prepare the result
 		ValidationMeasureDouble[] precisionMeasure = new ValidationMeasureDouble[1];
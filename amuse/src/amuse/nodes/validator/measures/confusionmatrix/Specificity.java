@@ -29,8 +29,6 @@ import amuse.data.annotation.ClassifiedClassificationWindow;
 import amuse.interfaces.nodes.NodeException;
 import amuse.nodes.validator.interfaces.ClassificationQualityDoubleMeasureCalculator;
 import amuse.nodes.validator.interfaces.ValidationMeasureDouble;
-import amuse.nodes.validator.measures.confusionmatrix.base.FalsePositives;
-import amuse.nodes.validator.measures.confusionmatrix.base.TrueNegatives;
 
 /**
  * Specificity measure
@@ -52,19 +50,7 @@ public class Specificity extends ClassificationQualityDoubleMeasureCalculator {
 	 */
 	public ValidationMeasureDouble[] calculateOneClassMeasureOnTrackLevel(ArrayList<Double> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
 		
-		// Get true negatives
-		TrueNegatives trueNegativesCalculator = new TrueNegatives();
-		trueNegativesCalculator.setTrackLevel(true);
-		trueNegativesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble tn = trueNegativesCalculator.calculateOneClassMeasure(groundTruthRelationships, predictedRelationships)[0];
-		
-		// Get false positives
-		FalsePositives falsePositivesCalculator = new FalsePositives();
-		falsePositivesCalculator.setTrackLevel(true);
-		falsePositivesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble fp = falsePositivesCalculator.calculateOneClassMeasure(groundTruthRelationships, predictedRelationships)[0];
-		
-		double specificity = tn.getValue() / (fp.getValue() + tn.getValue());
+		double specificity = getOneClassConfusionMatrix(groundTruthRelationships, predictedRelationships, true).getSpecificity();
 		
 		// Prepare the result
 		ValidationMeasureDouble[] specificityMeasure = new ValidationMeasureDouble[1];
@@ -80,19 +66,7 @@ public class Specificity extends ClassificationQualityDoubleMeasureCalculator {
 	 */
 	public ValidationMeasureDouble[] calculateOneClassMeasureOnClassficationWindowLevel(ArrayList<Double> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
 		
-		// Get true negatives
-		TrueNegatives trueNegativesCalculator = new TrueNegatives();
-		trueNegativesCalculator.setWindowLevel(true);
-		trueNegativesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble tn = trueNegativesCalculator.calculateOneClassMeasure(groundTruthRelationships, predictedRelationships)[0];
-		
-		// Get false positives
-		FalsePositives falsePositivesCalculator = new FalsePositives();
-		falsePositivesCalculator.setWindowLevel(true);
-		falsePositivesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble fp = falsePositivesCalculator.calculateOneClassMeasure(groundTruthRelationships, predictedRelationships)[0];
-		
-		double specificity = tn.getValue() / (fp.getValue() + tn.getValue());
+		double specificity = getOneClassConfusionMatrix(groundTruthRelationships, predictedRelationships, false).getSpecificity();
 		
 		// Prepare the result
 		ValidationMeasureDouble[] specificityMeasure = new ValidationMeasureDouble[1];
@@ -123,28 +97,7 @@ public class Specificity extends ClassificationQualityDoubleMeasureCalculator {
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateMultiLabelMeasureOnTrackLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateMultiLabelMeasureOnTrackLevel(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		// Get true negatives
-		TrueNegatives trueNegativesCalculator = new TrueNegatives();
-		trueNegativesCalculator.setTrackLevel(true);
-		trueNegativesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble[] tn = trueNegativesCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships);
-		
-		// Get false positives
-		FalsePositives falsePositivesCalculator = new FalsePositives();
-		falsePositivesCalculator.setTrackLevel(true);
-		falsePositivesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble[] fp = falsePositivesCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships);
-		
-		int numberOfCategories = groundTruthRelationships.get(0).getLabels().length;
-		
-		double enumerator = 0;
-		double denominator = 0;
-		for(int i = 0; i < numberOfCategories; i++) {
-			enumerator += tn[i].getValue();
-			denominator += fp[i].getValue() + tn[i].getValue();
-		}
-		
-		double specificity = enumerator / denominator;
+		double specificity = getMultiLabelConfusionMatrix(groundTruthRelationships, predictedRelationships, true).getSpecificity();
 		
 		// Prepare the result
 		ValidationMeasureDouble[] specificityMeasure = new ValidationMeasureDouble[1];
@@ -161,28 +114,7 @@ public class Specificity extends ClassificationQualityDoubleMeasureCalculator {
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateMultiLabelMeasureOnClassificationWindowLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateMultiLabelMeasureOnWindowLevel(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		// Get true negatives
-		TrueNegatives trueNegativesCalculator = new TrueNegatives();
-		trueNegativesCalculator.setWindowLevel(true);
-		trueNegativesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble[] tn = trueNegativesCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships);
-		
-		// Get false positives
-		FalsePositives falsePositivesCalculator = new FalsePositives();
-		falsePositivesCalculator.setWindowLevel(true);
-		falsePositivesCalculator.setContinuous(isContinuous());
-		ValidationMeasureDouble[] fp = falsePositivesCalculator.calculateMultiLabelMeasure(groundTruthRelationships, predictedRelationships);
-		
-		int numberOfCategories = groundTruthRelationships.get(0).getLabels().length;
-		
-		double enumerator = 0;
-		double denominator = 0;
-		for(int i = 0; i < numberOfCategories; i++) {
-			enumerator += tn[i].getValue();
-			denominator += fp[i].getValue() + tn[i].getValue();
-		}
-		
-		double specificity = enumerator / denominator;
+		double specificity = getMultiLabelConfusionMatrix(groundTruthRelationships, predictedRelationships, false).getSpecificity();
 		
 		// Prepare the result
 		ValidationMeasureDouble[] specificityMeasure = new ValidationMeasureDouble[1];
@@ -29,6 +29,7 @@ import amuse.data.annotation.ClassifiedClassificationWindow;
 import amuse.interfaces.nodes.NodeException;
 import amuse.nodes.validator.interfaces.ClassificationQualityDoubleMeasureCalculator;
 import amuse.nodes.validator.interfaces.ValidationMeasureDouble;
+import amuse.nodes.validator.measures.confusionmatrix.base.ConfusionMatrix;
 
 /**
  * Youden's index measures the algorithm's ability to correctly label both positive and negative data samples 
@@ -51,17 +52,11 @@ public class YoudensIndex extends ClassificationQualityDoubleMeasureCalculator {
 	 */
 	public ValidationMeasureDouble[] calculateOneClassMeasureOnTrackLevel(ArrayList<Double> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
 		
-		Specificity specificityCalculator = new Specificity();
-		specificityCalculator.setContinuous(isContinuous());
-		Recall recallCalculator = new Recall();
-		recallCalculator.setContinuous(isContinuous());
+		ConfusionMatrix confusionMatrix = getOneClassConfusionMatrix(groundTruthRelationships, predictedRelationships, true);
+		double specificity = confusionMatrix.getSpecificity();
+		double recall = confusionMatrix.getRecall();
 		
-		ValidationMeasureDouble[] specificity = specificityCalculator.calculateOneClassMeasureOnTrackLevel(
-				groundTruthRelationships, predictedRelationships);
-		ValidationMeasureDouble[] recall = recallCalculator.calculateOneClassMeasureOnTrackLevel(
-				groundTruthRelationships, predictedRelationships);
-		
-		double index = specificity[0].getValue() + recall[0].getValue() - 1;
+		double index = specificity + recall - 1;
 		
 		// Prepare the result
 		ValidationMeasureDouble[] youdenxIndexMeasure = new ValidationMeasureDouble[1];
@@ -77,17 +72,11 @@ public class YoudensIndex extends ClassificationQualityDoubleMeasureCalculator {
 	 */
 	public ValidationMeasureDouble[] calculateOneClassMeasureOnClassficationWindowLevel(ArrayList<Double> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
 		
-		Specificity specificityCalculator = new Specificity();
-		specificityCalculator.setContinuous(isContinuous());
-		Recall recallCalculator = new Recall();
-		recallCalculator.setContinuous(isContinuous());
-		
-		ValidationMeasureDouble[] specificity = specificityCalculator.calculateOneClassMeasureOnClassficationWindowLevel(
-				groundTruthRelationships, predictedRelationships);
-		ValidationMeasureDouble[] recall = recallCalculator.calculateOneClassMeasureOnClassficationWindowLevel(
-				groundTruthRelationships, predictedRelationships);
+		ConfusionMatrix confusionMatrix = getOneClassConfusionMatrix(groundTruthRelationships, predictedRelationships, false);
+		double specificity = confusionMatrix.getSpecificity();
+		double recall = confusionMatrix.getRecall();
 		
-		double index = specificity[0].getValue() + recall[0].getValue() - 1;
+		double index = specificity + recall - 1;
 		
 		// Prepare the result
 		ValidationMeasureDouble[] youdenxIndexMeasure = new ValidationMeasureDouble[1];
@@ -119,17 +108,12 @@ public class YoudensIndex extends ClassificationQualityDoubleMeasureCalculator {
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateMultiLabelMeasureOnTrackLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateMultiLabelMeasureOnTrackLevel(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		Specificity specificityCalculator = new Specificity();
-		specificityCalculator.setContinuous(isContinuous());
-		Recall recallCalculator = new Recall();
-		recallCalculator.setContinuous(isContinuous());
 		
-		ValidationMeasureDouble[] specificity = specificityCalculator.calculateMultiLabelMeasureOnTrackLevel(
-				groundTruthRelationships, predictedRelationships);
-		ValidationMeasureDouble[] recall = recallCalculator.calculateMultiLabelMeasureOnTrackLevel(
-				groundTruthRelationships, predictedRelationships);
+		ConfusionMatrix confusionMatrix = getMultiLabelConfusionMatrix(groundTruthRelationships, predictedRelationships, true);
+		double specificity = confusionMatrix.getSpecificity();
+		double recall = confusionMatrix.getRecall();
 		
-		double index = specificity[0].getValue() + recall[0].getValue() - 1;
+		double index = specificity + recall - 1;
 		
 		// Prepare the result
 		ValidationMeasureDouble[] youdenxIndexMeasure = new ValidationMeasureDouble[1];
@@ -146,17 +130,12 @@ public class YoudensIndex extends ClassificationQualityDoubleMeasureCalculator {
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateMultiLabelMeasureOnClassificationWindowLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateMultiLabelMeasureOnWindowLevel(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		Specificity specificityCalculator = new Specificity();
-		specificityCalculator.setContinuous(isContinuous());
-		Recall recallCalculator = new Recall();
-		recallCalculator.setContinuous(isContinuous());
 		
-		ValidationMeasureDouble[] specificity = specificityCalculator.calculateMultiLabelMeasureOnWindowLevel(
-				groundTruthRelationships, predictedRelationships);
-		ValidationMeasureDouble[] recall = recallCalculator.calculateMultiLabelMeasureOnWindowLevel(
-				groundTruthRelationships, predictedRelationships);
+		ConfusionMatrix confusionMatrix = getMultiLabelConfusionMatrix(groundTruthRelationships, predictedRelationships, false);
+		double specificity = confusionMatrix.getSpecificity();
+		double recall = confusionMatrix.getRecall();
 		
-		double index = specificity[0].getValue() + recall[0].getValue() - 1;
+		double index = specificity + recall - 1;
 			
 		// Prepare the result
 		ValidationMeasureDouble[] youdenxIndexMeasure = new ValidationMeasureDouble[1];
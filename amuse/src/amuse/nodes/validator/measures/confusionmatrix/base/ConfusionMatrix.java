@@ -0,0 +1,218 @@
+/**
+ * This file is part of AMUSE framework (Advanced MUsic Explorer).
+ *
+ * Copyright 2006-2010 by code authors
+ *
+ * Created at TU Dortmund, Chair of Algorithm Engineering
+ * (Contact: <http://ls11-www.cs.tu-dortmund.de>)
+ *
+ * AMUSE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AMUSE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with AMUSE. If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  Creation date: 18.10.2026
+ */
+package amuse.nodes.validator.measures.confusionmatrix.base;
+
+import java.util.ArrayList;
+
+import amuse.data.annotation.ClassifiedClassificationWindow;
+
+/**
+ * Numbers of true positives, false positives, true negatives and false negatives for each category,
+ * which are counted in one pass over the ground truth and predicted relationships. The numbers are
+ * weighted with the relationships, so that fuzzy relationships are supported. On track level the
+ * predicted relationships are averaged over all classification windows of a track and rounded,
+ * if the classification was not continuous.
+ *
+ * @author agent
+ * @version $Id$
+ */
+public class ConfusionMatrix {
+
+	/** True if the matrix was calculated for one class, false for multiple categories */
+	private final boolean oneClass;
+
+	private final double[] truePositives;
+	private final double[] falsePositives;
+	private final double[] trueNegatives;
+	private final double[] falseNegatives;
+
+	private ConfusionMatrix(boolean oneClass, int numberOfCategories) {
+		this.oneClass = oneClass;
+		this.truePositives = new double[numberOfCategories];
+		this.falsePositives = new double[numberOfCategories];
+		this.trueNegatives = new double[numberOfCategories];
+		this.falseNegatives = new double[numberOfCategories];
+	}
+
+	/**
+	 * Calculates the confusion matrix for one class
+	 * @param groundTruthRelationships Ground truth relationships of the tracks
+	 * @param predictedRelationships Predicted relationships of the tracks
+	 * @param trackLevel True if the matrix is calculated on track level, false for classification window level
+	 * @param continuous True if the classification was continuous
+	 * @return Confusion matrix
+	 */
+	public static ConfusionMatrix calculateOneClassMatrix(ArrayList<Double> groundTruthRelationships,
+			ArrayList<ClassifiedClassificationWindow> predictedRelationships, boolean trackLevel, boolean continuous) {
+		ConfusionMatrix matrix = new ConfusionMatrix(true, 1);
+		for(int i=0;i<groundTruthRelationships.size();i++) {
+			double currentGroundTruthValue = groundTruthRelationships.get(i);
+			if(trackLevel) {
+				matrix.add(0, currentGroundTruthValue, getPredictedTrackRelationship(predictedRelationships.get(i), 0, continuous));
+			} else {
+				for(int j=0;j<predictedRelationships.get(i).getRelationships().length;j++) {
+					matrix.add(0, currentGroundTruthValue, predictedRelationships.get(i).getRelationships()[j][0]);
+				}
+			}
+		}
+		return matrix;
+	}
+
+	/**
+	 * Calculates the confusion matrix for multiple categories (multilabel or multiclass classification)
+	 * @param groundTruthRelationships Ground truth relationships of the tracks
+	 * @param predictedRelationships Predicted relationships of the tracks
+	 * @param trackLevel True if the matrix is calculated on track level, false for classification window level
+	 * @param continuous True if the classification was continuous
+	 * @return Confusion matrix
+	 */
+	public static ConfusionMatrix calculateMultiLabelMatrix(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships,
+			ArrayList<ClassifiedClassificationWindow> predictedRelationships, boolean trackLevel, boolean continuous) {
+		int numberOfCategories = groundTruthRelationships.get(0).getLabels().length;
+		ConfusionMatrix matrix = new ConfusionMatrix(false, numberOfCategories);
+		for(int i=0;i<groundTruthRelationships.size();i++) {
+			if(trackLevel) {
+				for(int category = 0; category < numberOfCategories; category++) {
+					matrix.add(category, groundTruthRelationships.get(i).getRelationships()[0][category],
+							getPredictedTrackRelationship(predictedRelationships.get(i), category, continuous));
+				}
+			} else {
+				for(int j=0;j<predictedRelationships.get(i).getRelationships().length;j++) {
+					for(int category = 0; category < numberOfCategories; category++) {
+						matrix.add(category, groundTruthRelationships.get(i).getRelationships()[j][category],
+								predictedRelationships.get(i).getRelationships()[j][category]);
+					}
+				}
+			}
+		}
+		return matrix;
+	}
+
+	/**
+	 * Calculates the predicted value for a track (averaging among all classification windows)
+	 */
+	private static double getPredictedTrackRelationship(ClassifiedClassificationWindow predictedTrack, int category, boolean continuous) {
+		double currentPredictedValue = 0.0d;
+		for(int j=0;j<predictedTrack.getRelationships().length;j++) {
+			currentPredictedValue += predictedTrack.getRelationships()[j][category];
+		}
+		currentPredictedValue /= predictedTrack.getRelationships().length;
+
+		//If the classification was not continuous, round the predicted values
+		if(!continuous) {
+			if(currentPredictedValue >= 0.5) {
+				currentPredictedValue = 1.0d;
+			} else {
+				currentPredictedValue = 0.0d;
+			}
+		}
+		return currentPredictedValue;
+	}
+
+	/**
+	 * Adds an instance with the given ground truth and predicted relationships
+	 */
+	private void add(int category, double groundTruthValue, double predictedValue) {
+		truePositives[category] += groundTruthValue * predictedValue;
+		falsePositives[category] += (1 - groundTruthValue) * predictedValue;
+		trueNegatives[category] += (1 - groundTruthValue) * (1 - predictedValue);
+		falseNegatives[category] += groundTruthValue * (1 - predictedValue);
+	}
+
+	/**
+	 * @return Number of true positives for each category
+	 */
+	public double[] getTruePositives() {
+		return truePositives;
+	}
+
+	/**
+	 * @return Number of false positives for each category
+	 */
+	public double[] getFalsePositives() {
+		return falsePositives;
+	}
+
+	/**
+	 * @return Number of true negatives for each category
+	 */
+	public double[] getTrueNegatives() {
+		return trueNegatives;
+	}
+
+	/**
+	 * @return Number of false negatives for each category
+	 */
+	public double[] getFalseNegatives() {
+		return falseNegatives;
+	}
+
+	/**
+	 * @return Precision (summed over all categories for multiple categories)
+	 */
+	public double getPrecision() {
+		if(oneClass) {
+			return truePositives[0] / (truePositives[0] + falsePositives[0]);
+		}
+		double enumerator = 0;
+		double denominator = 0;
+		for(int i = 0; i < truePositives.length; i++) {
+			enumerator += truePositives[i];
+			denominator += truePositives[i] + falsePositives[i];
+		}
+		return enumerator / denominator;
+	}
+
+	/**
+	 * @return Recall (summed over all categories for multiple categories)
+	 */
+	public double getRecall() {
+		if(oneClass) {
+			return truePositives[0] / (truePositives[0] + falseNegatives[0]);
+		}
+		double enumerator = 0;
+		double denominator = 0;
+		for(int i = 0; i < truePositives.length; i++) {
+			enumerator += truePositives[i];
+			denominator += truePositives[i] + falseNegatives[i];
+		}
+		return enumerator / denominator;
+	}
+
+	/**
+	 * @return Specificity (summed over all categories for multiple categories)
+	 */
+	public double getSpecificity() {
+		if(oneClass) {
+			return trueNegatives[0] / (falsePositives[0] + trueNegatives[0]);
+		}
+		double enumerator = 0;
+		double denominator = 0;
+		for(int i = 0; i < trueNegatives.length; i++) {
+			enumerator += trueNegatives[i];
+			denominator += falsePositives[i] + trueNegatives[i];
+		}
+		return enumerator / denominator;
+	}
+}
@@ -0,0 +1,94 @@
+/**
+ * This file is part of AMUSE framework (Advanced MUsic Explorer).
+ *
+ * Copyright 2006-2010 by code authors
+ *
+ * Created at TU Dortmund, Chair of Algorithm Engineering
+ * (Contact: <http://ls11-www.cs.tu-dortmund.de>)
+ *
+ * AMUSE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AMUSE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with AMUSE. If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  Creation date: 18.10.2026
+ */
+package amuse.nodes.validator.measures.confusionmatrix.base;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import amuse.data.annotation.ClassifiedClassificationWindow;
+
+/**
+ * Keeps the confusion matrices of a validation run, so that all measures of the run are
+ * calculated from the same matrices and the predictions are scanned only once per level.
+ * A matrix is calculated again if the measures are calculated for other relationship lists.
+ *
+ * @author agent
+ * @version $Id$
+ */
+public class ConfusionMatrixCache {
+
+	/** Calculated matrices (type, level and continuity -> matrix) */
+	private final HashMap<String, CachedMatrix> matrices = new HashMap<String, CachedMatrix>();
+
+	/**
+	 * Returns the confusion matrix for one class
+	 * @see ConfusionMatrix#calculateOneClassMatrix(ArrayList, ArrayList, boolean, boolean)
+	 */
+	public synchronized ConfusionMatrix getOneClassMatrix(ArrayList<Double> groundTruthRelationships,
+			ArrayList<ClassifiedClassificationWindow> predictedRelationships, boolean trackLevel, boolean continuous) {
+		String key = "oneClass-" + trackLevel + "-" + continuous;
+		CachedMatrix cachedMatrix = matrices.get(key);
+		if(cachedMatrix == null || !cachedMatrix.isCalculatedFor(groundTruthRelationships, predictedRelationships)) {
+			cachedMatrix = new CachedMatrix(groundTruthRelationships, predictedRelationships,
+					ConfusionMatrix.calculateOneClassMatrix(groundTruthRelationships, predictedRelationships, trackLevel, continuous));
+			matrices.put(key, cachedMatrix);
+		}
+		return cachedMatrix.matrix;
+	}
+
+	/**
+	 * Returns the confusion matrix for multiple categories
+	 * @see ConfusionMatrix#calculateMultiLabelMatrix(ArrayList, ArrayList, boolean, boolean)
+	 */
+	public synchronized ConfusionMatrix getMultiLabelMatrix(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships,
+			ArrayList<ClassifiedClassificationWindow> predictedRelationships, boolean trackLevel, boolean continuous) {
+		String key = "multiLabel-" + trackLevel + "-" + continuous;
+		CachedMatrix cachedMatrix = matrices.get(key);
+		if(cachedMatrix == null || !cachedMatrix.isCalculatedFor(groundTruthRelationships, predictedRelationships)) {
+			cachedMatrix = new CachedMatrix(groundTruthRelationships, predictedRelationships,
+					ConfusionMatrix.calculateMultiLabelMatrix(groundTruthRelationships, predictedRelationships, trackLevel, continuous));
+			matrices.put(key, cachedMatrix);
+		}
+		return cachedMatrix.matrix;
+	}
+
+	/**
+	 * Matrix together with the relationship lists it was calculated for
+	 */
+	private static class CachedMatrix {
+		private final Object groundTruthRelationships;
+		private final Object predictedRelationships;
+		private final ConfusionMatrix matrix;
+
+		private CachedMatrix(Object groundTruthRelationships, Object predictedRelationships, ConfusionMatrix matrix) {
+			this.groundTruthRelationships = groundTruthRelationships;
+			this.predictedRelationships = predictedRelationships;
+			this.matrix = matrix;
+		}
+
+		private boolean isCalculatedFor(Object groundTruthRelationships, Object predictedRelationships) {
+			return this.groundTruthRelationships == groundTruthRelationships && this.predictedRelationships == predictedRelationships;
+		}
+	}
+}
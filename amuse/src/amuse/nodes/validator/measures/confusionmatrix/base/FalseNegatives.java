@@ -49,29 +49,7 @@ public class FalseNegatives extends ClassificationQualityDoubleMeasureCalculator
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateOneClassMeasureOnTrackLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateOneClassMeasureOnTrackLevel(ArrayList<Double> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		double numberOfFalseNegatives = 0;
-		for(int i=0;i<groundTruthRelationships.size();i++) {
-			
-			// Calculate the predicted value for this track (averaging among all classification windows)
-			Double currentPredictedValue = 0.0d;
-			for(int j=0;j<predictedRelationships.get(i).getRelationships().length;j++) {
-				currentPredictedValue += predictedRelationships.get(i).getRelationships()[j][0];
-			}
-			currentPredictedValue /= predictedRelationships.get(i).getRelationships().length;
-			
-			//If the classification was not continuous, round the predicted values
-			if(!isContinuous()) {
-				if(currentPredictedValue >= 0.5) {
-					currentPredictedValue = 1.0d;
-				} else {
-					currentPredictedValue = 0.0d;
-				}
-			}
-			
-			Double currentGroundTruthValue = groundTruthRelationships.get(i);
-			
-			numberOfFalseNegatives += currentGroundTruthValue.doubleValue() * (1-currentPredictedValue.doubleValue());
-		}
+		double numberOfFalseNegatives = getOneClassConfusionMatrix(groundTruthRelationships, predictedRelationships, true).getFalseNegatives()[0];
 		
 		// Prepare the result
 		ValidationMeasureDouble[] falseNegativesMeasure = new ValidationMeasureDouble[1];
@@ -86,12 +64,7 @@ public class FalseNegatives extends ClassificationQualityDoubleMeasureCalculator
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateOneClassMeasureOnClassficationWindowLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateOneClassMeasureOnClassficationWindowLevel(ArrayList<Double> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		double numberOfFalseNegatives = 0;
-		for(int i=0;i<groundTruthRelationships.size();i++) {
-			for(int j=0;j<predictedRelationships.get(i).getRelationships().length;j++) {
-				numberOfFalseNegatives += groundTruthRelationships.get(i).doubleValue() * (1-predictedRelationships.get(i).getRelationships()[j][0].doubleValue());
-			}
-		}
+		double numberOfFalseNegatives = getOneClassConfusionMatrix(groundTruthRelationships, predictedRelationships, false).getFalseNegatives()[0];
 		
 		// Prepare the result
 		ValidationMeasureDouble[] falseNegativesMeasure = new ValidationMeasureDouble[1];
@@ -122,31 +95,7 @@ public class FalseNegatives extends ClassificationQualityDoubleMeasureCalculator
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateMultiLabelMeasureOnTrackLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateMultiLabelMeasureOnTrackLevel(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		double[] numberOfFalseNegatives = new double[groundTruthRelationships.get(0).getLabels().length];
-		
-		for(int i = 0; i < groundTruthRelationships.size(); i++	) {
-			for(int category = 0; category < groundTruthRelationships.get(i).getLabels().length; category ++) {
-				// Calculate the predicted value for this track (averaging among all classification windows)
-				Double currentPredictedValue = 0.0d;
-				for(int j=0;j<predictedRelationships.get(i).getRelationships().length;j++) {
-					currentPredictedValue += predictedRelationships.get(i).getRelationships()[j][category];
-				}
-				currentPredictedValue /= predictedRelationships.get(i).getRelationships().length;
-				
-				//If the classification was not continuous, round the predicted values
-				if(!isContinuous()) {
-					if(currentPredictedValue >= 0.5) {
-						currentPredictedValue = 1.0d;
-					} else {
-						currentPredictedValue = 0.0d;
-					}
-				}
-				
-				Double currentGroundTruthValue = groundTruthRelationships.get(i).getRelationships()[0][category];
-				
-				numberOfFalseNegatives[category] += currentGroundTruthValue.doubleValue() * (1-currentPredictedValue.doubleValue());
-			}
-		}
+		double[] numberOfFalseNegatives = getMultiLabelConfusionMatrix(groundTruthRelationships, predictedRelationships, true).getFalseNegatives();
 		
 		// Prepare the result
 		ValidationMeasureDouble[] falseNegativesMeasure = new ValidationMeasureDouble[numberOfFalseNegatives.length];
@@ -164,14 +113,7 @@ public class FalseNegatives extends ClassificationQualityDoubleMeasureCalculator
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateMultiLabelMeasureOnWindowLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateMultiLabelMeasureOnWindowLevel(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		double[] numberOfFalseNegatives = new double[groundTruthRelationships.get(0).getLabels().length];
-		for(int i=0;i<groundTruthRelationships.size();i++) {
-			for(int j=0;j<predictedRelationships.get(i).getRelationships().length;j++) {
-				for(int category = 0; category < numberOfFalseNegatives.length; category ++) {
-					numberOfFalseNegatives[category] += groundTruthRelationships.get(i).getRelationships()[j][category] * (1-predictedRelationships.get(i).getRelationships()[j][category]);
-				}
-			}
-		}
+		double[] numberOfFalseNegatives = getMultiLabelConfusionMatrix(groundTruthRelationships, predictedRelationships, false).getFalseNegatives();
 		
 		// Prepare the result
 		ValidationMeasureDouble[] falseNegativesMeasure = new ValidationMeasureDouble[numberOfFalseNegatives.length];
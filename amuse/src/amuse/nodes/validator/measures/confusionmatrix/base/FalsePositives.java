@@ -49,30 +49,7 @@ public class FalsePositives extends ClassificationQualityDoubleMeasureCalculator
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateOneClassMeasureOnTrackLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateOneClassMeasureOnTrackLevel(ArrayList<Double> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		double numberOfFalsePositives = 0;
-		for(int i=0;i<groundTruthRelationships.size();i++) {
-			
-			// Calculate the predicted value for this track (averaging among all classification windows)
-			Double currentPredictedValue = 0.0d;
-			for(int j=0;j<predictedRelationships.get(i).getRelationships().length;j++) {
-				currentPredictedValue += predictedRelationships.get(i).getRelationships()[j][0];
-			}
-			currentPredictedValue /= predictedRelationships.get(i).getRelationships().length;
-			
-			//If the classification was not continuous, round the predicted values
-			if(!isContinuous()) {
-				if(currentPredictedValue >= 0.5) {
-					currentPredictedValue = 1.0d;
-				} else {
-					currentPredictedValue = 0.0d;
-				}
-			}
-			
-			Double currentGroundTruthValue = groundTruthRelationships.get(i);
-			
-			numberOfFalsePositives += (1 - currentGroundTruthValue.doubleValue()) * currentPredictedValue.doubleValue();
-			
-		}
+		double numberOfFalsePositives = getOneClassConfusionMatrix(groundTruthRelationships, predictedRelationships, true).getFalsePositives()[0];
 		
 		// Prepare the result
 		ValidationMeasureDouble[] falsePositivesMeasure = new ValidationMeasureDouble[1];
@@ -87,12 +64,7 @@ public class FalsePositives extends ClassificationQualityDoubleMeasureCalculator
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateOneClassMeasureOnClassficationWindowLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateOneClassMeasureOnClassficationWindowLevel(ArrayList<Double> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		double numberOfFalsePositives = 0;
-		for(int i=0;i<groundTruthRelationships.size();i++) {
-			for(int j=0;j<predictedRelationships.get(i).getRelationships().length;j++) {
-				numberOfFalsePositives += (1-groundTruthRelationships.get(i).doubleValue()) * predictedRelationships.get(i).getRelationships()[j][0].doubleValue();
-			}
-		}
+		double numberOfFalsePositives = getOneClassConfusionMatrix(groundTruthRelationships, predictedRelationships, false).getFalsePositives()[0];
 		
 		// Prepare the result
 		ValidationMeasureDouble[] falsePositivesMeasure = new ValidationMeasureDouble[1];
@@ -124,31 +96,7 @@ public class FalsePositives extends ClassificationQualityDoubleMeasureCalculator
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateMultiLabelMeasureOnTrackLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateMultiLabelMeasureOnTrackLevel(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		double[] numberOfFalsePositives = new double[groundTruthRelationships.get(0).getLabels().length];
-		
-		for(int i = 0; i < groundTruthRelationships.size(); i++	) {
-			for(int category = 0; category < groundTruthRelationships.get(i).getLabels().length; category ++) {
-				// Calculate the predicted value for this track (averaging among all classification windows)
-				Double currentPredictedValue = 0.0d;
-				for(int j=0;j<predictedRelationships.get(i).getRelationships().length;j++) {
-					currentPredictedValue += predictedRelationships.get(i).getRelationships()[j][category];
-				}
-				currentPredictedValue /= predictedRelationships.get(i).getRelationships().length;
-				
-				//If the classification was not continuous, round the predicted values
-				if(!isContinuous()) {
-					if(currentPredictedValue >= 0.5) {
-						currentPredictedValue = 1.0d;
-					} else {
-						currentPredictedValue = 0.0d;
-					}
-				}
-				
-				Double currentGroundTruthValue = groundTruthRelationships.get(i).getRelationships()[0][category];
-				
-				numberOfFalsePositives[category] += (1 - currentGroundTruthValue.doubleValue()) * currentPredictedValue.doubleValue();
-			}
-		}
+		double[] numberOfFalsePositives = getMultiLabelConfusionMatrix(groundTruthRelationships, predictedRelationships, true).getFalsePositives();
 		
 		// Prepare the result
 		ValidationMeasureDouble[] falsePositivesMeasure = new ValidationMeasureDouble[numberOfFalsePositives.length];
@@ -166,14 +114,7 @@ public class FalsePositives extends ClassificationQualityDoubleMeasureCalculator
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateMultiLabelMeasureOnClassificationWindowLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateMultiLabelMeasureOnWindowLevel(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		double[] numberOfFlasePositives = new double[groundTruthRelationships.get(0).getLabels().length];
-		for(int i=0;i<groundTruthRelationships.size();i++) {
-			for(int j=0;j<predictedRelationships.get(i).getRelationships().length;j++) {
-				for(int category = 0; category < numberOfFlasePositives.length; category ++) {
-					numberOfFlasePositives[category] += (1 - groundTruthRelationships.get(i).getRelationships()[j][category]) * predictedRelationships.get(i).getRelationships()[j][category];
-				}
-			}
-		}
+		double[] numberOfFlasePositives = getMultiLabelConfusionMatrix(groundTruthRelationships, predictedRelationships, false).getFalsePositives();
 		
 		// Prepare the result
 		ValidationMeasureDouble[] falsePositivesMeasure = new ValidationMeasureDouble[numberOfFlasePositives.length];
@@ -49,30 +49,7 @@ public class TrueNegatives extends ClassificationQualityDoubleMeasureCalculator
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateOneClassMeasureOnTrackLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateOneClassMeasureOnTrackLevel(ArrayList<Double> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		double numberOfTrueNegatives = 0;
-		for(int i=0;i<groundTruthRelationships.size();i++) {
-			
-			// Calculate the predicted value for this track (averaging among all classification windows)
-			Double currentPredictedValue = 0.0d;
-			for(int j=0;j<predictedRelationships.get(i).getRelationships().length;j++) {
-				currentPredictedValue += predictedRelationships.get(i).getRelationships()[j][0];
-			}
-			currentPredictedValue /= predictedRelationships.get(i).getRelationships().length;
-			
-			//If the classification was not continuous, round the predicted values
-			if(!isContinuous()) {
-				if(currentPredictedValue >= 0.5) {
-						currentPredictedValue = 1.0d;
-				} else {
-					currentPredictedValue = 0.0d;
-				}
-			}
-			
-			Double currentGroundTruthValue = groundTruthRelationships.get(i);
-			
-			numberOfTrueNegatives += (1-currentGroundTruthValue.doubleValue()) * (1-currentPredictedValue.doubleValue());
-			
-		}
+		double numberOfTrueNegatives = getOneClassConfusionMatrix(groundTruthRelationships, predictedRelationships, true).getTrueNegatives()[0];
 		
 		// Prepare the result
 		ValidationMeasureDouble[] trueNegativesMeasure = new ValidationMeasureDouble[1];
@@ -87,12 +64,7 @@ public class TrueNegatives extends ClassificationQualityDoubleMeasureCalculator
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateOneClassMeasureOnClassficationWindowLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateOneClassMeasureOnClassficationWindowLevel(ArrayList<Double> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		double numberOfTrueNegatives = 0;
-		for(int i=0;i<groundTruthRelationships.size();i++) {
-			for(int j=0;j<predictedRelationships.get(i).getRelationships().length;j++) {
-				numberOfTrueNegatives += (1-groundTruthRelationships.get(i).doubleValue()) * (1-predictedRelationships.get(i).getRelationships()[j][0].doubleValue());
-			}
-		}
+		double numberOfTrueNegatives = getOneClassConfusionMatrix(groundTruthRelationships, predictedRelationships, false).getTrueNegatives()[0];
 		
 		// Prepare the result
 		ValidationMeasureDouble[] trueNegativesMeasure = new ValidationMeasureDouble[1];
@@ -123,31 +95,7 @@ public class TrueNegatives extends ClassificationQualityDoubleMeasureCalculator
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateMultiLabelMeasureOnTrackLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateMultiLabelMeasureOnTrackLevel(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		double[] numberOfTrueNegatives = new double[groundTruthRelationships.get(0).getLabels().length];
-		
-		for(int i = 0; i < groundTruthRelationships.size(); i++	) {
-			for(int category = 0; category < groundTruthRelationships.get(i).getLabels().length; category ++) {
-				// Calculate the predicted value for this track (averaging among all classification windows)
-				Double currentPredictedValue = 0.0d;
-				for(int j=0;j<predictedRelationships.get(i).getRelationships().length;j++) {
-					currentPredictedValue += predictedRelationships.get(i).getRelationships()[j][category];
-				}
-				currentPredictedValue /= predictedRelationships.get(i).getRelationships().length;
-				
-				//If the classification was not continuous, round the predicted values
-				if(!isContinuous()) {
-					if(currentPredictedValue >= 0.5) {
-						currentPredictedValue = 1.0d;
-					} else {
-						currentPredictedValue = 0.0d;
-					}
-				}
-				
-				Double currentGroundTruthValue = groundTruthRelationships.get(i).getRelationships()[0][category];
-				
-				numberOfTrueNegatives[category] += (1 - currentGroundTruthValue.doubleValue()) * (1 - currentPredictedValue.doubleValue());
-			}
-		}
+		double[] numberOfTrueNegatives = getMultiLabelConfusionMatrix(groundTruthRelationships, predictedRelationships, true).getTrueNegatives();
 		
 		// Prepare the result
 		ValidationMeasureDouble[] trueNegativesMeasure = new ValidationMeasureDouble[numberOfTrueNegatives.length];
@@ -165,14 +113,7 @@ public class TrueNegatives extends ClassificationQualityDoubleMeasureCalculator
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateMultiLabelMeasureOnClassificationWindowLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateMultiLabelMeasureOnWindowLevel(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		double[] numberOfTrueNegatives = new double[groundTruthRelationships.get(0).getLabels().length];
-		for(int i=0;i<groundTruthRelationships.size();i++) {
-			for(int j=0;j<predictedRelationships.get(i).getRelationships().length;j++) {
-				for(int category = 0; category < numberOfTrueNegatives.length; category ++) {
-					numberOfTrueNegatives[category] += (1 - groundTruthRelationships.get(i).getRelationships()[j][category]) * (1 - predictedRelationships.get(i).getRelationships()[j][category]);
-				}
-			}
-		}
+		double[] numberOfTrueNegatives = getMultiLabelConfusionMatrix(groundTruthRelationships, predictedRelationships, false).getTrueNegatives();
 		
 		// Prepare the result
 		ValidationMeasureDouble[] trueNegativesMeasure = new ValidationMeasureDouble[numberOfTrueNegatives.length];
@@ -50,30 +50,7 @@ public class TruePositives extends ClassificationQualityDoubleMeasureCalculator
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateOneClassMeasureOnTrackLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateOneClassMeasureOnTrackLevel(ArrayList<Double> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		double numberOfTruePositives = 0;
-		for(int i=0;i<groundTruthRelationships.size();i++) {
-			
-			// Calculate the predicted value for this track (averaging among all classification windows)
-			Double currentPredictedValue = 0.0d;
-			for(int j=0;j<predictedRelationships.get(i).getRelationships().length;j++) {
-				currentPredictedValue += predictedRelationships.get(i).getRelationships()[j][0];
-			}
-			currentPredictedValue /= predictedRelationships.get(i).getRelationships().length;
-			
-			//If the classification was not continuous, round the predicted values
-			if(!isContinuous()) {
-				if(currentPredictedValue >= 0.5) {
-						currentPredictedValue = 1.0d;
-				} else {
-						currentPredictedValue = 0.0d;
-				}
-			}
-			
-			Double currentGroundTruthValue = groundTruthRelationships.get(i);
-			
-			numberOfTruePositives += currentGroundTruthValue.doubleValue() * currentPredictedValue.doubleValue();
-			
-		}
+		double numberOfTruePositives = getOneClassConfusionMatrix(groundTruthRelationships, predictedRelationships, true).getTruePositives()[0];
 		
 		// Prepare the result
 		ValidationMeasureDouble[] truePositivesMeasure = new ValidationMeasureDouble[1];
@@ -88,12 +65,7 @@ public class TruePositives extends ClassificationQualityDoubleMeasureCalculator
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateOneClassMeasureOnClassficationWindowLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateOneClassMeasureOnClassficationWindowLevel(ArrayList<Double> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		double numberOfTruePositives = 0;
-		for(int i=0;i<groundTruthRelationships.size();i++) {
-			for(int j=0;j<predictedRelationships.get(i).getRelationships().length;j++) {
-				numberOfTruePositives += groundTruthRelationships.get(i).doubleValue() * predictedRelationships.get(i).getRelationships()[j][0].doubleValue();
-			}
-		}
+		double numberOfTruePositives = getOneClassConfusionMatrix(groundTruthRelationships, predictedRelationships, false).getTruePositives()[0];
 		
 		// Prepare the result
 		ValidationMeasureDouble[] truePositivesMeasure = new ValidationMeasureDouble[1];
@@ -125,31 +97,7 @@ public class TruePositives extends ClassificationQualityDoubleMeasureCalculator
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateMultiLabelMeasureOnTrackLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateMultiLabelMeasureOnTrackLevel(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		double[] numberOfTruePositives = new double[groundTruthRelationships.get(0).getLabels().length];
-		
-		for(int i = 0; i < groundTruthRelationships.size(); i++	) {
-			for(int category = 0; category < groundTruthRelationships.get(i).getLabels().length; category ++) {
-				// Calculate the predicted value for this track (averaging among all classification windows)
-				Double currentPredictedValue = 0.0d;
-				for(int j=0;j<predictedRelationships.get(i).getRelationships().length;j++) {
-					currentPredictedValue += predictedRelationships.get(i).getRelationships()[j][category];
-				}
-				currentPredictedValue /= predictedRelationships.get(i).getRelationships().length;
-				
-				//If the classification was not continuous, round the predicted values
-				if(!isContinuous()) {
-					if(currentPredictedValue >= 0.5) {
-						currentPredictedValue = 1.0d;
-					} else {
-						currentPredictedValue = 0.0d;
-					}
-				}
-				
-				Double currentGroundTruthValue = groundTruthRelationships.get(i).getRelationships()[0][category];
-				
-				numberOfTruePositives[category] += currentGroundTruthValue.doubleValue() * currentPredictedValue.doubleValue();
-			}
-		}
+		double[] numberOfTruePositives = getMultiLabelConfusionMatrix(groundTruthRelationships, predictedRelationships, true).getTruePositives();
 		
 		// Prepare the result
 		ValidationMeasureDouble[] truePositivesMeasure = new ValidationMeasureDouble[numberOfTruePositives.length];
@@ -168,14 +116,7 @@ public class TruePositives extends ClassificationQualityDoubleMeasureCalculator
 	 * @see amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface#calculateMultiLabelMeasureOnClassificaitonWindowLevel(java.util.ArrayList, java.util.ArrayList)
 	 */
 	public ValidationMeasureDouble[] calculateMultiLabelMeasureOnWindowLevel(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
-		double[] numberOfTruePositives = new double[groundTruthRelationships.get(0).getLabels().length];
-		for(int i=0;i<groundTruthRelationships.size();i++) {
-			for(int j=0;j<predictedRelationships.get(i).getRelationships().length;j++) {
-				for(int category = 0; category < numberOfTruePositives.length; category ++) {
-					numberOfTruePositives[category] += groundTruthRelationships.get(i).getRelationships()[j][category] * predictedRelationships.get(i).getRelationships()[j][category];
-				}
-			}
-		}
+		double[] numberOfTruePositives = getMultiLabelConfusionMatrix(groundTruthRelationships, predictedRelationships, false).getTruePositives();
 		
 		// Prepare the result
 		ValidationMeasureDouble[] truePositivesMeasure = new ValidationMeasureDouble[numberOfTruePositives.length];
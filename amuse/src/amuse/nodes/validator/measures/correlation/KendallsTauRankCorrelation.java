@@ -24,6 +24,8 @@
 package amuse.nodes.validator.measures.correlation;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 
 import amuse.data.annotation.ClassifiedClassificationWindow;
 import amuse.interfaces.nodes.NodeException;
@@ -32,7 +34,7 @@ import amuse.nodes.validator.interfaces.ValidationMeasureDouble;
 
 /**
  * Kendall's tau rank correlation coefficient is based on the comparison of all possible ordered pairs of instances between ground truth
- * and labeled data.
+ * and labeled data. The pairs are counted in O(n log n) time with Knight's algorithm.
  *  
  * @author Igor Vatolkin
  * @version $Id: KendallsTauRankCorrelation.java 243 2018-09-07 14:18:30Z frederik-h $
@@ -52,69 +54,14 @@ public class KendallsTauRankCorrelation extends ClassificationQualityDoubleMeasu
 	public ValidationMeasureDouble[] calculateOneClassMeasureOnTrackLevel(ArrayList<Double> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
 		
 		// Rank calculation is not required, since the numeric values can be compared directly!
-		// Calculate the predicted track relationships (averaged over all classification windows)
-		ArrayList<Double> predictedTrackRelationships = new ArrayList<Double>(groundTruthRelationships.size());
+		double[] groundTruthTrackRelationships = new double[groundTruthRelationships.size()];
 		for(int i=0;i<groundTruthRelationships.size();i++) {
-			
-			// Calculate the predicted value for this track (averaging among all classificatoin windows)
-			Double currentPredictedValue = 0.0d;
-			for(int j=0;j<predictedRelationships.get(i).getRelationships().length;j++) {
-				currentPredictedValue += predictedRelationships.get(i).getRelationships()[j][0];
-			}
-			currentPredictedValue /= predictedRelationships.get(i).getRelationships().length;
-			predictedTrackRelationships.add(currentPredictedValue);
-		}
-		
-		// Calculate all ordered pairs of instances for ground truth and the number of tied (similar) values for ground truth
-		int tied_gt = 0;
-		ArrayList<Integer[]> orderedPairsGroundTruth = new ArrayList<Integer[]>();
-		for(int i=0;i<groundTruthRelationships.size();i++) {
-			for(int j=i+1;j<groundTruthRelationships.size();j++) {
-				if(groundTruthRelationships.get(i) > groundTruthRelationships.get(j)) {
-					orderedPairsGroundTruth.add(new Integer[]{i,j}); 
-				} else if(groundTruthRelationships.get(i) < groundTruthRelationships.get(j)){
-					orderedPairsGroundTruth.add(new Integer[]{j,i});
-				} else {
-					tied_gt++;
-				}
-			}
+			groundTruthTrackRelationships[i] = groundTruthRelationships.get(i);
 		}
-		
-		// Calculate all ordered pairs of instances for predicted values and the number of tied (similar) values for predicted values
-		int tied_predicted = 0;
-		ArrayList<Integer[]> orderedPairsPredicted = new ArrayList<Integer[]>();
-		for(int i=0;i<predictedTrackRelationships.size();i++) {
-			for(int j=i+1;j<predictedTrackRelationships.size();j++) {
-				if(predictedTrackRelationships.get(i) > predictedTrackRelationships.get(j)) {
-					orderedPairsPredicted.add(new Integer[]{i,j}); 
-				} else if(predictedTrackRelationships.get(i) < predictedTrackRelationships.get(j)) {
-					orderedPairsPredicted.add(new Integer[]{j,i});
-				} else {
-					tied_predicted++;
-				}
-			}
-		}
-		
-		// Calculate the number of equal untied pairs for ground truth and predicted values
-		int equal_pairs = 0;
-		for(int i=0;i<orderedPairsGroundTruth.size();i++) {
-			for(int j=0;j<orderedPairsPredicted.size();j++) {
-
-				// Comparison
-				if(orderedPairsGroundTruth.get(i)[0].equals(orderedPairsPredicted.get(j)[0]) &&
-				   orderedPairsGroundTruth.get(i)[1].equals(orderedPairsPredicted.get(j)[1])) {
-					equal_pairs++;
-					break;
-				}
-			}
-		}
-		
-		// Number of unequal pairs for ground truth and predicted values
-		int unequal_pairs = orderedPairsGroundTruth.size() + orderedPairsPredicted.size() - 2*equal_pairs;
+		double[] predictedTrackRelationships = calculatePredictedTrackRelationships(predictedRelationships, groundTruthRelationships.size(), 0);
 		
 		// Calculate the Kendall's tau rank correlation coefficient
-		double corrCoef = (equal_pairs - unequal_pairs) /  
-			(Math.sqrt(equal_pairs + unequal_pairs + tied_predicted) * Math.sqrt(equal_pairs + unequal_pairs + tied_gt));
+		double corrCoef = calculateCorrelation(groundTruthTrackRelationships, predictedTrackRelationships);
 		
 		// Prepare the result
 		ValidationMeasureDouble[] correlationMeasure = new ValidationMeasureDouble[1];
@@ -130,72 +77,24 @@ public class KendallsTauRankCorrelation extends ClassificationQualityDoubleMeasu
 	 */
 	public ValidationMeasureDouble[] calculateOneClassMeasureOnClassficationWindowLevel(ArrayList<Double> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
 		
-		// Save the ground truth values for each classification window
-		ArrayList<Double> groundTruthClassificationWindowRelationships = new ArrayList<Double>();
+		// Save the ground truth and predicted values for each classification window
+		int numberOfWindows = 0;
 		for(int i=0;i<predictedRelationships.size();i++) {
-			for(int j=0;j<predictedRelationships.get(i).getRelationships().length;j++) {
-				groundTruthClassificationWindowRelationships.add(new Double(groundTruthRelationships.get(i)));
-			}
+			numberOfWindows += predictedRelationships.get(i).getRelationships().length;
 		}
-		
-		// Save the predicted values for each classification window
-		ArrayList<Double> predictedClassificationWindowRelationships = new ArrayList<Double>();
+		double[] groundTruthClassificationWindowRelationships = new double[numberOfWindows];
+		double[] predictedClassificationWindowRelationships = new double[numberOfWindows];
+		int currentWindow = 0;
 		for(int i=0;i<predictedRelationships.size();i++) {
 			for(int j=0;j<predictedRelationships.get(i).getRelationships().length;j++) {
-				predictedClassificationWindowRelationships.add(new Double(predictedRelationships.get(i).getRelationships()[j][0]));
-			}
-		}
-		
-		// Calculate all ordered pairs of instances for ground truth and the number of tied (similar) values for ground truth
-		int tied_gt = 0;
-		ArrayList<Integer[]> orderedPairsGroundTruth = new ArrayList<Integer[]>();
-		for(int i=0;i<groundTruthClassificationWindowRelationships.size();i++) {
-			for(int j=i+1;j<groundTruthClassificationWindowRelationships.size();j++) {
-				if(groundTruthClassificationWindowRelationships.get(i) > groundTruthClassificationWindowRelationships.get(j)) {
-					orderedPairsGroundTruth.add(new Integer[]{i,j}); 
-				} else if(groundTruthClassificationWindowRelationships.get(i) < groundTruthClassificationWindowRelationships.get(j)){
-					orderedPairsGroundTruth.add(new Integer[]{j,i});
-				} else {
-					tied_gt++;
-				}
-			}
-		}
-		
-		// Calculate all ordered pairs of instances for predicted values and the number of tied (similar) values for predicted values
-		int tied_predicted = 0;
-		ArrayList<Integer[]> orderedPairsPredicted = new ArrayList<Integer[]>();
-		for(int i=0;i<predictedClassificationWindowRelationships.size();i++) {
-			for(int j=i+1;j<predictedClassificationWindowRelationships.size();j++) {
-				if(predictedClassificationWindowRelationships.get(i) > predictedClassificationWindowRelationships.get(j)) {
-					orderedPairsPredicted.add(new Integer[]{i,j}); 
-				} else if(predictedClassificationWindowRelationships.get(i) < predictedClassificationWindowRelationships.get(j)) {
-					orderedPairsPredicted.add(new Integer[]{j,i});
-				} else {
-					tied_predicted++;
-				}
-			}
-		}
-		
-		// Calculate the number of equal untied pairs for ground truth and predicted values
-		int equal_pairs = 0;
-		for(int i=0;i<orderedPairsGroundTruth.size();i++) {
-			for(int j=0;j<orderedPairsPredicted.size();j++) {
-
-				// Comparison
-				if(orderedPairsGroundTruth.get(i)[0].equals(orderedPairsPredicted.get(j)[0]) &&
-				   orderedPairsGroundTruth.get(i)[1].equals(orderedPairsPredicted.get(j)[1])) {
-					equal_pairs++;
-					break;
-				}
+				groundTruthClassificationWindowRelationships[currentWindow] = groundTruthRelationships.get(i);
+				predictedClassificationWindowRelationships[currentWindow] = predictedRelationships.get(i).getRelationships()[j][0];
+				currentWindow++;
 			}
 		}
 		
-		// Number of unequal pairs for ground truth and predicted values
-		int unequal_pairs = orderedPairsGroundTruth.size() + orderedPairsPredicted.size() - 2*equal_pairs;
-		
 		// Calculate the Kendall's tau rank correlation coefficient
-		double corrCoef = (equal_pairs - unequal_pairs) /  
-			(Math.sqrt(equal_pairs + unequal_pairs + tied_predicted) * Math.sqrt(equal_pairs + unequal_pairs + tied_gt));
+		double corrCoef = calculateCorrelation(groundTruthClassificationWindowRelationships, predictedClassificationWindowRelationships);
 		
 		// Prepare the result
 		ValidationMeasureDouble[] correlationMeasure = new ValidationMeasureDouble[1];
@@ -231,69 +130,14 @@ public class KendallsTauRankCorrelation extends ClassificationQualityDoubleMeasu
 		double[] corrCoef = new double[numberOfCategories];
 		for(int category = 0; category < numberOfCategories; category++) {
 			// Rank calculation is not required, since the numeric values can be compared directly!
-			// Calculate the predicted track relationships (averaged over all classification windows)
-			ArrayList<Double> predictedTrackRelationships = new ArrayList<Double>(groundTruthRelationships.size());
+			double[] groundTruthTrackRelationships = new double[groundTruthRelationships.size()];
 			for(int i=0;i<groundTruthRelationships.size();i++) {
-				
-				// Calculate the predicted value for this track (averaging among all classification windows)
-				Double currentPredictedValue = 0.0d;
-				for(int j=0;j<predictedRelationships.get(i).getRelationships().length;j++) {
-					currentPredictedValue += predictedRelationships.get(i).getRelationships()[j][category];
-				}
-				currentPredictedValue /= predictedRelationships.get(i).getRelationships().length;
-				predictedTrackRelationships.add(currentPredictedValue);
-			}
-			
-			// Calculate all ordered pairs of instances for ground truth and the number of tied (similar) values for ground truth
-			int tied_gt = 0;
-			ArrayList<Integer[]> orderedPairsGroundTruth = new ArrayList<Integer[]>();
-			for(int i=0;i<groundTruthRelationships.size();i++) {
-				for(int j=i+1;j<groundTruthRelationships.size();j++) {
-					if(groundTruthRelationships.get(i).getRelationships()[0][category] > groundTruthRelationships.get(j).getRelationships()[0][category]) {
-						orderedPairsGroundTruth.add(new Integer[]{i,j}); 
-					} else if(groundTruthRelationships.get(i).getRelationships()[0][category] < groundTruthRelationships.get(j).getRelationships()[0][category]){
-						orderedPairsGroundTruth.add(new Integer[]{j,i});
-					} else {
-						tied_gt++;
-					}
-				}
-			}
-			
-			// Calculate all ordered pairs of instances for predicted values and the number of tied (similar) values for predicted values
-			int tied_predicted = 0;
-			ArrayList<Integer[]> orderedPairsPredicted = new ArrayList<Integer[]>();
-			for(int i=0;i<predictedTrackRelationships.size();i++) {
-				for(int j=i+1;j<predictedTrackRelationships.size();j++) {
-					if(predictedTrackRelationships.get(i) > predictedTrackRelationships.get(j)) {
-						orderedPairsPredicted.add(new Integer[]{i,j}); 
-					} else if(predictedTrackRelationships.get(i) < predictedTrackRelationships.get(j)) {
-						orderedPairsPredicted.add(new Integer[]{j,i});
-					} else {
-						tied_predicted++;
-					}
-				}
+				groundTruthTrackRelationships[i] = groundTruthRelationships.get(i).getRelationships()[0][category];
 			}
-			
-			// Calculate the number of equal untied pairs for ground truth and predicted values
-			int equal_pairs = 0;
-			for(int i=0;i<orderedPairsGroundTruth.size();i++) {
-				for(int j=0;j<orderedPairsPredicted.size();j++) {
-	
-					// Comparison
-					if(orderedPairsGroundTruth.get(i)[0].equals(orderedPairsPredicted.get(j)[0]) &&
-					   orderedPairsGroundTruth.get(i)[1].equals(orderedPairsPredicted.get(j)[1])) {
-						equal_pairs++;
-						break;
-					}
-				}
-			}
-			
-			// Number of unequal pairs for ground truth and predicted values
-			int unequal_pairs = orderedPairsGroundTruth.size() + orderedPairsPredicted.size() - 2*equal_pairs;
+			double[] predictedTrackRelationships = calculatePredictedTrackRelationships(predictedRelationships, groundTruthRelationships.size(), category);
 			
 			// Calculate the Kendall's tau rank correlation coefficient
-			corrCoef[category] = (equal_pairs - unequal_pairs) /  
-				(Math.sqrt(equal_pairs + unequal_pairs + tied_predicted) * Math.sqrt(equal_pairs + unequal_pairs + tied_gt));
+			corrCoef[category] = calculateCorrelation(groundTruthTrackRelationships, predictedTrackRelationships);
 		}
 		
 		// Prepare the result
@@ -313,75 +157,27 @@ public class KendallsTauRankCorrelation extends ClassificationQualityDoubleMeasu
 	 */
 	public ValidationMeasureDouble[] calculateMultiLabelMeasureOnWindowLevel(ArrayList<ClassifiedClassificationWindow> groundTruthRelationships, ArrayList<ClassifiedClassificationWindow> predictedRelationships) throws NodeException {
 		int numberOfCategories = groundTruthRelationships.get(0).getLabels().length;
+		int numberOfWindows = 0;
+		for(int i=0;i<predictedRelationships.size();i++) {
+			numberOfWindows += predictedRelationships.get(i).getRelationships().length;
+		}
 		
 		double[] corrCoef = new double[numberOfCategories];
 		for(int category = 0; category < numberOfCategories; category++) {
-			// Save the ground truth values for each classification window
-			ArrayList<Double> groundTruthClassificationWindowRelationships = new ArrayList<Double>();
-			for(int i=0;i<predictedRelationships.size();i++) {
-				for(int j=0;j<predictedRelationships.get(i).getRelationships().length;j++) {
-					groundTruthClassificationWindowRelationships.add(new Double(groundTruthRelationships.get(i).getRelationships()[0][category]));
-				}
-			}
-			
-			// Save the predicted values for each classification window
-			ArrayList<Double> predictedClassificationWindowRelationships = new ArrayList<Double>();
+			// Save the ground truth and predicted values for each classification window
+			double[] groundTruthClassificationWindowRelationships = new double[numberOfWindows];
+			double[] predictedClassificationWindowRelationships = new double[numberOfWindows];
+			int currentWindow = 0;
 			for(int i=0;i<predictedRelationships.size();i++) {
 				for(int j=0;j<predictedRelationships.get(i).getRelationships().length;j++) {
-					predictedClassificationWindowRelationships.add(new Double(predictedRelationships.get(i).getRelationships()[j][category]));
+					groundTruthClassificationWindowRelationships[currentWindow] = groundTruthRelationships.get(i).getRelationships()[0][category];
+					predictedClassificationWindowRelationships[currentWindow] = predictedRelationships.get(i).getRelationships()[j][category];
+					currentWindow++;
 				}
 			}
 			
-			// Calculate all ordered pairs of instances for ground truth and the number of tied (similar) values for ground truth
-			int tied_gt = 0;
-			ArrayList<Integer[]> orderedPairsGroundTruth = new ArrayList<Integer[]>();
-			for(int i=0;i<groundTruthClassificationWindowRelationships.size();i++) {
-				for(int j=i+1;j<groundTruthClassificationWindowRelationships.size();j++) {
-					if(groundTruthClassificationWindowRelationships.get(i) > groundTruthClassificationWindowRelationships.get(j)) {
-						orderedPairsGroundTruth.add(new Integer[]{i,j}); 
-					} else if(groundTruthClassificationWindowRelationships.get(i) < groundTruthClassificationWindowRelationships.get(j)){
-						orderedPairsGroundTruth.add(new Integer[]{j,i});
-					} else {
-						tied_gt++;
-					}
-				}
-			}
-			
-			// Calculate all ordered pairs of instances for predicted values and the number of tied (similar) values for predicted values
-			int tied_predicted = 0;
-			ArrayList<Integer[]> orderedPairsPredicted = new ArrayList<Integer[]>();
-			for(int i=0;i<predictedClassificationWindowRelationships.size();i++) {
-				for(int j=i+1;j<predictedClassificationWindowRelationships.size();j++) {
-					if(predictedClassificationWindowRelationships.get(i) > predictedClassificationWindowRelationships.get(j)) {
-						orderedPairsPredicted.add(new Integer[]{i,j}); 
-					} else if(predictedClassificationWindowRelationships.get(i) < predictedClassificationWindowRelationships.get(j)) {
-						orderedPairsPredicted.add(new Integer[]{j,i});
-					} else {
-						tied_predicted++;
-					}
-				}
-			}
-			
-			// Calculate the number of equal untied pairs for ground truth and predicted values
-			int equal_pairs = 0;
-			for(int i=0;i<orderedPairsGroundTruth.size();i++) {
-				for(int j=0;j<orderedPairsPredicted.size();j++) {
-	
-					// Comparison
-					if(orderedPairsGroundTruth.get(i)[0].equals(orderedPairsPredicted.get(j)[0]) &&
-					   orderedPairsGroundTruth.get(i)[1].equals(orderedPairsPredicted.get(j)[1])) {
-						equal_pairs++;
-						break;
-					}
-				}
-			}
-			
-			// Number of unequal pairs for ground truth and predicted values
-			int unequal_pairs = orderedPairsGroundTruth.size() + orderedPairsPredicted.size() - 2*equal_pairs;
-			
 			// Calculate the Kendall's tau rank correlation coefficient
-			corrCoef[category] = (equal_pairs - unequal_pairs) /  
-				(Math.sqrt(equal_pairs + unequal_pairs + tied_predicted) * Math.sqrt(equal_pairs + unequal_pairs + tied_gt));
+			corrCoef[category] = calculateCorrelation(groundTruthClassificationWindowRelationships, predictedClassificationWindowRelationships);
 		}
 		
 		// Prepare the result
@@ -394,5 +190,180 @@ public class KendallsTauRankCorrelation extends ClassificationQualityDoubleMeasu
 		}
 		return correlationMeasure;
 	}
+	
+	/**
+	 * Calculates the predicted track relationships (averaged over all classification windows)
+	 */
+	private double[] calculatePredictedTrackRelationships(ArrayList<ClassifiedClassificationWindow> predictedRelationships, int numberOfTracks, int category) {
+		double[] predictedTrackRelationships = new double[numberOfTracks];
+		for(int i=0;i<numberOfTracks;i++) {
+			
+			// Calculate the predicted value for this track (averaging among all classification windows)
+			double currentPredictedValue = 0.0d;
+			for(int j=0;j<predictedRelationships.get(i).getRelationships().length;j++) {
+				currentPredictedValue += predictedRelationships.get(i).getRelationships()[j][category];
+			}
+			currentPredictedValue /= predictedRelationships.get(i).getRelationships().length;
+			predictedTrackRelationships[i] = currentPredictedValue;
+		}
+		return predictedTrackRelationships;
+	}
+	
+	/**
+	 * Calculates Kendall's tau rank correlation coefficient. A pair of instances is tied for ground truth or
+	 * predicted values if none of its values is greater than the other one (so that pairs with NaN values are
+	 * tied), equal pairs are ordered in the same way for ground truth and predicted values, and all other pairs
+	 * which are ordered for ground truth or predicted values are unequal. Instead of the comparison of all
+	 * ordered pairs, the equal pairs are counted with Knight's algorithm: the instances are sorted by ground
+	 * truth and predicted values, and the pairs ordered in the opposite way are counted by merge sort of the
+	 * predicted values
+	 * 
+	 * @param groundTruth Ground truth values
+	 * @param predicted Predicted values
+	 * @return Kendall's tau rank correlation coefficient
+	 */
+	static double calculateCorrelation(double[] groundTruth, double[] predicted) {
+		long numberOfPairs = (long)groundTruth.length * (groundTruth.length - 1) / 2;
+		long tied_gt = countTiedPairs(groundTruth);
+		long tied_predicted = countTiedPairs(predicted);
+		
+		// Only the instances without NaN values can build equal pairs. Negative zeros are replaced,
+		// so that the sorting order corresponds to the comparison of the values
+		int numberOfInstances = 0;
+		for(int i=0;i<groundTruth.length;i++) {
+			if(!Double.isNaN(groundTruth[i]) && !Double.isNaN(predicted[i])) {
+				numberOfInstances++;
+			}
+		}
+		final double[] groundTruthValues = new double[numberOfInstances];
+		final double[] predictedValues = new double[numberOfInstances];
+		Integer[] order = new Integer[numberOfInstances];
+		int currentInstance = 0;
+		for(int i=0;i<groundTruth.length;i++) {
+			if(!Double.isNaN(groundTruth[i]) && !Double.isNaN(predicted[i])) {
+				groundTruthValues[currentInstance] = groundTruth[i] + 0.0d;
+				predictedValues[currentInstance] = predicted[i] + 0.0d;
+				order[currentInstance] = currentInstance;
+				currentInstance++;
+			}
+		}
+		
+		// Sort the instances by ground truth values and the instances with the same ground truth value by predicted values
+		Arrays.sort(order, new Comparator<Integer>() {
+			public int compare(Integer i, Integer j) {
+				int result = Double.compare(groundTruthValues[i], groundTruthValues[j]);
+				return result != 0 ? result : Double.compare(predictedValues[i], predictedValues[j]);
+			}
+		});
+		double[] sortedPredictedValues = new double[numberOfInstances];
+		for(int i=0;i<numberOfInstances;i++) {
+			sortedPredictedValues[i] = predictedValues[order[i]];
+		}
+		
+		// Count the pairs tied for ground truth values and the pairs tied for both ground truth and predicted values
+		long tiedGroundTruthPairs = 0;
+		long tiedBothPairs = 0;
+		int groundTruthRunStart = 0;
+		int bothRunStart = 0;
+		for(int i=1;i<=numberOfInstances;i++) {
+			boolean groundTruthRunEnds = i == numberOfInstances || groundTruthValues[order[i]] != groundTruthValues[order[groundTruthRunStart]];
+			if(groundTruthRunEnds || sortedPredictedValues[i] != sortedPredictedValues[bothRunStart]) {
+				tiedBothPairs += countPairs(i - bothRunStart);
+				bothRunStart = i;
+			}
+			if(groundTruthRunEnds) {
+				tiedGroundTruthPairs += countPairs(i - groundTruthRunStart);
+				groundTruthRunStart = i;
+			}
+		}
+		
+		// Pairs with a greater predicted value for the lower ground truth value are found as swaps during the merge sort
+		long oppositePairs = countSwaps(sortedPredictedValues, new double[numberOfInstances], 0, numberOfInstances);
+		long tiedPredictedPairs = 0;
+		int predictedRunStart = 0;
+		for(int i=1;i<=numberOfInstances;i++) {
+			if(i == numberOfInstances || sortedPredictedValues[i] != sortedPredictedValues[predictedRunStart]) {
+				tiedPredictedPairs += countPairs(i - predictedRunStart);
+				predictedRunStart = i;
+			}
+		}
+		
+		// Calculate the number of equal pairs for ground truth and predicted values
+		long equal_pairs = countPairs(numberOfInstances) - tiedGroundTruthPairs - tiedPredictedPairs + tiedBothPairs - oppositePairs;
+		
+		// Number of unequal pairs for ground truth and predicted values
+		long unequal_pairs = (numberOfPairs - tied_gt) + (numberOfPairs - tied_predicted) - 2*equal_pairs;
+		
+		return (equal_pairs - unequal_pairs) /  
+			(Math.sqrt(equal_pairs + unequal_pairs + tied_predicted) * Math.sqrt(equal_pairs + unequal_pairs + tied_gt));
+	}
+	
+	/**
+	 * Counts the pairs of tied values; NaN values are tied with all other values
+	 */
+	private static long countTiedPairs(double[] values) {
+		int numberOfNaNs = 0;
+		for(int i=0;i<values.length;i++) {
+			if(Double.isNaN(values[i])) {
+				numberOfNaNs++;
+			}
+		}
+		double[] sortedValues = new double[values.length - numberOfNaNs];
+		int currentValue = 0;
+		for(int i=0;i<values.length;i++) {
+			if(!Double.isNaN(values[i])) {
+				sortedValues[currentValue++] = values[i] + 0.0d;
+			}
+		}
+		Arrays.sort(sortedValues);
+		long tiedPairs = countPairs(numberOfNaNs) + (long)numberOfNaNs * sortedValues.length;
+		int runStart = 0;
+		for(int i=1;i<=sortedValues.length;i++) {
+			if(i == sortedValues.length || sortedValues[i] != sortedValues[runStart]) {
+				tiedPairs += countPairs(i - runStart);
+				runStart = i;
+			}
+		}
+		return tiedPairs;
+	}
+	
+	/**
+	 * Sorts the values between from (inclusive) and to (exclusive) with merge sort and returns the number
+	 * of pairs with a greater value before a lower one
+	 */
+	private static long countSwaps(double[] values, double[] buffer, int from, int to) {
+		if(to - from < 2) {
+			return 0;
+		}
+		int middle = (from + to) >>> 1;
+		long swaps = countSwaps(values, buffer, from, middle) + countSwaps(values, buffer, middle, to);
+		int left = from;
+		int right = middle;
+		int current = from;
+		while(left < middle && right < to) {
+			if(values[left] <= values[right]) {
+				buffer[current++] = values[left++];
+			} else {
+				
+				// All remaining values of the left part are greater
+				swaps += middle - left;
+				buffer[current++] = values[right++];
+			}
+		}
+		while(left < middle) {
+			buffer[current++] = values[left++];
+		}
+		while(right < to) {
+			buffer[current++] = values[right++];
+		}
+		System.arraycopy(buffer, from, values, from, to - from);
+		return swaps;
+	}
+	
+	/**
+	 * Returns the number of pairs of the given number of instances
+	 */
+	private static long countPairs(int numberOfInstances) {
+		return (long)numberOfInstances * (numberOfInstances - 1) / 2;
+	}
 }
-
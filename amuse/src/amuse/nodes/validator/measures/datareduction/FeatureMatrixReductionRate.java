@@ -29,6 +29,7 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 
+import amuse.data.io.BinaryFeatureFile;
 import amuse.interfaces.nodes.NodeException;
 import amuse.nodes.validator.interfaces.DataReductionMeasureCalculator;
 import amuse.nodes.validator.interfaces.ValidationMeasureDouble;
@@ -53,15 +54,25 @@ public class FeatureMatrixReductionRate extends DataReductionMeasureCalculator {
 		if(usedProcessedFeatureFiles != null) {
 			try {
 				for(String f : usedProcessedFeatureFiles) {
+					if(BinaryFeatureFile.isBinaryFile(new File(f))) {
+						BinaryFeatureFile binaryFile = new BinaryFeatureFile(new File(f));
+						if(binaryFile.getMetadata("initalNumberOfFeatureMatrixEntries") != null) {
+							initalNumberOfFeatureMatrixEntries += Long.parseLong(binaryFile.getMetadata("initalNumberOfFeatureMatrixEntries"));
+						}
+						if(binaryFile.getMetadata("finalNumberOfFeatureMatrixEntries") != null) {
+							finalNumberOfFeatureMatrixEntries += Long.parseLong(binaryFile.getMetadata("finalNumberOfFeatureMatrixEntries"));
+						}
+						continue;
+					}
 					BufferedReader reader = new BufferedReader(new FileReader(new File(f)));
 					String line = reader.readLine();
 					boolean initFound = false, finalFound = false;
 					while(line != null) {
 						if(line.startsWith("%initalNumberOfFeatureMatrixEntries")) {
-							initalNumberOfFeatureMatrixEntries += new Long(line.substring(line.indexOf("=")+1, line.length()));
+							initalNumberOfFeatureMatrixEntries += Long.parseLong(line.substring(line.indexOf("=")+1, line.length()));
 							initFound = true;
 						} else if(line.startsWith("%finalNumberOfFeatureMatrixEntries")) {
-							finalNumberOfFeatureMatrixEntries += new Long(line.substring(line.indexOf("=")+1, line.length()));
+							finalNumberOfFeatureMatrixEntries += Long.parseLong(line.substring(line.indexOf("=")+1, line.length()));
 							finalFound = true;
 						}
 						if(initFound && finalFound) break;
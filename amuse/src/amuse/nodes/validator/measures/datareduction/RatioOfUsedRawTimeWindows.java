@@ -29,6 +29,7 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 
+import amuse.data.io.BinaryFeatureFile;
 import amuse.interfaces.nodes.NodeException;
 import amuse.nodes.validator.interfaces.DataReductionMeasureCalculator;
 import amuse.nodes.validator.interfaces.ValidationMeasureDouble;
@@ -56,15 +57,25 @@ public class RatioOfUsedRawTimeWindows extends DataReductionMeasureCalculator {
 		if(usedProcessedFeatureFiles != null) {
 			try {
 				for(String f : usedProcessedFeatureFiles) {
+					if(BinaryFeatureFile.isBinaryFile(new File(f))) {
+						BinaryFeatureFile binaryFile = new BinaryFeatureFile(new File(f));
+						if(binaryFile.getMetadata("initialNumberOfUsedRawTimeWindows") != null) {
+							numberOfInitialRawTimeWindows += Long.parseLong(binaryFile.getMetadata("initialNumberOfUsedRawTimeWindows"));
+						}
+						if(binaryFile.getMetadata("finalNumberOfUsedRawTimeWindows") != null) {
+							numberOfFinalRawTimeWindows += Long.parseLong(binaryFile.getMetadata("finalNumberOfUsedRawTimeWindows"));
+						}
+						continue;
+					}
 					BufferedReader reader = new BufferedReader(new FileReader(new File(f)));
 					String line = reader.readLine();
 					boolean initFound = false, finalFound = false;
 					while(line != null) {
 						if(line.startsWith("%initialNumberOfUsedRawTimeWindows")) {
-							numberOfInitialRawTimeWindows += new Long(line.substring(line.indexOf("=")+1, line.length()));
+							numberOfInitialRawTimeWindows += Long.parseLong(line.substring(line.indexOf("=")+1, line.length()));
 							initFound = true;
 						} else if(line.startsWith("%finalNumberOfUsedRawTimeWindows")) {
-							numberOfFinalRawTimeWindows += new Long(line.substring(line.indexOf("=")+1, line.length()));
+							numberOfFinalRawTimeWindows += Long.parseLong(line.substring(line.indexOf("=")+1, line.length()));
 							finalFound = true;
 						}
 						if(initFound && finalFound) break;
@@ -25,10 +25,17 @@ package amuse.nodes.validator.methods;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import weka.core.Attribute;
 import weka.core.Instance;
@@ -52,6 +59,7 @@ import amuse.nodes.trainer.TrainerNodeScheduler;
 import amuse.nodes.trainer.TrainingConfiguration;
 import amuse.nodes.validator.ValidationConfiguration;
 import amuse.nodes.validator.ValidatorNodeScheduler;
+import amuse.nodes.validator.interfaces.ClassificationQualityDoubleMeasureCalculator;
 import amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface;
 import amuse.nodes.validator.interfaces.DataReductionMeasureCalculatorInterface;
 import amuse.nodes.validator.interfaces.EventDetectionQualityDoubleMeasureCalculator;
@@ -59,8 +67,11 @@ import amuse.nodes.validator.interfaces.MeasureCalculatorInterface;
 import amuse.nodes.validator.interfaces.ValidationMeasure;
 import amuse.nodes.validator.interfaces.ValidationMeasureDouble;
 import amuse.nodes.validator.interfaces.ValidatorInterface;
+import amuse.nodes.validator.measures.confusionmatrix.base.ConfusionMatrixCache;
 import amuse.preferences.AmusePreferences;
+import amuse.preferences.KeysIntValue;
 import amuse.preferences.KeysStringValue;
+import amuse.util.FileOperations;
 
 /**
  * Performs n-fold cross-validation
@@ -254,132 +265,99 @@ public class NFoldCrossValidator extends AmuseTask implements ValidatorInterface
 			trackIdToValidationClassificationWindow.put(shuffledTrackIdsForCrossValidation.get(i), classificationWindowNumber);
 		}
 		
-		// Validation measures are saved in a list (for each run)
-		ArrayList<ArrayList<ValidationMeasure>> measuresOfEveryValidationRun = new ArrayList<ArrayList<ValidationMeasure>>();
+		// Find out once for all runs to which validation classification window each data instance belongs
+		// (-1 if the track of the instance is not used for cross-validation)
+		amuse.data.io.attributes.Attribute idAttributeOfAllWindows = allClassificationWindows.getAttribute("Id");
+		int[] validationClassificationWindowOfInstance = new int[allClassificationWindows.getValueCount()];
+		for(int j=0;j<validationClassificationWindowOfInstance.length;j++) {
+			int trackId = new Double(idAttributeOfAllWindows.getValueAt(j).toString()).intValue();
+			Integer window = trackIdToValidationClassificationWindow.get(trackId);
+			validationClassificationWindowOfInstance[j] = (window == null) ? -1 : window;
+		}
 		
-		// Go through all validation runs (equal to classification window number), using the current classification window as test partition each time
-		for(int i=0;i<this.n;i++) { 
-			
-			// Create the sets with the data of the current classification window for training and validation
-			DataSet trainingSet = new DataSet("TrainingSet");
-			DataSet validationSet = new DataSet("ValidationSet");
-			
-			// Create the attributes for these sets
-			for(int a = 0; a < allClassificationWindows.getAttributeCount(); a++) {
-				if(allClassificationWindows.getAttribute(a) instanceof NumericAttribute) {
-					trainingSet.addAttribute(new NumericAttribute(allClassificationWindows.getAttribute(a).getName(),new ArrayList<Double>()));
-					validationSet.addAttribute(new NumericAttribute(allClassificationWindows.getAttribute(a).getName(),new ArrayList<Double>()));
-				} else if(allClassificationWindows.getAttribute(a) instanceof StringAttribute) {
-					trainingSet.addAttribute(new StringAttribute(allClassificationWindows.getAttribute(a).getName(),new ArrayList<String>()));
-					validationSet.addAttribute(new StringAttribute(allClassificationWindows.getAttribute(a).getName(),new ArrayList<String>()));
-				} else {
-					trainingSet.addAttribute(new NominalAttribute(allClassificationWindows.getAttribute(a).getName(),new ArrayList<String>()));
-					validationSet.addAttribute(new NominalAttribute(allClassificationWindows.getAttribute(a).getName(),new ArrayList<String>()));
-				}
-			}
-			
-			// Ground truth for the validation set
-			ArrayList<Double> trackRelationshipsValidationSet = new ArrayList<Double>(); // If binary classification is applied
-			ArrayList<ClassifiedClassificationWindow> trackRelationshipsMValidationSet = new ArrayList<ClassifiedClassificationWindow>(); // If multiclass classification is applied
-			int currentTrackId = -1;
-			
-			for(int j=0;j<allClassificationWindows.getValueCount();j++) {
-				
-				// To which validation classification window should the current track classificaiton window be assigned?
-				int trackIdToSearchFor = new Double(allClassificationWindows.getAttribute("Id").getValueAt(j).toString()).intValue();
-				
-				// Training or validation set? Go through all track classification windows assigned to cv
-				if(trackIdToValidationClassificationWindow.containsKey(trackIdToSearchFor)) {
-					if(trackIdToValidationClassificationWindow.get(trackIdToSearchFor) == i) {
-						
-						// Add the classification window to validation set
-						for(int a = 0; a < allClassificationWindows.getAttributeCount(); a++) {
-							validationSet.getAttribute(a).addValue(allClassificationWindows.getAttribute(a).getValueAt(j));
-						}
-						
-						// Save the ground truth for the validation set
-						// TODO It is assumed that classification windows of the same track are coming all together one after each other in the DataSet
-						// - if the ID is changed to the next track, the ground truth of all classification windows is then loaded
-						if(currentTrackId != trackIdToSearchFor) {
-							currentTrackId = trackIdToSearchFor;
-							if(((ValidationConfiguration)this.correspondingScheduler.getConfiguration()).getLabelType() == LabelType.SINGLELABEL) {
-								trackRelationshipsValidationSet.add(((ValidatorNodeScheduler)this.correspondingScheduler).
-									getLabeledAverageTrackRelationships().get(trackIdToTrackNumber.get(trackIdToSearchFor)));
-							} else {
-								trackRelationshipsMValidationSet.add(((ValidatorNodeScheduler)this.correspondingScheduler).
-									getLabeledTrackRelationships().get(trackIdToTrackNumber.get(trackIdToSearchFor)));
+		// Go through all validation runs (equal to classification window number), using the current classification window as test partition each time.
+		// The runs are independent, so that they can be performed in parallel if the validator was started directly; each parallel
+		// run uses its own folder for intermediate results (unique, since several validators may run at the same time, e.g. in the optimizer)
+		int numberOfThreads = Math.min(this.n, AmusePreferences.getInt(KeysIntValue.NUMBER_OF_PARALLEL_VALIDATION_RUNS));
+		ValidationRun[] runs = new ValidationRun[this.n];
+		if(numberOfThreads > 1 && this.correspondingScheduler.getDirectStart()) {
+			String taskFolder = this.correspondingScheduler.getHomeFolder() + File.separator + "input" + File.separator + "task_" + this.correspondingScheduler.getTaskId();
+			ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+			try {
+				List<Future<ValidationRun>> futures = new ArrayList<Future<ValidationRun>>(this.n);
+				for(int i=0;i<this.n;i++) {
+					final int run = i;
+					final DataSet windows = allClassificationWindows;
+					final int[] windowOfInstance = validationClassificationWindowOfInstance;
+					final HashMap<Integer,Integer> trackNumbers = trackIdToTrackNumber;
+					final String runHome;
+					try {
+						new File(taskFolder).mkdirs();
+						runHome = Files.createTempDirectory(new File(taskFolder).toPath(), "run_" + i + "_").toString();
+					} catch(IOException e) {
+						throw new NodeException("Could not create folder for validation run " + i + ": " + e.getMessage());
+					}
+					futures.add(executor.submit(new Callable<ValidationRun>() {
+						public ValidationRun call() throws NodeException {
+							try {
+								return performValidationRun(run, windows, windowOfInstance, trackNumbers, runHome);
+							} finally {
+								FileOperations.delete(new File(runHome), true);
 							}
 						}
-					
-					} else {
-						
-						// Add the classification window to training set
-						for(int a = 0; a < allClassificationWindows.getAttributeCount(); a++) {
-							trainingSet.getAttribute(a).addValue(allClassificationWindows.getAttribute(a).getValueAt(j));
+					}));
+				}
+				
+				// Collect the results in the order of runs
+				for(int i=0;i<this.n;i++) {
+					try {
+						runs[i] = futures.get(i).get();
+					} catch(ExecutionException e) {
+						if(e.getCause() instanceof NodeException) {
+							throw (NodeException)e.getCause();
 						}
+						throw new NodeException("Validation run " + i + " failed: " + e.getCause());
+					} catch(InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new NodeException("Cross-validation was interrupted");
 					}
 				}
+			} finally {
+				executor.shutdownNow();
 			}
-			
-			// Train the model
-			// TODO Classification preprocessing is not currently supported!
-			TrainingConfiguration tConf = new TrainingConfiguration(
-				((ValidationConfiguration)this.correspondingScheduler.getConfiguration()).getInputFeaturesDescription(), 
-				InputFeatureType.PROCESSED_FEATURES,
-				null,
-				-1,
-				-1,
-				((ValidationConfiguration)this.correspondingScheduler.getConfiguration()).getClassificationAlgorithmDescription(),
-				"-1",
-				new DataSetInput(trainingSet),
-				GroundTruthSourceType.READY_INPUT,
-				((ValidationConfiguration)this.correspondingScheduler.getConfiguration()).getAttributesToPredict(),
-				((ValidationConfiguration)this.correspondingScheduler.getConfiguration()).getAttributesToIgnore(),
-				((ValidationConfiguration)this.correspondingScheduler.getConfiguration()).getModelType(),
-				"",
-				this.folderForModels + File.separator + "model_" + i + ".mod");
-			tConf.setNumberOfValuesPerWindow(((ValidationConfiguration)this.getCorrespondingScheduler().getConfiguration()).getNumberOfValuesPerWindow());
-			TrainerNodeScheduler ts = new TrainerNodeScheduler(this.correspondingScheduler.getHomeFolder() + File.separator + "input" + File.separator + "task_" + this.correspondingScheduler.getTaskId());
-			ts.setCleanInputFolder(false);
-			ts.proceedTask(this.correspondingScheduler.getHomeFolder(), this.correspondingScheduler.getTaskId(), tConf);
-			
-			// Classify the validation set
-			ClassificationConfiguration cConf = new ClassificationConfiguration(
-				new DataSetInput(validationSet),
-				ClassificationConfiguration.InputSourceType.READY_INPUT,
-				new ArrayList<Integer>(),
-				((ValidationConfiguration)this.correspondingScheduler.getConfiguration()).getInputFeaturesDescription(), 
-				InputFeatureType.PROCESSED_FEATURES,
-				null,
-				-1,
-				-1,
-				((ValidationConfiguration)this.correspondingScheduler.getConfiguration()).getClassificationAlgorithmDescription(),
-				new ArrayList<Integer>(),
-				((ValidationConfiguration)this.correspondingScheduler.getConfiguration()).getModelType(),
-				0,
-				this.correspondingScheduler.getHomeFolder() + File.separator + "input" + File.separator + "task_" + this.correspondingScheduler.getTaskId() + File.separator + "result.arff");
-			cConf.setPathToInputModel(this.folderForModels + File.separator + "model_" + i + ".mod");
-			cConf.setNumberOfValuesPerWindow(((ValidationConfiguration)this.getCorrespondingScheduler().getConfiguration()).getNumberOfValuesPerWindow());
-			ClassifierNodeScheduler cs = new ClassifierNodeScheduler(this.correspondingScheduler.getHomeFolder() + File.separator + "input" + File.separator + "task_" + this.correspondingScheduler.getTaskId());
-			cs.setCleanInputFolder(false);
-			ArrayList<ClassifiedClassificationWindow> predictedTracks = cs.proceedTask(this.correspondingScheduler.getHomeFolder(), this.correspondingScheduler.getTaskId(), cConf, false);
+		} else {
+			for(int i=0;i<this.n;i++) {
+				runs[i] = performValidationRun(i, allClassificationWindows, validationClassificationWindowOfInstance, trackIdToTrackNumber, 
+						this.correspondingScheduler.getHomeFolder());
+			}
+		}
+		
+		// Validation measures are saved in a list (for each run)
+		ArrayList<ArrayList<ValidationMeasure>> measuresOfEveryValidationRun = new ArrayList<ArrayList<ValidationMeasure>>();
+		for(int i=0;i<this.n;i++) {
 			
 			// Calculate the classifier evaluation measures for result
 			try {
 				ArrayList<ValidationMeasure> measuresOfThisRun = new ArrayList<ValidationMeasure>();
+				
+				// The confusion matrices are calculated once for all measures of this run
+				ConfusionMatrixCache confusionMatrixCache = new ConfusionMatrixCache();
 				for(int currentMeasure = 0; currentMeasure < this.measureCalculators.size(); currentMeasure++) {
 					ValidationMeasure[] currMeas = null;
 					if(this.measureCalculators.get(currentMeasure) instanceof ClassificationQualityMeasureCalculatorInterface) {
 						((ClassificationQualityMeasureCalculatorInterface)this.measureCalculators.get(currentMeasure)).setContinuous(((ValidationConfiguration)this.correspondingScheduler.getConfiguration()).getRelationshipType() == RelationshipType.CONTINUOUS);
+						if(this.measureCalculators.get(currentMeasure) instanceof ClassificationQualityDoubleMeasureCalculator) {
+							((ClassificationQualityDoubleMeasureCalculator)this.measureCalculators.get(currentMeasure)).setConfusionMatrixCache(confusionMatrixCache);
+						}
 						if(((ValidationConfiguration)this.correspondingScheduler.getConfiguration()).getLabelType() == LabelType.SINGLELABEL) {
 							currMeas = ((ClassificationQualityMeasureCalculatorInterface)this.measureCalculators.get(currentMeasure)).calculateOneClassMeasure(
-								trackRelationshipsValidationSet, predictedTracks);
+								runs[i].trackRelationshipsValidationSet, runs[i].predictedTracks);
 						} else if(((ValidationConfiguration)this.correspondingScheduler.getConfiguration()).getLabelType() == LabelType.MULTILABEL) {
 							currMeas = ((ClassificationQualityMeasureCalculatorInterface)this.measureCalculators.get(currentMeasure)).calculateMultiLabelMeasure(
-									trackRelationshipsMValidationSet, predictedTracks);
+									runs[i].trackRelationshipsMValidationSet, runs[i].predictedTracks);
 						} else {
 							currMeas = ((ClassificationQualityMeasureCalculatorInterface)this.measureCalculators.get(currentMeasure)).calculateMultiClassMeasure(
-								trackRelationshipsMValidationSet, predictedTracks);
+								runs[i].trackRelationshipsMValidationSet, runs[i].predictedTracks);
 						}
 					} else if(this.measureCalculators.get(currentMeasure) instanceof DataReductionMeasureCalculatorInterface) {
 						currMeas = ((DataReductionMeasureCalculatorInterface)this.measureCalculators.get(currentMeasure)).calculateMeasure(
@@ -469,6 +447,140 @@ public class NFoldCrossValidator extends AmuseTask implements ValidatorInterface
 		}
 	}
 	
+	/**
+	 * Trains the model on all classification windows except of the given one and classifies the given one
+	 * @param i Number of validation run (equal to the validation classification window)
+	 * @param allClassificationWindows Data instances of all tracks
+	 * @param validationClassificationWindowOfInstance Validation classification window of each data instance
+	 * @param trackIdToTrackNumber Maps track id to the number of track in the labeled track relationships
+	 * @param nodeHome Home folder for trainer and classifier node schedulers
+	 * @return Ground truth and predictions for the validation set
+	 * @throws NodeException
+	 */
+	private ValidationRun performValidationRun(int i, DataSet allClassificationWindows, int[] validationClassificationWindowOfInstance, 
+			HashMap<Integer,Integer> trackIdToTrackNumber, String nodeHome) throws NodeException {
+		
+		// Find the data instances of the training and validation sets
+		int numberOfValidationInstances = 0;
+		int numberOfTrainingInstances = 0;
+		for(int j=0;j<validationClassificationWindowOfInstance.length;j++) {
+			if(validationClassificationWindowOfInstance[j] == i) {
+				numberOfValidationInstances++;
+			} else if(validationClassificationWindowOfInstance[j] != -1) {
+				numberOfTrainingInstances++;
+			}
+		}
+		int[] validationInstances = new int[numberOfValidationInstances];
+		int[] trainingInstances = new int[numberOfTrainingInstances];
+		numberOfValidationInstances = 0;
+		numberOfTrainingInstances = 0;
+		for(int j=0;j<validationClassificationWindowOfInstance.length;j++) {
+			if(validationClassificationWindowOfInstance[j] == i) {
+				validationInstances[numberOfValidationInstances++] = j;
+			} else if(validationClassificationWindowOfInstance[j] != -1) {
+				trainingInstances[numberOfTrainingInstances++] = j;
+			}
+		}
+		
+		// Create the sets for training and validation; their attributes show the values of the shared
+		// data set at the instance indices, so that the values are not copied for every fold
+		DataSet trainingSet = new DataSet("TrainingSet");
+		DataSet validationSet = new DataSet("ValidationSet");
+		for(int a = 0; a < allClassificationWindows.getAttributeCount(); a++) {
+			amuse.data.io.attributes.Attribute attribute = allClassificationWindows.getAttribute(a);
+			if(attribute instanceof NumericAttribute) {
+				trainingSet.addAttribute(new NumericAttribute((NumericAttribute)attribute, trainingInstances));
+				validationSet.addAttribute(new NumericAttribute((NumericAttribute)attribute, validationInstances));
+			} else if(attribute instanceof StringAttribute) {
+				trainingSet.addAttribute(new StringAttribute((StringAttribute)attribute, trainingInstances));
+				validationSet.addAttribute(new StringAttribute((StringAttribute)attribute, validationInstances));
+			} else {
+				trainingSet.addAttribute(new NominalAttribute((NominalAttribute)attribute, trainingInstances));
+				validationSet.addAttribute(new NominalAttribute((NominalAttribute)attribute, validationInstances));
+			}
+		}
+		
+		// Ground truth for the validation set
+		ValidationRun validationRun = new ValidationRun();
+		int currentTrackId = -1;
+		amuse.data.io.attributes.Attribute idAttribute = allClassificationWindows.getAttribute("Id");
+		for(int j : validationInstances) {
+			int trackIdToSearchFor = new Double(idAttribute.getValueAt(j).toString()).intValue();
+			
+			// TODO It is assumed that classification windows of the same track are coming all together one after each other in the DataSet
+			// - if the ID is changed to the next track, the ground truth of all classification windows is then loaded
+			if(currentTrackId != trackIdToSearchFor) {
+				currentTrackId = trackIdToSearchFor;
+				if(((ValidationConfiguration)this.correspondingScheduler.getConfiguration()).getLabelType() == LabelType.SINGLELABEL) {
+					validationRun.trackRelationshipsValidationSet.add(((ValidatorNodeScheduler)this.correspondingScheduler).
+						getLabeledAverageTrackRelationships().get(trackIdToTrackNumber.get(trackIdToSearchFor)));
+				} else {
+					validationRun.trackRelationshipsMValidationSet.add(((ValidatorNodeScheduler)this.correspondingScheduler).
+						getLabeledTrackRelationships().get(trackIdToTrackNumber.get(trackIdToSearchFor)));
+				}
+			}
+		}
+		
+		// Train the model
+		// TODO Classification preprocessing is not currently supported!
+		TrainingConfiguration tConf = new TrainingConfiguration(
+			((ValidationConfiguration)this.correspondingScheduler.getConfiguration()).getInputFeaturesDescription(), 
+			InputFeatureType.PROCESSED_FEATURES,
+			null,
+			-1,
+			-1,
+			((ValidationConfiguration)this.correspondingScheduler.getConfiguration()).getClassificationAlgorithmDescription(),
+			"-1",
+			new DataSetInput(trainingSet),
+			GroundTruthSourceType.READY_INPUT,
+			((ValidationConfiguration)this.correspondingScheduler.getConfiguration()).getAttributesToPredict(),
+			((ValidationConfiguration)this.correspondingScheduler.getConfiguration()).getAttributesToIgnore(),
+			((ValidationConfiguration)this.correspondingScheduler.getConfiguration()).getModelType(),
+			"",
+			this.folderForModels + File.separator + "model_" + i + ".mod");
+		tConf.setNumberOfValuesPerWindow(((ValidationConfiguration)this.getCorrespondingScheduler().getConfiguration()).getNumberOfValuesPerWindow());
+		TrainerNodeScheduler ts = new TrainerNodeScheduler(nodeHome + File.separator + "input" + File.separator + "task_" + this.correspondingScheduler.getTaskId());
+		ts.setCleanInputFolder(false);
+		ts.proceedTask(nodeHome, this.correspondingScheduler.getTaskId(), tConf);
+		
+		// Classify the validation set
+		ClassificationConfiguration cConf = new ClassificationConfiguration(
+			new DataSetInput(validationSet),
+			ClassificationConfiguration.InputSourceType.READY_INPUT,
+			new ArrayList<Integer>(),
+			((ValidationConfiguration)this.correspondingScheduler.getConfiguration()).getInputFeaturesDescription(), 
+			InputFeatureType.PROCESSED_FEATURES,
+			null,
+			-1,
+			-1,
+			((ValidationConfiguration)this.correspondingScheduler.getConfiguration()).getClassificationAlgorithmDescription(),
+			new ArrayList<Integer>(),
+			((ValidationConfiguration)this.correspondingScheduler.getConfiguration()).getModelType(),
+			0,
+			nodeHome + File.separator + "input" + File.separator + "task_" + this.correspondingScheduler.getTaskId() + File.separator + "result.arff");
+		cConf.setPathToInputModel(this.folderForModels + File.separator + "model_" + i + ".mod");
+		cConf.setNumberOfValuesPerWindow(((ValidationConfiguration)this.getCorrespondingScheduler().getConfiguration()).getNumberOfValuesPerWindow());
+		ClassifierNodeScheduler cs = new ClassifierNodeScheduler(nodeHome + File.separator + "input" + File.separator + "task_" + this.correspondingScheduler.getTaskId());
+		cs.setCleanInputFolder(false);
+		validationRun.predictedTracks = cs.proceedTask(nodeHome, this.correspondingScheduler.getTaskId(), cConf, false);
+		return validationRun;
+	}
+	
+	/**
+	 * Ground truth and predictions of one validation run
+	 */
+	private static class ValidationRun {
+		
+		/** Ground truth for the validation set if binary classification is applied */
+		private ArrayList<Double> trackRelationshipsValidationSet = new ArrayList<Double>();
+		
+		/** Ground truth for the validation set if multiclass classification is applied */
+		private ArrayList<ClassifiedClassificationWindow> trackRelationshipsMValidationSet = new ArrayList<ClassifiedClassificationWindow>();
+		
+		/** Classification results for the validation set */
+		private ArrayList<ClassifiedClassificationWindow> predictedTracks;
+	}
+	
 	/*
 	 * (non-Javadoc)
 	 * @see amuse.nodes.validator.interfaces.ValidatorInterface#calculateListOfUsedProcessedFeatureFiles()
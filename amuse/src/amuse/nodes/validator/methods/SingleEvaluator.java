@@ -43,6 +43,7 @@ import amuse.nodes.classifier.ClassificationConfiguration;
 import amuse.nodes.classifier.ClassifierNodeScheduler;
 import amuse.nodes.validator.ValidationConfiguration;
 import amuse.nodes.validator.ValidatorNodeScheduler;
+import amuse.nodes.validator.interfaces.ClassificationQualityDoubleMeasureCalculator;
 import amuse.nodes.validator.interfaces.ClassificationQualityMeasureCalculatorInterface;
 import amuse.nodes.validator.interfaces.DataReductionMeasureCalculatorInterface;
 import amuse.nodes.validator.interfaces.EventDetectionQualityDoubleMeasureCalculator;
@@ -50,6 +51,7 @@ import amuse.nodes.validator.interfaces.MeasureCalculatorInterface;
 import amuse.nodes.validator.interfaces.ValidationMeasure;
 import amuse.nodes.validator.interfaces.ValidationMeasureDouble;
 import amuse.nodes.validator.interfaces.ValidatorInterface;
+import amuse.nodes.validator.measures.confusionmatrix.base.ConfusionMatrixCache;
 import amuse.preferences.AmusePreferences;
 import amuse.preferences.KeysStringValue;
 import amuse.util.AmuseLogger;
@@ -196,10 +198,16 @@ public class SingleEvaluator extends AmuseTask implements ValidatorInterface {
 			// Calculate the classifier evaluation measures for result
 			try {
 				ArrayList<ValidationMeasure> measuresOfThisRun = new ArrayList<ValidationMeasure>();
+				
+				// The confusion matrices are calculated once for all measures of this run
+				ConfusionMatrixCache confusionMatrixCache = new ConfusionMatrixCache();
 				for(int currentMeasure = 0; currentMeasure < this.measureCalculators.size(); currentMeasure++) {
 					ValidationMeasure[] currMeas = null;
 					if(this.measureCalculators.get(currentMeasure) instanceof ClassificationQualityMeasureCalculatorInterface) {
 						((ClassificationQualityMeasureCalculatorInterface)this.measureCalculators.get(currentMeasure)).setContinuous(((ValidationConfiguration)this.correspondingScheduler.getConfiguration()).getRelationshipType() == RelationshipType.CONTINUOUS);
+						if(this.measureCalculators.get(currentMeasure) instanceof ClassificationQualityDoubleMeasureCalculator) {
+							((ClassificationQualityDoubleMeasureCalculator)this.measureCalculators.get(currentMeasure)).setConfusionMatrixCache(confusionMatrixCache);
+						}
 						if(((ValidationConfiguration)this.correspondingScheduler.getConfiguration()).getLabelType() == LabelType.SINGLELABEL) {
 							currMeas = ((ClassificationQualityMeasureCalculatorInterface)this.measureCalculators.get(currentMeasure)).calculateOneClassMeasure(
 								((ValidatorNodeScheduler)this.getCorrespondingScheduler()).getLabeledAverageTrackRelationships(), predictedTracks);
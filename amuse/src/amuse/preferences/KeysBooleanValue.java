@@ -50,7 +50,8 @@ public enum KeysBooleanValue {
     USE_GRID_TOOL,
     MARK_CURRENT_TIME_IN_ANNOTATION_AUDIOSPECTRUM,
     LOAD_CATEGORY_TABLE_LOCALLY,
-    ADVANCED_PATHS;
+    ADVANCED_PATHS,
+    PROCESSING_BATCH_MODE;
 
     /**
      * This method is used to determine and get default values for any key.
@@ -76,6 +77,8 @@ public enum KeysBooleanValue {
                 return true;
             case LOAD_CATEGORY_TABLE_LOCALLY:
             	return false;
+            case PROCESSING_BATCH_MODE:
+            	return false;
             default:
                 AmuseLogger.write(this.getClass().getName(), Level.DEBUG,
                         this.toString() + ": no default value set!");
@@ -117,6 +120,7 @@ public enum KeysBooleanValue {
 		map.put(MARK_CURRENT_TIME_IN_ANNOTATION_AUDIOSPECTRUM.toString(), "TRUE to display a beam on the audio spectrum in the annotation editor that tracks the time:");
 		map.put(LOAD_CATEGORY_TABLE_LOCALLY.toString(), "TRUE to load multiple track annotation table from AMUSE local folder (may be required for the reduction of traffic in grid systems):");
 		map.put(ADVANCED_PATHS.toString(), "TRUE to use advanced path options in GUI:");
+		map.put(PROCESSING_BATCH_MODE.toString(), "TRUE to process all music files of a locally started feature processing task in one job, with all processing configurations of a music file after another:");
 		return map;
 	}
 }
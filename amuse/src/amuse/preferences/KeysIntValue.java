@@ -44,7 +44,19 @@ public enum KeysIntValue {
     DOWNSAMPLING_TARGET_SIZE_IN_HZ,
     AUDIOSPECTRUM_WINDOWSIZE,
     AUDIOSPECTRUM_HOPSIZE,
-    YALE_HEAP_SIZE;
+    YALE_HEAP_SIZE,
+    FEATURE_FILE_FORMAT,
+    TASK_TIMEOUT_IN_MINUTES,
+    EXTRACTION_BATCH_SIZE,
+    NUMBER_OF_PARALLEL_VALIDATION_RUNS,
+    NUMBER_OF_PARALLEL_EXTRACTORS,
+    FEATURE_CACHE_SIZE_IN_MB,
+    PROCESSED_FEATURE_CACHE_SIZE_IN_MB,
+    NUMBER_OF_PARALLEL_EVALUATIONS,
+    JAUDIO_TIMEOUT_IN_MINUTES,
+    AUDIOSPECTRUM_CACHE_SIZE_IN_MB,
+    NUMBER_OF_CLASSIFICATION_THREADS,
+    NUMBER_OF_PROCESSING_THREADS;
 
     /**
      * This method is used to determin and get default values for any key.
@@ -68,6 +80,30 @@ public enum KeysIntValue {
             return 1;
         case YALE_HEAP_SIZE:
         	return 2000;
+        case FEATURE_FILE_FORMAT:
+        	return 0;
+        case TASK_TIMEOUT_IN_MINUTES:
+        	return 0;
+        case EXTRACTION_BATCH_SIZE:
+        	return 1;
+        case NUMBER_OF_PARALLEL_VALIDATION_RUNS:
+        	return 1;
+        case NUMBER_OF_PARALLEL_EXTRACTORS:
+        	return 1;
+        case FEATURE_CACHE_SIZE_IN_MB:
+        	return 256;
+        case PROCESSED_FEATURE_CACHE_SIZE_IN_MB:
+        	return 1024;
+        case NUMBER_OF_PARALLEL_EVALUATIONS:
+        	return 1;
+        case JAUDIO_TIMEOUT_IN_MINUTES:
+        	return 30;
+        case AUDIOSPECTRUM_CACHE_SIZE_IN_MB:
+        	return 100;
+        case NUMBER_OF_CLASSIFICATION_THREADS:
+        	return 1;
+        case NUMBER_OF_PROCESSING_THREADS:
+        	return 1;
         default:
             AmuseLogger.write(this.getClass().getName(), Level.DEBUG, this.toString() + ": no default value set!");
             return 0;
@@ -97,6 +133,30 @@ public enum KeysIntValue {
             return (value == 0 || value == 1 || value == 2);
         case YALE_HEAP_SIZE:
         	return value >= 1;
+        case FEATURE_FILE_FORMAT:
+        	return value >= 0 && value < 3;
+        case TASK_TIMEOUT_IN_MINUTES:
+        	return value >= 0;
+        case EXTRACTION_BATCH_SIZE:
+        	return value >= 1;
+        case NUMBER_OF_PARALLEL_VALIDATION_RUNS:
+        	return value >= 1;
+        case NUMBER_OF_PARALLEL_EXTRACTORS:
+        	return value >= 1;
+        case FEATURE_CACHE_SIZE_IN_MB:
+        	return value >= 0;
+        case PROCESSED_FEATURE_CACHE_SIZE_IN_MB:
+        	return value >= 0;
+        case NUMBER_OF_PARALLEL_EVALUATIONS:
+        	return value >= 1;
+        case JAUDIO_TIMEOUT_IN_MINUTES:
+        	return value >= 0;
+        case AUDIOSPECTRUM_CACHE_SIZE_IN_MB:
+        	return value >= 0;
+        case NUMBER_OF_CLASSIFICATION_THREADS:
+        	return value >= 1;
+        case NUMBER_OF_PROCESSING_THREADS:
+        	return value >= 1;
         default:
             AmuseLogger.write(this.getClass().getName(), Level.DEBUG, this.toString() + ": no validator available!");
             return true;
@@ -132,6 +192,18 @@ public enum KeysIntValue {
 		map.put(AUDIOSPECTRUM_WINDOWSIZE.toString(), "Window size used for the calculation of the audiospectrum in the annotation editor. (0 = 256, 1 = 512, 2 = 1024)");
 		map.put(AUDIOSPECTRUM_HOPSIZE.toString(), "Hop size used for the calculation of the audiospectrum in the annotation editor. (0 = 256, 1 = 512, 2 = 1024)");
 		map.put(YALE_HEAP_SIZE.toString(), "eap size in megabytes for Yale feature extractor (should be increased for long music files)");
+		map.put(FEATURE_FILE_FORMAT.toString(), "Format of saved feature and processed feature files. (0 = ARFF, 1 = Binary with 64 bit values, 2 = Binary with 32 bit values)");
+		map.put(TASK_TIMEOUT_IN_MINUTES.toString(), "Time in minutes after which a locally started task is cancelled (0 = no timeout)");
+		map.put(EXTRACTION_BATCH_SIZE.toString(), "Number of music files processed by one locally started feature extraction job");
+		map.put(NUMBER_OF_PARALLEL_VALIDATION_RUNS.toString(), "Number of validation runs (e.g. folds of n-fold cross-validation) performed in parallel by a locally started validator");
+		map.put(NUMBER_OF_PARALLEL_EXTRACTORS.toString(), "Number of feature extractors which process the same music file in parallel on one extractor node");
+		map.put(FEATURE_CACHE_SIZE_IN_MB.toString(), "Memory in megabytes for raw features kept by the processor node for further processing tasks (0 = no cache)");
+		map.put(PROCESSED_FEATURE_CACHE_SIZE_IN_MB.toString(), "Disk space in megabytes for processed features kept by the optimizer for further individuals (0 = no cache)");
+		map.put(NUMBER_OF_PARALLEL_EVALUATIONS.toString(), "Number of individuals evaluated in parallel by the evolutionary strategy of the optimizer");
+		map.put(JAUDIO_TIMEOUT_IN_MINUTES.toString(), "Time in minutes after which a jAudio worker which has not finished a music file is restarted (0 = no timeout)");
+		map.put(AUDIOSPECTRUM_CACHE_SIZE_IN_MB.toString(), "Disk space in megabytes for audio spectrum images cached by the annotation editor (0 = no cache)");
+		map.put(NUMBER_OF_CLASSIFICATION_THREADS.toString(), "Number of threads used by one classifier which supports parallel classification (e.g. FKNN)");
+		map.put(NUMBER_OF_PROCESSING_THREADS.toString(), "Number of threads shared by the processing methods which support parallel processing (e.g. histogram and percentile discretization)");
 		return map;
 	}
 
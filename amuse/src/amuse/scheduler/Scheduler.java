@@ -57,6 +57,7 @@ import amuse.scheduler.taskstarters.OptimizationStarter;
 import amuse.scheduler.taskstarters.ToolStarter;
 import amuse.scheduler.tools.ToolConfiguration;
 import amuse.util.AmuseLogger;
+import amuse.util.FolderWatcher;
 
 /**
  * Scheduler is a central component of the Amuse. It can be started either from the command line or from
@@ -81,6 +82,15 @@ public class Scheduler implements Runnable {
 	/** Main arguments defining the tasks */
 	private String[] taskList = null;
 	
+	/** Maximum time in milliseconds between two checks for finished grid jobs */
+	private static final long JOB_POLLING_INTERVAL = 1000;
+	
+	/** Maximum time in milliseconds between two checks for new tasks in loop mode */
+	private static final long TASK_POLLING_INTERVAL = 5000;
+	
+	/** Task files in loop mode are read only if they have not been modified for this time in milliseconds */
+	private static final long TASK_FILE_SETTLING_TIME = 1000;
+	
 	/** Scheduler private constructor */
 	private Scheduler() {
 		this.jobCounter = 0l;
@@ -303,50 +313,67 @@ public class Scheduler implements Runnable {
 	 */
 	private void waitForJobs(Long numberOfJobsToWaitFor) {
 		File inputDir = new File(AmusePreferences.get(KeysStringValue.AMUSE_PATH) + File.separator + "taskinput");
+		try {
+			waitForJobs(inputDir, numberOfJobsToWaitFor, JOB_POLLING_INTERVAL);
+		} catch(InterruptedException e) {
+			AmuseLogger.write(this.getClass().getName(),Level.FATAL,"Scheduler interrupted: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+	
+	/**
+	 * Waits until the given number of job logs has appeared in the input folder; each job log is deleted
+	 * @param inputDir Folder where the grid jobs write their logs
+	 * @param numberOfJobsToWaitFor Number of jobs
+	 * @param pollingInterval Maximum time in milliseconds between two checks of the input folder
+	 * @throws InterruptedException
+	 */
+	static void waitForJobs(File inputDir, long numberOfJobsToWaitFor, long pollingInterval) throws InterruptedException {
 		
-		// Sleep and look up for finished jobs
+		// Observe the input folder, so that finished jobs are noticed immediately
+		FolderWatcher inputDirWatcher = new FolderWatcher(inputDir, pollingInterval);
 		boolean isReady = false;
 		try {
 			while(!isReady) {
-				// If there are no new job log files in input folder, sleep a bit
-				if(inputDir.listFiles().length == 0) {
-					Thread.sleep(1000);
-				} 
-				// If there are any job log files...
-				else {
-					for(int j=0;j<inputDir.listFiles().length;j++) {
-						String fileName = inputDir.listFiles()[j].getPath();
+				boolean jobLogFound = false;
+				File[] jobLogs = inputDir.listFiles();
+				for(int j=0;j<jobLogs.length;j++) {
+					String fileName = jobLogs[j].getPath();
+					
+					if(!jobLogs[j].getName().startsWith(".")) {
+						jobLogFound = true;
+					
+						// TODO extract the exact Amuse job ID 
+						AmuseLogger.write(Scheduler.class.getName(),Level.INFO,
+							"Job " + fileName + " ready");
+
+						// TODO RELEASE 0.2 The log results from nodes can be saved somewhere if required...
 						
-						if(!fileName.substring(fileName.lastIndexOf(File.separator)+1,fileName.length()).startsWith(".")) {
+						// Delete logs
+						if(!jobLogs[j].delete()) {
+							AmuseLogger.write(Scheduler.class.getName(),Level.FATAL,
+									"Log of job " + fileName.substring(fileName.lastIndexOf(".")+1) + 
+									" could not be deleted; Can't calculate properly if all jobs have been finished!");
+							System.exit(1);
+						}
+						// Update the number of currently running jobs
+						numberOfJobsToWaitFor--;
 						
-							// TODO extract the exact Amuse job ID 
-							AmuseLogger.write(this.getClass().getName(),Level.INFO,
-								"Job " + fileName + " ready");
-	
-							// TODO RELEASE 0.2 The log results from nodes can be saved somewhere if required...
-							
-							// Delete logs
-							if(!inputDir.listFiles()[j].delete()) {
-								AmuseLogger.write(this.getClass().getName(),Level.FATAL,
-										"Log of job " + fileName.substring(fileName.lastIndexOf(".")+1) + 
-										" could not be deleted; Can't calculate properly if all jobs have been finished!");
-								System.exit(1);
-							}
-							// Update the number of currently running jobs
-							numberOfJobsToWaitFor--;
-							
-							// Are all extraction jobs ready? If yes, finish Amuse
-							if(numberOfJobsToWaitFor == 0l) {
-								isReady = true;
-							}
+						// Are all extraction jobs ready? If yes, finish Amuse
+						if(numberOfJobsToWaitFor == 0l) {
+							isReady = true;
 						}
 					}
 				}
+				
+				// If there are no new job log files in input folder, wait for them
+				if(!jobLogFound) {
+					inputDirWatcher.awaitChange();
+				}
 			}
-		} catch(InterruptedException e) {
-			AmuseLogger.write(this.getClass().getName(),Level.FATAL,"Scheduler interrupted: " + e.getMessage());
-			System.exit(1);
-		}	
+		} finally {
+			inputDirWatcher.close();
+		}
 	}
 
 	/**
@@ -355,7 +382,8 @@ public class Scheduler implements Runnable {
 	 * @param taskFolder Folder for incoming tasks
 	 */
 	private void waitForTasksInLoopMode(File taskFolder) {
-		// Sleep and look up for new tasks
+		// Observe the task folder, so that new tasks are noticed immediately
+		FolderWatcher taskFolderWatcher = new FolderWatcher(taskFolder, TASK_POLLING_INTERVAL);
 		boolean isReady = false;
 		try {
 			while(!isReady) {
@@ -364,15 +392,19 @@ public class Scheduler implements Runnable {
 					System.exit(1);
 				}
 				
-				// If there are no new job log files in input folder, sleep a bit
-				if(taskFolder.listFiles().length == 0) {
-					// TODO Amuse configuration parameter
-					Thread.sleep(5000);
+				// If there are no new task files in input folder, wait for them
+				File[] taskFiles = taskFolder.listFiles();
+				if(taskFiles.length == 0) {
+					taskFolderWatcher.awaitChange();
 				} 
+				// If the task file has just been created, it may be still written
+				else if(Math.abs(System.currentTimeMillis() - taskFiles[0].lastModified()) < TASK_FILE_SETTLING_TIME) {
+					Thread.sleep(TASK_FILE_SETTLING_TIME);
+				}
 				// If there are any task files...
 				else {
 					// Take the first file
-					String fileName = taskFolder.listFiles()[0].getPath();
+					String fileName = taskFiles[0].getPath();
 					AmuseLogger.write(this.getClass().getName(),Level.INFO,
 						"New task " + fileName + " found");
 
@@ -485,7 +517,7 @@ public class Scheduler implements Runnable {
 					featuresReader.close();
 					
 					// Delete task file
-					if(!taskFolder.listFiles()[0].delete()) {
+					if(!taskFiles[0].delete()) {
 						AmuseLogger.write(this.getClass().getName(),Level.FATAL,
 								"Task " + fileName.substring(fileName.lastIndexOf(".")+1) + 
 								" could not be deleted; Can't calculate properly if all jobs have been finished!");
@@ -502,6 +534,8 @@ public class Scheduler implements Runnable {
 		} catch(IOException e) {
 			AmuseLogger.write(this.getClass().getName(),Level.FATAL,"Scheduler error: " + e.getMessage());
 			System.exit(1);
+		} finally {
+			taskFolderWatcher.close();
 		}
 	}
 	
@@ -335,6 +335,19 @@ public class AnnotationAudioSpectrumPanel extends AnnotationScrollPane {
 	public void setAudioSpectrumImage(BufferedImage audiospectrumImage) {
 		currentTimePanel.setVisible(AmusePreferences.getBoolean(KeysBooleanValue.MARK_CURRENT_TIME_IN_ANNOTATION_AUDIOSPECTRUM));
 		this.audiospectrumImage = audiospectrumImage;
+		scaledAudiospectrumImageExtract = null;
+	}
+
+	public BufferedImage getAudioSpectrumImage() {
+		return audiospectrumImage;
+	}
+
+	/**
+	 * Repaints the audio spectrum after new parts of the image have been rendered
+	 */
+	public void refreshAudioSpectrumImage() {
+		scaledAudiospectrumImageExtract = null;
+		contentPanel.repaint();
 	}
 
 	public void normalizeCurrentView() {
@@ -1,13 +1,34 @@
 package amuse.scheduler.gui.annotation.singlefile;
 
 import java.awt.Color;
-import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.imageio.ImageIO;
+import javax.sound.sampled.AudioFileFormat;
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
 
 import org.apache.log4j.Level;
 
@@ -17,49 +38,127 @@ import amuse.preferences.KeysStringValue;
 import amuse.util.AmuseLogger;
 import amuse.util.FileOperations;
 import amuse.util.audio.AudioFileConversion;
-import jAudioFeatureExtractor.AudioFeatures.MagnitudeSpectrum;
 
 /**
  * Calculates the amplitude spectrum for an audio file and saves it in a BufferedImage.
+ * The audio is decoded as a stream of 16 bit samples and the image is rendered tile by tile
+ * in a background thread, with the windows of each tile calculated in parallel. Rendered
+ * images are cached on disk by the hash of the audio file and the window and hop sizes; the least
+ * recently used images are deleted if the cache exceeds its size.
  * @author Frederik Heerde
  * @version $Id$
  */
 public class AudioSpectrumModel {
-	
-	float sampleRate;
-	BufferedImage audiospectrumImage;
+
+	/** Number of image columns rendered at once */
+	private static final int TILE_WIDTH = 256;
+
+	private static final String CACHE_FILE_SUFFIX = ".spectrum";
+
+	/** Number of colors between the minimum and the maximum magnitude */
+	private static final int NUMBER_OF_COLORS = 4096;
+
+	/** Colors of the magnitudes, from blue (minimum) to red (maximum) */
+	private static final int[] COLORS = new int[NUMBER_OF_COLORS];
+	static {
+		for(int i = 0; i < NUMBER_OF_COLORS; i++) {
+			float value = (float) i / (NUMBER_OF_COLORS - 1);
+			COLORS[i] = Color.HSBtoRGB(0.666f - 0.666f * value, 1.0f, 1.0f);
+		}
+	}
+
+	private final File musicFile;
+	private final int windowSize;
+	private final int hopSize;
+	volatile float sampleRate;
+	volatile BufferedImage audiospectrumImage;
+	private volatile boolean cancelled;
 
 	public AudioSpectrumModel(String pMusicFilePath) throws IOException {
 		this(new File(pMusicFilePath));
 	}
 
 	public AudioSpectrumModel(File pMusicFile) throws IOException{
+		if(!pMusicFile.exists()) {
+			throw new FileNotFoundException("Music file not found: " + pMusicFile.getAbsolutePath());
+		}
+		musicFile = pMusicFile;
+		windowSize = (int) Math.pow(2, AmusePreferences.getInt(KeysIntValue.AUDIOSPECTRUM_WINDOWSIZE) + 8);
+		hopSize = (int) Math.pow(2, AmusePreferences.getInt(KeysIntValue.AUDIOSPECTRUM_HOPSIZE) + 8);
 		sampleRate = 0;
 		audiospectrumImage = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
-		
-		File musicFile = pMusicFile;
-		
+	}
+
+	/**
+	 * Starts to load or calculate the audio spectrum image in a background thread
+	 * @param updateListener Is called from the background thread when the image has been
+	 * replaced and after each rendered tile
+	 */
+	public void startRendering(Runnable updateListener) {
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					render(updateListener);
+				} catch(Exception e) {
+					AmuseLogger.write(AudioSpectrumModel.class.getName(), Level.ERROR,
+							"Could not calculate the audio spectrum of " + musicFile.getName() + ": " + e.getMessage());
+				}
+			}
+		}, "AudioSpectrumRenderer");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops the rendering, e.g. if another music file has been loaded
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	private void render(Runnable updateListener) throws IOException {
+		String hash = calculateHash(musicFile);
+		long cacheSize = AmusePreferences.getInt(KeysIntValue.AUDIOSPECTRUM_CACHE_SIZE_IN_MB) * 1024L * 1024L;
+		File cacheFile = new File(getCacheFolder(), hash + "_" + windowSize + "_" + hopSize + CACHE_FILE_SUFFIX);
+		if(cacheSize > 0 && cacheFile.exists() && loadCachedImage(cacheFile)) {
+			
+			// Mark the image as recently used
+			cacheFile.setLastModified(System.currentTimeMillis());
+			updateListener.run();
+			return;
+		}
+		if(cancelled) {
+			return;
+		}
+
 		// Convert the file to WAV if neccessary
-		if(!pMusicFile.getAbsolutePath().toLowerCase().endsWith("wav")){
-			musicFile = convertFileToWAV(pMusicFile);
+		File wavFile = musicFile;
+		if(!musicFile.getAbsolutePath().toLowerCase().endsWith("wav")){
+			wavFile = convertFileToWAV(musicFile, hash);
 		}
-		calculateAudioSpectrumImage(musicFile);
-		
-		// Delete any generated files
-		if(musicFile != pMusicFile){
-			FileOperations.delete(musicFile);
+		try {
+			if(calculateAudioSpectrumImage(wavFile, updateListener) && cacheSize > 0) {
+				saveCachedImage(cacheFile);
+				limitCacheSize(cacheSize);
+			}
+		} finally {
+			// Delete any generated files
+			if(wavFile != musicFile){
+				FileOperations.delete(wavFile);
+			}
 		}
 	}
-	
-	private File convertFileToWAV(File musicFile) throws IOException{
+
+	private File convertFileToWAV(File musicFile, String hash) throws IOException{
 		try {
 			String musicFilePath = AmusePreferences.get(KeysStringValue.AMUSE_PATH)
-					+ File.separator 
-					+ "config" 
-					+ File.separator 
-					+ "annotation" 
-					+ File.separator 
-					+ "temp.wav";
+					+ File.separator
+					+ "config"
+					+ File.separator
+					+ "annotation"
+					+ File.separator
+					+ "temp_" + hash + ".wav";
 			File f = new File(musicFilePath);
 			if(!f.getParentFile().exists()) {
 				f.getParentFile().mkdir();
@@ -72,65 +171,361 @@ public class AudioSpectrumModel {
 			throw e;
 		}
 	}
-	
-	private void calculateAudioSpectrumImage(File musicFile){
+
+	/**
+	 * Decodes the music file window by window and renders the image. Each tile is rendered as soon as
+	 * it has been calculated, scaled by the minimum and maximum magnitudes found so far. The tiles
+	 * rendered before the final minimum and maximum were known are calculated and rendered again
+	 * at the end, so that only the magnitudes of one tile are kept in memory.
+	 * @return True if the image has been rendered completely
+	 */
+	private boolean calculateAudioSpectrumImage(File wavFile, final Runnable updateListener) throws IOException {
+		AudioFileFormat fileFormat;
+		try {
+			fileFormat = AudioSystem.getAudioFileFormat(wavFile);
+		} catch(UnsupportedAudioFileException e) {
+			throw new IOException("Unsupported audio file: " + e.getMessage());
+		}
+		long numberOfSamples = fileFormat.getFrameLength();
+		if(numberOfSamples == AudioSystem.NOT_SPECIFIED) {
+			throw new IOException("Unknown length of the audio stream");
+		}
+		if(numberOfSamples < windowSize) {
+			return false;
+		}
+
+		final int width = (int) ((numberOfSamples - windowSize) / hopSize + 1);
+		final int height = windowSize / 2;
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		final int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+		sampleRate = fileFormat.getFormat().getSampleRate();
+		audiospectrumImage = image;
+		updateListener.run();
+
+		final MagnitudeSpectrumPlan plan = new MagnitudeSpectrumPlan(windowSize);
+		final int numberOfThreads = Runtime.getRuntime().availableProcessors();
+		final ExecutorService executor = numberOfThreads > 1 ? Executors.newFixedThreadPool(numberOfThreads) : null;
+		try {
+			final float[] magnitudes = new float[TILE_WIDTH * height];
+			final TileVisitor calculation = (tile, tileStart, tileColumns, samples) ->
+				calculateInParallel(executor, numberOfThreads, tileColumns, (from, to) -> {
+					double[] real = new double[windowSize];
+					double[] imaginary = new double[windowSize];
+					for(int column = from; column < to; column++) {
+						plan.calculate(samples, column * hopSize, real, imaginary, magnitudes, column * height);
+					}
+				});
+
+			// Minimum and maximum magnitude found so far and the bounds each tile has been rendered with
+			final double[] bounds = {1, 0};
+			final double[][] tileBounds = new double[(width + TILE_WIDTH - 1) / TILE_WIDTH][];
+			boolean completed = visitTiles(wavFile, width, (tile, tileStart, tileColumns, samples) -> {
+				calculation.visit(tile, tileStart, tileColumns, samples);
+				for(int i = 0; i < tileColumns * height; i++) {
+					bounds[0] = Math.min(magnitudes[i], bounds[0]);
+					bounds[1] = Math.max(magnitudes[i], bounds[1]);
+				}
+				renderTile(pixels, width, height, tileStart, tileColumns, magnitudes, bounds[0], bounds[1]);
+				tileBounds[tile] = new double[]{bounds[0], bounds[1]};
+				updateListener.run();
+			});
+			if(!completed) {
+				return false;
+			}
+
+			// Calculate and render the tiles again which have been rendered with preliminary bounds
+			final double min = bounds[0];
+			final double max = bounds[1];
+			boolean preliminaryTileFound = false;
+			for(double[] currentBounds : tileBounds) {
+				preliminaryTileFound |= currentBounds[0] != min || currentBounds[1] != max;
+			}
+			if(preliminaryTileFound) {
+				completed = visitTiles(wavFile, width, (tile, tileStart, tileColumns, samples) -> {
+					if(tileBounds[tile][0] != min || tileBounds[tile][1] != max) {
+						calculation.visit(tile, tileStart, tileColumns, samples);
+						renderTile(pixels, width, height, tileStart, tileColumns, magnitudes, min, max);
+						updateListener.run();
+					}
+				});
+			}
+			updateListener.run();
+			return completed && !cancelled;
+		} finally {
+			if(executor != null) {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	private interface TileVisitor {
+		void visit(int tile, int tileStart, int tileColumns, float[] samples) throws IOException;
+	}
+
+	/**
+	 * Decodes the WAV file as 16 bit mono samples and passes the samples of each tile to the visitor
+	 * @return False if the rendering has been cancelled
+	 */
+	private boolean visitTiles(File wavFile, int width, TileVisitor visitor) throws IOException {
+		AudioInputStream stream = null;
 		AudioInputStream decodedStream = null;
-		final int WINDOWSIZE = (int) Math.pow(2, AmusePreferences.getInt(KeysIntValue.AUDIOSPECTRUM_WINDOWSIZE) + 8);
-		final int HOPSIZE = (int) Math.pow(2, AmusePreferences.getInt(KeysIntValue.AUDIOSPECTRUM_HOPSIZE) + 8);
 		try {
-			
-			AudioInputStream stream = AudioSystem.getAudioInputStream(musicFile);
+			stream = AudioSystem.getAudioInputStream(wavFile);
 			AudioFormat format = stream.getFormat();
 			AudioFormat decodedFormat = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED,
 					format.getSampleRate(),
-					8,
+					16,
 					1,
-					1 * 2,
-					format.getFrameRate(),
-					true);
+					2,
+					format.getSampleRate(),
+					false);
 			decodedStream = AudioSystem.getAudioInputStream(decodedFormat, stream);
-			byte[] byte_samples = new byte[(int)stream.getFrameLength() * decodedFormat.getSampleSizeInBits() / 8];
-			sampleRate = decodedStream.getFormat().getSampleRate();
-			decodedStream.read(byte_samples);
-			
-			MagnitudeSpectrum magSpec = new MagnitudeSpectrum();
-			double[][] magnitudeSpectrum = new double[(byte_samples.length - WINDOWSIZE) / HOPSIZE + 1][WINDOWSIZE / 2];
-			audiospectrumImage = new BufferedImage((byte_samples.length - WINDOWSIZE) / HOPSIZE + 1, WINDOWSIZE / 2, BufferedImage.TYPE_INT_RGB);
-			Graphics2D imageGraphics = audiospectrumImage.createGraphics();
-			double min = 1;
-			double max = 0;
-			for(int windowStart = 0; windowStart < byte_samples.length - WINDOWSIZE; windowStart += HOPSIZE){
-
-				double[] window = new double[WINDOWSIZE];
-				for(int i = 0; i < WINDOWSIZE; i++){
-					window[i] = byte_samples[i + windowStart];
+
+			// Samples of the current tile, the last windowSize - hopSize samples are kept for the next tile
+			float[] samples = new float[(TILE_WIDTH - 1) * hopSize + windowSize];
+			byte[] bytes = new byte[samples.length * 2];
+			int bufferedSamples = 0;
+
+			for(int tileStart = 0; tileStart < width; tileStart += TILE_WIDTH) {
+				if(cancelled) {
+					return false;
 				}
-				double[] windowFreqs = magSpec.extractFeature(window, -1., new double[][]{});
-				for(int i = 0; i < windowFreqs.length; i++){
-					min = Math.min(windowFreqs[i], min);
-					max = Math.max(windowFreqs[i], max);
-					magnitudeSpectrum[windowStart / HOPSIZE][i] = windowFreqs[i];
-					
+				int tileColumns = Math.min(TILE_WIDTH, width - tileStart);
+				int requiredSamples = (tileColumns - 1) * hopSize + windowSize;
+				bufferedSamples = readSamples(decodedStream, bytes, samples, bufferedSamples, requiredSamples);
+				visitor.visit(tileStart / TILE_WIDTH, tileStart, tileColumns, samples);
+
+				// Keep the samples which overlap with the next tile
+				int consumedSamples = tileColumns * hopSize;
+				if(consumedSamples < bufferedSamples) {
+					System.arraycopy(samples, consumedSamples, samples, 0, bufferedSamples - consumedSamples);
+					bufferedSamples -= consumedSamples;
+				} else {
+					long bytesToSkip = (long) (consumedSamples - bufferedSamples) * 2;
+					while(bytesToSkip > 0) {
+						long skipped = decodedStream.skip(bytesToSkip);
+						if(skipped <= 0) {
+							break;
+						}
+						bytesToSkip -= skipped;
+					}
+					bufferedSamples = 0;
 				}
 			}
-			for(int i = 0; i < audiospectrumImage.getWidth(); i++){
-				for(int j = 0; j < audiospectrumImage.getHeight(); j++){
-					double value = (magnitudeSpectrum[i][j] - min) / (max - min);
-					imageGraphics.setColor(new Color(Color.HSBtoRGB(0.666f - 0.666f * (float) value , 1.0f, 1.0f)));
-					imageGraphics.fillRect(i, audiospectrumImage.getHeight() - j - 1, 1, 1);
+			return true;
+		} catch(UnsupportedAudioFileException e) {
+			throw new IOException("Unsupported audio file: " + e.getMessage());
+		} finally {
+			if(decodedStream != null) {
+				decodedStream.close();
+			}
+			if(stream != null) {
+				stream.close();
+			}
+		}
+	}
+
+	/**
+	 * Fills the sample buffer up to the required number of samples; missing samples at the end
+	 * of the stream are set to zero. The 16 bit samples are scaled to the range of 8 bit samples,
+	 * which have been used for the audio spectrum before.
+	 * @return Number of samples in the buffer
+	 */
+	private static int readSamples(AudioInputStream stream, byte[] bytes, float[] samples, int bufferedSamples, int requiredSamples) throws IOException {
+		int bytesToRead = (requiredSamples - bufferedSamples) * 2;
+		int bytesRead = 0;
+		while(bytesRead < bytesToRead) {
+			int read = stream.read(bytes, bytesRead, bytesToRead - bytesRead);
+			if(read < 0) {
+				break;
+			}
+			bytesRead += read;
+		}
+		int samplesRead = bytesRead / 2;
+		for(int i = 0; i < samplesRead; i++) {
+			short sample = (short) ((bytes[2 * i] & 0xFF) | (bytes[2 * i + 1] << 8));
+			samples[bufferedSamples + i] = sample / 256f;
+		}
+		for(int i = bufferedSamples + samplesRead; i < requiredSamples; i++) {
+			samples[i] = 0f;
+		}
+		return requiredSamples;
+	}
+
+	private interface ColumnRange {
+		void calculate(int from, int to);
+	}
+
+	/**
+	 * Splits the columns of a tile in ranges, which are calculated by the executor
+	 */
+	private static void calculateInParallel(ExecutorService executor, int numberOfThreads, int columns, ColumnRange range) throws IOException {
+		if(executor == null) {
+			range.calculate(0, columns);
+			return;
+		}
+		List<Future<?>> futures = new ArrayList<Future<?>>(numberOfThreads);
+		int columnsPerThread = (columns + numberOfThreads - 1) / numberOfThreads;
+		for(int from = 0; from < columns; from += columnsPerThread) {
+			final int start = from;
+			final int end = Math.min(columns, from + columnsPerThread);
+			futures.add(executor.submit(() -> range.calculate(start, end)));
+		}
+		try {
+			for(Future<?> future : futures) {
+				future.get();
+			}
+		} catch(ExecutionException e) {
+			if(e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IOException("Audio spectrum calculation failed: " + e.getCause());
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Audio spectrum calculation interrupted");
+		}
+	}
+
+	/**
+	 * Writes the colors of the magnitudes of a tile directly into the image raster
+	 */
+	private static void renderTile(int[] pixels, int width, int height, int tileStart, int tileColumns, float[] magnitudes, double min, double max) {
+		double scale = max > min ? (NUMBER_OF_COLORS - 1) / (max - min) : 0;
+		for(int column = 0; column < tileColumns; column++) {
+			int x = tileStart + column;
+			for(int j = 0; j < height; j++) {
+				int color = (int) ((magnitudes[column * height + j] - min) * scale + 0.5);
+				pixels[(height - j - 1) * width + x] = COLORS[Math.max(0, Math.min(NUMBER_OF_COLORS - 1, color))];
+			}
+		}
+	}
+
+	private static File getCacheFolder() {
+		return new File(AmusePreferences.get(KeysStringValue.AMUSE_PATH)
+				+ File.separator
+				+ "config"
+				+ File.separator
+				+ "annotation"
+				+ File.separator
+				+ "spectrumCache");
+	}
+
+	/**
+	 * Calculates the SHA-1 hash of the file content
+	 */
+	private static String calculateHash(File file) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch(NoSuchAlgorithmException e) {
+			throw new IOException("SHA-1 is not available: " + e.getMessage());
+		}
+		InputStream input = new FileInputStream(file);
+		try {
+			byte[] buffer = new byte[1 << 16];
+			int read;
+			while((read = input.read(buffer)) > 0) {
+				digest.update(buffer, 0, read);
+			}
+		} finally {
+			input.close();
+		}
+		StringBuilder hash = new StringBuilder();
+		for(byte b : digest.digest()) {
+			hash.append(String.format("%02x", b));
+		}
+		return hash.toString();
+	}
+
+	/**
+	 * Loads the sample rate and the image from the cache
+	 * @return True if the cached image could be read
+	 */
+	private boolean loadCachedImage(File cacheFile) {
+		try {
+			DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)));
+			try {
+				float cachedSampleRate = input.readFloat();
+				BufferedImage image = ImageIO.read(input);
+				if(image == null) {
+					return false;
 				}
+				if(image.getType() != BufferedImage.TYPE_INT_RGB) {
+					BufferedImage convertedImage = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+					convertedImage.createGraphics().drawImage(image, 0, 0, null);
+					image = convertedImage;
+				}
+				sampleRate = cachedSampleRate;
+				audiospectrumImage = image;
+				return true;
+			} finally {
+				input.close();
+			}
+		} catch(IOException e) {
+			AmuseLogger.write(this.getClass().getName(), Level.WARN,
+					"Could not load the cached audio spectrum " + cacheFile.getName() + ": " + e.getMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * Saves the sample rate and the image to the cache
+	 */
+	private void saveCachedImage(File cacheFile) {
+		if(!cacheFile.getParentFile().exists()) {
+			cacheFile.getParentFile().mkdirs();
+		}
+		File tempFile = new File(cacheFile.getAbsolutePath() + ".tmp");
+		try {
+			DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+			try {
+				output.writeFloat(sampleRate);
+				ImageIO.write(audiospectrumImage, "png", output);
+			} finally {
+				output.close();
 			}
-		} catch (Exception e) {
-			e.printStackTrace();
+			if(!tempFile.renameTo(cacheFile)) {
+				FileOperations.delete(tempFile);
+			}
+		} catch(IOException e) {
+			AmuseLogger.write(this.getClass().getName(), Level.WARN,
+					"Could not cache the audio spectrum of " + musicFile.getName() + ": " + e.getMessage());
+			FileOperations.delete(tempFile);
 		}
 	}
-	
+
+	/**
+	 * Deletes the least recently used images until the cache does not exceed the given size
+	 * @param cacheSize Maximum size of the cache in bytes
+	 */
+	private static synchronized void limitCacheSize(long cacheSize) {
+		File[] cacheFiles = getCacheFolder().listFiles((folder, name) -> name.endsWith(CACHE_FILE_SUFFIX));
+		if(cacheFiles == null) {
+			return;
+		}
+		long[] lastModified = new long[cacheFiles.length];
+		Integer[] order = new Integer[cacheFiles.length];
+		long usedSize = 0;
+		for(int i = 0; i < cacheFiles.length; i++) {
+			lastModified[i] = cacheFiles[i].lastModified();
+			order[i] = i;
+			usedSize += cacheFiles[i].length();
+		}
+		Arrays.sort(order, (i, j) -> Long.compare(lastModified[i], lastModified[j]));
+		for(int i = 0; i < order.length && usedSize > cacheSize; i++) {
+			long fileSize = cacheFiles[order[i]].length();
+			if(cacheFiles[order[i]].delete()) {
+				usedSize -= fileSize;
+			}
+		}
+	}
+
 	public BufferedImage getAudiospectrumImage(){
 		return audiospectrumImage;
 	}
 
 	public float getSampleRate() {
 		return sampleRate;
-	}	
-		
+	}
+
 }
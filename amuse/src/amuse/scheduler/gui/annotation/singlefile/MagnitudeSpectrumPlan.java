@@ -0,0 +1,84 @@
+package amuse.scheduler.gui.annotation.singlefile;
+
+/**
+ * Precomputed radix-2 FFT for the magnitude spectra of the audio spectrum image.
+ * Calculates the same values as jAudio's MagnitudeSpectrum (Hanning window, magnitudes
+ * divided by the window size), but the window, the twiddle factors and the bit reversal
+ * are calculated only once. The plan is immutable and may be shared between threads;
+ * the buffers passed to {@link #calculate(float[], int, double[], double[], float[], int)}
+ * must not.
+ * @author agent
+ * @version $Id$
+ */
+final class MagnitudeSpectrumPlan {
+
+	private final int windowSize;
+	private final double[] hanningWindow;
+	private final double[] cos;
+	private final double[] sin;
+	private final int[] bitReversal;
+
+	/**
+	 * @param windowSize Window size, must be a power of two and at least 4
+	 */
+	MagnitudeSpectrumPlan(int windowSize) {
+		if(windowSize < 4 || Integer.bitCount(windowSize) != 1) {
+			throw new IllegalArgumentException("Window size must be a power of two: " + windowSize);
+		}
+		this.windowSize = windowSize;
+		hanningWindow = new double[windowSize];
+		for(int i = 0; i < windowSize; i++) {
+			hanningWindow[i] = 0.5 - 0.5 * Math.cos(2 * Math.PI * i / windowSize);
+		}
+		cos = new double[windowSize / 2];
+		sin = new double[windowSize / 2];
+		for(int i = 0; i < windowSize / 2; i++) {
+			cos[i] = Math.cos(2 * Math.PI * i / windowSize);
+			sin[i] = Math.sin(2 * Math.PI * i / windowSize);
+		}
+		int bits = Integer.numberOfTrailingZeros(windowSize);
+		bitReversal = new int[windowSize];
+		for(int i = 0; i < windowSize; i++) {
+			bitReversal[i] = Integer.reverse(i) >>> (32 - bits);
+		}
+	}
+
+	int getWindowSize() {
+		return windowSize;
+	}
+
+	/**
+	 * Calculates the magnitude spectrum of one window
+	 * @param samples Samples containing the window
+	 * @param offset Position of the first sample of the window
+	 * @param real Buffer of the window size
+	 * @param imaginary Buffer of the window size
+	 * @param magnitudes Output, receives windowSize / 2 magnitudes starting at magnitudesOffset
+	 * @param magnitudesOffset Position of the first magnitude in the output
+	 */
+	void calculate(float[] samples, int offset, double[] real, double[] imaginary, float[] magnitudes, int magnitudesOffset) {
+		for(int i = 0; i < windowSize; i++) {
+			real[bitReversal[i]] = samples[offset + i] * hanningWindow[i];
+			imaginary[i] = 0.0;
+		}
+		for(int halfSize = 1; halfSize < windowSize; halfSize <<= 1) {
+			int twiddleStep = windowSize / (2 * halfSize);
+			for(int m = 0; m < halfSize; m++) {
+				double wr = cos[m * twiddleStep];
+				double wi = sin[m * twiddleStep];
+				for(int i = m; i < windowSize; i += 2 * halfSize) {
+					int j = i + halfSize;
+					double tr = wr * real[j] - wi * imaginary[j];
+					double ti = wr * imaginary[j] + wi * real[j];
+					real[j] = real[i] - tr;
+					imaginary[j] = imaginary[i] - ti;
+					real[i] += tr;
+					imaginary[i] += ti;
+				}
+			}
+		}
+		for(int i = 0; i < windowSize / 2; i++) {
+			magnitudes[magnitudesOffset + i] = (float) (Math.sqrt(real[i] * real[i] + imaginary[i] * imaginary[i]) / windowSize);
+		}
+	}
+}
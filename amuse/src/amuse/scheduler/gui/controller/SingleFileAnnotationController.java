@@ -7,10 +7,12 @@ import java.util.LinkedHashMap;
 import javax.swing.DefaultListModel;
 import javax.swing.JComponent;
 import javax.swing.JList;
+import javax.swing.SwingUtilities;
 
 import amuse.data.io.DataSetAbstract;
 import amuse.interfaces.nodes.TaskConfiguration;
 import amuse.scheduler.gui.annotation.MusicPlayerModel;
+import amuse.scheduler.gui.annotation.singlefile.AnnotationAudioSpectrumPanel;
 import amuse.scheduler.gui.annotation.singlefile.AnnotationView;
 import amuse.scheduler.gui.annotation.singlefile.AudioSpectrumModel;
 import amuse.scheduler.gui.annotation.singlefile.UndoRedoManager;
@@ -49,17 +51,38 @@ public class SingleFileAnnotationController extends AbstractController{
 	
 	public void loadMusic(String pPath){
 		try {
-			audioSpectrumModel = new AudioSpectrumModel(pPath);
-			annotationView.getAnnotationAudioSpectrumPanel().setAudioSpectrumImage(audioSpectrumModel.getAudiospectrumImage());
+			if(audioSpectrumModel != null){
+				audioSpectrumModel.cancel();
+			}
+			AudioSpectrumModel spectrumModel = new AudioSpectrumModel(pPath);
+			audioSpectrumModel = spectrumModel;
+			annotationView.getAnnotationAudioSpectrumPanel().setAudioSpectrumImage(spectrumModel.getAudiospectrumImage());
 			musicPlayerModel.load(pPath);
 			annotationModel.loadAnnotation();
 			annotationView.resizePanels();
+			spectrumModel.startRendering(() -> SwingUtilities.invokeLater(() -> refreshAudioSpectrum(spectrumModel)));
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 		
 	}
 	
+	/**
+	 * Shows the progress of the audio spectrum rendering; the panels are resized when the
+	 * spectrum image has been replaced
+	 */
+	private void refreshAudioSpectrum(AudioSpectrumModel spectrumModel){
+		if(spectrumModel != audioSpectrumModel){
+			return;
+		}
+		AnnotationAudioSpectrumPanel audioSpectrumPanel = annotationView.getAnnotationAudioSpectrumPanel();
+		if(audioSpectrumPanel.getAudioSpectrumImage() != spectrumModel.getAudiospectrumImage()){
+			audioSpectrumPanel.setAudioSpectrumImage(spectrumModel.getAudiospectrumImage());
+			annotationView.resizePanels();
+		}
+		audioSpectrumPanel.refreshAudioSpectrumImage();
+	}
+	
 	public void addUndoableAction(AnnotationAction action){
 		undoRedoManager.addAction(action);
 	}
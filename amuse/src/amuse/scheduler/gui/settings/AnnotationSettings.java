@@ -10,6 +10,7 @@ import net.miginfocom.swing.MigLayout;
 import amuse.preferences.KeysIntValue;
 import amuse.scheduler.gui.settings.panels.BooleanSelectionPanel;
 import amuse.scheduler.gui.settings.panels.ListSelectionPanel;
+import amuse.scheduler.gui.settings.panels.TextFieldWithValidation;
 
 /**
  * 
@@ -31,6 +32,7 @@ public class AnnotationSettings extends AmuseSettingsPageBody {
 		settings.add(new ListSelectionPanel("Select Window Size for the Extraction of the Audio Spectrum", valuesWindowSize, KeysIntValue.AUDIOSPECTRUM_WINDOWSIZE));
 		settings.add(new ListSelectionPanel("Select Hop Size for the Extraction of the Audio Spectrum", valuesWindowSize, KeysIntValue.AUDIOSPECTRUM_HOPSIZE));
 		settings.add(new BooleanSelectionPanel("Mark Current Time in Audio Spectrum", KeysBooleanValue.MARK_CURRENT_TIME_IN_ANNOTATION_AUDIOSPECTRUM));
+		settings.add(new TextFieldWithValidation("Audio spectrum cache size in megabytes (0 = no cache)", KeysIntValue.AUDIOSPECTRUM_CACHE_SIZE_IN_MB));
         
 		for (EditableAmuseSettingInterface singlePref : settings) {
 			internalPanel.add(singlePref.getPanel(), "wmax pref, wrap");
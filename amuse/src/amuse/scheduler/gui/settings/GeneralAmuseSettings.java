@@ -165,6 +165,19 @@ public class GeneralAmuseSettings extends AmuseSettingsPageBody {
 		String[] values = {"Debug", "Info", "Quiet"};
 		settings.add(new ListSelectionPanel("Log Level", values, KeysIntValue.GUI_LOG_LEVEL));
 		settings.add(new SliderIntSelectionPanel("Max number of Task Threads", 1, 10, KeysIntValue.MAX_NUMBER_OF_TASK_THREADS));
+		settings.add(new TextFieldWithValidation("Task timeout in minutes (0 = no timeout)", KeysIntValue.TASK_TIMEOUT_IN_MINUTES));
+		settings.add(new TextFieldWithValidation("Music files per extraction job", KeysIntValue.EXTRACTION_BATCH_SIZE));
+		settings.add(new TextFieldWithValidation("Parallel validation runs", KeysIntValue.NUMBER_OF_PARALLEL_VALIDATION_RUNS));
+		settings.add(new TextFieldWithValidation("Threads per classifier", KeysIntValue.NUMBER_OF_CLASSIFICATION_THREADS));
+		settings.add(new TextFieldWithValidation("Threads for feature processing", KeysIntValue.NUMBER_OF_PROCESSING_THREADS));
+		settings.add(new TextFieldWithValidation("Parallel feature extractors", KeysIntValue.NUMBER_OF_PARALLEL_EXTRACTORS));
+		settings.add(new BooleanSelectionPanel("Process all music files in one batch job", KeysBooleanValue.PROCESSING_BATCH_MODE));
+		settings.add(new TextFieldWithValidation("Raw feature cache in megabytes (0 = no cache)", KeysIntValue.FEATURE_CACHE_SIZE_IN_MB));
+		settings.add(new TextFieldWithValidation("Processed feature cache of optimizer in megabytes (0 = no cache)", KeysIntValue.PROCESSED_FEATURE_CACHE_SIZE_IN_MB));
+		settings.add(new TextFieldWithValidation("Parallel evaluations of optimizer", KeysIntValue.NUMBER_OF_PARALLEL_EVALUATIONS));
+		settings.add(new TextFieldWithValidation("jAudio timeout in minutes (0 = no timeout)", KeysIntValue.JAUDIO_TIMEOUT_IN_MINUTES));
+		String[] formats = {"ARFF", "Binary (64 bit)", "Binary (32 bit)"};
+		settings.add(new ListSelectionPanel("Feature File Format", formats, KeysIntValue.FEATURE_FILE_FORMAT));
                for (EditableAmuseSettingInterface singlePref : settings) {
 			internalPanel.add(singlePref.getPanel(), "wrap");
 			watchForChanges(singlePref);
@@ -148,20 +148,9 @@ public class ClassificationStarter extends AmuseTaskStarter {
 	
 			    // Prepare classifier node scheduler arguments and start it as thread
 	   	    	classifierThread.setThreadParameters(AmusePreferences.get(KeysStringValue.AMUSE_PATH) + File.separator + "config" + File.separator + "node" + File.separator + "classifier", this.jobCounter, classifierConfig);
-			    Thread newClassifierThread = new Thread(classifierThread);
-			    // TODO Timeout einbauen
-			    while (this.nodeSchedulers.size() >= AmusePreferences.getInt(KeysIntValue.MAX_NUMBER_OF_TASK_THREADS)) {
-					try {
-					    Thread.sleep(1000);
-					} catch (InterruptedException e) {
-					    throw new SchedulerException(this.getClass().getName() + " was interrupted: " + e.getMessage());
-					}
-			    }
-			    
 			    this.connectSchedulerToErrorDescriptionList(classifierThread);
-			    nodeSchedulers.add(classifierThread);
 			    classifierThread.addListener(this);
-			    newClassifierThread.start();
+			    this.startNodeScheduler(classifierThread);
 			}
 			this.jobCounter++;
 		}
@@ -169,14 +158,7 @@ public class ClassificationStarter extends AmuseTaskStarter {
 		// If the node schedulers are started directly (and not e.g. as grid scripts), wait until all jobs are ready
 		if(this.startNodeDirectly) {
 			
-			// TODO Timeout einbauen!
-			while(this.nodeSchedulers.size() > 0) {
-				try {
-					Thread.sleep(1000);
-				} catch (InterruptedException e) {
-					throw new SchedulerException(this.getClass().getName() + " was interrupted: " + e.getMessage());
-				}
-			}
+			this.waitForNodeSchedulers();
 		} 
 		
 		return this.jobCounter;
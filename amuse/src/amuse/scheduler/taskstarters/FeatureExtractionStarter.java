@@ -181,16 +181,19 @@ public class FeatureExtractionStarter extends AmuseTaskStarter {
 			else {
                 String sep = File.separator;
                 
-				// Create a separate job for each music file
-				// TODO if the extractor node scheduler will be started locally, ExtractorNodeScheduler can be changed
-				// to be able to run extraction of several files? See ProcessorStarter also...
-				for(int k=0;k<extractorConfig.getMusicFileList().getFiles().size();k++) {	
+				// Create a separate job for each batch of music files, so that the extractors are configured
+				// only once for all files of a batch
+				int batchSize = AmusePreferences.getInt(KeysIntValue.EXTRACTION_BATCH_SIZE);
+				for(int k=0;k<extractorConfig.getMusicFileList().getFiles().size();k+=batchSize) {	
 					
-					ArrayList<Integer> fileId = new ArrayList<Integer>(1);
-					fileId.add(extractorConfig.getMusicFileList().getIds().get(k));
-					ArrayList<String> filePath = new ArrayList<String>(1);
-					filePath.add(extractorConfig.getMusicFileList().getFileAt(k));
-					ExtractionConfiguration extractorConfigWithOneFile = new ExtractionConfiguration(new FileTable(fileId,filePath), featureTable);
+					int lastFile = Math.min(k + batchSize, extractorConfig.getMusicFileList().getFiles().size());
+					ArrayList<Integer> fileIds = new ArrayList<Integer>(lastFile - k);
+					ArrayList<String> filePaths = new ArrayList<String>(lastFile - k);
+					for(int l=k;l<lastFile;l++) {
+						fileIds.add(extractorConfig.getMusicFileList().getIds().get(l));
+						filePaths.add(extractorConfig.getMusicFileList().getFileAt(l));
+					}
+					ExtractionConfiguration extractorConfigWithFileBatch = new ExtractionConfiguration(new FileTable(fileIds,filePaths), featureTable);
 				
 					
 					ExtractorNodeScheduler extractorThread = null;
@@ -202,21 +205,12 @@ public class FeatureExtractionStarter extends AmuseTaskStarter {
 					}
 		
 				    // Prepare extractor node scheduler arguments and start it as thread
-				    extractorThread.setThreadParameters(AmusePreferences.get(KeysStringValue.AMUSE_PATH) + sep + "config" + sep + "node" + sep + "extractor", this.jobCounter, extractorConfigWithOneFile);
-				    Thread newExtractorThread = new Thread(extractorThread);
-				    // TODO Timeout einbauen
-				    while (this.nodeSchedulers.size() >= AmusePreferences.getInt(KeysIntValue.MAX_NUMBER_OF_TASK_THREADS)) {
-						try {
-						    Thread.sleep(1000);
-						} catch (InterruptedException e) {
-						    throw new SchedulerException(this.getClass().getName() + " was interrupted: " + e.getMessage());
-						}
-				    }
-				    this.connectSchedulerToErrorDescriptionList(extractorThread);
-
-				    nodeSchedulers.add(extractorThread);
+				    extractorThread.setThreadParameters(AmusePreferences.get(KeysStringValue.AMUSE_PATH) + sep + "config" + sep + "node" + sep + "extractor", this.jobCounter, extractorConfigWithFileBatch);
+				    
+				    // Each file of the batch reports its errors separately
+				    this.errorDescriptionsList.addAll(extractorThread.getFileErrorDescriptionBuilders());
 				    extractorThread.addListener(this);
-				    newExtractorThread.start();
+				    this.startNodeScheduler(extractorThread);
 				    this.jobCounter++;
 				}
 			}
@@ -224,15 +218,7 @@ public class FeatureExtractionStarter extends AmuseTaskStarter {
 	
 		// If the node schedulers are started directly (and not e.g. as grid scripts), wait until all jobs are ready
 		if (this.startNodeDirectly) {
-			// Wait until all jobs are ready
-			// TODO Timeout einbauen!
-			while (this.nodeSchedulers.size() > 0) {
-			    try {
-			    	Thread.sleep(1000);
-				} catch (InterruptedException e) {
-					throw new SchedulerException(this.getClass().getName() + " was interrupted: " + e.getMessage());
-				}
-			}
+			this.waitForNodeSchedulers();
 		}
 		
 		return this.jobCounter;
@@ -40,6 +40,7 @@ import amuse.interfaces.scheduler.AmuseTaskStarter;
 import amuse.interfaces.scheduler.SchedulerException;
 import amuse.nodes.processor.*;
 import amuse.preferences.AmusePreferences;
+import amuse.preferences.KeysBooleanValue;
 import amuse.preferences.KeysIntValue;
 import amuse.preferences.KeysStringValue;
 import amuse.util.AmuseLogger;
@@ -111,6 +112,27 @@ public class FeatureProcessingStarter extends AmuseTaskStarter {
         } catch (IOException ex) {
 
         }
+		
+		// In batch mode one locally started node scheduler processes all jobs
+		if (this.startNodeDirectly && AmusePreferences.getBoolean(KeysBooleanValue.PROCESSING_BATCH_MODE) && oneTaskConfigs.size() > 0) {
+			ProcessorNodeScheduler processorThread = null;
+			try {
+				processorThread = new ProcessorNodeScheduler(AmusePreferences.get(KeysStringValue.AMUSE_PATH) + 
+						File.separator + "config" + File.separator + "node" + File.separator + "processor" + File.separator + "input" + File.separator + "task_" + this.jobCounter);
+			} catch (NodeException e) {
+				throw new SchedulerException("Processor node thread could not be started: " + e.getMessage());
+			}
+			processorThread.setBatchParameters(AmusePreferences.get(KeysStringValue.AMUSE_PATH) + File.separator + "config" + File.separator + "node" + File.separator + "processor", this.jobCounter, oneTaskConfigs);
+			
+			// Each job of the batch reports its errors separately
+			this.errorDescriptionsList.addAll(processorThread.getBatchErrorDescriptionBuilders());
+			processorThread.addListener(this);
+			this.startNodeScheduler(processorThread);
+			this.jobCounter++;
+			this.waitForNodeSchedulers();
+			return this.jobCounter;
+		}
+		
 		// Generate and proceed Amuse jobs
 		for (int i = 0; i < oneTaskConfigs.size(); i++) {
 			
@@ -195,19 +217,9 @@ public class FeatureProcessingStarter extends AmuseTaskStarter {
 	
 			    // Prepare processor node scheduler arguments and start it as thread
 	   	    	processorThread.setThreadParameters(AmusePreferences.get(KeysStringValue.AMUSE_PATH) + File.separator + "config" + File.separator + "node" + File.separator + "processor", this.jobCounter, processorConfig);
-			    Thread newProcessorThread = new Thread(processorThread);
-			    // TODO Timeout einbauen
-			    while (this.nodeSchedulers.size() >= AmusePreferences.getInt(KeysIntValue.MAX_NUMBER_OF_TASK_THREADS)) {
-					try {
-					    Thread.sleep(1000);
-					} catch (InterruptedException e) {
-					    throw new SchedulerException(this.getClass().getName() + " was interrupted: " + e.getMessage());
-					}
-			    }
 			    this.connectSchedulerToErrorDescriptionList(processorThread);
-			    nodeSchedulers.add(processorThread);
-			    processorThread.addListener(this); 
-			    newProcessorThread.start();
+			    processorThread.addListener(this);
+			    this.startNodeScheduler(processorThread);
 			}
 			this.jobCounter++;
 		}
@@ -215,14 +227,7 @@ public class FeatureProcessingStarter extends AmuseTaskStarter {
 		// If the node schedulers are started directly (and not e.g. as grid scripts), wait until all jobs are ready
 		if (this.startNodeDirectly) {
 			
-			// TODO Timeout einbauen!
-			while (this.nodeSchedulers.size() > 0) {
-			    try {
-					Thread.sleep(1000);
-			    } catch (InterruptedException e) {
-					throw new SchedulerException(this.getClass().getName() + " was interrupted: " + e.getMessage());
-			    }
-			}
+			this.waitForNodeSchedulers();
 		}
 		
 		return this.jobCounter;
@@ -157,19 +157,9 @@ public class OptimizationStarter extends AmuseTaskStarter {
 			    // Prepare optimizer node scheduler arguments and start it as thread
 	   	    	optimizerThread.setThreadParameters(AmusePreferences.get(KeysStringValue.AMUSE_PATH) + File.separator + "config" + 
 	   	    			File.separator + "node" + File.separator + "optimizer", this.jobCounter, optimizerConfig);
-			    Thread newOptimizerThread = new Thread(optimizerThread);
-			    // TODO Timeout einbauen
-			    while (this.nodeSchedulers.size() >= AmusePreferences.getInt(KeysIntValue.MAX_NUMBER_OF_TASK_THREADS)) {
-					try {
-					    Thread.sleep(1000);
-					} catch (InterruptedException e) {
-					    throw new SchedulerException(this.getClass().getName() + " was interrupted: " + e.getMessage());
-					}
-			    }
 			    this.connectSchedulerToErrorDescriptionList(optimizerThread);
-			    nodeSchedulers.add(optimizerThread);
 			    optimizerThread.addListener(this);
-			    newOptimizerThread.start();
+			    this.startNodeScheduler(optimizerThread);
 			}
 			this.jobCounter++;
 		}
@@ -177,14 +167,7 @@ public class OptimizationStarter extends AmuseTaskStarter {
 		// If the node schedulers are started directly (and not e.g. as grid scripts), wait until all jobs are ready
 		if(this.startNodeDirectly) {
 			
-			// TODO Timeout einbauen!
-			while(this.nodeSchedulers.size() > 0) {
-				try {
-					Thread.sleep(1000);
-				} catch (InterruptedException e) {
-					throw new SchedulerException(this.getClass().getName() + " was interrupted: " + e.getMessage());
-				}
-			}
+			this.waitForNodeSchedulers();
 		} 
 		
 		return this.jobCounter;
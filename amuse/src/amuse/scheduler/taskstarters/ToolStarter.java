@@ -185,19 +185,9 @@ public class ToolStarter extends AmuseTaskStarter {
 			    // Prepare tool scheduler arguments and start it as thread
 				toolThread.setThreadParameters(AmusePreferences.get(KeysStringValue.AMUSE_PATH) + File.separator + "tools" + File.separator +  
 						toolConfig.getToolFolder(), this.jobCounter, toolConfig);
-			    Thread newToolThread = new Thread(toolThread);
-			    // TODO Timeout 
-			    while (this.nodeSchedulers.size() >= AmusePreferences.getInt(KeysIntValue.MAX_NUMBER_OF_TASK_THREADS)) {
-					try {
-					    Thread.sleep(1000);
-					} catch (InterruptedException e) {
-					    throw new SchedulerException(this.getClass().getName() + " was interrupted: " + e.getMessage());
-					}
-			    }
 			    this.connectSchedulerToErrorDescriptionList(toolThread);
-			    nodeSchedulers.add(toolThread);
 			    toolThread.addListener(this);
-			    newToolThread.start();
+			    this.startNodeScheduler(toolThread);
 			}
 			this.jobCounter++;
 		}
@@ -205,14 +195,7 @@ public class ToolStarter extends AmuseTaskStarter {
 		// If the node schedulers are started directly (and not e.g. as grid scripts), wait until all jobs are ready
 		if(this.startNodeDirectly) {
 			
-			// TODO Timeout
-			while(this.nodeSchedulers.size() > 0) {
-				try {
-					Thread.sleep(1000);
-				} catch (InterruptedException e) {
-					throw new SchedulerException(this.getClass().getName() + " was interrupted: " + e.getMessage());
-				}
-			}
+			this.waitForNodeSchedulers();
 		} 
 		
 		return this.jobCounter;
@@ -29,6 +29,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -41,6 +42,9 @@ public class ExternalProcessBuilder {
 
     private ProcessBuilder pb;
     private OSType os;
+    
+    /** Processes started by the current thread and the threads created by it, if they are tracked */
+    private static final InheritableThreadLocal<List<Process>> trackedProcesses = new InheritableThreadLocal<List<Process>>();
 
     private ExternalProcessBuilder() {
         os = determineOS();
@@ -70,6 +74,15 @@ public class ExternalProcessBuilder {
     	pb.redirectOutput(ProcessBuilder.Redirect.INHERIT);
     }
 
+    /**
+     * Shows only the error logs of the started process in AMUSE console and
+     * keeps the output stream separate, e.g. for the communication with the process
+     */
+    public void redirectErrorToAMUSE() {
+    	pb.redirectErrorStream(false);
+    	pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+    }
+
     public static ExternalProcessBuilder buildJavaProcess(List<String> javaProperties, List<String> classPath, List<String> command) {
 		OSType os = determineOS();
 		String delim = ":";
@@ -139,6 +152,45 @@ public class ExternalProcessBuilder {
      * @throws IOException
      */
     public Process start() throws IOException {
-        return pb.start();
+        Process process = pb.start();
+        List<Process> processes = trackedProcesses.get();
+        if (processes != null) {
+            synchronized (processes) {
+                processes.removeIf(p -> !p.isAlive());
+                processes.add(process);
+            }
+        }
+        return process;
+    }
+
+    /**
+     * Tracks the processes which are started by the current thread and the threads created
+     * by it afterwards, e.g. to destroy them if a task is cancelled
+     * @return List of the started processes which is updated by start()
+     */
+    public static List<Process> trackProcesses() {
+        List<Process> processes = Collections.synchronizedList(new ArrayList<Process>());
+        trackedProcesses.set(processes);
+        return processes;
+    }
+
+    /**
+     * Stops tracking the processes started by the current thread
+     */
+    public static void stopTrackingProcesses() {
+        trackedProcesses.remove();
+    }
+
+    /**
+     * Destroys the given processes which are still running
+     * @param processes Processes returned by trackProcesses()
+     */
+    public static void destroyProcesses(List<Process> processes) {
+        synchronized (processes) {
+            for (Process process : processes) {
+                process.destroyForcibly();
+            }
+            processes.clear();
+        }
     }
 }
@@ -0,0 +1,113 @@
+/**
+ * This file is part of AMUSE framework (Advanced MUsic Explorer).
+ *
+ * Copyright 2006-2010 by code authors
+ *
+ * Created at TU Dortmund, Chair of Algorithm Engineering
+ * (Contact: <http://ls11-www.cs.tu-dortmund.de>)
+ *
+ * AMUSE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AMUSE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with AMUSE. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Creation date: 18.10.2026
+ */
+package amuse.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Level;
+
+/**
+ * Waits for new or changed files in a folder. The folder is observed with a WatchService, so that
+ * the waiting returns as soon as a file appears. Since some file systems (e.g. network file systems
+ * used by grid machines) do not deliver change events, the waiting returns also after the polling
+ * interval, so that the folder is checked regularly in any case. If the folder can not be observed,
+ * only polling is used.
+ *
+ * Create the watcher before the folder is checked for the first time, so that no files are missed
+ * between checking and waiting.
+ *
+ * @author agent
+ * @version $Id$
+ */
+public class FolderWatcher implements Closeable {
+
+	private final WatchService watchService;
+	private final long pollingInterval;
+
+	/**
+	 * Constructor
+	 * @param folder Folder to observe
+	 * @param pollingInterval Maximum waiting time in milliseconds before the folder should be checked again
+	 */
+	public FolderWatcher(File folder, long pollingInterval) {
+		this.pollingInterval = pollingInterval;
+		WatchService service = null;
+		try {
+			service = FileSystems.getDefault().newWatchService();
+			folder.toPath().register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+		} catch(IOException e) {
+			AmuseLogger.write(this.getClass().getName(), Level.DEBUG, "Folder " + folder.getAbsolutePath() +
+					" can not be observed, using polling: " + e.getMessage());
+			if(service != null) {
+				try {
+					service.close();
+				} catch(IOException e2) {
+					// Nothing to do, polling is used
+				}
+			}
+			service = null;
+		}
+		this.watchService = service;
+	}
+
+	/**
+	 * Waits until a file in the observed folder is created or modified, but not longer than the polling interval
+	 * @throws InterruptedException
+	 */
+	public void awaitChange() throws InterruptedException {
+		if(watchService == null) {
+			Thread.sleep(pollingInterval);
+			return;
+		}
+		WatchKey key = watchService.poll(pollingInterval, TimeUnit.MILLISECONDS);
+
+		// Collect all pending events, the caller checks the complete folder anyway
+		while(key != null) {
+			key.pollEvents();
+			key.reset();
+			key = watchService.poll();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.io.Closeable#close()
+	 */
+	public void close() {
+		if(watchService != null) {
+			try {
+				watchService.close();
+			} catch(IOException e) {
+				AmuseLogger.write(this.getClass().getName(), Level.DEBUG, "Could not close the watch service: " + e.getMessage());
+			}
+		}
+	}
+}
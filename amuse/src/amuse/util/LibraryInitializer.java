@@ -62,9 +62,11 @@ public class LibraryInitializer {
 		throw new Exception("Method is outdated.");
 	}
 	/**
-	 * Initializes RapidMiner as library
+	 * Initializes RapidMiner as library. The models are not stored in the RapidMiner
+	 * repository (see RapidMinerModelStore), so that the repository folder is cleared
+	 * only once and several node schedulers may use RapidMiner in parallel threads
 	 */
-	public static void initializeRapidMiner() throws Exception {
+	public static synchronized void initializeRapidMiner() throws Exception {
 		if(!rapidMinerInitialized) {
 			try {
 				String pathToRapidMinerHome = AmusePreferences.get(KeysStringValue.AMUSE_PATH) + File.separator + "tools" + File.separator + "RapidMiner9";
@@ -106,12 +108,12 @@ public class LibraryInitializer {
 				
 				// Load the RapidMiner Repository
 				loadRapidMinerRepo();
+				clearRepositoryFolder();
 			} catch(Exception e) {
 				throw e;
 			}
 			rapidMinerInitialized = true;
 		}
-		clearRepositoryFolder();
 	}
 	
 	/**
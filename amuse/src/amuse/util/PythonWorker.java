@@ -0,0 +1,97 @@
+/**
+ * This file is part of AMUSE framework (Advanced MUsic Explorer).
+ *
+ * Copyright 2006-2020 by code authors
+ *
+ * Created at TU Dortmund, Chair of Algorithm Engineering
+ * (Contact: <http://ls11-www.cs.tu-dortmund.de>)
+ *
+ * AMUSE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AMUSE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with AMUSE. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Creation date: 18.10.2026
+ */
+package amuse.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import amuse.preferences.AmusePreferences;
+import amuse.preferences.KeysStringValue;
+
+/**
+ * Executes Python code in pooled {@link WorkerProcess}es running tools/PythonWorker/amuse_worker.py,
+ * so that the interpreter is started and the imported modules (e.g. numpy, keras or librosa)
+ * are loaded only once.
+ *
+ * @author agent
+ * @version $Id$
+ */
+public class PythonWorker {
+
+	private static final String WORKER_NAME = "python";
+
+	private static List<String> getCommand() {
+		String workerScript = AmusePreferences.get(KeysStringValue.AMUSE_PATH) + File.separator + "tools" + File.separator +
+				"PythonWorker" + File.separator + "amuse_worker.py";
+		return Arrays.asList(AmusePreferences.get(KeysStringValue.PYTHON_PATH), workerScript);
+	}
+
+	/**
+	 * Runs a Python script as main program, as if it was started with the given command line arguments
+	 * @param workingDirectory Working directory of the script
+	 * @param script Path to the script
+	 * @param arguments Command line arguments
+	 * @throws IOException If the worker could not be started or the script failed
+	 */
+	public static void runScript(File workingDirectory, String script, String... arguments) throws IOException {
+		WorkerMessage task = new WorkerMessage("run", workingDirectory.getAbsolutePath(), script);
+		for(String argument : arguments) {
+			task.add(argument);
+		}
+		WorkerProcess.call(WORKER_NAME, getCommand(), null, task);
+	}
+
+	/**
+	 * Calls a function of a Python module; the module is imported once per worker. The string
+	 * arguments are passed first, followed by the matrices as numpy arrays.
+	 * @param workingDirectory Working directory during the call
+	 * @param module Path to the Python file of the module
+	 * @param function Name of the function
+	 * @param arguments String arguments
+	 * @param matrices Matrix arguments
+	 * @return The matrices returned by the function
+	 * @throws IOException If the worker could not be started or the function failed
+	 */
+	public static List<double[][]> callFunction(File workingDirectory, String module, String function,
+			List<String> arguments, List<double[][]> matrices) throws IOException {
+		WorkerMessage task = new WorkerMessage("call", workingDirectory.getAbsolutePath(), module, function);
+		for(String argument : arguments) {
+			task.add(argument);
+		}
+		for(double[][] matrix : matrices) {
+			task.add(matrix);
+		}
+		WorkerMessage results = WorkerProcess.call(WORKER_NAME, getCommand(), null, task);
+		List<double[][]> resultMatrices = new ArrayList<double[][]>();
+		for(int i = 0; i < results.size(); i++) {
+			if(!results.isString(i)) {
+				resultMatrices.add(results.getMatrix(i));
+			}
+		}
+		return resultMatrices;
+	}
+}
@@ -0,0 +1,136 @@
+/**
+ * This file is part of AMUSE framework (Advanced MUsic Explorer).
+ *
+ * Copyright 2006-2010 by code authors
+ *
+ * Created at TU Dortmund, Chair of Algorithm Engineering
+ * (Contact: <http://ls11-www.cs.tu-dortmund.de>)
+ *
+ * AMUSE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AMUSE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with AMUSE. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Creation date: 18.10.2026
+ */
+package amuse.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ref.SoftReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.log4j.Level;
+
+import com.rapidminer.operator.Model;
+import com.rapidminer.operator.tools.IOObjectSerializer;
+
+/**
+ * Saves and loads the models trained by RapidMiner. The models are serialized directly into
+ * the model database in the same format as the entries of a RapidMiner repository, so that no
+ * shared repository folder is required and several trainers and classifiers can run in parallel
+ * threads. The models saved or loaded in this JVM are kept in memory as long as memory is
+ * available, so that e.g. a classifier started by the validator after the training of the
+ * model does not have to deserialize it again.
+ *
+ * @author agent
+ * @version $Id$
+ */
+public class RapidMinerModelStore {
+
+	/** Models in memory (canonical path of the model file -> model) */
+	private static final ConcurrentHashMap<String, CachedModel> models = new ConcurrentHashMap<String, CachedModel>();
+
+	/**
+	 * Saves the model into the given file and keeps it in memory
+	 * @param model Trained model
+	 * @param pathToModelFile Path to the model file in the model database
+	 * @throws IOException
+	 */
+	public static void save(Model model, String pathToModelFile) throws IOException {
+		File modelFile = new File(pathToModelFile);
+		if(modelFile.getParentFile() != null && !modelFile.getParentFile().exists() && !modelFile.getParentFile().mkdirs()) {
+			throw new IOException("Could not create the folder for the model file " + pathToModelFile);
+		}
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(modelFile));
+		try {
+			IOObjectSerializer.getInstance().serialize(out, model);
+		} finally {
+			out.close();
+		}
+		models.put(modelFile.getCanonicalPath(), new CachedModel(model, modelFile));
+	}
+
+	/**
+	 * Loads the model from the given file. If the model has been saved or loaded before and
+	 * the file was not changed since, the model in memory is returned
+	 * @param pathToModelFile Path to the model file
+	 * @return Model
+	 * @throws IOException
+	 */
+	public static Model load(String pathToModelFile) throws IOException {
+		File modelFile = new File(pathToModelFile);
+		String key = modelFile.getCanonicalPath();
+		CachedModel cachedModel = models.get(key);
+		if(cachedModel != null) {
+			Model model = cachedModel.get(modelFile);
+			if(model != null) {
+				AmuseLogger.write(RapidMinerModelStore.class.getName(), Level.DEBUG, "Using the model from memory: " + pathToModelFile);
+				return model;
+			}
+			models.remove(key, cachedModel);
+		}
+
+		Object loadedObject;
+		InputStream in = new BufferedInputStream(new FileInputStream(modelFile));
+		try {
+			loadedObject = IOObjectSerializer.getInstance().deserialize(in);
+		} finally {
+			in.close();
+		}
+		if(!(loadedObject instanceof Model)) {
+			throw new IOException("The file " + pathToModelFile + " does not contain a RapidMiner model");
+		}
+		models.put(key, new CachedModel((Model)loadedObject, modelFile));
+		return (Model)loadedObject;
+	}
+
+	/**
+	 * Model in memory together with the state of its file
+	 */
+	private static class CachedModel {
+		private final SoftReference<Model> model;
+		private final long lastModified;
+		private final long length;
+
+		private CachedModel(Model model, File modelFile) {
+			this.model = new SoftReference<Model>(model);
+			this.lastModified = modelFile.lastModified();
+			this.length = modelFile.length();
+		}
+
+		/**
+		 * Returns the model if it is still in memory and the file was not changed, null otherwise
+		 */
+		private Model get(File modelFile) {
+			if(modelFile.lastModified() != lastModified || modelFile.length() != length) {
+				return null;
+			}
+			return model.get();
+		}
+	}
+}
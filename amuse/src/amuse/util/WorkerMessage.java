@@ -0,0 +1,166 @@
+/**
+ * This file is part of AMUSE framework (Advanced MUsic Explorer).
+ *
+ * Copyright 2006-2020 by code authors
+ *
+ * Created at TU Dortmund, Chair of Algorithm Engineering
+ * (Contact: <http://ls11-www.cs.tu-dortmund.de>)
+ *
+ * AMUSE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AMUSE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with AMUSE. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Creation date: 18.10.2026
+ */
+package amuse.util;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Message exchanged with a {@link WorkerProcess}. A message is a sequence of fields, each either
+ * a string or a matrix of doubles. Framing (big endian):
+ * <ul>
+ * <li>number of fields (int)</li>
+ * <li>for a string field: type 0 (byte), length in bytes (int), UTF-8 bytes</li>
+ * <li>for a matrix field: type 1 (byte), rows (int), columns (int), values row by row (double)</li>
+ * </ul>
+ *
+ * @author agent
+ * @version $Id$
+ */
+public class WorkerMessage {
+
+	private static final byte STRING_FIELD = 0;
+	private static final byte MATRIX_FIELD = 1;
+
+	private final List<Object> fields = new ArrayList<Object>();
+
+	/**
+	 * @param strings String fields the message starts with, usually the name of the task
+	 */
+	public WorkerMessage(String... strings) {
+		for(String string : strings) {
+			add(string);
+		}
+	}
+
+	public WorkerMessage add(String string) {
+		if(string == null) {
+			throw new IllegalArgumentException("String fields must not be null");
+		}
+		fields.add(string);
+		return this;
+	}
+
+	/**
+	 * @param matrix Matrix with rows of equal length
+	 */
+	public WorkerMessage add(double[][] matrix) {
+		for(double[] row : matrix) {
+			if(row.length != matrix[0].length) {
+				throw new IllegalArgumentException("Matrix rows must have equal length");
+			}
+		}
+		fields.add(matrix);
+		return this;
+	}
+
+	public int size() {
+		return fields.size();
+	}
+
+	public boolean isString(int index) {
+		return fields.get(index) instanceof String;
+	}
+
+	public String getString(int index) {
+		return (String)fields.get(index);
+	}
+
+	public double[][] getMatrix(int index) {
+		return (double[][])fields.get(index);
+	}
+
+	List<Object> fields() {
+		return fields;
+	}
+
+	/**
+	 * Writes this message; also used by workers implemented in Java
+	 * @param out Output stream
+	 * @throws IOException
+	 */
+	public void write(DataOutputStream out) throws IOException {
+		out.writeInt(fields.size());
+		for(Object field : fields) {
+			if(field instanceof String) {
+				byte[] bytes = ((String)field).getBytes(StandardCharsets.UTF_8);
+				out.writeByte(STRING_FIELD);
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			} else {
+				double[][] matrix = (double[][])field;
+				int columns = matrix.length == 0 ? 0 : matrix[0].length;
+				out.writeByte(MATRIX_FIELD);
+				out.writeInt(matrix.length);
+				out.writeInt(columns);
+				ByteBuffer row = ByteBuffer.allocate(columns * 8);
+				for(double[] values : matrix) {
+					row.clear();
+					row.asDoubleBuffer().put(values);
+					out.write(row.array());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads a message; also used by workers implemented in Java
+	 * @param in Input stream
+	 * @return The message
+	 * @throws IOException If the stream ended (EOFException) or the message is invalid
+	 */
+	public static WorkerMessage read(DataInputStream in) throws IOException {
+		WorkerMessage message = new WorkerMessage();
+		int numberOfFields = in.readInt();
+		for(int i = 0; i < numberOfFields; i++) {
+			byte type = in.readByte();
+			if(type == STRING_FIELD) {
+				byte[] bytes = new byte[in.readInt()];
+				in.readFully(bytes);
+				message.fields.add(new String(bytes, StandardCharsets.UTF_8));
+			} else if(type == MATRIX_FIELD) {
+				int rows = in.readInt();
+				int columns = in.readInt();
+				if(rows < 0 || columns < 0) {
+					throw new IOException("Invalid matrix size " + rows + "x" + columns);
+				}
+				double[][] matrix = new double[rows][columns];
+				byte[] row = new byte[columns * 8];
+				for(double[] values : matrix) {
+					in.readFully(row);
+					ByteBuffer.wrap(row).asDoubleBuffer().get(values);
+				}
+				message.fields.add(matrix);
+			} else {
+				throw new IOException("Unknown field type " + type);
+			}
+		}
+		return message;
+	}
+}
@@ -0,0 +1,250 @@
+/**
+ * This file is part of AMUSE framework (Advanced MUsic Explorer).
+ *
+ * Copyright 2006-2020 by code authors
+ *
+ * Created at TU Dortmund, Chair of Algorithm Engineering
+ * (Contact: <http://ls11-www.cs.tu-dortmund.de>)
+ *
+ * AMUSE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AMUSE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with AMUSE. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Creation date: 18.10.2026
+ */
+package amuse.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Level;
+
+/**
+ * Long-lived external process which executes tasks sent as {@link WorkerMessage}s over its
+ * standard input and answers on its standard output, so that expensive start-ups
+ * (e.g. of an interpreter and its libraries) are done only once. The error stream of
+ * the process is shown in AMUSE console.<br/>
+ *
+ * Protocol: the worker reads task messages until its input is closed. It answers each task
+ * with a message starting with the string "ok", followed by the results, or with
+ * "error" and an error message. Every worker must answer the task "ping" with "ok";
+ * this is used as health check before a worker is used.<br/>
+ *
+ * Workers are pooled by name: idle workers are reused, crashed workers are replaced. A worker which does
+ * not answer a task within the given timeout is destroyed and replaced as well.
+ *
+ * @author agent
+ * @version $Id$
+ */
+public class WorkerProcess {
+
+	/** Idle workers by name; at most one worker per processor is kept for each name */
+	private static final Map<String, List<WorkerProcess>> idleWorkers = new HashMap<String, List<WorkerProcess>>();
+
+	private static final int MAX_IDLE_WORKERS = Runtime.getRuntime().availableProcessors();
+
+	/** Time in milliseconds in which a worker must answer the health check */
+	private static final long HEALTH_CHECK_TIMEOUT = 60 * 1000;
+
+	/** Destroys workers which do not answer in time */
+	private static final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "WorkerProcess watchdog");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			synchronized(idleWorkers) {
+				for(List<WorkerProcess> workers : idleWorkers.values()) {
+					for(WorkerProcess worker : workers) {
+						worker.process.destroy();
+					}
+				}
+				idleWorkers.clear();
+			}
+		}));
+	}
+
+	private final String name;
+	private final Process process;
+	private final DataOutputStream requests;
+	private final DataInputStream responses;
+
+	/** True if the worker was destroyed by the watchdog */
+	private volatile boolean timedOut = false;
+
+	private WorkerProcess(String name, List<String> command, File workingDirectory) throws IOException {
+		this.name = name;
+		ExternalProcessBuilder builder = new ExternalProcessBuilder(command);
+		if(workingDirectory != null) {
+			builder.setWorkingDirectory(workingDirectory);
+		}
+		builder.redirectErrorToAMUSE();
+		process = builder.start();
+		requests = new DataOutputStream(new BufferedOutputStream(process.getOutputStream(), 1 << 16));
+		responses = new DataInputStream(new BufferedInputStream(process.getInputStream(), 1 << 16));
+		if(!isHealthy()) {
+			process.destroyForcibly();
+			throw new IOException("Worker '" + name + "' does not answer");
+		}
+		AmuseLogger.write(WorkerProcess.class.getName(), Level.DEBUG, "Started worker '" + name + "'");
+	}
+
+	/**
+	 * Executes a task with an idle worker of the given name without a timeout, see
+	 * {@link #call(String, List, File, WorkerMessage, long)}
+	 */
+	public static WorkerMessage call(String name, List<String> command, File workingDirectory, WorkerMessage task) throws IOException {
+		return call(name, command, workingDirectory, task, 0);
+	}
+
+	/**
+	 * Executes a task with an idle worker of the given name; a new worker is started if no worker is idle.
+	 * If the worker crashes or does not answer in time, it is replaced and the task is sent once more to a new worker.
+	 * @param name Name of the worker pool, e.g. the worker program
+	 * @param command Command to start a worker
+	 * @param workingDirectory Working directory of a started worker, or null for the current directory
+	 * @param task Task message
+	 * @param timeout Time in milliseconds after which a worker which has not answered is destroyed (0 = no timeout)
+	 * @return The results of the task, without the status field
+	 * @throws IOException If no worker could be started, the worker failed twice or the task failed
+	 */
+	public static WorkerMessage call(String name, List<String> command, File workingDirectory, WorkerMessage task, long timeout) throws IOException {
+		IOException workerFailure = null;
+		for(int attempt = 0; attempt < 2; attempt++) {
+			WorkerProcess worker = acquire(name, command, workingDirectory);
+			WorkerMessage reply;
+			try {
+				reply = worker.exchange(task, timeout);
+			} catch(IOException e) {
+				worker.process.destroyForcibly();
+				workerFailure = e;
+				AmuseLogger.write(WorkerProcess.class.getName(), Level.WARN,
+						"Worker '" + name + "' failed, starting a new one: " + e.getMessage());
+				continue;
+			}
+			release(worker);
+			if(reply.size() == 0 || !reply.isString(0)) {
+				throw new IOException("Invalid answer of worker '" + name + "'");
+			}
+			if(!reply.getString(0).equals("ok")) {
+				throw new IOException("Task failed in worker '" + name + "': " +
+						(reply.size() > 1 && reply.isString(1) ? reply.getString(1) : reply.getString(0)));
+			}
+			WorkerMessage results = new WorkerMessage();
+			results.fields().addAll(reply.fields().subList(1, reply.size()));
+			return results;
+		}
+		throw new IOException("Worker '" + name + "' failed: " + workerFailure.getMessage());
+	}
+
+	private static WorkerProcess acquire(String name, List<String> command, File workingDirectory) throws IOException {
+		while(true) {
+			WorkerProcess worker = null;
+			synchronized(idleWorkers) {
+				List<WorkerProcess> workers = idleWorkers.get(name);
+				if(workers != null && !workers.isEmpty()) {
+					worker = workers.remove(workers.size() - 1);
+				}
+			}
+			if(worker == null) {
+				return new WorkerProcess(name, command, workingDirectory);
+			}
+			if(worker.isHealthy()) {
+				return worker;
+			}
+			worker.process.destroyForcibly();
+		}
+	}
+
+	private static void release(WorkerProcess worker) {
+		synchronized(idleWorkers) {
+			List<WorkerProcess> workers = idleWorkers.get(worker.name);
+			if(workers == null) {
+				workers = new ArrayList<WorkerProcess>();
+				idleWorkers.put(worker.name, workers);
+			}
+			if(workers.size() < MAX_IDLE_WORKERS) {
+				workers.add(worker);
+				return;
+			}
+		}
+		worker.stop();
+	}
+
+	/**
+	 * @return True if the worker is alive and answers "ping" with "ok"
+	 */
+	private boolean isHealthy() {
+		if(!process.isAlive()) {
+			return false;
+		}
+		try {
+			WorkerMessage reply = exchange(new WorkerMessage("ping"), HEALTH_CHECK_TIMEOUT);
+			return reply.size() > 0 && reply.isString(0) && reply.getString(0).equals("ok");
+		} catch(IOException e) {
+			return false;
+		}
+	}
+
+	private WorkerMessage exchange(WorkerMessage task, long timeout) throws IOException {
+		ScheduledFuture<?> destruction = null;
+		if(timeout > 0) {
+			destruction = watchdog.schedule(() -> {
+				timedOut = true;
+				process.destroyForcibly();
+			}, timeout, TimeUnit.MILLISECONDS);
+		}
+		try {
+			task.write(requests);
+			requests.flush();
+			return WorkerMessage.read(responses);
+		} catch(IOException e) {
+			if(timedOut) {
+				throw new IOException("The worker process did not answer within " + (timeout / 1000) + " seconds");
+			}
+			if(e instanceof EOFException) {
+				throw new IOException("The worker process ended unexpectedly");
+			}
+			throw e;
+		} finally {
+			if(destruction != null) {
+				destruction.cancel(false);
+			}
+		}
+	}
+
+	/**
+	 * Closes the input of the worker, which stops it
+	 */
+	private void stop() {
+		try {
+			requests.close();
+		} catch(IOException e) {
+			process.destroy();
+		}
+	}
+}
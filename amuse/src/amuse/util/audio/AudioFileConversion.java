@@ -40,7 +40,10 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.List;
 import java.util.logging.Logger;
 
 /**
@@ -54,102 +57,235 @@ public class AudioFileConversion {
    public enum KHz {
 	   KHz11, KHz22, KHz44
    }
+
+    /** Size of the buffers used to read audio files */
+    private static final int STREAM_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Converts the music file to a wave file with the given sample rate and channels. The file is decoded,
+     * resampled, reduced to mono and written in one pass, so the target file is the only file written.
+     */
     public static void convertFile(File musicFile, File targetFile, KHz khz, boolean isReduceToMono, boolean isDownSamplingActive) throws IOException {
-	int targetKHZ;
-        if (khz == KHz.KHz44) {
-            targetKHZ = 44100;
-        } else if (khz == KHz.KHz22) {
-            targetKHZ = 22050;
-        } else if (khz == KHz.KHz11) {
-            targetKHZ = 11025;
-        } else {
-            targetKHZ = 44100;
-        }
-        boolean isOriginal = true;
-        AudioFileFormat audioFileFormat = null;
-        File wavFile = new File(targetFile.getParent() + File.separator + "tmp_" + musicFile.getName());
-        // ---------------------------------------------------------------------
-        // I.: Try to get AudioFileFormat:
-        // ---------------------------------------------------------------------
+        int targetKHZ = getTargetSampleRate(khz);
+        boolean isWave = isWaveFile(musicFile);
+        AudioInputStream sourceStream = null;
+        AudioInputStream targetStream = null;
         try {
-            audioFileFormat = AudioSystem.getAudioFileFormat(musicFile);
-        } catch (UnsupportedAudioFileException ex) {
-            // If no wave file is given, this exception is generated. However the conversion mp3->wave can
-            // be done!
-            // throw new NodeException("Could not convert audio file: " + ex.getMessage());
-        } catch (IOException ex) {
-            throw new IOException("Error accessing file to process: " + ex.getMessage());
-        }
+            sourceStream = openDecodedStream(musicFile, isWave);
+            AudioFormat format = sourceStream.getFormat();
+            AmuseLogger.write(AudioFileConversion.class.getName(), Level.DEBUG, "Starting: "+musicFile.getName() + " "+ (int)format.getFrameRate()+"kHz, "+format.getChannels());
+            targetStream = convertStream(musicFile, sourceStream, targetKHZ, isReduceToMono, isDownSamplingActive);
 
-        // ---------------------------------------------------------------------
-        // II.: Try to convert mp3 to wave if needed:
-        // ---------------------------------------------------------------------
-        if (audioFileFormat == null || audioFileFormat.getType() != Type.WAVE) { // If not wave already, convert to wave
-            try {
-                AmuseLogger.write(AudioFileConversion.class.getName(), Level.INFO, "Converting " + musicFile.getName() + " to wave.");
-                convertMp3ToWave(musicFile, wavFile);
-                isOriginal = false;
-            } catch (IOException ex) {
-                throw new IOException("Error converting audio file " + musicFile.getName() + ": " + ex.getMessage());
+            // ---------------------------------------------------------------------
+            // Write the target file once; unchanged wave files are only copied
+            // ---------------------------------------------------------------------
+            if (isWave && targetStream == sourceStream) {
+                sourceStream.close();
+                fileCopy(musicFile, targetFile);
+            } else {
+                AudioSystem.write(targetStream, Type.WAVE, targetFile);
             }
-        } else {
-
-            // wavFile is now the file to process.
-            wavFile = musicFile;
-        }
-
-        // ---------------------------------------------------------------------
-        // III.: Try to reduce audio quality:
-        // ---------------------------------------------------------------------
-        try {
-            AudioFormat format = AudioSystem.getAudioFileFormat(wavFile).getFormat();
-            AmuseLogger.write(AudioFileConversion.class.getName(), Level.DEBUG, "Starting: "+wavFile.getName() + " "+ (int)format.getFrameRate()+"kHz, "+format.getChannels());
-            fileCopy(wavFile, targetFile);
-            if (!isDownSamplingActive) {
-		targetKHZ = (int) format.getFrameRate();
-	    }
-            if (!isReduceToMono && format.getChannels() == 1) {
-		AmuseLogger.write(AudioFileConversion.class.getName(), Level.WARN, "Target is stereo, but this file is mono already: " + wavFile.getName());
-	    }
-            if (isDownSamplingActive && targetKHZ > format.getFrameRate()) {
-		AmuseLogger.write(AudioFileConversion.class.getName(), Level.WARN, "Target is " + targetKHZ + "kHz, but this file is at " + (int) format.getFrameRate() + "kHz already: " + wavFile.getName());
-	    }
-            sampleToTargetSize(targetFile, targetKHZ, isReduceToMono);
             format = AudioSystem.getAudioFileFormat(targetFile).getFormat();
             AmuseLogger.write(AudioFileConversion.class.getName(), Level.DEBUG, "Result: "+targetFile.getName() + " "+ (int)format.getFrameRate()+"kHz, "+format.getChannels());
             if (isDownSamplingActive && format.getFrameRate() != 44100f && format.getFrameRate() != 22050f && format.getFrameRate() != 11025f) {
-                AmuseLogger.write(AudioFileConversion.class.getName(), Level.WARN, "This file has no standard frame rate: \"" + wavFile + "\"");
+                AmuseLogger.write(AudioFileConversion.class.getName(), Level.WARN, "This file has no standard frame rate: \"" + musicFile + "\"");
             }
-            deleteConvertedFile(wavFile, isOriginal);
         } catch (IOException ex) {
-            ex.printStackTrace();
             AmuseLogger.write(AudioFileConversion.class.getName(), Level.ERROR, "Unable to perform down-sampling: " + ex.getMessage());
-            fileCopy(wavFile, targetFile);
-            deleteConvertedFile(wavFile, isOriginal);
+            copyUnconvertedWave(musicFile, targetFile, isWave);
             throw ex;
         } catch (UnsupportedAudioFileException ex) {
-            fileCopy(wavFile, targetFile);
-            deleteConvertedFile(wavFile, isOriginal);
             AmuseLogger.write(AudioFileConversion.class.getName(), Level.ERROR, "Unsupported Audio-File: \"" + ex.getLocalizedMessage() + "\"");
+            copyUnconvertedWave(musicFile, targetFile, isWave);
+            throw new IOException(ex.getMessage());
+        } catch (IllegalArgumentException ex) {
+            // Thrown by AudioSystem if no converter to the target format is available
+            AmuseLogger.write(AudioFileConversion.class.getName(), Level.ERROR, "Unable to perform down-sampling: " + ex.getMessage());
+            copyUnconvertedWave(musicFile, targetFile, isWave);
             throw new IOException(ex.getMessage());
+        } finally {
+            if (targetStream != null) {
+                targetStream.close();
+            }
+            if (sourceStream != null) {
+                sourceStream.close();
+            }
+        }
+    }
+
+    /**
+     * Decodes the music file, converted with the given sample rate and channels, into memory. This can be used
+     * by extractors which process the samples directly, so that no wave file has to be written.
+     *
+     * @return The samples in the range [-1, 1], interleaved if there are several channels
+     */
+    public static PcmSamples convertToSamples(File musicFile, KHz khz, boolean isReduceToMono, boolean isDownSamplingActive) throws IOException {
+        int targetKHZ = getTargetSampleRate(khz);
+        AudioInputStream sourceStream = null;
+        AudioInputStream targetStream = null;
+        try {
+            sourceStream = openDecodedStream(musicFile, isWaveFile(musicFile));
+            targetStream = convertStream(musicFile, sourceStream, targetKHZ, isReduceToMono, isDownSamplingActive);
+            AudioFormat format = targetStream.getFormat();
+            if (format.getSampleSizeInBits() != 16 || !format.getEncoding().equals(AudioFormat.Encoding.PCM_SIGNED) || format.isBigEndian()) {
+                targetStream = AudioSystem.getAudioInputStream(new AudioFormat(format.getSampleRate(), 16, format.getChannels(), true, false), targetStream);
+            }
+            return readSamples(targetStream);
+        } catch (UnsupportedAudioFileException | IllegalArgumentException ex) {
+            throw new IOException("Unable to decode " + musicFile.getName() + ": " + ex.getMessage());
+        } finally {
+            if (targetStream != null) {
+                targetStream.close();
+            }
+            if (sourceStream != null) {
+                sourceStream.close();
+            }
         }
+    }
 
+    /**
+     * Decodes the music file into memory with the settings stored in <class>AmusePreferences</class>.
+     */
+    public static PcmSamples convertToSamplesWithSettings(File musicFile) throws IOException {
+        return convertToSamples(musicFile, getKHzFromSettings(), AmusePreferences.getBoolean(KeysBooleanValue.REDUCE_TO_MONO),
+                AmusePreferences.getBoolean(KeysBooleanValue.USE_DOWNSAMPLING));
     }
-    public static void convertWithSettings(File musicFile, File targetFile) throws IOException {
-        boolean isReduceToMono = AmusePreferences.getBoolean(KeysBooleanValue.REDUCE_TO_MONO);
-        boolean isDownSamplingActive = AmusePreferences.getBoolean(KeysBooleanValue.USE_DOWNSAMPLING);
+
+    private static int getTargetSampleRate(KHz khz) {
+        if (khz == KHz.KHz44) {
+            return 44100;
+        } else if (khz == KHz.KHz22) {
+            return 22050;
+        } else if (khz == KHz.KHz11) {
+            return 11025;
+        } else {
+            return 44100;
+        }
+    }
+
+    private static KHz getKHzFromSettings() {
         int targetKHZ = AmusePreferences.getInt(KeysIntValue.DOWNSAMPLING_TARGET_SIZE_IN_HZ);
-	KHz khz;
         if (targetKHZ == 0) {
-            khz = KHz.KHz44;
+            return KHz.KHz44;
         } else if (targetKHZ == 1) {
-            khz = KHz.KHz22;
+            return KHz.KHz22;
         } else if (targetKHZ == 2) {
-            khz = KHz.KHz11;
+            return KHz.KHz11;
         } else {
-            khz = KHz.KHz44;
+            return KHz.KHz44;
+        }
+    }
+
+    private static boolean isWaveFile(File musicFile) throws IOException {
+        try {
+            return AudioSystem.getAudioFileFormat(musicFile).getType() == Type.WAVE;
+        } catch (UnsupportedAudioFileException ex) {
+            // If no wave file is given, this exception is generated. However the file can be decoded as mp3!
+            return false;
+        } catch (IOException ex) {
+            throw new IOException("Error accessing file to process: " + ex.getMessage());
         }
-	convertFile(musicFile, targetFile, khz, isReduceToMono, isDownSamplingActive);
+    }
+
+    /**
+     * Opens the music file as PCM stream; mp3 files are decoded while the stream is read.
+     */
+    private static AudioInputStream openDecodedStream(File musicFile, boolean isWave) throws IOException, UnsupportedAudioFileException {
+        InputStream fileStream = new BufferedInputStream(new FileInputStream(musicFile), STREAM_BUFFER_SIZE);
+        try {
+            if (isWave) {
+                return AudioSystem.getAudioInputStream(fileStream);
+            }
+            AmuseLogger.write(AudioFileConversion.class.getName(), Level.INFO, "Decoding " + musicFile.getName() + ".");
+            return new Mp3DecodingInputStream(fileStream).getAudioInputStream();
+        } catch (IOException ex) {
+            fileStream.close();
+            throw new IOException("Error converting audio file " + musicFile.getName() + ": " + ex.getMessage());
+        } catch (UnsupportedAudioFileException ex) {
+            fileStream.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Chains the resampling and the reduction to mono to the source stream. The sample rate is halved until
+     * it is not above the target sample rate.
+     *
+     * @return The converted stream or the source stream if no conversion is required
+     */
+    private static AudioInputStream convertStream(File musicFile, AudioInputStream sourceStream, int targetKHZ, boolean isReduceToMono, boolean isDownSamplingActive) {
+        AudioFormat format = sourceStream.getFormat();
+        if (!SampleRateConverter.isPcm(format.getEncoding())) {
+            throw new IllegalArgumentException("Encoding of " + musicFile.getName() + " is not PCM: " + format.getEncoding());
+        }
+        if (!isDownSamplingActive) {
+            targetKHZ = (int) format.getFrameRate();
+        }
+        if (!isReduceToMono && format.getChannels() == 1) {
+            AmuseLogger.write(AudioFileConversion.class.getName(), Level.WARN, "Target is stereo, but this file is mono already: " + musicFile.getName());
+        }
+        if (isDownSamplingActive && targetKHZ > format.getFrameRate()) {
+            AmuseLogger.write(AudioFileConversion.class.getName(), Level.WARN, "Target is " + targetKHZ + "kHz, but this file is at " + (int) format.getFrameRate() + "kHz already: " + musicFile.getName());
+        }
+        float hz = format.getSampleRate();
+        while (hz > targetKHZ) {
+            hz = hz / 2;
+        }
+        AudioInputStream stream = sourceStream;
+        if (hz != format.getSampleRate()) {
+            stream = AudioSystem.getAudioInputStream(new AudioFormat(format.getEncoding(), hz, format.getSampleSizeInBits(),
+                    format.getChannels(), format.getFrameSize(), hz, format.isBigEndian()), stream);
+        }
+        if (isReduceToMono && format.getChannels() > 1) {
+            stream = AudioSystem.getAudioInputStream(new AudioFormat(format.getEncoding(), hz, format.getSampleSizeInBits(),
+                    1, format.getFrameSize() / format.getChannels(), hz, format.isBigEndian()), stream);
+        }
+        return stream;
+    }
+
+    /**
+     * Reads a 16 bit signed little endian stream into memory
+     */
+    private static PcmSamples readSamples(AudioInputStream stream) throws IOException {
+        AudioFormat format = stream.getFormat();
+        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        float[] samples = new float[stream.getFrameLength() > 0 ? (int) (stream.getFrameLength() * format.getChannels()) : STREAM_BUFFER_SIZE];
+        int numberOfSamples = 0;
+        int bufferedBytes = 0;
+        int read;
+        while ((read = stream.read(buffer, bufferedBytes, buffer.length - bufferedBytes)) > -1) {
+            bufferedBytes += read;
+            int completeBytes = bufferedBytes & ~1;
+            if (numberOfSamples + completeBytes / 2 > samples.length) {
+                samples = Arrays.copyOf(samples, Math.max(samples.length * 2, numberOfSamples + completeBytes / 2));
+            }
+            for (int i = 0; i < completeBytes; i += 2) {
+                samples[numberOfSamples++] = (short) ((buffer[i] & 0xFF) | (buffer[i + 1] << 8)) / 32768f;
+            }
+            if (completeBytes < bufferedBytes) {
+                buffer[0] = buffer[completeBytes];
+            }
+            bufferedBytes -= completeBytes;
+        }
+        int completeFrames = numberOfSamples / format.getChannels() * format.getChannels();
+        return new PcmSamples(Arrays.copyOf(samples, completeFrames), format.getSampleRate(), format.getChannels());
+    }
+
+    /**
+     * If the conversion fails, the unconverted wave file is copied to the target as before
+     */
+    private static void copyUnconvertedWave(File musicFile, File targetFile, boolean isWave) {
+        if (isWave) {
+            fileCopy(musicFile, targetFile);
+        } else if (targetFile.exists()) {
+            targetFile.delete();
+        }
+    }
+
+    public static void convertWithSettings(File musicFile, File targetFile) throws IOException {
+        boolean isReduceToMono = AmusePreferences.getBoolean(KeysBooleanValue.REDUCE_TO_MONO);
+        boolean isDownSamplingActive = AmusePreferences.getBoolean(KeysBooleanValue.USE_DOWNSAMPLING);
+        convertFile(musicFile, targetFile, getKHzFromSettings(), isReduceToMono, isDownSamplingActive);
     }
 
     /**
@@ -205,8 +341,10 @@ public class AudioFileConversion {
                 }
                 File src = new File(wavFile.getAbsolutePath() + "." + index);
                 File dest = new File(targetDir.getAbsolutePath() + File.separator + index + File.separator + wavFile.getName());
-                fileCopy(src, dest);
-                src.delete();
+                if (!src.renameTo(dest)) {
+                    fileCopy(src, dest);
+                    src.delete();
+                }
                 index++;
             }
         }
@@ -214,81 +352,40 @@ public class AudioFileConversion {
 
     /**
      * This method splits up a single .wav File into multiple smaller files.
-     * The actual limit of each files size is given as a parameter.
+     * The actual limit of each files size is given as a parameter. The RIFF header is parsed once and
+     * the audio data is cut on frame boundaries directly into the part files.
      *
      * @param waveFile  The .wav to split.
-     * @param splitSize The maximum size of each split part in KiloByte.
+     * @param splitSize The maximum size of the audio data of each split part in KiloByte.
      * @return The count of files created.
      * @throws java.io.IOException
      */
     public static int splitWaveFile(File waveFile, int splitSize) throws IOException {
-        int part = 1;
-        AudioInputStream ais = null;
-        FileInputStream tmpFis = null;
-        BufferedInputStream tmpBis = null;
-        File tempOutputFile = null;
-        FileOutputStream tmpOutputStream = null;
-        
         if (waveFile.length() < 1024 * splitSize) {
         	
         	// Also when the file is not splitted, processFile() expects that file ends with ".1"
         	// (see the line with "while (index <= splitFileCount) {") 
-        	fileCopy(waveFile, getNextSplitFile(waveFile, part));
+        	fileCopy(waveFile, getNextSplitFile(waveFile, 1));
         	return 1;
         }
-        try {
-            tempOutputFile = new File(waveFile.getParentFile().getAbsolutePath() + File.separator + ".tmp_" + waveFile.getName());
-            tmpOutputStream = new FileOutputStream(tempOutputFile);
-            tmpFis = new FileInputStream(waveFile);
-            tmpBis = new BufferedInputStream(tmpFis);
-            ais = AudioSystem.getAudioInputStream(tmpBis);
-            // Size to split at in Byte.
-            int maxSize = 1024 * splitSize;
-            File currentOutputFile = getNextSplitFile(waveFile, part);
-            currentOutputFile.createNewFile();
-            AudioFormat format = ais.getFormat();
-            byte[] buffer = new byte[1024];
-            int bytesWritten = 0;
-            while (ais.read(buffer) > -1) {
-                if (bytesWritten > maxSize) {
-                    AudioInputStream tais = new AudioInputStream(new FileInputStream(tempOutputFile), format, tempOutputFile.length() / format.getFrameSize());
-                    AudioSystem.write(tais, Type.WAVE, currentOutputFile);
-                    tmpOutputStream.close();
-                    tempOutputFile.delete();
-                    tempOutputFile.createNewFile();
-                    tmpOutputStream = new FileOutputStream(tempOutputFile);
-                    part++;
-                    currentOutputFile = getNextSplitFile(waveFile, part);
-                    currentOutputFile.createNewFile();
-                    bytesWritten = 0;
-                }
-                tmpOutputStream.write(buffer);
-                bytesWritten += 1024;
-            }
-            tmpOutputStream.close();
-            AudioInputStream tais = new AudioInputStream(new FileInputStream(tempOutputFile), format, tempOutputFile.length() / format.getFrameSize());
-            AudioSystem.write(tais, Type.WAVE, currentOutputFile);
-            tais.close();
-        } catch (UnsupportedAudioFileException ex) {
-            throw new IOException(ex);
-        } finally {
-            if (ais != null) {
-                ais.close();
-            }
-            if (tmpBis != null) {
-                tmpBis.close();
-            }
-            if (tmpFis != null) {
-                tmpFis.close();
-            }
-            if (tmpOutputStream != null) {
-                tmpOutputStream.close();
-            }
-            if (tempOutputFile.exists()) {
-                tempOutputFile.delete();
-            }
+        List<WaveFileSection> parts = getWaveFileParts(waveFile, splitSize, 0);
+        for (int part = 1; part <= parts.size(); part++) {
+            parts.get(part - 1).write(getNextSplitFile(waveFile, part));
         }
-        return part;
+        return parts.size();
+    }
+
+    /**
+     * Cuts a .wav file into virtual parts which can be read as audio streams without splitting the file.
+     *
+     * @param waveFile    The .wav to split.
+     * @param splitSize   The maximum size of the audio data of each part in KiloByte.
+     * @param overlapSize The size in KiloByte by which each part overlaps the previous one.
+     * @return The parts in the order of the audio data.
+     * @throws java.io.IOException
+     */
+    public static List<WaveFileSection> getWaveFileParts(File waveFile, int splitSize, int overlapSize) throws IOException {
+        return WaveFileSection.getSections(waveFile, 1024L * splitSize, 1024L * overlapSize);
     }
 
     /**
@@ -307,15 +404,6 @@ public class AudioFileConversion {
         }
     }
 
-    private static void deleteConvertedFile(File wavFile, boolean original) {
-        if (!original) {
-            boolean success = wavFile.delete();
-            if (!success) {
-		wavFile.deleteOnExit();
-	    }
-        }
-    }
-
     private static void fileCopy(File srcFile, File destFile) {
     	FileInputStream srcChannelFIS = null;
     	FileOutputStream dstChannelFOS = null;
@@ -394,15 +482,4 @@ public class AudioFileConversion {
         processFile(destFolder, musicFile);
     }
 
-    private static void sampleToTargetSize(File file, int targetKHZ, boolean isReduceToMono) throws UnsupportedAudioFileException, IOException {
-        AudioFormat format = AudioSystem.getAudioFileFormat(file).getFormat();
-        File tmpFile = new File(file.getParent() + File.separator + "tmp_" + file.getName());
-        fileCopy(file, tmpFile);
-        float hz = format.getSampleRate();
-        while (hz > targetKHZ) {
-		    hz = hz / 2;
-		}
-	        SampleRateConverter.changeFormat(tmpFile, file, hz, isReduceToMono);
-	        tmpFile.delete();
-	    }
 }
@@ -0,0 +1,144 @@
+/**
+ * This file is part of AMUSE framework (Advanced MUsic Explorer).
+ *
+ * Copyright 2006-2010 by code authors
+ *
+ * Created at TU Dortmund, Chair of Algorithm Engineering
+ * (Contact: <http://ls11-www.cs.tu-dortmund.de>)
+ *
+ * AMUSE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AMUSE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with AMUSE. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Creation date: 18.10.2026
+ */
+package amuse.util.audio;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+
+import javazoom.jl.decoder.Bitstream;
+import javazoom.jl.decoder.BitstreamException;
+import javazoom.jl.decoder.Decoder;
+import javazoom.jl.decoder.DecoderException;
+import javazoom.jl.decoder.Header;
+import javazoom.jl.decoder.SampleBuffer;
+
+/**
+ * Decodes an mp3 stream frame by frame with the javazoom library into 16 bit signed little endian PCM,
+ * as the javazoom converter does, but without writing a wave file.
+ *
+ * @author agent
+ * @version $Id$
+ */
+class Mp3DecodingInputStream extends InputStream {
+
+	private final Bitstream bitstream;
+	private final Decoder decoder;
+	private final AudioFormat format;
+
+	/** Decoded bytes of the current frame */
+	private byte[] frameBytes = new byte[0];
+	private int frameLength = 0;
+	private int framePosition = 0;
+	private boolean finished = false;
+
+	/**
+	 * Reads the first frame to get the format of the decoded stream
+	 * @param mp3Stream Encoded stream, should be buffered
+	 */
+	Mp3DecodingInputStream(InputStream mp3Stream) throws IOException {
+		bitstream = new Bitstream(mp3Stream);
+		decoder = new Decoder();
+		if(!decodeNextFrame()) {
+			throw new IOException("No mp3 frames found");
+		}
+		format = new AudioFormat(decoder.getOutputFrequency(), 16, decoder.getOutputChannels(), true, false);
+	}
+
+	/**
+	 * @return The decoded stream with unknown length
+	 */
+	AudioInputStream getAudioInputStream() {
+		return new AudioInputStream(this, format, AudioSystem.NOT_SPECIFIED);
+	}
+
+	private boolean decodeNextFrame() throws IOException {
+		try {
+			Header header = bitstream.readFrame();
+			if(header == null) {
+				finished = true;
+				return false;
+			}
+			SampleBuffer output = (SampleBuffer) decoder.decodeFrame(header, bitstream);
+			bitstream.closeFrame();
+			short[] samples = output.getBuffer();
+			int length = output.getBufferLength();
+			if(frameBytes.length < length * 2) {
+				frameBytes = new byte[length * 2];
+			}
+			for(int i = 0; i < length; i++) {
+				frameBytes[2 * i] = (byte) samples[i];
+				frameBytes[2 * i + 1] = (byte) (samples[i] >>> 8);
+			}
+			frameLength = length * 2;
+			framePosition = 0;
+			return true;
+		} catch(BitstreamException e) {
+			throw new IOException("Mp3 stream error: " + e.getMessage());
+		} catch(DecoderException e) {
+			throw new IOException("Mp3 decoding error: " + e.getMessage());
+		}
+	}
+
+	@Override
+	public int read() throws IOException {
+		byte[] b = new byte[1];
+		return read(b, 0, 1) < 0 ? -1 : (b[0] & 0xFF);
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if(len == 0) {
+			return 0;
+		}
+		int bytesRead = 0;
+		while(bytesRead < len) {
+			if(framePosition == frameLength && (finished || !decodeNextFrame())) {
+				break;
+			}
+			int bytesToCopy = Math.min(len - bytesRead, frameLength - framePosition);
+			System.arraycopy(frameBytes, framePosition, b, off + bytesRead, bytesToCopy);
+			framePosition += bytesToCopy;
+			bytesRead += bytesToCopy;
+		}
+		return bytesRead == 0 ? -1 : bytesRead;
+	}
+
+	@Override
+	public int available() {
+		return frameLength - framePosition;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			bitstream.close();
+		} catch(BitstreamException e) {
+			throw new IOException("Mp3 stream error: " + e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,67 @@
+/**
+ * This file is part of AMUSE framework (Advanced MUsic Explorer).
+ *
+ * Copyright 2006-2010 by code authors
+ *
+ * Created at TU Dortmund, Chair of Algorithm Engineering
+ * (Contact: <http://ls11-www.cs.tu-dortmund.de>)
+ *
+ * AMUSE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AMUSE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with AMUSE. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Creation date: 18.10.2026
+ */
+package amuse.util.audio;
+
+/**
+ * Decoded audio samples in memory, for extractors which process PCM data directly
+ * instead of reading a converted wave file.
+ *
+ * @author agent
+ * @version $Id$
+ */
+public class PcmSamples {
+
+	/** Samples in the range [-1, 1], interleaved if there are several channels */
+	private final float[] samples;
+	private final float sampleRate;
+	private final int channels;
+
+	public PcmSamples(float[] samples, float sampleRate, int channels) {
+		this.samples = samples;
+		this.sampleRate = sampleRate;
+		this.channels = channels;
+	}
+
+	/**
+	 * @return Samples in the range [-1, 1], interleaved if there are several channels
+	 */
+	public float[] getSamples() {
+		return samples;
+	}
+
+	public float getSampleRate() {
+		return sampleRate;
+	}
+
+	public int getChannels() {
+		return channels;
+	}
+
+	/**
+	 * @return Number of samples per channel
+	 */
+	public int getFrameCount() {
+		return samples.length / channels;
+	}
+}
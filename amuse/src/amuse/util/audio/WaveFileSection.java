@@ -0,0 +1,290 @@
+/**
+ * This file is part of AMUSE framework (Advanced MUsic Explorer).
+ *
+ * Copyright 2006-2010 by code authors
+ *
+ * Created at TU Dortmund, Chair of Algorithm Engineering
+ * (Contact: <http://ls11-www.cs.tu-dortmund.de>)
+ *
+ * AMUSE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AMUSE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with AMUSE. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Creation date: 18.10.2026
+ */
+package amuse.util.audio;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+
+/**
+ * A section of the data chunk of a wave file. Sections are cut on frame boundaries and can be
+ * read as audio stream without splitting the wave file, or be written as separate wave files.
+ *
+ * @author agent
+ * @version $Id$
+ */
+public class WaveFileSection {
+
+	private static final int WAVE_FORMAT_PCM = 1;
+	private static final int WAVE_FORMAT_IEEE_FLOAT = 3;
+	private static final int WAVE_FORMAT_EXTENSIBLE = 0xFFFE;
+
+	private final File waveFile;
+	private final byte[] formatChunk;
+	private final AudioFormat format;
+	private final long offset;
+	private final long length;
+
+	private WaveFileSection(File waveFile, byte[] formatChunk, AudioFormat format, long offset, long length) {
+		this.waveFile = waveFile;
+		this.formatChunk = formatChunk;
+		this.format = format;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	/**
+	 * Parses the RIFF header of the wave file once and cuts its data chunk into sections
+	 *
+	 * @param waveFile The wave file
+	 * @param sectionSize Maximum size of the audio data of each section in bytes; rounded down to whole frames
+	 * @param overlapSize Size in bytes by which each section overlaps the previous one; rounded down to whole frames
+	 * @return The sections in the order of the audio data
+	 */
+	public static List<WaveFileSection> getSections(File waveFile, long sectionSize, long overlapSize) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(waveFile, "r");
+		try {
+			byte[] formatChunk = null;
+			long dataOffset = -1;
+			long dataLength = 0;
+			byte[] chunkHeader = new byte[8];
+			file.readFully(chunkHeader, 0, 4);
+			if(!new String(chunkHeader, 0, 4, "US-ASCII").equals("RIFF")) {
+				throw new IOException(waveFile.getName() + " is not a RIFF file");
+			}
+			file.readFully(chunkHeader, 0, 8);
+			if(!new String(chunkHeader, 4, 4, "US-ASCII").equals("WAVE")) {
+				throw new IOException(waveFile.getName() + " is not a wave file");
+			}
+
+			// Search the format and the data chunks
+			while(dataOffset < 0 && file.getFilePointer() + 8 <= file.length()) {
+				file.readFully(chunkHeader);
+				String chunkId = new String(chunkHeader, 0, 4, "US-ASCII");
+				long chunkSize = ByteBuffer.wrap(chunkHeader, 4, 4).order(ByteOrder.LITTLE_ENDIAN).getInt() & 0xFFFFFFFFL;
+				if(chunkId.equals("fmt ")) {
+					formatChunk = new byte[(int) chunkSize];
+					file.readFully(formatChunk);
+				} else if(chunkId.equals("data")) {
+					dataOffset = file.getFilePointer();
+					// Streaming writers may leave the size unset, so the data is limited by the file length
+					dataLength = file.length() - dataOffset;
+					if(chunkSize != 0 && chunkSize != 0xFFFFFFFFL) {
+						dataLength = Math.min(chunkSize, dataLength);
+					}
+				} else {
+					file.seek(file.getFilePointer() + chunkSize);
+				}
+				// Chunks are aligned to even sizes
+				if(dataOffset < 0 && (chunkSize & 1) == 1) {
+					file.skipBytes(1);
+				}
+			}
+			if(formatChunk == null || formatChunk.length < 16 || dataOffset < 0) {
+				throw new IOException("No format or data chunk found in " + waveFile.getName());
+			}
+			AudioFormat format = parseFormat(formatChunk);
+			int frameSize = format.getFrameSize();
+			dataLength -= dataLength % frameSize;
+			long step = sectionSize / frameSize * frameSize;
+			long overlap = overlapSize / frameSize * frameSize;
+			if(step <= overlap) {
+				throw new IOException("The section size must be larger than the overlap and at least one frame");
+			}
+			step -= overlap;
+
+			List<WaveFileSection> sections = new ArrayList<WaveFileSection>();
+			long start = 0;
+			do {
+				long sectionLength = Math.min(step + overlap, dataLength - start);
+				sections.add(new WaveFileSection(waveFile, formatChunk, format, dataOffset + start, sectionLength));
+				start += step;
+			} while(start + overlap < dataLength);
+			return sections;
+		} finally {
+			file.close();
+		}
+	}
+
+	private static AudioFormat parseFormat(byte[] formatChunk) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(formatChunk).order(ByteOrder.LITTLE_ENDIAN);
+		int formatTag = buffer.getShort(0) & 0xFFFF;
+		int channels = buffer.getShort(2) & 0xFFFF;
+		int sampleRate = buffer.getInt(4);
+		int blockAlign = buffer.getShort(12) & 0xFFFF;
+		int bitsPerSample = buffer.getShort(14) & 0xFFFF;
+		if(formatTag == WAVE_FORMAT_EXTENSIBLE && formatChunk.length >= 26) {
+			// The first two bytes of the sub format GUID contain the format tag
+			formatTag = buffer.getShort(24) & 0xFFFF;
+		}
+		AudioFormat.Encoding encoding;
+		if(formatTag == WAVE_FORMAT_PCM) {
+			encoding = bitsPerSample <= 8 ? AudioFormat.Encoding.PCM_UNSIGNED : AudioFormat.Encoding.PCM_SIGNED;
+		} else if(formatTag == WAVE_FORMAT_IEEE_FLOAT) {
+			encoding = AudioFormat.Encoding.PCM_FLOAT;
+		} else {
+			throw new IOException("Unsupported wave format: " + formatTag);
+		}
+		if(channels == 0 || blockAlign == 0) {
+			throw new IOException("Invalid wave format chunk");
+		}
+		return new AudioFormat(encoding, sampleRate, bitsPerSample, channels, blockAlign, sampleRate, false);
+	}
+
+	/**
+	 * @return The section as audio stream, read directly from the wave file
+	 */
+	public AudioInputStream getAudioInputStream() throws IOException {
+		final FileInputStream fileStream = new FileInputStream(waveFile);
+		fileStream.getChannel().position(offset);
+		InputStream sectionStream = new FilterInputStream(new BufferedInputStream(fileStream, 1 << 16)) {
+			private long remaining = length;
+
+			@Override
+			public int read() throws IOException {
+				if(remaining <= 0) {
+					return -1;
+				}
+				int b = super.read();
+				if(b >= 0) {
+					remaining--;
+				}
+				return b;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				if(remaining <= 0) {
+					return -1;
+				}
+				int read = super.read(b, off, (int) Math.min(len, remaining));
+				if(read > 0) {
+					remaining -= read;
+				}
+				return read;
+			}
+
+			@Override
+			public long skip(long n) throws IOException {
+				long skipped = super.skip(Math.min(n, remaining));
+				remaining -= skipped;
+				return skipped;
+			}
+
+			@Override
+			public boolean markSupported() {
+				return false;
+			}
+
+			@Override
+			public int available() throws IOException {
+				return (int) Math.min(super.available(), remaining);
+			}
+		};
+		return new AudioInputStream(sectionStream, format, getFrameCount());
+	}
+
+	/**
+	 * Writes the section as wave file with a new header; the audio data is transferred between the file channels
+	 */
+	public void write(File targetFile) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(20 + formatChunk.length + (formatChunk.length & 1) + 8).order(ByteOrder.LITTLE_ENDIAN);
+		header.put("RIFF".getBytes("US-ASCII"));
+		header.putInt((int) (header.capacity() - 8 + length + (length & 1)));
+		header.put("WAVE".getBytes("US-ASCII"));
+		header.put("fmt ".getBytes("US-ASCII"));
+		header.putInt(formatChunk.length);
+		header.put(formatChunk);
+		if((formatChunk.length & 1) == 1) {
+			header.put((byte) 0);
+		}
+		header.put("data".getBytes("US-ASCII"));
+		header.putInt((int) length);
+		header.flip();
+
+		RandomAccessFile source = new RandomAccessFile(waveFile, "r");
+		RandomAccessFile target = new RandomAccessFile(targetFile, "rw");
+		try {
+			target.setLength(0);
+			FileChannel targetChannel = target.getChannel();
+			while(header.hasRemaining()) {
+				targetChannel.write(header);
+			}
+			FileChannel sourceChannel = source.getChannel();
+			long transferred = 0;
+			while(transferred < length) {
+				long count = sourceChannel.transferTo(offset + transferred, length - transferred, targetChannel);
+				if(count <= 0) {
+					throw new IOException("Could not transfer the audio data of " + waveFile.getName());
+				}
+				transferred += count;
+			}
+			if((length & 1) == 1) {
+				Channels.newOutputStream(targetChannel).write(0);
+			}
+		} finally {
+			target.close();
+			source.close();
+		}
+	}
+
+	public File getWaveFile() {
+		return waveFile;
+	}
+
+	public AudioFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * @return Position of the first byte of the section in the wave file
+	 */
+	public long getOffset() {
+		return offset;
+	}
+
+	/**
+	 * @return Length of the section in bytes
+	 */
+	public long getLength() {
+		return length;
+	}
+
+	public long getFrameCount() {
+		return length / format.getFrameSize();
+	}
+}
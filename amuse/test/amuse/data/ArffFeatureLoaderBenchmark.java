@@ -0,0 +1,290 @@
+/**
+ * This file is part of AMUSE framework (Advanced MUsic Explorer).
+ *
+ * Copyright 2006-2020 by code authors
+ *
+ * Created at TU Dortmund, Chair of Algorithm Engineering
+ * (Contact: <http://ls11-www.cs.tu-dortmund.de>)
+ *
+ * AMUSE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AMUSE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with AMUSE. If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  Creation date: 18.10.2026
+ */
+package amuse.data;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.StringTokenizer;
+
+import amuse.interfaces.nodes.NodeException;
+
+/**
+ * Compares the loading time of {@link ArffFeatureLoader} with the previous loader, which read the
+ * feature files line by line with a StringTokenizer. Every file is loaded with both loaders first and
+ * the results are compared; then each loader is warmed up and measured, alternating between both loaders.<br/>
+ *
+ * Usage: ArffFeatureLoaderBenchmark [feature files]. Without arguments, files with the layout of MFCC (13
+ * dimensions) and chroma vector (24 dimensions) as written by the Matlab extractor for a song of three minutes
+ * are generated.<br/>
+ *
+ * This is a plain benchmark with warm-up and measurement rounds instead of a JMH benchmark, since JMH
+ * is not part of the AMUSE libraries. Run it with "ant benchmark".
+ *
+ * @author agent
+ * @version $Id$
+ */
+public class ArffFeatureLoaderBenchmark {
+
+	private static final int WARMUP_ROUNDS = 10;
+	private static final int MEASUREMENT_ROUNDS = 20;
+
+	/** Number of windows of a song of three minutes with window size 512 at 22050 Hz */
+	private static final int NUMBER_OF_WINDOWS = 7752;
+
+	public static void main(String[] args) throws Exception {
+		ArrayList<File> featureFiles = new ArrayList<File>();
+		if(args.length > 0) {
+			for(String arg : args) {
+				featureFiles.add(new File(arg));
+			}
+		} else {
+			featureFiles.add(generateFeatureFile("Mel frequency cepstral coefficients", 13, 100.0d, 1));
+			featureFiles.add(generateFeatureFile("Chroma vector", 24, 1.0d, 2));
+		}
+
+		for(File featureFile : featureFiles) {
+			checkEquality(featureFile);
+			double[] newTimes = new double[MEASUREMENT_ROUNDS];
+			double[] oldTimes = new double[MEASUREMENT_ROUNDS];
+			for(int round = 0; round < WARMUP_ROUNDS + MEASUREMENT_ROUNDS; round++) {
+				long start = System.nanoTime();
+				Feature loaded = ArffFeatureLoader.loadFeature(featureFile.getPath(), 0);
+				long middle = System.nanoTime();
+				Feature loadedBefore = loadFeatureLineByLine(featureFile.getPath(), 0);
+				long end = System.nanoTime();
+				if(loaded.getWindowCount() != loadedBefore.getWindowCount()) {
+					throw new IllegalStateException("Loaders disagree");
+				}
+				if(round >= WARMUP_ROUNDS) {
+					newTimes[round - WARMUP_ROUNDS] = (middle - start) / 1e6;
+					oldTimes[round - WARMUP_ROUNDS] = (end - middle) / 1e6;
+				}
+			}
+			double megabytes = featureFile.length() / (1024.0d * 1024.0d);
+			System.out.println(featureFile.getName() + String.format(Locale.US, " (%.1f MB)", megabytes));
+			printTimes("  ArffFeatureLoader:  ", newTimes, megabytes);
+			printTimes("  previous loader:    ", oldTimes, megabytes);
+			Arrays.sort(newTimes);
+			Arrays.sort(oldTimes);
+			System.out.println(String.format(Locale.US, "  speedup (median):   %.2f", oldTimes[MEASUREMENT_ROUNDS / 2] / newTimes[MEASUREMENT_ROUNDS / 2]));
+			if(args.length == 0) {
+				featureFile.delete();
+			}
+		}
+	}
+
+	private static void printTimes(String label, double[] times, double megabytes) {
+		double[] sortedTimes = times.clone();
+		Arrays.sort(sortedTimes);
+		double median = sortedTimes[sortedTimes.length / 2];
+		System.out.println(label + String.format(Locale.US, "median %.2f ms, min %.2f ms, max %.2f ms, %.1f MB/s",
+				median, sortedTimes[0], sortedTimes[sortedTimes.length - 1], megabytes / (median / 1000.0d)));
+	}
+
+	/**
+	 * Checks that both loaders return the same feature
+	 */
+	private static void checkEquality(File featureFile) throws NodeException {
+		Feature loaded = ArffFeatureLoader.loadFeature(featureFile.getPath(), 0);
+		Feature loadedBefore = loadFeatureLineByLine(featureFile.getPath(), 0);
+		if(!loaded.getDescription().equals(loadedBefore.getDescription()) || loaded.getDimension() != loadedBefore.getDimension() ||
+				loaded.getWindowCount() != loadedBefore.getWindowCount() || loaded.getSourceFrameSize() != loadedBefore.getSourceFrameSize() ||
+				loaded.getSourceStepSize() != loadedBefore.getSourceStepSize() || loaded.getSampleRate() != loadedBefore.getSampleRate()) {
+			throw new IllegalStateException("The loaders return different features for " + featureFile);
+		}
+		for(int i = 0; i < loaded.getWindowCount(); i++) {
+			if(Double.doubleToLongBits(loaded.getWindow(i)) != Double.doubleToLongBits(loadedBefore.getWindow(i))) {
+				throw new IllegalStateException("Different window " + i + " in " + featureFile);
+			}
+			for(int j = 0; j < loaded.getDimension(); j++) {
+				if(Double.doubleToLongBits(loaded.getValue(i, j)) != Double.doubleToLongBits(loadedBefore.getValue(i, j))) {
+					throw new IllegalStateException("Different value in window " + i + ", dimension " + j + " in " + featureFile);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes a feature file like arff_saver_with_windows_number.m: values with 12 significant digits
+	 * and some NaN values, as they appear e.g. for silent windows
+	 */
+	private static File generateFeatureFile(String featureName, int dimensions, double scale, long seed) throws IOException {
+		File featureFile = File.createTempFile(featureName.replace(' ', '_'), ".arff");
+		Random random = new Random(seed);
+		BufferedWriter writer = new BufferedWriter(new FileWriter(featureFile));
+		writer.write("@RELATION 'Music feature'\n");
+		writer.write("%rows=" + dimensions + "\n");
+		writer.write("%columns=" + NUMBER_OF_WINDOWS + "\n");
+		writer.write("%sample_rate=22050\n");
+		writer.write("%window_size=512\n");
+		writer.write("%step_size=512\n\n");
+		for(int j = 0; j < dimensions; j++) {
+			writer.write("@ATTRIBUTE '" + featureName + "' NUMERIC\n");
+		}
+		writer.write("@ATTRIBUTE WindowNumber NUMERIC\n");
+		writer.write("\n@DATA\n");
+		for(int i = 0; i < NUMBER_OF_WINDOWS; i++) {
+			for(int j = 0; j < dimensions; j++) {
+				if(j > 0) {
+					writer.write(',');
+				}
+				if(random.nextInt(1000) == 0) {
+					writer.write("NaN");
+				} else {
+					writer.write(String.format(Locale.US, "%.12g", random.nextGaussian() * scale));
+				}
+			}
+			writer.write("," + (i + 1) + "\n");
+		}
+		writer.close();
+		return featureFile;
+	}
+
+	/**
+	 * The loader as it was before the byte-wise parsing was introduced
+	 */
+	private static Feature loadFeatureLineByLine(String featureFile, int id) throws NodeException {
+		double[] values;
+		double[] windows;
+		int numberOfWindows = 0;
+		int numberOfValues = 0;
+		int sourceFrameSize = -1;
+		int sourceStepSize = -1;
+		int sampleRate = -1;
+		String featureName = new String();
+		
+		FileReader featureInput = null;
+		try {
+			featureInput = new FileReader(featureFile);
+		} catch(FileNotFoundException e) {
+			throw new NodeException("Could not open the feature file: " + e.getMessage());
+		}
+		BufferedReader featureReader = new BufferedReader(featureInput);
+		
+		boolean nameFound = false;
+		
+		boolean windowNumberAttributeExisting = false;
+		
+		int dimensionNumber = 0;
+		try {
+			String line = featureReader.readLine();
+			while(!line.toLowerCase().startsWith(new String("@data"))) {
+				if(line.toLowerCase().replaceAll("\\s+","").startsWith(new String("%columns="))) {
+					numberOfValues = new Integer(line.replaceAll("\\s+","").substring(9));
+				} else if (line.toLowerCase().replaceAll("\\s+","").startsWith(new String("%window_size="))) {
+					sourceFrameSize = new Integer(line.replaceAll("\\s+","").substring(13)); 
+				} else if(line.toLowerCase().replaceAll("\\s+","").startsWith(new String("%step_size="))) {
+					sourceStepSize = new Integer(line.replaceAll("\\s+","").substring(11));
+				} else if (line.toLowerCase().replaceAll("\\s+","").startsWith(new String("%sample_rate="))) {
+					sampleRate = new Integer(line.replaceAll("\\s+","").substring(13));
+				} else if(line.toLowerCase().startsWith(new String("@attribute"))) {
+					String lineTrimmed = line.replace("'", "");
+					lineTrimmed = lineTrimmed.replace("\"", "");
+					if(lineTrimmed.toLowerCase().startsWith(new String("@attribute windownumber"))) {
+						windowNumberAttributeExisting = true;
+					}
+					if(!nameFound) {
+						featureName = line.substring(line.indexOf(" ")+1,line.lastIndexOf(" "));
+						if(featureName.startsWith("'")) {
+							featureName = featureName.substring(1,featureName.length());
+						}
+						if(featureName.endsWith("'")) {
+							featureName = featureName.substring(0,featureName.length()-1);
+						}
+						nameFound = true;
+					}
+					dimensionNumber++;
+				}
+				
+				line = featureReader.readLine();
+			}
+			
+			// Window number (the last attribute) does not count as feature dimension!
+			if(windowNumberAttributeExisting) {
+				dimensionNumber--;
+			}
+			
+			// Initialize the arrays
+			windows = new double[Math.max(numberOfValues, 16)];
+			values = new double[windows.length * dimensionNumber];
+			
+			line = featureReader.readLine();
+			while(line != null) {
+				if(!line.equals("") && !line.startsWith("%")) {
+					
+					if(numberOfWindows == windows.length) {
+						windows = Arrays.copyOf(windows, windows.length * 2);
+						values = Arrays.copyOf(values, windows.length * dimensionNumber);
+					}
+					
+					// Proceed the attributes
+					StringTokenizer t = new StringTokenizer(line,",");
+					for(int i=0;i<dimensionNumber;i++) {
+						String val = t.nextToken();
+						if(val.toUpperCase().equals("NAN")) {
+							val = "NaN";
+						}
+						values[numberOfWindows * dimensionNumber + i] = Double.parseDouble(val);
+					}
+					
+					// Add time window of this feature (last attribute)
+					if(windowNumberAttributeExisting) {
+						windows[numberOfWindows] = Double.parseDouble(t.nextToken());
+					} else {
+						windows[numberOfWindows] = -1d;
+					}
+					numberOfWindows++;
+				}
+				line = featureReader.readLine();
+			}
+			
+			featureReader.close();
+			
+		} catch(IOException e) {
+			throw new NodeException("Could not read from the feature file: " + e.getMessage());
+		}
+		
+		// Create the Feature object and set the frame size
+		ArrayList<Integer> ids = new ArrayList<Integer>(1);
+		ids.add(id);
+		Feature loadedFeature = new Feature(ids, featureName, dimensionNumber, 
+				Arrays.copyOf(values, numberOfWindows * dimensionNumber), Arrays.copyOf(windows, numberOfWindows));
+		loadedFeature.setSourceFrameSize(sourceFrameSize);
+		if(sourceStepSize == -1) {
+			sourceStepSize = sourceFrameSize;
+		}
+		loadedFeature.setSourceStepSize(sourceStepSize);
+		loadedFeature.setSampleRate(sampleRate);
+		return loadedFeature;
+	}
+}
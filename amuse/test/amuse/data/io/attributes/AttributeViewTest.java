@@ -0,0 +1,80 @@
+/**
+ * This file is part of AMUSE framework (Advanced MUsic Explorer).
+ *
+ * Copyright 2006-2020 by code authors
+ *
+ * Created at TU Dortmund, Chair of Algorithm Engineering
+ * (Contact: <http://ls11-www.cs.tu-dortmund.de>)
+ *
+ * AMUSE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AMUSE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with AMUSE. If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  Creation date: 18.10.2026
+ */
+package amuse.data.io.attributes;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Tests the Attributes which show the values of another Attribute at given indices
+ *
+ * @author agent
+ * @version $Id$
+ */
+public class AttributeViewTest {
+
+	private static final int[] INDICES = {3, 0, 2};
+
+	@Test
+	public void testNumericView() {
+		NumericAttribute source = new NumericAttribute("Value", new Double[]{0.5d, 1.5d, 2.5d, 3.5d});
+		NumericAttribute view = new NumericAttribute(source, INDICES);
+		assertEquals("Value", view.getName());
+		assertEquals(3, view.getValueCount());
+		assertEquals(Arrays.asList(3.5d, 0.5d, 2.5d), view.getValues());
+		assertEquals(new Double(2.5d), view.getValueAt(2));
+	}
+
+	@Test
+	public void testStringView() {
+		StringAttribute source = new StringAttribute("Path", new String[]{"a", "b", "c", "d"});
+		StringAttribute view = new StringAttribute(source, INDICES);
+		assertEquals(Arrays.asList("d", "a", "c"), view.getValues());
+	}
+
+	@Test
+	public void testNominalViewKeepsNominalValues() {
+		NominalAttribute source = new NominalAttribute("Category", new String[]{"rock", "pop", "jazz", "pop"});
+		NominalAttribute view = new NominalAttribute(source, new int[]{1});
+		assertEquals(Arrays.asList("pop"), view.getValues());
+		assertEquals(Arrays.asList(source.getNominalValues()), Arrays.asList(view.getNominalValues()));
+	}
+
+	@Test
+	public void testViewCanNotBeChanged() {
+		NumericAttribute source = new NumericAttribute("Value", new Double[]{0.5d, 1.5d, 2.5d, 3.5d});
+		NumericAttribute view = new NumericAttribute(source, INDICES);
+		try {
+			view.setValueAt(0, 1.0d);
+			fail("The view must be read-only");
+		} catch(UnsupportedOperationException e) {
+			// Expected
+		}
+		assertEquals(new Double(3.5d), source.getValueAt(3));
+	}
+}
@@ -0,0 +1,270 @@
+/**
+ * This file is part of AMUSE framework (Advanced MUsic Explorer).
+ *
+ * Copyright 2006-2010 by code authors
+ *
+ * Created at TU Dortmund, Chair of Algorithm Engineering
+ * (Contact: <http://ls11-www.cs.tu-dortmund.de>)
+ *
+ * AMUSE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AMUSE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with AMUSE. If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  Creation date: 18.10.2026
+ */
+package amuse.nodes.optimizer.methods.es.operators.selection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import amuse.nodes.validator.interfaces.ValidationMeasureDouble;
+
+/**
+ * Checks the non-dominated sorting and the exact delta S values of the hypervolume selection against
+ * hand-computed values and brute-force calculations
+ *
+ * @author agent
+ * @version $Id$
+ */
+public class HypervolumeSelectionTest {
+
+	private static final double INF = Double.POSITIVE_INFINITY;
+
+	@Test
+	public void testDeltaS2D() {
+		// The boundary points 0 and 3 are kept; points 1 and 2 are limited by their neighbours:
+		// (3-2)*(5-3) = 2 and (5-3)*(3-2) = 2, so that the point with the larger index is removed
+		double[][] points = {{1, 5}, {2, 3}, {3, 2}, {5, 1}};
+		ArrayList<Integer> front = front(0, 1, 2, 3);
+		double[] deltaS = HypervolumeSelection.calculateDeltaS(points, front, new Random(1));
+		assertDeltaS(new double[] {INF, 2, 2, INF}, deltaS);
+		assertEquals(2, HypervolumeSelection.findWorstIndividual(front, deltaS));
+	}
+
+	@Test
+	public void testDeltaS2DWithDuplicates() {
+		// Both copies of a duplicate point have no contribution, the copy with the larger index is removed
+		double[][] points = {{1, 5}, {2, 3}, {2, 3}, {5, 1}};
+		ArrayList<Integer> front = front(0, 1, 2, 3);
+		double[] deltaS = HypervolumeSelection.calculateDeltaS(points, front, new Random(1));
+		assertDeltaS(new double[] {INF, 0, 0, INF}, deltaS);
+		assertEquals(2, HypervolumeSelection.findWorstIndividual(front, deltaS));
+	}
+
+	@Test
+	public void testDeltaS3D() {
+		// Reference point is (3,3,3); the points with a zero coordinate are not bounded in some dimension.
+		// Point 3: box 2*2*2 = 8 minus 1*1*2 dominated by max(point 3, point 4) = (2,2,1)
+		// Point 4: box 1*1*2.5 = 2.5 minus 1*1*2 dominated by the same point
+		double[][] points = {{0, 0, 3}, {0, 3, 0}, {3, 0, 0}, {1, 1, 1}, {2, 2, 0.5}};
+		ArrayList<Integer> front = front(0, 1, 2, 3, 4);
+		double[] deltaS = HypervolumeSelection.calculateDeltaS(points, front, new Random(1));
+		assertDeltaS(new double[] {INF, INF, INF, 6, 0.5}, deltaS);
+		assertEquals(4, HypervolumeSelection.findWorstIndividual(front, deltaS));
+	}
+
+	@Test
+	public void testOnePointFront() {
+		double[][] points = {{1, 1}, {2, 2}, {0, 3}};
+		ArrayList<ArrayList<Integer>> fronts = HypervolumeSelection.efficientNondominatedSorting(points);
+		assertEquals(2, fronts.size());
+		assertEquals(front(1), fronts.get(1));
+		double[] deltaS = HypervolumeSelection.calculateDeltaS(points, fronts.get(1), new Random(1));
+		assertDeltaS(new double[] {INF}, deltaS);
+		assertEquals(1, HypervolumeSelection.findWorstIndividual(fronts.get(1), deltaS));
+	}
+
+	@Test
+	public void testMaximizedMeasures() {
+		// The accuracy is maximized and the error is minimized: (0.9, 0.2) dominates (0.8, 0.3),
+		// (0.7, 0.1) is not dominated
+		ValidationMeasureDouble[][] fitnessValues = {
+				fitness(0.8, 0.3), fitness(0.9, 0.2), fitness(0.7, 0.1)};
+		double[][] points = new double[fitnessValues.length][];
+		for(int i=0;i<points.length;i++) {
+			points[i] = HypervolumeSelection.toMinimizedFitness(fitnessValues[i]);
+		}
+		assertEquals(-0.8, points[0][0], 0d);
+		assertEquals(0.3, points[0][1], 0d);
+		ArrayList<ArrayList<Integer>> fronts = HypervolumeSelection.efficientNondominatedSorting(points);
+		assertEquals(2, fronts.size());
+		assertEquals(2, fronts.get(0).size());
+		assertTrue(fronts.get(0).contains(1) && fronts.get(0).contains(2));
+		assertEquals(front(0), fronts.get(1));
+	}
+
+	@Test
+	public void testRandomFrontsMatchBruteForce() {
+		Random random = new Random(20261018L);
+		for(int trial=0;trial<500;trial++) {
+			int numberOfDimensions = 2 + random.nextInt(3);
+			double[][] points = new double[2 + random.nextInt(20)][numberOfDimensions];
+			for(double[] point : points) {
+				for(int k=0;k<numberOfDimensions;k++) {
+					point[k] = random.nextInt(5);
+				}
+			}
+			ArrayList<ArrayList<Integer>> fronts = HypervolumeSelection.efficientNondominatedSorting(points);
+			int[] expectedRanks = calculateRanksByBruteForce(points);
+			int numberOfIndividuals = 0;
+			for(int f=0;f<fronts.size();f++) {
+				for(int i : fronts.get(f)) {
+					assertEquals("Trial " + trial + ", individual " + i, expectedRanks[i], f);
+					numberOfIndividuals++;
+				}
+			}
+			assertEquals(points.length, numberOfIndividuals);
+		}
+	}
+
+	@Test
+	public void testRandomDeltaSMatchCellCounting() {
+		Random random = new Random(20261018L);
+		for(int trial=0;trial<500;trial++) {
+			int numberOfDimensions = 2 + trial % 2;
+			double[][] points = new double[1 + random.nextInt(12)][numberOfDimensions];
+			for(double[] point : points) {
+				for(int k=0;k<numberOfDimensions;k++) {
+					point[k] = random.nextInt(6);
+				}
+			}
+			ArrayList<ArrayList<Integer>> fronts = HypervolumeSelection.efficientNondominatedSorting(points);
+			for(ArrayList<Integer> front : fronts) {
+				double[] deltaS = HypervolumeSelection.calculateDeltaS(points, front, new Random(1));
+				double[] expected = calculateDeltaSByCellCounting(points, front);
+				for(int i=0;i<front.size();i++) {
+					assertEquals("Trial " + trial + ", individual " + front.get(i), expected[i], deltaS[i], 1e-9);
+				}
+			}
+		}
+	}
+
+	private static ArrayList<Integer> front(int... individuals) {
+		ArrayList<Integer> front = new ArrayList<Integer>();
+		for(int i : individuals) {
+			front.add(i);
+		}
+		return front;
+	}
+
+	private static ValidationMeasureDouble[] fitness(double accuracy, double error) {
+		ValidationMeasureDouble accuracyMeasure = new ValidationMeasureDouble(false);
+		accuracyMeasure.setValue(accuracy);
+		ValidationMeasureDouble errorMeasure = new ValidationMeasureDouble(true);
+		errorMeasure.setValue(error);
+		return new ValidationMeasureDouble[] {accuracyMeasure, errorMeasure};
+	}
+
+	private static void assertDeltaS(double[] expected, double[] actual) {
+		assertEquals(expected.length, actual.length);
+		for(int i=0;i<expected.length;i++) {
+			assertEquals("Individual " + i, expected[i], actual[i], 1e-12);
+		}
+	}
+
+	/**
+	 * Removes the non-dominated points front by front, checking all pairs of the remaining points
+	 */
+	private static int[] calculateRanksByBruteForce(double[][] points) {
+		int[] ranks = new int[points.length];
+		boolean[] assigned = new boolean[points.length];
+		int numberOfAssigned = 0;
+		for(int rank=0;numberOfAssigned<points.length;rank++) {
+			boolean[] dominated = new boolean[points.length];
+			for(int i=0;i<points.length;i++) {
+				for(int j=0;j<points.length;j++) {
+					if(!assigned[i] && !assigned[j] && HypervolumeSelection.dominates(points, j, i)) {
+						dominated[i] = true;
+					}
+				}
+			}
+			for(int i=0;i<points.length;i++) {
+				if(!assigned[i] && !dominated[i]) {
+					ranks[i] = rank;
+					assigned[i] = true;
+					numberOfAssigned++;
+				}
+			}
+		}
+		return ranks;
+	}
+
+	/**
+	 * Counts the unit cells between the integer points of a front and the nadir point which are dominated
+	 * only by the given point. If the count grows when the reference point is moved, delta S is infinite
+	 */
+	private static double[] calculateDeltaSByCellCounting(double[][] points, ArrayList<Integer> front) {
+		int numberOfDimensions = points[front.get(0)].length;
+		int[] referencePoint = new int[numberOfDimensions];
+		for(int i : front) {
+			for(int k=0;k<numberOfDimensions;k++) {
+				referencePoint[k] = Math.max(referencePoint[k], (int)points[i][k]);
+			}
+		}
+		int[] movedReferencePoint = new int[numberOfDimensions];
+		for(int k=0;k<numberOfDimensions;k++) {
+			movedReferencePoint[k] = referencePoint[k] + 1;
+		}
+		double[] deltaS = new double[front.size()];
+		for(int i=0;i<front.size();i++) {
+			int cells = countExclusiveCells(points, front, i, referencePoint);
+			deltaS[i] = cells == countExclusiveCells(points, front, i, movedReferencePoint) ? cells : INF;
+		}
+		return deltaS;
+	}
+
+	private static int countExclusiveCells(double[][] points, ArrayList<Integer> front, int i, int[] referencePoint) {
+		double[] point = points[front.get(i)];
+		int[] cell = new int[point.length];
+		for(int k=0;k<point.length;k++) {
+			if(point[k] >= referencePoint[k]) {
+				return 0;
+			}
+			cell[k] = (int)point[k];
+		}
+		int cells = 0;
+		while(true) {
+			boolean isExclusive = true;
+			for(int j=0;j<front.size() && isExclusive;j++) {
+				if(j == i) {
+					continue;
+				}
+				boolean dominatesCell = true;
+				for(int k=0;k<point.length;k++) {
+					if(points[front.get(j)][k] > cell[k]) {
+						dominatesCell = false;
+						break;
+					}
+				}
+				isExclusive = !dominatesCell;
+			}
+			if(isExclusive) {
+				cells++;
+			}
+
+			// Next cell of the box between the point and the reference point
+			int k = 0;
+			while(k < point.length && ++cell[k] >= referencePoint[k]) {
+				cell[k] = (int)point[k];
+				k++;
+			}
+			if(k == point.length) {
+				return cells;
+			}
+		}
+	}
+}
@@ -0,0 +1,165 @@
+/**
+ * This file is part of AMUSE framework (Advanced MUsic Explorer).
+ *
+ * Copyright 2006-2010 by code authors
+ *
+ * Created at TU Dortmund, Chair of Algorithm Engineering
+ * (Contact: <http://ls11-www.cs.tu-dortmund.de>)
+ *
+ * AMUSE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AMUSE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with AMUSE. If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  Creation date: 18.10.2026
+ */
+package amuse.nodes.processor.methods.preprocessing.discretization;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import amuse.data.Feature;
+
+/**
+ * Compares the rank discretization with the sorting and indexOf() lookup of the previous
+ * histogram and percentile discretization
+ *
+ * @author agent
+ * @version $Id$
+ */
+public class RankDiscretizationTest {
+
+	/** Values with many ties and special values which are drawn for the random features */
+	private static final double[] SPECIAL_VALUES = {0.0d, -0.0d, 1.0d, -1.0d, 0.5d,
+		Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+
+	@Test
+	public void testKnownValuesWithTiesAndNaN() throws Exception {
+		// Sorted: -0.0, 0.0, 1, 1, 2, 3, 3, NaN; equal values get the position of their first
+		// occurrence, which is divided by 8 / 2 = 4 windows per interval
+		double[] values = {3.0d, 1.0d, 2.0d, 1.0d, Double.NaN, -0.0d, 0.0d, 3.0d};
+		double[] expected = {1.0d, 0.0d, 1.0d, 0.0d, 1.0d, 0.0d, 0.0d, 1.0d};
+		ArrayList<Feature> features = new ArrayList<Feature>();
+		features.add(createPrimitiveFeature(1, values));
+		RankDiscretization.discretize(features, 2, "Discretized", null);
+		for(int tw=0;tw<values.length;tw++) {
+			assertEquals("Window " + tw, expected[tw], features.get(0).getValue(tw, 0), 0.0d);
+		}
+		assertEquals("Discretized", features.get(0).getHistory().get(features.get(0).getHistory().size() - 1));
+	}
+
+	@Test
+	public void testRandomFeaturesMatchSequentialLookup() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			Random random = new Random(20261018L);
+			for(int trial=0;trial<300;trial++) {
+				int numberOfIntervals = 1 + random.nextInt(10);
+				ArrayList<Feature> features = new ArrayList<Feature>();
+				ArrayList<Feature> expectedFeatures = new ArrayList<Feature>();
+				int numberOfFeatures = 1 + random.nextInt(3);
+				for(int f=0;f<numberOfFeatures;f++) {
+					int dimension = 1 + random.nextInt(4);
+					int numberOfWindows = numberOfIntervals + random.nextInt(60);
+					double[] values = new double[dimension * numberOfWindows];
+					for(int i=0;i<values.length;i++) {
+						values[i] = drawValue(random, trial);
+					}
+					features.add(random.nextBoolean() ? createPrimitiveFeature(dimension, values) : createBoxedFeature(dimension, values));
+					expectedFeatures.add(createBoxedFeature(dimension, values));
+				}
+				discretizeBySequentialLookup(expectedFeatures, numberOfIntervals);
+				RankDiscretization.discretize(features, numberOfIntervals, "Discretized", trial % 2 == 0 ? null : executor);
+				for(int f=0;f<numberOfFeatures;f++) {
+					Feature expected = expectedFeatures.get(f);
+					for(int tw=0;tw<expected.getWindowCount();tw++) {
+						for(int d=0;d<expected.getDimension();d++) {
+							assertEquals("Trial " + trial + ", feature " + f + ", window " + tw + ", dimension " + d,
+									Double.doubleToLongBits(expected.getValue(tw, d)), Double.doubleToLongBits(features.get(f).getValue(tw, d)));
+						}
+					}
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Draws a binary value, a value from a small set (many ties) or a special value
+	 */
+	private static double drawValue(Random random, int trial) {
+		switch(trial % 3) {
+		case 0:
+			return random.nextInt(2);
+		case 1:
+			return random.nextInt(5) / 4.0d;
+		default:
+			return random.nextInt(4) == 0 ? SPECIAL_VALUES[random.nextInt(SPECIAL_VALUES.length)] : random.nextDouble();
+		}
+	}
+
+	private static Feature createPrimitiveFeature(int dimension, double[] values) {
+		int numberOfWindows = values.length / dimension;
+		double[] windows = new double[numberOfWindows];
+		for(int tw=0;tw<numberOfWindows;tw++) {
+			windows[tw] = tw;
+		}
+		ArrayList<Integer> ids = new ArrayList<Integer>();
+		ids.add(1);
+		return new Feature(ids, "Test feature", dimension, values.clone(), windows);
+	}
+
+	private static Feature createBoxedFeature(int dimension, double[] values) {
+		int numberOfWindows = values.length / dimension;
+		ArrayList<Double[]> boxedValues = new ArrayList<Double[]>(numberOfWindows);
+		ArrayList<Double> windows = new ArrayList<Double>(numberOfWindows);
+		for(int tw=0;tw<numberOfWindows;tw++) {
+			Double[] windowValues = new Double[dimension];
+			for(int d=0;d<dimension;d++) {
+				windowValues[d] = values[tw * dimension + d];
+			}
+			boxedValues.add(windowValues);
+			windows.add((double)tw);
+		}
+		ArrayList<Integer> ids = new ArrayList<Integer>();
+		ids.add(1);
+		return new Feature(ids, "Test feature", boxedValues, windows);
+	}
+
+	/**
+	 * Discretization as performed before the rank discretization was introduced: the position of
+	 * each value is looked up in the sorted values of its dimension
+	 */
+	private static void discretizeBySequentialLookup(ArrayList<Feature> features, int numberOfIntervals) {
+		for(int f=0;f<features.size();f++) {
+			int indexBoundary = features.get(f).getWindows().size() / numberOfIntervals;
+			for(int d=0;d<features.get(f).getValues().get(0).length;d++) {
+				ArrayList<Double> sortedValuesOfCurrentDimension = new ArrayList<Double>(features.get(f).getWindows().size());
+				for(int tw=0;tw<features.get(f).getWindows().size();tw++) {
+					sortedValuesOfCurrentDimension.add(features.get(f).getValues().get(tw)[d]);
+				}
+				Collections.sort(sortedValuesOfCurrentDimension);
+				for(int tw=0;tw<features.get(f).getWindows().size();tw++) {
+					int positionInSortedList = sortedValuesOfCurrentDimension.indexOf(features.get(f).getValues().get(tw)[d]);
+					features.get(f).getValues().get(tw)[d] = new Double(positionInSortedList / indexBoundary);
+				}
+			}
+		}
+	}
+}
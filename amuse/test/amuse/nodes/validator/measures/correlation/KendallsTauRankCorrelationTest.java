@@ -0,0 +1,154 @@
+/**
+ * This file is part of AMUSE framework (Advanced MUsic Explorer).
+ *
+ * Copyright 2006-2010 by code authors
+ *
+ * Created at TU Dortmund, Chair of Algorithm Engineering
+ * (Contact: <http://ls11-www.cs.tu-dortmund.de>)
+ *
+ * AMUSE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AMUSE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with AMUSE. If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  Creation date: 18.10.2026
+ */
+package amuse.nodes.validator.measures.correlation;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Compares Kendall's tau rank correlation coefficient with the pair matching of the previous implementation
+ *
+ * @author agent
+ * @version $Id$
+ */
+public class KendallsTauRankCorrelationTest {
+
+	/** Values with many ties and special values which are drawn for the random inputs */
+	private static final double[] SPECIAL_VALUES = {0.0d, -0.0d, 1.0d, -1.0d, 0.5d,
+		Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+
+	@Test
+	public void testPerfectAgreement() {
+		double[] values = {0.1d, 0.4d, 0.2d, 0.9d, 0.7d};
+		assertEquals(1.0d, KendallsTauRankCorrelation.calculateCorrelation(values, values.clone()), 1e-15);
+	}
+
+	@Test
+	public void testReversedOrder() {
+		double[] groundTruth = {1.0d, 2.0d, 3.0d, 4.0d};
+		double[] predicted = {0.8d, 0.6d, 0.4d, 0.2d};
+		assertEquals(-1.0d, KendallsTauRankCorrelation.calculateCorrelation(groundTruth, predicted), 1e-15);
+	}
+
+	@Test
+	public void testKnownValueWithTies() {
+		// Pairs (0,2), (0,3) and (1,3) are equal, (1,2) is ordered in the opposite way and (0,1), (2,3) are
+		// tied for ground truth only, so that there are 3 equal and 4+6-2*3 unequal pairs
+		double[] groundTruth = {0.0d, 0.0d, 1.0d, 1.0d};
+		double[] predicted = {0.1d, 0.2d, 0.15d, 0.3d};
+		double expected = (3 - 4) / (Math.sqrt(3 + 4 + 0) * Math.sqrt(3 + 4 + 2));
+		assertEquals(expected, KendallsTauRankCorrelation.calculateCorrelation(groundTruth, predicted), 1e-15);
+		assertEquals(expected, calculateCorrelationByPairMatching(groundTruth, predicted), 1e-15);
+	}
+
+	@Test
+	public void testRandomInputsMatchPairMatching() {
+		Random random = new Random(20261018L);
+		for(int trial=0;trial<2000;trial++) {
+			int numberOfInstances = 2 + random.nextInt(40);
+			double[] groundTruth = new double[numberOfInstances];
+			double[] predicted = new double[numberOfInstances];
+			for(int i=0;i<numberOfInstances;i++) {
+				groundTruth[i] = drawValue(random, trial);
+				predicted[i] = drawValue(random, trial);
+			}
+			double expected = calculateCorrelationByPairMatching(groundTruth, predicted);
+			double actual = KendallsTauRankCorrelation.calculateCorrelation(groundTruth, predicted);
+			assertEquals("Trial " + trial, Double.doubleToLongBits(expected), Double.doubleToLongBits(actual));
+		}
+	}
+
+	/**
+	 * Draws a binary relationship, a value from a small set (many ties) or a special value
+	 */
+	private static double drawValue(Random random, int trial) {
+		switch(trial % 3) {
+		case 0:
+			return random.nextInt(2);
+		case 1:
+			return random.nextInt(5) / 4.0d;
+		default:
+			return random.nextInt(4) == 0 ? SPECIAL_VALUES[random.nextInt(SPECIAL_VALUES.length)] : random.nextDouble();
+		}
+	}
+
+	/**
+	 * Kendall's tau as calculated before the pair counting was introduced: all ordered pairs of instances
+	 * are listed for ground truth and predicted values and matched with each other
+	 */
+	private static double calculateCorrelationByPairMatching(double[] groundTruth, double[] predicted) {
+
+		// Calculate all ordered pairs of instances for ground truth and the number of tied (similar) values for ground truth
+		int tied_gt = 0;
+		ArrayList<Integer[]> orderedPairsGroundTruth = new ArrayList<Integer[]>();
+		for(int i=0;i<groundTruth.length;i++) {
+			for(int j=i+1;j<groundTruth.length;j++) {
+				if(groundTruth[i] > groundTruth[j]) {
+					orderedPairsGroundTruth.add(new Integer[]{i,j});
+				} else if(groundTruth[i] < groundTruth[j]){
+					orderedPairsGroundTruth.add(new Integer[]{j,i});
+				} else {
+					tied_gt++;
+				}
+			}
+		}
+
+		// Calculate all ordered pairs of instances for predicted values and the number of tied (similar) values for predicted values
+		int tied_predicted = 0;
+		ArrayList<Integer[]> orderedPairsPredicted = new ArrayList<Integer[]>();
+		for(int i=0;i<predicted.length;i++) {
+			for(int j=i+1;j<predicted.length;j++) {
+				if(predicted[i] > predicted[j]) {
+					orderedPairsPredicted.add(new Integer[]{i,j});
+				} else if(predicted[i] < predicted[j]) {
+					orderedPairsPredicted.add(new Integer[]{j,i});
+				} else {
+					tied_predicted++;
+				}
+			}
+		}
+
+		// Calculate the number of equal untied pairs for ground truth and predicted values
+		int equal_pairs = 0;
+		for(int i=0;i<orderedPairsGroundTruth.size();i++) {
+			for(int j=0;j<orderedPairsPredicted.size();j++) {
+				if(orderedPairsGroundTruth.get(i)[0].equals(orderedPairsPredicted.get(j)[0]) &&
+				   orderedPairsGroundTruth.get(i)[1].equals(orderedPairsPredicted.get(j)[1])) {
+					equal_pairs++;
+					break;
+				}
+			}
+		}
+
+		// Number of unequal pairs for ground truth and predicted values
+		int unequal_pairs = orderedPairsGroundTruth.size() + orderedPairsPredicted.size() - 2*equal_pairs;
+
+		return (equal_pairs - unequal_pairs) /
+			(Math.sqrt(equal_pairs + unequal_pairs + tied_predicted) * Math.sqrt(equal_pairs + unequal_pairs + tied_gt));
+	}
+}
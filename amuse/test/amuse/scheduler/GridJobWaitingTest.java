@@ -0,0 +1,130 @@
+/**
+ * This file is part of AMUSE framework (Advanced MUsic Explorer).
+ *
+ * Copyright 2006-2020 by code authors
+ *
+ * Created at TU Dortmund, Chair of Algorithm Engineering
+ * (Contact: <http://ls11-www.cs.tu-dortmund.de>)
+ *
+ * AMUSE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AMUSE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with AMUSE. If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  Creation date: 18.10.2026
+ */
+package amuse.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Simulates a grid: jobs running in separate threads write their logs to the task input folder
+ * after random run times, while the scheduler waits for them.
+ *
+ * @author agent
+ * @version $Id$
+ */
+public class GridJobWaitingTest {
+
+	/** Polling interval which is much longer than the simulated jobs, so that only change events end the waiting in time */
+	private static final long LONG_POLLING_INTERVAL = 120000;
+
+	private File inputDir;
+
+	@Before
+	public void createInputDir() throws IOException {
+		inputDir = Files.createTempDirectory("gridJobWaitingTest").toFile();
+	}
+
+	@After
+	public void deleteInputDir() {
+		for(File file : inputDir.listFiles()) {
+			file.delete();
+		}
+		inputDir.delete();
+	}
+
+	@Test
+	public void testFinishedJobsAreNoticedImmediately() throws Exception {
+		int numberOfJobs = 20;
+		Thread[] grid = startJobs(numberOfJobs, 500);
+		long start = System.currentTimeMillis();
+		Scheduler.waitForJobs(inputDir, numberOfJobs, LONG_POLLING_INTERVAL);
+		long waitingTime = System.currentTimeMillis() - start;
+		for(Thread job : grid) {
+			job.join();
+		}
+		assertTrue("Waited " + waitingTime + " ms", waitingTime < LONG_POLLING_INTERVAL / 2);
+		assertEquals(0, inputDir.listFiles().length);
+	}
+
+	@Test
+	public void testHiddenFilesAreNotCounted() throws Exception {
+		File hiddenFile = new File(inputDir, ".nfs0001");
+		hiddenFile.createNewFile();
+		Thread[] grid = startJobs(3, 300);
+		Scheduler.waitForJobs(inputDir, 3, LONG_POLLING_INTERVAL);
+		for(Thread job : grid) {
+			job.join();
+		}
+		assertTrue(hiddenFile.exists());
+		assertEquals(1, inputDir.listFiles().length);
+	}
+
+	@Test
+	public void testJobsFinishedBeforeWaitingAreCounted() throws Exception {
+		for(int i=0;i<5;i++) {
+			writeJobLog(i);
+		}
+		long start = System.currentTimeMillis();
+		Scheduler.waitForJobs(inputDir, 5, LONG_POLLING_INTERVAL);
+		assertTrue(System.currentTimeMillis() - start < LONG_POLLING_INTERVAL / 2);
+	}
+
+	/**
+	 * Starts the simulated jobs, each of them writes its log after a random time
+	 */
+	private Thread[] startJobs(int numberOfJobs, int maxRunTime) {
+		Random random = new Random(numberOfJobs);
+		Thread[] jobs = new Thread[numberOfJobs];
+		for(int i=0;i<numberOfJobs;i++) {
+			final int jobId = i;
+			final int runTime = random.nextInt(maxRunTime);
+			jobs[i] = new Thread(() -> {
+				try {
+					Thread.sleep(runTime);
+					writeJobLog(jobId);
+				} catch(Exception e) {
+					throw new RuntimeException(e);
+				}
+			});
+			jobs[i].start();
+		}
+		return jobs;
+	}
+
+	private void writeJobLog(int jobId) throws IOException {
+		FileWriter writer = new FileWriter(new File(inputDir, "amuse_job.o" + jobId));
+		writer.write("Job " + jobId + " finished\n");
+		writer.close();
+	}
+}
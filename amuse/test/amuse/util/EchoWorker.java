@@ -0,0 +1,77 @@
+/**
+ * This file is part of AMUSE framework (Advanced MUsic Explorer).
+ *
+ * Copyright 2006-2020 by code authors
+ *
+ * Created at TU Dortmund, Chair of Algorithm Engineering
+ * (Contact: <http://ls11-www.cs.tu-dortmund.de>)
+ *
+ * AMUSE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AMUSE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with AMUSE. If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  Creation date: 18.10.2026
+ */
+package amuse.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Stub worker for the tests of {@link WorkerProcess}. Answers "ping" and "echo" (with all fields),
+ * fails on "fail", returns its process name on "id", sleeps on "sleep" (milliseconds) and ends itself on
+ * "crash". "crashOnce" with a file name ends the worker if the file does not exist yet and creates it.
+ *
+ * @author agent
+ * @version $Id$
+ */
+public class EchoWorker {
+
+	public static void main(String[] args) throws Exception {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(System.in));
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(System.out));
+		while(true) {
+			WorkerMessage task;
+			try {
+				task = WorkerMessage.read(in);
+			} catch(EOFException e) {
+				return;
+			}
+			String name = task.getString(0);
+			WorkerMessage reply = new WorkerMessage("ok");
+			if(name.equals("echo")) {
+				reply.fields().addAll(task.fields().subList(1, task.size()));
+			} else if(name.equals("fail")) {
+				reply = new WorkerMessage("error", "Task failed on purpose");
+			} else if(name.equals("id")) {
+				reply.add(ManagementFactory.getRuntimeMXBean().getName());
+			} else if(name.equals("sleep")) {
+				Thread.sleep(Long.parseLong(task.getString(1)));
+			} else if(name.equals("crash")) {
+				System.exit(1);
+			} else if(name.equals("crashOnce")) {
+				if(new File(task.getString(1)).createNewFile()) {
+					System.exit(1);
+				}
+			} else if(!name.equals("ping")) {
+				reply = new WorkerMessage("error", "Unknown task " + name);
+			}
+			reply.write(out);
+			out.flush();
+		}
+	}
+}
@@ -0,0 +1,109 @@
+/**
+ * This file is part of AMUSE framework (Advanced MUsic Explorer).
+ *
+ * Copyright 2006-2020 by code authors
+ *
+ * Created at TU Dortmund, Chair of Algorithm Engineering
+ * (Contact: <http://ls11-www.cs.tu-dortmund.de>)
+ *
+ * AMUSE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AMUSE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with AMUSE. If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  Creation date: 18.10.2026
+ */
+package amuse.util;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link FolderWatcher} with and without change events
+ *
+ * @author agent
+ * @version $Id$
+ */
+public class FolderWatcherTest {
+
+	/** Polling interval which is much longer than the expected waiting time */
+	private static final long LONG_POLLING_INTERVAL = 120000;
+
+	private File folder;
+
+	@Before
+	public void createFolder() throws IOException {
+		folder = Files.createTempDirectory("folderWatcherTest").toFile();
+	}
+
+	@After
+	public void deleteFolder() {
+		for(File file : folder.listFiles()) {
+			file.delete();
+		}
+		folder.delete();
+	}
+
+	@Test
+	public void testNewFileEndsWaiting() throws Exception {
+		FolderWatcher watcher = new FolderWatcher(folder, LONG_POLLING_INTERVAL);
+		try {
+			Thread writer = new Thread(() -> {
+				try {
+					Thread.sleep(200);
+					new File(folder, "job.log").createNewFile();
+				} catch(Exception e) {
+					throw new RuntimeException(e);
+				}
+			});
+			long start = System.currentTimeMillis();
+			writer.start();
+			watcher.awaitChange();
+			assertTrue(System.currentTimeMillis() - start < LONG_POLLING_INTERVAL / 2);
+			writer.join();
+		} finally {
+			watcher.close();
+		}
+	}
+
+	@Test
+	public void testWaitingEndsAfterPollingInterval() throws Exception {
+		FolderWatcher watcher = new FolderWatcher(folder, 300);
+		try {
+			long start = System.currentTimeMillis();
+			watcher.awaitChange();
+			long waitingTime = System.currentTimeMillis() - start;
+			assertTrue("Waited " + waitingTime + " ms", waitingTime >= 250 && waitingTime < 10000);
+		} finally {
+			watcher.close();
+		}
+	}
+
+	@Test
+	public void testUnobservableFolderIsPolled() throws Exception {
+		FolderWatcher watcher = new FolderWatcher(new File(folder, "missing"), 300);
+		try {
+			long start = System.currentTimeMillis();
+			watcher.awaitChange();
+			long waitingTime = System.currentTimeMillis() - start;
+			assertTrue("Waited " + waitingTime + " ms", waitingTime >= 250 && waitingTime < 10000);
+		} finally {
+			watcher.close();
+		}
+	}
+}
@@ -0,0 +1,135 @@
+/**
+ * This file is part of AMUSE framework (Advanced MUsic Explorer).
+ *
+ * Copyright 2006-2020 by code authors
+ *
+ * Created at TU Dortmund, Chair of Algorithm Engineering
+ * (Contact: <http://ls11-www.cs.tu-dortmund.de>)
+ *
+ * AMUSE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * AMUSE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with AMUSE. If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  Creation date: 18.10.2026
+ */
+package amuse.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link WorkerProcess} with the stub worker {@link EchoWorker}. Every test uses its own pool name,
+ * so that the tests do not share workers.
+ *
+ * @author agent
+ * @version $Id$
+ */
+public class WorkerProcessTest {
+
+	private static List<String> getCommand() {
+		List<String> command = new ArrayList<String>();
+		command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+		command.add("-classpath");
+		command.add(System.getProperty("java.class.path"));
+		command.add(EchoWorker.class.getName());
+		return command;
+	}
+
+	private static WorkerMessage call(String name, WorkerMessage task, long timeout) throws IOException {
+		return WorkerProcess.call(name, getCommand(), null, task, timeout);
+	}
+
+	private static String getWorkerId(String name) throws IOException {
+		return call(name, new WorkerMessage("id"), 0).getString(0);
+	}
+
+	@Test
+	public void testEcho() throws IOException {
+		double[][] matrix = {{1.0d, -2.5d, Double.NaN}, {0.0d, 1e-300d, Double.NEGATIVE_INFINITY}};
+		WorkerMessage results = call("echo", new WorkerMessage("echo", "first", "\u00e4\u00f6\u00fc").add(matrix).add(new double[0][0]), 0);
+		assertEquals(4, results.size());
+		assertEquals("first", results.getString(0));
+		assertEquals("\u00e4\u00f6\u00fc", results.getString(1));
+		for(int i=0;i<matrix.length;i++) {
+			assertTrue(Arrays.equals(matrix[i], results.getMatrix(2)[i]));
+		}
+		assertEquals(0, results.getMatrix(3).length);
+	}
+
+	@Test
+	public void testWorkerIsReused() throws IOException {
+		assertEquals(getWorkerId("reuse"), getWorkerId("reuse"));
+	}
+
+	@Test
+	public void testTaskErrorKeepsWorker() throws IOException {
+		String id = getWorkerId("error");
+		try {
+			call("error", new WorkerMessage("fail"), 0);
+			fail("The failed task must raise an exception");
+		} catch(IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("Task failed on purpose"));
+		}
+		assertEquals(id, getWorkerId("error"));
+	}
+
+	@Test
+	public void testCrashedWorkerIsReplaced() throws IOException {
+		String id = getWorkerId("crash");
+		try {
+			call("crash", new WorkerMessage("crash"), 0);
+			fail("A task which crashes every worker must raise an exception");
+		} catch(IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("ended unexpectedly"));
+		}
+		assertFalse(id.equals(getWorkerId("crash")));
+	}
+
+	@Test
+	public void testTaskIsRetriedAfterCrash() throws IOException {
+		File marker = File.createTempFile("workerProcessTest", ".marker");
+		marker.delete();
+		try {
+			assertEquals(0, call("retry", new WorkerMessage("crashOnce", marker.getPath()), 0).size());
+			assertTrue(marker.exists());
+		} finally {
+			marker.delete();
+		}
+	}
+
+	@Test
+	public void testHangingWorkerIsDestroyed() throws IOException {
+		String id = getWorkerId("timeout");
+		long start = System.currentTimeMillis();
+		try {
+			call("timeout", new WorkerMessage("sleep", "60000"), 1000);
+			fail("A task which does not answer in time must raise an exception");
+		} catch(IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("did not answer"));
+		}
+		
+		// Both attempts are stopped after the timeout
+		assertTrue(System.currentTimeMillis() - start < 30000);
+		assertFalse(id.equals(getWorkerId("timeout")));
+		assertEquals(0, call("timeout", new WorkerMessage("sleep", "10"), 1000).size());
+	}
+}
@@ -0,0 +1,163 @@
+# Worker process for AMUSE (amuse.util.PythonWorker): executes tasks sent by AMUSE
+# over stdin and answers on stdout, so that the interpreter and the imported modules
+# are loaded only once.
+#
+# Messages are sequences of fields (big endian): number of fields (int), then for each
+# field either type 0 (byte), length (int) and UTF-8 bytes of a string, or type 1 (byte),
+# rows (int), columns (int) and the values of a matrix row by row (double).
+#
+# Tasks:
+#   ping                                        -> ok
+#   run <working dir> <script> <args>*          runs the script as __main__ with the arguments
+#   call <working dir> <module file> <function> <strings and matrices>*
+#                                               calls the function of the module; matrices are passed as
+#                                               numpy arrays, the returned matrix or tuple of matrices is
+#                                               sent back after ok
+# Failed tasks are answered with error and a message.
+
+import importlib.util
+import os
+import runpy
+import struct
+import sys
+import traceback
+
+try:
+    import numpy as np
+except ImportError:
+    np = None
+
+STRING_FIELD = 0
+MATRIX_FIELD = 1
+
+modules = {}
+
+
+def read_exactly(stream, length):
+    data = stream.read(length)
+    if len(data) != length:
+        raise EOFError()
+    return data
+
+
+def read_message(stream):
+    fields = []
+    (number_of_fields,) = struct.unpack('>i', read_exactly(stream, 4))
+    for _ in range(number_of_fields):
+        (field_type,) = struct.unpack('>b', read_exactly(stream, 1))
+        if field_type == STRING_FIELD:
+            (length,) = struct.unpack('>i', read_exactly(stream, 4))
+            fields.append(read_exactly(stream, length).decode('utf-8'))
+        elif field_type == MATRIX_FIELD:
+            rows, columns = struct.unpack('>ii', read_exactly(stream, 8))
+            data = read_exactly(stream, rows * columns * 8)
+            if np is not None:
+                fields.append(np.frombuffer(data, dtype='>f8').astype(np.float64).reshape(rows, columns))
+            else:
+                values = struct.unpack('>%dd' % (rows * columns), data)
+                fields.append([list(values[i * columns:(i + 1) * columns]) for i in range(rows)])
+        else:
+            raise ValueError('Unknown field type %d' % field_type)
+    return fields
+
+
+def write_message(stream, fields):
+    stream.write(struct.pack('>i', len(fields)))
+    for field in fields:
+        if isinstance(field, str):
+            data = field.encode('utf-8')
+            stream.write(struct.pack('>bi', STRING_FIELD, len(data)))
+            stream.write(data)
+        else:
+            if np is not None:
+                matrix = np.asarray(field, dtype='>f8')
+                if matrix.ndim == 1:
+                    matrix = matrix.reshape(1, -1)
+                rows, columns = matrix.shape
+                stream.write(struct.pack('>bii', MATRIX_FIELD, rows, columns))
+                stream.write(matrix.tobytes())
+            else:
+                rows = len(field)
+                columns = len(field[0]) if rows > 0 else 0
+                stream.write(struct.pack('>bii', MATRIX_FIELD, rows, columns))
+                for row in field:
+                    stream.write(struct.pack('>%dd' % columns, *row))
+    stream.flush()
+
+
+def load_module(path):
+    path = os.path.abspath(path)
+    if path not in modules:
+        folder = os.path.dirname(path)
+        if folder not in sys.path:
+            sys.path.insert(0, folder)
+        name = 'amuse_worker_' + os.path.splitext(os.path.basename(path))[0]
+        spec = importlib.util.spec_from_file_location(name, path)
+        module = importlib.util.module_from_spec(spec)
+        spec.loader.exec_module(module)
+        modules[path] = module
+    return modules[path]
+
+
+def run_script(script, arguments):
+    script = os.path.abspath(script)
+    folder = os.path.dirname(script)
+
+    # Modules next to the script may change between the runs, installed packages stay loaded
+    for name, module in list(sys.modules.items()):
+        module_file = getattr(module, '__file__', None)
+        if module_file is not None and os.path.dirname(os.path.abspath(module_file)) == folder:
+            del sys.modules[name]
+    sys.argv = [script] + arguments
+    sys.path.insert(0, folder)
+    try:
+        runpy.run_path(script, run_name='__main__')
+    except SystemExit as e:
+        if e.code not in (None, 0):
+            raise RuntimeError('Script exited with %s' % e.code)
+    finally:
+        sys.path.remove(folder)
+
+
+def execute(fields):
+    task = fields[0]
+    if task == 'ping':
+        return []
+    os.chdir(fields[1])
+    if task == 'run':
+        run_script(fields[2], fields[3:])
+        return []
+    if task == 'call':
+        function = getattr(load_module(fields[2]), fields[3])
+        results = function(*fields[4:])
+        if results is None:
+            return []
+        if isinstance(results, tuple):
+            return list(results)
+        return [results]
+    raise ValueError('Unknown task ' + str(task))
+
+
+def main():
+    requests = sys.stdin.buffer
+    responses = os.fdopen(os.dup(sys.stdout.fileno()), 'wb')
+
+    # Everything printed by the tasks goes to stderr, stdout is reserved for the answers
+    os.dup2(sys.stderr.fileno(), sys.stdout.fileno())
+    sys.stdout = sys.stderr
+
+    while True:
+        try:
+            fields = read_message(requests)
+        except EOFError:
+            return
+        try:
+            answer = ['ok'] + execute(fields)
+        except Exception as e:
+            traceback.print_exc()
+            answer = ['error', '%s: %s' % (type(e).__name__, e)]
+        write_message(responses, answer)
+
+
+if __name__ == '__main__':
+    main()
@@ -13,6 +13,34 @@ import tensorflow as tf
 from tensorflow.contrib.learn.python.learn.learn_io.data_feeder import setup_train_data_feeder
 from keras.models import load_model
 
+# model loaded by the last classification in this process, with the modification time of its file
+# and the graph it was loaded into
+loaded_model = None
+loaded_model_key = None
+loaded_model_graph = None
+
+
+def classify(model_path, window_size, classification_data):
+    # called by AMUSE in a worker process (amuse.util.PythonWorker), numbers are passed as strings
+    global loaded_model, loaded_model_key, loaded_model_graph
+    window_size = int(window_size)
+    
+    num_partitions = classification_data.shape[0]
+    if window_size == -1:
+        window_size = classification_data.shape[1]
+    classification_data = np.reshape(classification_data, (num_partitions, -1, window_size, 1))
+    
+    model_key = (model_path, os.path.getmtime(model_path))
+    # keras_train clears the session for each training, which discards the graph of the loaded model
+    if model_key != loaded_model_key or loaded_model_graph is not tf.get_default_graph():
+        K.clear_session()
+        loaded_model = load_model(model_path)
+        loaded_model_key = model_key
+        loaded_model_graph = tf.get_default_graph()
+    
+    return loaded_model.predict(classification_data)
+
+
 if __name__ == '__main__':
     
     if len(sys.argv) == 5:
@@ -20,7 +48,7 @@ if __name__ == '__main__':
         input_path = sys.argv[1]
         model_path = sys.argv[2]
         output_path = sys.argv[3]
-        window_size = int(sys.argv[4])
+        window_size = sys.argv[4]
         
         # load classifier input
         file = arff.load(open(input_path))
@@ -34,14 +62,7 @@ if __name__ == '__main__':
             divide = attribute_names.index('Id')
             classification_data = data[:, :divide]
         
-        num_partitions = classification_data.shape[0]
-        if window_size == -1:
-            window_size = classification_data.shape[1]
-        classification_data = np.reshape(classification_data, (num_partitions, -1, window_size, 1))
-        
-        model = load_model(model_path)
-        
-        result = model.predict(classification_data)
+        result = classify(model_path, window_size, classification_data)
         
         num_classes = result.shape[1]
         # save the results
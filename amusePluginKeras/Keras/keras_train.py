@@ -1,22 +1,60 @@
 import sys
 
 import arff
+import importlib.util
 import os
 import numpy as np
 import keras.backend as K
 import tensorflow as tf
-import net
 from tensorflow.contrib.learn.python.learn.learn_io.data_feeder import setup_train_data_feeder
 
+
+def load_net(net_path):
+    # the net script may change between trainings, so it is loaded for every training
+    spec = importlib.util.spec_from_file_location('net', net_path)
+    net = importlib.util.module_from_spec(spec)
+    spec.loader.exec_module(net)
+    return net
+
+
+def train(net_path, output_path, epochs, batch_size, window_size, optimizer, loss, train_data, labels):
+    # called by AMUSE in a worker process (amuse.util.PythonWorker), numbers are passed as strings
+    
+    # the worker process is used for many trainings: discard the graph of the previous model, so that
+    # memory and graph size do not grow (keras_classify reloads its model after this)
+    K.clear_session()
+    
+    epochs = int(epochs)
+    batch_size = int(batch_size)
+    window_size = int(window_size)
+    
+    num_partitions = train_data.shape[0]
+    num_classes = labels.shape[1]
+    if window_size == -1:
+        window_size = train_data.shape[1]
+    
+    train_data = np.reshape(train_data, (num_partitions, -1, window_size, 1))
+    
+    num_windows = train_data.shape[1]
+    input_shape = (num_windows, window_size, 1)
+    
+    model = load_net(net_path).build(input_shape, num_classes)
+    model.compile(optimizer=optimizer, loss=loss)
+    
+    history = model.fit(train_data, labels, epochs=epochs, batch_size=batch_size)
+    
+    model.save(output_path)
+
+
 if __name__ == '__main__':
     
     if len(sys.argv) == 8:
         # read arguments
         input_path = sys.argv[1]
         output_path = sys.argv[2]
-        epochs = int(sys.argv[3])
-        batch_size = int(sys.argv[4])
-        window_size = int(sys.argv[5])
+        epochs = sys.argv[3]
+        batch_size = sys.argv[4]
+        window_size = sys.argv[5]
         optimizer = sys.argv[6]
         loss = sys.argv[7]
         
@@ -32,22 +70,8 @@ if __name__ == '__main__':
         train_data = data[:, :divide-1]
         labels = data[:, divide+1:]
         
-        num_partitions = train_data.shape[0]
-        num_classes = labels.shape[1]
-        if window_size == -1:
-            window_size = train_data.shape[1]
-        
-        train_data = np.reshape(train_data, (num_partitions, -1, window_size, 1))
-        
-        num_windows = train_data.shape[1]
-        input_shape = (num_windows, window_size, 1)
-        
-        model = net.build(input_shape, num_classes)
-        model.compile(optimizer=optimizer, loss=loss)
-        
-        history = model.fit(train_data, labels, epochs=epochs, batch_size=batch_size)
-        
-        model.save(output_path)
+        net_path = os.path.join(os.path.dirname(os.path.abspath(__file__)), 'net.py')
+        train(net_path, output_path, epochs, batch_size, window_size, optimizer, loss, train_data, labels)
         
     else:
         print("Not enough parameters used!!!")
@@ -26,22 +26,22 @@ package amuse.nodes.classifier.methods.supervised;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Collections;
 
 import org.apache.log4j.Level;
 
 import amuse.data.io.DataSet;
 import amuse.data.io.DataSetInput;
+import amuse.data.io.attributes.Attribute;
 import amuse.data.io.attributes.NumericAttribute;
 import amuse.interfaces.nodes.NodeException;
 import amuse.interfaces.nodes.methods.AmuseTask;
 import amuse.nodes.classifier.ClassificationConfiguration;
 import amuse.nodes.classifier.ClassifierNodeScheduler;
 import amuse.nodes.classifier.interfaces.ClassifierInterface;
-import amuse.preferences.AmusePreferences;
-import amuse.preferences.KeysStringValue;
 import amuse.util.AmuseLogger;
-import amuse.util.ExternalProcessBuilder;
+import amuse.util.PythonWorker;
 
 /**
  * Adapter for classification with neural networks using Keras
@@ -63,63 +63,40 @@ public class KerasAdapter extends AmuseTask implements ClassifierInterface {
 
 	@Override
 	public void classify(String pathToModelFile) throws NodeException {
-		// set up working directory
-		File workingDirectory = new File(System.getenv("AMUSEHOME") + File.separator + "tools" + File.separator + "Keras" + File.separator + "workingDirectory");
-		
-		// clean working directory
-		cleanFolder(workingDirectory);
-		
-		// save classifier input in working directory
+		// the classifier input is passed to Keras as matrix, without writing it to the working directory
 		DataSet dataSetToClassify = ((DataSetInput)((ClassificationConfiguration)this.correspondingScheduler.
 				getConfiguration()).getInputToClassify()).getDataSet();
-		String inputPath = workingDirectory + File.separator + "classifierInput.arff";
-		String outputPath = workingDirectory + File.separator + "classifierOutput.arff";
-		try {
-			dataSetToClassify.saveToArffFile(new File(inputPath));
-		} catch(IOException e) {
-			cleanFolder(workingDirectory);
-			throw new NodeException("Saving of classifier input for Keras failed: " + e.getMessage());
+		int numberOfFeatures = dataSetToClassify.getAttributeNames().indexOf("Id");
+		if(numberOfFeatures == -1) {
+			numberOfFeatures = dataSetToClassify.getAttributeCount();
+		}
+		double[][] classificationData = new double[dataSetToClassify.getValueCount()][numberOfFeatures];
+		for(int i = 0; i < numberOfFeatures; i++) {
+			Attribute attribute = dataSetToClassify.getAttribute(i);
+			for(int j = 0; j < classificationData.length; j++) {
+				Object value = attribute.getValueAt(j);
+				if(!(value instanceof Number)) {
+					throw new NodeException("Keras classifier input attribute '" + attribute.getName() + "' is not numeric");
+				}
+				classificationData[j][i] = ((Number)value).doubleValue();
+			}
 		}
 		
-		// prepare the classifier script and start it
+		// classify with a python worker, which keeps Keras and the last model loaded between the classifications
+		String kerasFolder = System.getenv("AMUSEHOME") + File.separator + "tools" + File.separator + "Keras";
+		int windowSize = ((ClassificationConfiguration)this.correspondingScheduler.getConfiguration()).getNumberOfValuesPerWindow();
+		double[][] results;
+		AmuseLogger.write(this.getClass().getName(), Level.DEBUG, "...starting classification with Keras");
 		try {
-			List<String> commands = new ArrayList<String>();
-			commands.add(AmusePreferences.get(KeysStringValue.PYTHON_PATH));
-			commands.add(System.getenv("AMUSEHOME") + File.separator + "tools" + File.separator + "Keras" + File.separator + "keras_classify.py");
-			commands.add(inputPath);
-			commands.add(pathToModelFile);
-			commands.add(outputPath);
-			int windowSize = ((ClassificationConfiguration)this.correspondingScheduler.getConfiguration()).getNumberOfValuesPerWindow();
-			commands.add(Integer.toString(windowSize));
-			ExternalProcessBuilder trainer = new ExternalProcessBuilder(commands);
-			trainer.setWorkingDirectory(workingDirectory);
-			//segmenter.setEnv("LD_LIBRARY_PATH", AmusePreferences.get(KeysStringValue.LD_LIBRARY_PATH));
-			trainer.redirectOutputToAMUSE();
-			Process classificationProcess = trainer.start();
-			AmuseLogger.write(this.getClass().getName(), Level.DEBUG, "...classification process started");
-			classificationProcess.waitFor();
+			results = PythonWorker.callFunction(new File(kerasFolder), kerasFolder + File.separator + "keras_classify.py", "classify",
+					Arrays.asList(pathToModelFile, Integer.toString(windowSize)), Collections.singletonList(classificationData)).get(0);
 		} catch(IOException e) {
-			cleanFolder(workingDirectory);
-			throw new NodeException("Start of Keras classification failed: " + e.getMessage());
-		} catch(InterruptedException e) {
-			cleanFolder(workingDirectory);
 			throw new NodeException("Keras classification failed: " + e.getMessage());
 		}
 		
-		// read the results
-		DataSet results = null;
-		try {
-			results = new DataSet(new File(outputPath));
-		} catch (IOException e) {
-			cleanFolder(workingDirectory);
-			throw new NodeException("Reading the results of Keras classification failed: " + e.getMessage());
-		}
-		// clean the working directory
-		cleanFolder(workingDirectory);
-		
 		// convert the result to Amuse format and save it in dataSetToClassify
 		int numberOfAttributes = dataSetToClassify.getAttributeCount();
-		int numberOfCategories =  results.getAttributeCount();
+		int numberOfCategories = results.length == 0 ? 0 : results[0].length;
 		((ClassifierNodeScheduler)this.correspondingScheduler).setNumberOfCategories(numberOfCategories);
 		String[] categoryNames = new String[numberOfCategories];
 		if(dataSetToClassify.getAttributeNames().contains("NumberOfCategories")) {
@@ -134,21 +111,10 @@ public class KerasAdapter extends AmuseTask implements ClassifierInterface {
 		for(String categoryName : categoryNames) {
 			dataSetToClassify.addAttribute(new NumericAttribute("Predicted_" + categoryName, new ArrayList<Double>()));
 		}
-		for(int i = 0; i < results.getAttributeCount(); i++) {
-			for(int j = 0; j < results.getValueCount(); j++) {
-				dataSetToClassify.getAttribute(numberOfAttributes + i).addValue(results.getAttribute(i).getValueAt(j));
+		for(int i = 0; i < numberOfCategories; i++) {
+			for(int j = 0; j < results.length; j++) {
+				dataSetToClassify.getAttribute(numberOfAttributes + i).addValue(results[j][i]);
 			}
 		}
 	}
-
-	private void cleanFolder(File folder) {
-		File[] filesToDelete = folder.listFiles();
-		if(filesToDelete.length != 0) {
-			for(int j=0;j<filesToDelete.length;j++) {
-				if(!filesToDelete[j].delete()) {
-					AmuseLogger.write(this.getClass().getName(),Level.DEBUG, "Could not remove the file: " + filesToDelete[j].getAbsolutePath());
-				}
-			}
-		} 
-	}
 }
@@ -26,22 +26,21 @@ package amuse.nodes.trainer.methods.supervised;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.log4j.Level;
 
 import amuse.data.io.DataSet;
 import amuse.data.io.DataSetInput;
+import amuse.data.io.attributes.Attribute;
 import amuse.interfaces.nodes.NodeException;
 import amuse.interfaces.nodes.methods.AmuseTask;
 import amuse.nodes.trainer.TrainingConfiguration;
 import amuse.nodes.trainer.interfaces.TrainerInterface;
-import amuse.preferences.AmusePreferences;
-import amuse.preferences.KeysStringValue;
 import amuse.scheduler.gui.algorithm.Algorithm;
 import amuse.util.AmuseLogger;
-import amuse.util.ExternalProcessBuilder;
-import amuse.util.FileOperations;
+import amuse.util.PythonWorker;
 
 /**
  * Adapter for training of neural networks with Keras
@@ -80,88 +79,50 @@ public class KerasAdapter extends AmuseTask implements TrainerInterface {
 
 	@Override
 	public void trainModel(String outputModel) throws NodeException {
-		// set up working directory
-		File workingDirectory = new File(System.getenv("AMUSEHOME") + File.separator + "tools" + File.separator + "Keras" + File.separator + "workingDirectory");
-		
-		// clean working directory
-		cleanFolder(workingDirectory);
-		
-		// save trainer input in working directory
+		// the trainer input is passed to Keras as matrices, without writing it to the working directory
 		DataSet trainingDataSet = ((DataSetInput)((TrainingConfiguration)this.correspondingScheduler.getConfiguration()).getGroundTruthSource()).getDataSet();
-		String inputPath = workingDirectory + File.separator + "trainerInput.arff";
-		String outputPath = workingDirectory + File.separator + "output.mod";
-		try {
-			trainingDataSet.saveToArffFile(new File(inputPath));
-		} catch(IOException e) {
-			cleanFolder(workingDirectory);
-			throw new NodeException("Saving of trainer input for Keras failed: " + e.getMessage());
-		}
-		
-		// copy the python script that describes the desired neural network
-		String workingNetPath = System.getenv("AMUSEHOME") + File.separator + "tools" + File.separator + "Keras" + File.separator + "net.py";
-		File workingNetFile = new File(workingNetPath);
-		try {
-			FileOperations.copy(new File(netPath), workingNetFile);
-		} catch (IOException e) {
-			throw new NodeException("Could not copy the python script with the net architecutre: " + e.getMessage());
+		int divide = trainingDataSet.getAttributeNames().indexOf("NumberOfCategories");
+		if(divide < 1) {
+			throw new NodeException("Keras training input does not contain the attribute NumberOfCategories");
 		}
+		double[][] trainData = toMatrix(trainingDataSet, 0, divide - 1);
+		double[][] labels = toMatrix(trainingDataSet, divide + 1, trainingDataSet.getAttributeCount());
 		
-		// prepare the trainer script and start it
+		// train the net with a python worker, which keeps Keras loaded between the trainings
+		String kerasFolder = System.getenv("AMUSEHOME") + File.separator + "tools" + File.separator + "Keras";
+		int windowSize = ((TrainingConfiguration)this.correspondingScheduler.getConfiguration()).getNumberOfValuesPerWindow();
+		List<String> arguments = new ArrayList<String>();
+		arguments.add(netPath);
+		arguments.add(outputModel);
+		arguments.add(Integer.toString(epochs));
+		arguments.add(Integer.toString(batchSize));
+		arguments.add(Integer.toString(windowSize));
+		arguments.add(optimizer);
+		arguments.add(loss);
+		AmuseLogger.write(this.getClass().getName(), Level.DEBUG, "...starting training with Keras");
 		try {
-			
-			List<String> commands = new ArrayList<String>();
-			
-			// add the commands
-			commands.add(AmusePreferences.get(KeysStringValue.PYTHON_PATH));
-			commands.add(System.getenv("AMUSEHOME") + File.separator + "tools" + File.separator + "Keras" + File.separator + "keras_train.py");
-			commands.add(inputPath);
-			commands.add(outputPath);
-			commands.add(Integer.toString(epochs));
-			commands.add(Integer.toString(batchSize));
-			int windowSize = ((TrainingConfiguration)this.correspondingScheduler.getConfiguration()).getNumberOfValuesPerWindow();
-			commands.add(Integer.toString(windowSize));
-			commands.add(optimizer);
-			commands.add(loss);
-			
-			ExternalProcessBuilder trainer = new ExternalProcessBuilder(commands);
-			trainer.setWorkingDirectory(workingDirectory);
-			//segmenter.setEnv("LD_LIBRARY_PATH", AmusePreferences.get(KeysStringValue.LD_LIBRARY_PATH));
-			trainer.redirectOutputToAMUSE();
-			Process trainingProcess = trainer.start();
-			AmuseLogger.write(this.getClass().getName(), Level.DEBUG, "...training process started");
-			trainingProcess.waitFor();
-			
+			PythonWorker.callFunction(new File(kerasFolder), kerasFolder + File.separator + "keras_train.py", "train",
+					arguments, Arrays.asList(trainData, labels));
 		} catch(IOException e) {
-			cleanFolder(workingDirectory);
-			throw new NodeException("Start of Keras training failed: " + e.getMessage());
-		} catch(InterruptedException e) {
-			cleanFolder(workingDirectory);
 			throw new NodeException("Keras training failed: " + e.getMessage());
 		}
-		// load the output and save it to the model database
-		try {
-			FileOperations.copy(new File(outputPath), new File(outputModel));
-		} catch (IOException e) {
-			cleanFolder(workingDirectory);
-			throw new NodeException("Reading the results of Keras training failed: " + e.getMessage());
-		}
-		
-		// clean working directory
-		cleanFolder(workingDirectory);
-		// remove the working net file
-		if(!workingNetFile.delete()) {
-			AmuseLogger.write(this.getClass().getName(),Level.DEBUG, "Could not remove the file: " + workingNetFile.getAbsolutePath());
-		}
 	}
 
-	private void cleanFolder(File folder) {
-		File[] filesToDelete = folder.listFiles();
-		if(filesToDelete.length != 0) {
-			for(int j=0;j<filesToDelete.length;j++) {
-				if(!filesToDelete[j].delete()) {
-					AmuseLogger.write(this.getClass().getName(),Level.DEBUG, "Could not remove the file: " + filesToDelete[j].getAbsolutePath());
+	/**
+	 * @return The values of the attributes from firstAttribute (inclusive) to lastAttribute (exclusive) as rows of a matrix
+	 */
+	private double[][] toMatrix(DataSet dataSet, int firstAttribute, int lastAttribute) throws NodeException {
+		double[][] matrix = new double[dataSet.getValueCount()][lastAttribute - firstAttribute];
+		for(int i = firstAttribute; i < lastAttribute; i++) {
+			Attribute attribute = dataSet.getAttribute(i);
+			for(int j = 0; j < matrix.length; j++) {
+				Object value = attribute.getValueAt(j);
+				if(!(value instanceof Number)) {
+					throw new NodeException("Keras training input attribute '" + attribute.getName() + "' is not numeric");
 				}
+				matrix[j][i - firstAttribute] = ((Number)value).doubleValue();
 			}
-		} 
+		}
+		return matrix;
 	}
 }
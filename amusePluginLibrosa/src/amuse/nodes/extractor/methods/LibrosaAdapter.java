@@ -46,10 +46,8 @@ import amuse.interfaces.nodes.NodeException;
 import amuse.interfaces.nodes.methods.AmuseTask;
 import amuse.nodes.extractor.ExtractionConfiguration;
 import amuse.nodes.extractor.interfaces.ExtractorInterface;
-import amuse.preferences.AmusePreferences;
-import amuse.preferences.KeysStringValue;
 import amuse.util.AmuseLogger;
-import amuse.util.ExternalProcessBuilder;
+import amuse.util.PythonWorker;
 
 /**
  * Adapter to song structure analyser.
@@ -239,38 +237,19 @@ public class LibrosaAdapter extends AmuseTask implements ExtractorInterface {
 					folder.toString());
 		}
 
-		// Start Librosa
+		// Run the Librosa script with a python worker, which keeps Librosa loaded between the music files
+		String inputBatchPath = properties.getProperty("inputExtractorBatch");
+		// if it is a relative path the input batch is in the extractor folder
+	    if(!inputBatchPath.startsWith(File.separator)) {
+	    	inputBatchPath = properties.getProperty("extractorFolder") + File.separator + inputBatchPath;
+	    }
 		try {
-			List<String> commands = new ArrayList<String>();
-			commands.add(AmusePreferences.get(KeysStringValue.PYTHON_PATH));
-			String inputBatchPath = properties.getProperty("inputExtractorBatch");
-			// if it is a relative path the input batch is in the extractor folder
-		    if(!inputBatchPath.startsWith(File.separator)) {
-		    	inputBatchPath = properties.getProperty("extractorFolder") + File.separator + inputBatchPath;
-		    }
-			commands.add(inputBatchPath);
-			commands.add(this.musicFile);
-			commands.add(folder.getAbsolutePath());
-			ExternalProcessBuilder librosa = new ExternalProcessBuilder(commands);
-			librosa.setWorkingDirectory(new File(properties.getProperty("extractorFolder")));
-			Process pc = librosa.start();
-
-			pc.waitFor();
-			// DEBUG Show the runtime outputs
-			/*String s = null; 
-			java.io.BufferedReader stdInput = new java.io.BufferedReader(new java.io.InputStreamReader(pc.getInputStream()));
-			java.io.BufferedReader stdError = new java.io.BufferedReader(new java.io.InputStreamReader(pc.getErrorStream()));
-			System.out.println("Here is the standard output of the command:\n"); 
-			while ((s = stdInput.readLine()) != null) { System.out.println(s); } 
-			System.out.println("Here is the standard error of the command (if any):\n"); 
-			while ((s = stdError.readLine()) != null) { System.out.println(s); }*/
+			PythonWorker.runScript(new File(properties.getProperty("extractorFolder")), inputBatchPath,
+					this.musicFile, folder.getAbsolutePath());
 			AmuseLogger.write(this.getClass().getName(), Level.DEBUG, "...Extraction succeeded");
 		} catch (IOException e) {
 			printStackTrace(e);
-			//e.printStackTrace();
 			throw new NodeException("Extraction with Librosa failed: " + e.getMessage());
-		} catch (InterruptedException e) {
-			throw new NodeException("Extraction with Librosa interrupted! " + e.getMessage());
 		}
 
 		// Convert the results to Amuse ARFF